@@ -0,0 +1,82 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds the consent XDM inputs shared by the benchmarks.
+ */
+final class BenchmarkData {
+
+	static final String TIMESTAMP = "2019-09-23T18:15:45Z";
+	static final String OTHER_TIMESTAMP = "2020-07-23T18:16:45Z";
+
+	private static final String[] PURPOSES = {
+		"collect",
+		"adID",
+		"share",
+		"personalize",
+		"marketing",
+		"idSpecific",
+		"content",
+		"preferred",
+	};
+
+	private BenchmarkData() {}
+
+	/**
+	 * Creates a consent XDM map, for example with purposeCount 2 and depth 2:
+	 * {"consents": {"collect": {"val": "y", "details": {"val": "y"}}, "adID": {...}, "metadata": {"time": timestamp}}}
+	 *
+	 * @param purposeCount the number of purposes in the map, purposes beyond the well known ones are named purposeN
+	 * @param depth        the nesting depth of each purpose, 1 for {"val": value}
+	 * @param value        the consent value of each purpose
+	 * @param timestamp    the metadata time, not added if null
+	 * @return the consent XDM map
+	 */
+	static Map<String, Object> createXDMMap(
+		final int purposeCount,
+		final int depth,
+		final String value,
+		final String timestamp
+	) {
+		final Map<String, Object> consents = new HashMap<>();
+
+		for (int i = 0; i < purposeCount; i++) {
+			final String purpose = i < PURPOSES.length ? PURPOSES[i] : "purpose" + i;
+			consents.put(purpose, createPurpose(depth, value));
+		}
+
+		if (timestamp != null) {
+			final Map<String, Object> metadata = new HashMap<>();
+			metadata.put(ConsentConstants.EventDataKey.TIME, timestamp);
+			consents.put(ConsentConstants.EventDataKey.METADATA, metadata);
+		}
+
+		final Map<String, Object> xdmMap = new HashMap<>();
+		xdmMap.put(ConsentConstants.EventDataKey.CONSENTS, consents);
+		return xdmMap;
+	}
+
+	private static Map<String, Object> createPurpose(final int depth, final String value) {
+		final Map<String, Object> purpose = new HashMap<>();
+		purpose.put("val", value);
+
+		if (depth > 1) {
+			purpose.put("details", createPurpose(depth - 1, value));
+		}
+
+		return purpose;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CompactMapBenchmark {
+
+	private static final String[] KEYS = { "val", "time", "metadata" };
+
+	@Param({ "1", "3" })
+	public int size;
+
+	private Map<String, Object> hashMap;
+	private Map<String, Object> compactMap;
+	private Map<String, Object> otherHashMap;
+	private Map<String, Object> otherCompactMap;
+
+	@Setup
+	public void setup() {
+		hashMap = fill(new HashMap<String, Object>());
+		compactMap = fill(new CompactMap<String, Object>(size));
+		otherHashMap = fill(new HashMap<String, Object>());
+		otherCompactMap = fill(new CompactMap<String, Object>(size));
+	}
+
+	@Benchmark
+	public Map<String, Object> createHashMap() {
+		return fill(new HashMap<String, Object>());
+	}
+
+	@Benchmark
+	public Map<String, Object> createCompactMap() {
+		return fill(new CompactMap<String, Object>(size));
+	}
+
+	@Benchmark
+	public Object getHashMap() {
+		return hashMap.get(KEYS[size - 1]);
+	}
+
+	@Benchmark
+	public Object getCompactMap() {
+		return compactMap.get(KEYS[size - 1]);
+	}
+
+	@Benchmark
+	public void iterateHashMap(final Blackhole blackhole) {
+		for (final Map.Entry<String, Object> entry : hashMap.entrySet()) {
+			blackhole.consume(entry.getValue());
+		}
+	}
+
+	@Benchmark
+	public void iterateCompactMap(final Blackhole blackhole) {
+		for (final Map.Entry<String, Object> entry : compactMap.entrySet()) {
+			blackhole.consume(entry.getValue());
+		}
+	}
+
+	@Benchmark
+	public boolean equalsHashMap() {
+		return hashMap.equals(otherHashMap);
+	}
+
+	@Benchmark
+	public boolean equalsCompactMap() {
+		return compactMap.equals(otherCompactMap);
+	}
+
+	private Map<String, Object> fill(final Map<String, Object> map) {
+		for (int i = 0; i < size; i++) {
+			map.put(KEYS[i], "y");
+		}
+
+		return map;
+	}
+}
@@ -0,0 +1,63 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConsentDecisionIndexBenchmark {
+
+	@Param({ "1", "8", "32" })
+	public int purposeCount;
+
+	private Consents consents;
+	private ConsentDecisionIndex index;
+
+	@Setup
+	public void setup() {
+		consents = new Consents(BenchmarkData.createXDMMap(purposeCount, 1, "y", BenchmarkData.TIMESTAMP));
+		index = new ConsentDecisionIndex(consents);
+	}
+
+	@Benchmark
+	public ConsentDecisionIndex compile() {
+		return new ConsentDecisionIndex(consents);
+	}
+
+	@Benchmark
+	public ConsentStatus getStatus() {
+		return index.getStatus(ConsentPurpose.COLLECT);
+	}
+
+	/**
+	 * Baseline, the map walk done by consumers reading the consents from the XDM shared state.
+	 */
+	@Benchmark
+	public Object mapLookup() {
+		final Map<String, Object> consentsMap = (Map<String, Object>) consents
+			.asXDMMap()
+			.get(ConsentConstants.EventDataKey.CONSENTS);
+		final Map<String, Object> collect = (Map<String, Object>) consentsMap.get("collect");
+		return collect.get(ConsentConstants.EventDataKey.VALUE);
+	}
+}
@@ -0,0 +1,82 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Cost of recording a consents change in the {@link ConsentHistory}, and of querying the consents at a given time from
+ * a history holding {@code recordCount} changes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConsentHistoryBenchmark {
+
+	@Param({ "100", "400" })
+	public int recordCount;
+
+	private File directory;
+	private ConsentHistory history;
+	private Consents[] consents;
+	private long timestamp;
+	private int next;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = File.createTempFile("consent-history", "");
+		directory.delete();
+		directory.mkdirs();
+
+		history = new ConsentHistory(new File(directory, "history"));
+		consents =
+			new Consents[] {
+				new Consents(BenchmarkData.createXDMMap(8, 2, "y", BenchmarkData.TIMESTAMP)),
+				new Consents(BenchmarkData.createXDMMap(8, 2, "n", BenchmarkData.OTHER_TIMESTAMP)),
+			};
+
+		for (int i = 0; i < recordCount; i++) {
+			history.record(consents[i % 2], ++timestamp, ConsentSource.UPDATE);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		for (final File file : directory.listFiles()) {
+			file.delete();
+		}
+
+		directory.delete();
+	}
+
+	@Benchmark
+	public void record() {
+		history.record(consents[next++ % 2], ++timestamp, ConsentSource.UPDATE);
+	}
+
+	@Benchmark
+	public Consents getConsentsAt() {
+		next = (next + 7919) % recordCount;
+		return history.getConsentsAt(next + 1);
+	}
+}
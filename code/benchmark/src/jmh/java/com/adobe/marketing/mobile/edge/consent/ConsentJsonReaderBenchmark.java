@@ -0,0 +1,54 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.concurrent.TimeUnit;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of loading the consents JSON persisted in the legacy {@code SharedPreferences} store, comparing the
+ * {@link JSONObject} tree conversion with the streaming {@link ConsentJsonReader}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConsentJsonReaderBenchmark {
+
+	@Param({ "8", "32" })
+	public int purposeCount;
+
+	private String json;
+
+	@Setup
+	public void setup() {
+		json = new JSONObject(BenchmarkData.createXDMMap(purposeCount, 2, "y", BenchmarkData.TIMESTAMP)).toString();
+	}
+
+	@Benchmark
+	public Consents jsonObject() throws JSONException {
+		return new Consents(Utility.toMap(new JSONObject(json)));
+	}
+
+	@Benchmark
+	public Consents streaming() {
+		return ConsentJsonReader.readConsents(json);
+	}
+}
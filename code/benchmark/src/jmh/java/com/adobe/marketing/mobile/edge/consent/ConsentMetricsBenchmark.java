@@ -0,0 +1,55 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConsentMetricsBenchmark {
+
+	@Param({ "false", "true" })
+	public boolean enabled;
+
+	@Setup
+	public void setup() {
+		ConsentMetrics.setEnabled(enabled);
+	}
+
+	@TearDown
+	public void teardown() {
+		ConsentMetrics.setEnabled(false);
+		ConsentMetrics.reset();
+	}
+
+	@Benchmark
+	public void increment() {
+		ConsentMetrics.increment(ConsentMetrics.Counter.EDGE_UPDATES_DISPATCHED);
+	}
+
+	@Benchmark
+	public void time() {
+		if (ConsentMetrics.isEnabled()) {
+			ConsentMetrics.stop(ConsentMetrics.Timer.HANDLE_CONSENT_UPDATE, System.nanoTime());
+		}
+	}
+}
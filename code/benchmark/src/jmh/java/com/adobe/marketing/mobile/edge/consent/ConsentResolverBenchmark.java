@@ -0,0 +1,78 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConsentResolverBenchmark {
+
+	@Param({ "1", "8", "32" })
+	public int purposeCount;
+
+	private Consents defaultConsents;
+	private Consents userConsents;
+	private Consents[] updates;
+	private ConsentResolver resolver;
+	private int updateIndex;
+
+	@Setup
+	public void setup() {
+		defaultConsents = new Consents(BenchmarkData.createXDMMap(purposeCount, 1, "n", null));
+		userConsents = new Consents(BenchmarkData.createXDMMap(purposeCount, 1, "y", BenchmarkData.TIMESTAMP));
+		// a typical update changes a single purpose, alternate its value so every update changes the current consents
+		updates =
+			new Consents[] {
+				new Consents(BenchmarkData.createXDMMap(1, 1, "n", BenchmarkData.OTHER_TIMESTAMP)),
+				new Consents(BenchmarkData.createXDMMap(1, 1, "y", BenchmarkData.TIMESTAMP)),
+			};
+
+		resolver = new ConsentResolver();
+		resolver.replaceLayer(ConsentSource.DEFAULT, defaultConsents);
+		resolver.mergeLayer(ConsentSource.PERSISTENCE, userConsents);
+		resolver.resolve();
+	}
+
+	/**
+	 * Baseline: recomputing the current consents by merging the user consents over the defaults.
+	 */
+	@Benchmark
+	public Consents mergeAll() {
+		return defaultConsents.merge(userConsents.merge(updates[updateIndex++ & 1]));
+	}
+
+	@Benchmark
+	public Consents resolveAfterUpdate() {
+		resolver.mergeLayer(ConsentSource.UPDATE, updates[updateIndex++ & 1]);
+		return resolver.resolve();
+	}
+
+	@Benchmark
+	public Consents resolveUnchanged() {
+		return resolver.resolve();
+	}
+
+	@Benchmark
+	public ConsentSource getSource() {
+		return resolver.getSource("collect");
+	}
+}
@@ -0,0 +1,92 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Persistence throughput and cold-load latency of the {@link ConsentStore} implementations that run on the JVM.
+ * The file stores sync every save to disk, so their save scores mostly depend on the machine storage.
+ * {@code saveChange} alternates between two consents differing in one purpose, which the journaled store appends to
+ * its journal instead of rewriting the snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConsentStoreBenchmark {
+
+	@Param({ "memory", "file", "journal" })
+	public String storeType;
+
+	@Param({ "8", "32" })
+	public int purposeCount;
+
+	private File directory;
+	private ConsentStore store;
+	private Consents consents;
+	private Consents changedConsents;
+	private boolean changed;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = File.createTempFile("consent-store", "");
+		directory.delete();
+		directory.mkdirs();
+
+		if ("journal".equals(storeType)) {
+			final JournaledConsentStore journaledStore = new JournaledConsentStore(new File(directory, "consents"));
+			journaledStore.setJournalEnabled(true);
+			store = journaledStore;
+		} else if ("file".equals(storeType)) {
+			store = new FileConsentStore(new File(directory, "consents"));
+		} else {
+			store = new InMemoryConsentStore();
+		}
+
+		consents = new Consents(BenchmarkData.createXDMMap(purposeCount, 2, "y", BenchmarkData.TIMESTAMP));
+		changedConsents = consents.merge(new Consents(BenchmarkData.createXDMMap(1, 2, "n", null)));
+		store.save(consents);
+	}
+
+	@TearDown
+	public void tearDown() {
+		store.clear();
+		directory.delete();
+	}
+
+	@Benchmark
+	public boolean save() {
+		return store.save(consents);
+	}
+
+	@Benchmark
+	public boolean saveChange() {
+		changed = !changed;
+		return store.save(changed ? changedConsents : consents);
+	}
+
+	@Benchmark
+	public Consents load() {
+		return store.load();
+	}
+}
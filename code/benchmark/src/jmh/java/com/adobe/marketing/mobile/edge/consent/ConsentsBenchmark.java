@@ -0,0 +1,89 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConsentsBenchmark {
+
+	@Param({ "1", "8", "32" })
+	public int purposeCount;
+
+	@Param({ "1", "4" })
+	public int depth;
+
+	private Map<String, Object> xdmMap;
+	private Consents consents;
+	private Consents equalConsents;
+	private Consents otherTimestampConsents;
+	private Consents updateConsents;
+	private Consents mergedConsents;
+
+	@Setup
+	public void setup() {
+		xdmMap = BenchmarkData.createXDMMap(purposeCount, depth, "y", BenchmarkData.TIMESTAMP);
+		consents = new Consents(xdmMap);
+		equalConsents = new Consents(BenchmarkData.createXDMMap(purposeCount, depth, "y", BenchmarkData.TIMESTAMP));
+		otherTimestampConsents =
+			new Consents(BenchmarkData.createXDMMap(purposeCount, depth, "y", BenchmarkData.OTHER_TIMESTAMP));
+		// a typical update changes a single purpose
+		updateConsents = new Consents(BenchmarkData.createXDMMap(1, depth, "n", BenchmarkData.OTHER_TIMESTAMP));
+		mergedConsents = consents.merge(updateConsents);
+	}
+
+	@Benchmark
+	public Consents construct() {
+		return new Consents(xdmMap);
+	}
+
+	@Benchmark
+	public Consents merge() {
+		return consents.merge(updateConsents);
+	}
+
+	@Benchmark
+	public Map<String, Object> asXDMMap() {
+		return consents.asXDMMap();
+	}
+
+	@Benchmark
+	public boolean equals() {
+		return consents.equals(equalConsents);
+	}
+
+	@Benchmark
+	public boolean notEquals() {
+		return consents.equals(mergedConsents);
+	}
+
+	@Benchmark
+	public boolean equalsIgnoreTimestamp() {
+		return consents.equalsIgnoreTimestamp(otherTimestampConsents);
+	}
+
+	@Benchmark
+	public ConsentsDiff diff() {
+		return ConsentsDiff.compute(consents, mergedConsents);
+	}
+}
@@ -0,0 +1,45 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DateUtilityBenchmark {
+
+	private final Date date = new Date(1569262545301L);
+	private final String timestamp = "2019-09-23T18:15:45.301Z";
+
+	@Benchmark
+	public String dateToISO8601String() {
+		return DateUtility.dateToISO8601String(date);
+	}
+
+	@Benchmark
+	public String epochMillisToISO8601String() {
+		return DateUtility.epochMillisToISO8601String(date.getTime());
+	}
+
+	@Benchmark
+	public long iso8601StringToEpochMillis() {
+		return DateUtility.iso8601StringToEpochMillis(timestamp);
+	}
+}
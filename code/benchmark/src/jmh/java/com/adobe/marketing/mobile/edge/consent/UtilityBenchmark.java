@@ -0,0 +1,73 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UtilityBenchmark {
+
+	@Param({ "1", "8", "32" })
+	public int purposeCount;
+
+	@Param({ "1", "4" })
+	public int depth;
+
+	private Map<String, Object> xdmMap;
+	private JSONObject jsonObject;
+	private JSONArray jsonArray;
+
+	@Setup
+	public void setup() {
+		xdmMap = BenchmarkData.createXDMMap(purposeCount, depth, "y", BenchmarkData.TIMESTAMP);
+		// parsed from a string, as done when reading consents from persistence
+		jsonObject = new JSONObject(new JSONObject(xdmMap).toString());
+
+		final List<Object> list = new ArrayList<>();
+
+		for (int i = 0; i < purposeCount; i++) {
+			list.add(BenchmarkData.createXDMMap(1, depth, "y", null));
+		}
+
+		jsonArray = new JSONArray(new JSONArray(list).toString());
+	}
+
+	@Benchmark
+	public Map<String, Object> toMap() {
+		return Utility.toMap(jsonObject);
+	}
+
+	@Benchmark
+	public List<Object> toList() {
+		return Utility.toList(jsonArray);
+	}
+
+	@Benchmark
+	public Map<String, Object> deepCopy() {
+		return Utility.deepCopy(xdmMap);
+	}
+}
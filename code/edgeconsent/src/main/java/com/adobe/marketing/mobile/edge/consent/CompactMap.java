@@ -0,0 +1,466 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link Map} backed by a single array holding the keys and values side by side, for the small nodes of the consent
+ * trees such as {@code {"val": "y"}}.
+ * <p>
+ * Lookups scan the keys in insertion order, which for a few keys is faster than hashing, and most comparisons end on
+ * the identity check as keys are interned, see {@link ConsentInterner}. A node with one entry takes a map object and
+ * a two slot array, instead of the map, its table of 16 buckets and one node per entry of a {@link HashMap}.
+ * <p>
+ * The map implements the whole {@code Map} contract, including null keys and values, iterator removal, fail-fast
+ * iterators and entries that stay valid after the map is modified. Operations take linear time, so
+ * {@link #newMap(int)} only returns a {@code CompactMap} for up to {@link #MAX_SIZE} entries, and a map growing past
+ * {@code MAX_SIZE} entries moves them to a {@link HashMap} it delegates to from then on. Not thread safe.
+ *
+ * @param <K> the type of the keys
+ * @param <V> the type of the values
+ */
+final class CompactMap<K, V> extends AbstractMap<K, V> {
+
+	static final int MAX_SIZE = 8; // largest size kept in the table, larger maps delegate to a HashMap
+
+	private static final Object[] EMPTY_TABLE = {};
+	private static final int DEFAULT_CAPACITY = 2;
+
+	private Object[] table; // keys at even indexes, each followed by its value
+	private int size;
+	private int modCount; // structural modifications, checked by the iterators
+	private HashMap<K, V> overflow; // holds all the entries once the map grew past MAX_SIZE, null until then
+
+	CompactMap() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor.
+	 *
+	 * @param capacity the number of entries that can be added before the map grows, at most {@link #MAX_SIZE}
+	 */
+	CompactMap(final int capacity) {
+		table = capacity <= 0 ? EMPTY_TABLE : new Object[Math.min(capacity, MAX_SIZE) * 2];
+	}
+
+	/**
+	 * Returns a new empty map suited to the provided number of entries, a {@link CompactMap} sized for them if there
+	 * are at most {@link #MAX_SIZE}, a {@link HashMap} otherwise.
+	 *
+	 * @param expectedSize the expected number of entries
+	 * @param <K>          the type of the keys
+	 * @param <V>          the type of the values
+	 * @return a new empty modifiable {@link Map}
+	 */
+	static <K, V> Map<K, V> newMap(final int expectedSize) {
+		return expectedSize <= MAX_SIZE ? new CompactMap<K, V>(expectedSize) : new HashMap<K, V>();
+	}
+
+	@Override
+	public int size() {
+		return overflow != null ? overflow.size() : size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return overflow != null ? overflow.containsKey(key) : indexOf(key) >= 0;
+	}
+
+	@Override
+	public boolean containsValue(final Object value) {
+		if (overflow != null) {
+			return overflow.containsValue(value);
+		}
+
+		for (int i = 1; i < size * 2; i += 2) {
+			if (equal(value, table[i])) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	@Override
+	public V get(final Object key) {
+		if (overflow != null) {
+			return overflow.get(key);
+		}
+
+		final int index = indexOf(key);
+		return index < 0 ? null : (V) table[index + 1];
+	}
+
+	@Override
+	public V put(final K key, final V value) {
+		if (overflow != null) {
+			return putOverflow(key, value);
+		}
+
+		final int index = indexOf(key);
+
+		if (index >= 0) {
+			final V previousValue = (V) table[index + 1];
+			table[index + 1] = value;
+			return previousValue;
+		}
+
+		if (size == MAX_SIZE) {
+			moveToOverflow();
+			return putOverflow(key, value);
+		}
+
+		if (size * 2 == table.length) {
+			table = Arrays.copyOf(table, Math.max(table.length * 2, DEFAULT_CAPACITY * 2));
+		}
+
+		table[size * 2] = key;
+		table[size * 2 + 1] = value;
+		size++;
+		modCount++;
+		return null;
+	}
+
+	@Override
+	public V remove(final Object key) {
+		if (overflow != null) {
+			final int previousSize = overflow.size();
+			final V previousValue = overflow.remove(key);
+
+			if (overflow.size() != previousSize) {
+				modCount++;
+			}
+
+			return previousValue;
+		}
+
+		final int index = indexOf(key);
+
+		if (index < 0) {
+			return null;
+		}
+
+		final V previousValue = (V) table[index + 1];
+		removeAt(index);
+		return previousValue;
+	}
+
+	@Override
+	public void clear() {
+		if (overflow != null) {
+			overflow.clear();
+		} else {
+			Arrays.fill(table, 0, size * 2, null);
+			size = 0;
+		}
+
+		modCount++;
+	}
+
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		return new EntrySet();
+	}
+
+	@Override
+	public boolean equals(final Object object) {
+		if (object == this) {
+			return true;
+		}
+
+		if (overflow != null) {
+			return overflow.equals(object);
+		}
+
+		if (!(object instanceof Map)) {
+			return false;
+		}
+
+		final Map<?, ?> map = (Map<?, ?>) object;
+
+		if (map.size() != size) {
+			return false;
+		}
+
+		try {
+			for (int i = 0; i < size * 2; i += 2) {
+				final Object key = table[i];
+				final Object value = table[i + 1];
+
+				if (value == null) {
+					if (map.get(key) != null || !map.containsKey(key)) {
+						return false;
+					}
+				} else if (!value.equals(map.get(key))) {
+					return false;
+				}
+			}
+		} catch (final ClassCastException exception) {
+			return false;
+		} catch (final NullPointerException exception) {
+			return false;
+		}
+
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		if (overflow != null) {
+			return overflow.hashCode();
+		}
+
+		int hash = 0;
+
+		// same as the sum of the entry hash codes required by the Map contract
+		for (int i = 0; i < size * 2; i += 2) {
+			hash += hashOf(table[i]) ^ hashOf(table[i + 1]);
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Moves the entries of the table to the {@link #overflow} map, which holds all the entries from then on.
+	 */
+	private void moveToOverflow() {
+		overflow = new HashMap<>();
+
+		for (int i = 0; i < size * 2; i += 2) {
+			overflow.put((K) table[i], (V) table[i + 1]);
+		}
+
+		table = EMPTY_TABLE;
+		size = 0;
+		modCount++;
+	}
+
+	private V putOverflow(final K key, final V value) {
+		final int previousSize = overflow.size();
+		final V previousValue = overflow.put(key, value);
+
+		if (overflow.size() != previousSize) {
+			modCount++;
+		}
+
+		return previousValue;
+	}
+
+	private int indexOf(final Object key) {
+		for (int i = 0; i < size * 2; i += 2) {
+			if (equal(key, table[i])) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Removes the entry at the provided index, keeping the remaining entries in insertion order.
+	 */
+	private void removeAt(final int index) {
+		final int end = size * 2;
+		System.arraycopy(table, index + 2, table, index, end - index - 2);
+		table[end - 2] = null;
+		table[end - 1] = null;
+		size--;
+		modCount++;
+	}
+
+	private static boolean equal(final Object first, final Object second) {
+		return first == second || (first != null && first.equals(second));
+	}
+
+	private static int hashOf(final Object object) {
+		return object == null ? 0 : object.hashCode();
+	}
+
+	private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return CompactMap.this.size();
+		}
+
+		@Override
+		public void clear() {
+			CompactMap.this.clear();
+		}
+
+		@Override
+		public Iterator<Map.Entry<K, V>> iterator() {
+			return overflow != null ? new OverflowIterator() : new EntryIterator();
+		}
+	}
+
+	private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+
+		private int next; // index of the key of the next entry
+		private int last = -1; // index of the key of the entry last returned by next, -1 if none
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return next < size * 2;
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			if (next >= size * 2) {
+				throw new NoSuchElementException();
+			}
+
+			last = next;
+			next += 2;
+			return new Entry(last, (K) table[last], (V) table[last + 1]);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			removeAt(last);
+			next = last;
+			last = -1;
+			expectedModCount = modCount;
+		}
+	}
+
+	/**
+	 * Iterator over the entries of the {@link #overflow} map, failing fast on any modification of the map not made
+	 * through it.
+	 */
+	private final class OverflowIterator implements Iterator<Map.Entry<K, V>> {
+
+		private final Iterator<Map.Entry<K, V>> iterator = overflow.entrySet().iterator();
+		private int expectedModCount = modCount;
+
+		@Override
+		public boolean hasNext() {
+			return iterator.hasNext();
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			return iterator.next();
+		}
+
+		@Override
+		public void remove() {
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+
+			iterator.remove();
+			modCount++;
+			expectedModCount = modCount;
+		}
+	}
+
+	/**
+	 * Entry holding its own key and value, so it stays valid when the map is modified. The value is written through to
+	 * the map as long as it holds the key.
+	 */
+	private final class Entry implements Map.Entry<K, V> {
+
+		private final int index; // index of the key in the table when the entry was returned, checked before use
+		private final K key;
+		private V value;
+
+		Entry(final int index, final K key, final V value) {
+			this.index = index;
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		@Override
+		public V setValue(final V newValue) {
+			final V previousValue = value;
+			value = newValue;
+
+			if (overflow != null) {
+				if (overflow.containsKey(key)) {
+					overflow.put(key, newValue);
+				}
+			} else {
+				// the entries after a removed one move down the table
+				final int currentIndex = index < size * 2 && table[index] == key ? index : indexOf(key);
+
+				if (currentIndex >= 0) {
+					table[currentIndex + 1] = newValue;
+				}
+			}
+
+			return previousValue;
+		}
+
+		@Override
+		public boolean equals(final Object object) {
+			if (!(object instanceof Map.Entry)) {
+				return false;
+			}
+
+			final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) object;
+			return equal(getKey(), entry.getKey()) && equal(getValue(), entry.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return hashOf(getKey()) ^ hashOf(getValue());
+		}
+
+		@Override
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+}
@@ -19,6 +19,7 @@ import com.adobe.marketing.mobile.ExtensionError;
 import com.adobe.marketing.mobile.ExtensionErrorCallback;
 import com.adobe.marketing.mobile.LoggingMode;
 import com.adobe.marketing.mobile.MobileCore;
+import java.util.List;
 import java.util.Map;
 
 public class Consent {
@@ -36,8 +37,12 @@ public class Consent {
 
 	/**
 	 * Registers the extension with the Mobile SDK. This method should be called only once in your application class.
+	 * <p>
+	 * The persisted consents start loading in background, call {@link MobileCore#setApplication} before this method.
 	 */
 	public static void registerExtension() {
+		ConsentStorageService.preloadConsents();
+
 		MobileCore.registerExtension(
 			ConsentExtension.class,
 			new ExtensionErrorCallback<ExtensionError>() {
@@ -71,29 +76,47 @@ public class Consent {
 			return;
 		}
 
-		// create and dispatch an consent fragments update event
-		final ExtensionErrorCallback<ExtensionError> errorCallback = new ExtensionErrorCallback<ExtensionError>() {
-			@Override
-			public void error(final ExtensionError extensionError) {
-				MobileCore.log(
-					LoggingMode.DEBUG,
-					ConsentConstants.LOG_TAG,
-					String.format(
-						"Consent - update API. Failed to dispatch %s event. Ignoring the API call. Error : %s.",
-						ConsentConstants.EventNames.CONSENT_UPDATE_REQUEST,
-						extensionError.getErrorName()
-					)
-				);
-			}
-		};
-		final Event event = new Event.Builder(
-			ConsentConstants.EventNames.CONSENT_UPDATE_REQUEST,
-			ConsentConstants.EventType.CONSENT,
-			ConsentConstants.EventSource.UPDATE_CONSENT
-		)
-			.setEventData(consents)
-			.build();
-		MobileCore.dispatchEvent(event, errorCallback);
+		dispatchConsentUpdateEvent(consents);
+	}
+
+	/**
+	 * Merges the existing consents with the given list of consents, applied in order as a single update.
+	 * <p>
+	 * The consents are combined before being sent to the Consent extension, so the whole list results in a single
+	 * consents merge and persistence write, a single XDM shared state and a single consent update sent to Edge.
+	 * Duplicate keys take the value of the last consents in the list defining them.
+	 * <p>
+	 * Input example: [{"consents": {"collect": {"val": "y"}}}, {"consents": {"adID": {"val": "n"}}}]
+	 *
+	 * @param consentsList A {@link List} of consents {@link Map}s to be merged with the existing consents
+	 */
+	public static void batchUpdate(final List<Map<String, Object>> consentsList) {
+		if (consentsList == null || consentsList.isEmpty()) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"Consent - Null/Empty consents list passed to batchUpdate API. Ignoring the API call."
+			);
+			return;
+		}
+
+		Consents batchConsents = null;
+
+		for (final Map<String, Object> consents : consentsList) {
+			final Consents fragment = new Consents(consents);
+			batchConsents = batchConsents == null ? fragment : batchConsents.merge(fragment);
+		}
+
+		if (batchConsents == null || batchConsents.isEmpty()) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"Consent - No valid consents passed to batchUpdate API. Ignoring the API call."
+			);
+			return;
+		}
+
+		dispatchConsentUpdateEvent(batchConsents.asXDMMap());
 	}
 
 	/**
@@ -155,6 +178,174 @@ public class Consent {
 		);
 	}
 
+	/**
+	 * Synchronously returns the current consent preferences stored in the Consent extension.
+	 * <p>
+	 * Unlike {@link #getConsents(AdobeCallback)}, no event is dispatched: the consents are read from an immutable
+	 * snapshot published by the Consent extension whenever the consents change, so this method does not block.
+	 * <p>
+	 * Output example: {"consents": {"collect": {"val": "y"}}}
+	 *
+	 * @return an unmodifiable {@link Map} of the current consent preferences, or null if the Consent extension has not
+	 * loaded the consents yet
+	 */
+	public static Map<String, Object> getConsentsSnapshot() {
+		return ConsentDecisionIndex.getPublished().getXDMSnapshot();
+	}
+
+	/**
+	 * Returns the current consent status of the provided purpose.
+	 * <p>
+	 * The status is read from an index compiled by the Consent extension whenever the consents change, so this
+	 * method does not block and is cheap enough to be called for every hit.
+	 * {@link ConsentStatus#UNKNOWN} is returned until the Consent extension has shared its first consents.
+	 *
+	 * @param purpose the {@link ConsentPurpose} to query
+	 * @return the {@link ConsentStatus} of the purpose, {@link ConsentStatus#UNKNOWN} if {@code purpose} is null
+	 */
+	public static ConsentStatus getConsentStatus(final ConsentPurpose purpose) {
+		return ConsentDecisionIndex.getPublished().getStatus(purpose);
+	}
+
+	/**
+	 * Returns the consent preferences that were current at the provided time, read from the bounded consents history
+	 * kept on the device. The history only covers the most recent consent changes, it is meant for local diagnostics.
+	 * <p>
+	 * The history is recorded only when enabled with the {@code consent.history.enabled} configuration setting, and is
+	 * deleted from the device when the setting changes from enabled to disabled.
+	 * <p>
+	 * The history is read from disk, avoid calling this method from the main thread.
+	 * <p>
+	 * Output example: {"consents": {"collect": {"val": "y"}}}
+	 *
+	 * @param timestampMillis the time, in milliseconds since the epoch
+	 * @return a {@link Map} of the consent preferences current at {@code timestampMillis}, or null if the history has
+	 * no consents recorded at or before that time
+	 */
+	public static Map<String, Object> getConsentsAt(final long timestampMillis) {
+		final Consents consents = ConsentStorageService.getConsentsAt(timestampMillis);
+		return consents == null ? null : consents.asXDMMap();
+	}
+
+	/**
+	 * Enables or disables the recording of the Consent extension metrics: the latency of the event handlers and of the
+	 * persistence reads and writes, the bytes read and written by the persistence, the number of consents deep copies
+	 * and of values they copied, the shared states and Edge updates and the updates ignored as unchanged.
+	 * <p>
+	 * Recording is disabled by default and costs next to nothing while disabled. The metrics recorded so far are kept
+	 * when recording is disabled.
+	 *
+	 * @param enabled true to record the metrics
+	 */
+	public static void setMetricsEnabled(final boolean enabled) {
+		ConsentMetrics.setEnabled(enabled);
+	}
+
+	/**
+	 * Returns a snapshot of the Consent extension metrics recorded since the app started or since the last call to
+	 * {@link #resetMetrics()}, see {@link #setMetricsEnabled(boolean)}.
+	 * <p>
+	 * Counters are {@code Long} values. Each timer holds its {@code count}, {@code totalNanos} and {@code maxNanos},
+	 * and a {@code histogramMicros} list counting the durations below 1 microsecond, then from 2<sup>i-1</sup> up to
+	 * 2<sup>i</sup> microseconds for each following index i, the last index counting all the longer durations.
+	 * <p>
+	 * Output example:
+	 * {"enabled": true, "counters": {"edgeUpdatesDispatched": 2, ...},
+	 *  "timers": {"handleConsentUpdate": {"count": 2, "totalNanos": 81200, "maxNanos": 52100,
+	 *                                      "histogramMicros": [0, 0, 0, 0, 0, 1, 1, 0, ...]}, ...}}
+	 *
+	 * @return an unmodifiable {@link Map} of the metrics
+	 */
+	public static Map<String, Object> getMetrics() {
+		return ConsentMetrics.snapshot();
+	}
+
+	/**
+	 * Resets all the Consent extension metrics to 0, for example after reporting them.
+	 */
+	public static void resetMetrics() {
+		ConsentMetrics.reset();
+	}
+
+	/**
+	 * Sets the sink receiving the trace spans of the Consent extension: the listeners, the event handlers, the merges,
+	 * the persistence, the shared states and the dispatched events, correlated by the unique identifier of the event
+	 * that triggered them. Use a {@link ConsentTraceRingBuffer} to keep the most recent spans in memory.
+	 * <p>
+	 * Tracing is disabled by default, and costs next to nothing while no sink is set.
+	 *
+	 * @param sink the {@link ConsentTraceSink} receiving the spans, or null to disable tracing
+	 */
+	public static void setTraceSink(final ConsentTraceSink sink) {
+		ConsentTracer.setSink(sink);
+	}
+
+	/**
+	 * Registers a listener notified whenever the current consents change, with the purposes whose value changed and
+	 * their previous and new values. Changes of the consents metadata, such as the update time, are not notified.
+	 * <p>
+	 * Listeners are called on the Consent extension thread and should return quickly.
+	 * Registering the same listener more than once has no effect.
+	 *
+	 * @param listener the {@link ConsentChangeListener} to register, should not be null
+	 */
+	public static void registerConsentChangeListener(final ConsentChangeListener listener) {
+		if (listener == null) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"Consent - Null listener provided to registerConsentChangeListener, ignoring."
+			);
+			return;
+		}
+
+		ConsentChangeNotifier.registerListener(listener);
+	}
+
+	/**
+	 * Unregisters a listener registered using {@link #registerConsentChangeListener(ConsentChangeListener)}.
+	 *
+	 * @param listener the {@link ConsentChangeListener} to unregister
+	 */
+	public static void unregisterConsentChangeListener(final ConsentChangeListener listener) {
+		if (listener == null) {
+			return;
+		}
+
+		ConsentChangeNotifier.unregisterListener(listener);
+	}
+
+	/**
+	 * Dispatches a {@link ConsentConstants.EventNames#CONSENT_UPDATE_REQUEST} event with the provided consents.
+	 *
+	 * @param consents the consents {@link Map} to be merged with the existing consents
+	 */
+	private static void dispatchConsentUpdateEvent(final Map<String, Object> consents) {
+		// create and dispatch an consent fragments update event
+		final ExtensionErrorCallback<ExtensionError> errorCallback = new ExtensionErrorCallback<ExtensionError>() {
+			@Override
+			public void error(final ExtensionError extensionError) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					String.format(
+						"Consent - update API. Failed to dispatch %s event. Ignoring the API call. Error : %s.",
+						ConsentConstants.EventNames.CONSENT_UPDATE_REQUEST,
+						extensionError.getErrorName()
+					)
+				);
+			}
+		};
+		final Event event = new Event.Builder(
+			ConsentConstants.EventNames.CONSENT_UPDATE_REQUEST,
+			ConsentConstants.EventType.CONSENT,
+			ConsentConstants.EventSource.UPDATE_CONSENT
+		)
+			.setEventData(consents)
+			.build();
+		MobileCore.dispatchEvent(event, errorCallback);
+	}
+
 	/**
 	 * When an {@link AdobeCallbackWithError} is provided, the fail method will be called with provided {@link AdobeError}.
 	 *
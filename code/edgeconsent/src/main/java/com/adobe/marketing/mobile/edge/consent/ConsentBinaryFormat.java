@@ -0,0 +1,625 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import com.adobe.marketing.mobile.LoggingMode;
+import com.adobe.marketing.mobile.MobileCore;
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary encoding of {@link Consents} used for the on-disk persistence.
+ * <p>
+ * Layout of an encoded record:
+ * <pre>
+ *     magic (4 bytes) | version (1 byte) | payload length (varint) | payload | CRC32 of all previous bytes (4 bytes)
+ * </pre>
+ * The payload is the consents map encoded as a tagged value tree. Strings from {@link #DICTIONARY} (purpose keys and
+ * consent values) are written as a varint index, and ISO 8601 timestamps as varint epoch milliseconds.
+ * Every value type kept by {@link Utility#deepCopy(Map)} is decoded back to the same type and value. Values of other
+ * types are not persisted and logged. Null values are dropped, like the other consents readers and copiers do, and
+ * nulls written by earlier versions are skipped when decoding.
+ */
+final class ConsentBinaryFormat {
+
+	static final int VERSION = 1;
+
+	private static final byte[] MAGIC = { 'A', 'E', 'C', 'P' };
+	private static final int CHECKSUM_LENGTH = 4;
+	private static final int MAX_DEPTH = 32;
+	private static final String CHARSET = "UTF-8";
+
+	private static final int TAG_MAP = 1;
+	private static final int TAG_LIST = 2;
+	private static final int TAG_STRING = 3;
+	private static final int TAG_DICTIONARY_STRING = 4;
+	private static final int TAG_TRUE = 5;
+	private static final int TAG_FALSE = 6;
+	private static final int TAG_INT = 7;
+	private static final int TAG_LONG = 8;
+	private static final int TAG_DOUBLE = 9;
+	private static final int TAG_FLOAT = 10;
+	private static final int TAG_TIMESTAMP = 11;
+	private static final int TAG_NULL = 12; // no longer written, skipped when decoding
+	private static final int TAG_SHORT = 13;
+	private static final int TAG_BYTE = 14;
+	private static final int TAG_CHAR = 15;
+	private static final int TAG_BIG_INTEGER = 16;
+	private static final int TAG_BIG_DECIMAL = 17;
+
+	// append only, the index of a string is part of the format
+	private static final String[] DICTIONARY = {
+		ConsentConstants.EventDataKey.METADATA,
+		ConsentConstants.EventDataKey.TIME,
+		"val",
+		"y",
+		"n",
+		"p",
+		"u",
+		"dy",
+		"dn",
+		"LI",
+		"CT",
+		"CP",
+		"VI",
+		"PI",
+		"collect",
+		"adID",
+		"share",
+		"personalize",
+		"content",
+		"marketing",
+		"preferred",
+		"any",
+		"email",
+		"push",
+		"sms",
+		"call",
+		"commercialEmail",
+		"postalMail",
+		"fax",
+		"socialMedia",
+		"inVehicleAds",
+		"idSpecific",
+		"reason",
+		"subscriptions",
+	};
+
+	private static final Map<String, Integer> DICTIONARY_INDEX = new HashMap<>();
+
+	static {
+		for (int i = 0; i < DICTIONARY.length; i++) {
+			DICTIONARY_INDEX.put(DICTIONARY[i], i);
+		}
+	}
+
+	private ConsentBinaryFormat() {}
+
+	/**
+	 * Returns the strings encoded by their dictionary index, such as the purpose keys and the consent values.
+	 *
+	 * @return an unmodifiable {@link List} of the dictionary strings, in index order
+	 */
+	static List<String> getDictionary() {
+		return Collections.unmodifiableList(Arrays.asList(DICTIONARY));
+	}
+
+	/**
+	 * Encodes the provided {@link Consents} in the binary format.
+	 *
+	 * @param consents the {@code Consents} to encode
+	 * @return the encoded record, or null if {@code consents} is null
+	 */
+	static byte[] encode(final Consents consents) {
+		if (consents == null) {
+			return null;
+		}
+
+		final Object consentsMap = consents.asXDMMap().get(ConsentConstants.EventDataKey.CONSENTS);
+
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+		writeMap(
+			payload,
+			consentsMap instanceof Map ? (Map<String, Object>) consentsMap : Collections.<String, Object>emptyMap()
+		);
+
+		final ByteArrayOutputStream record = new ByteArrayOutputStream(payload.size() + 16);
+		record.write(MAGIC, 0, MAGIC.length);
+		record.write(VERSION);
+		writeVarint(record, payload.size());
+		record.write(payload.toByteArray(), 0, payload.size());
+
+		final CRC32 crc32 = new CRC32();
+		crc32.update(record.toByteArray(), 0, record.size());
+		writeInt(record, (int) crc32.getValue());
+		return record.toByteArray();
+	}
+
+	/**
+	 * Decodes a record created by {@link #encode(Consents)}.
+	 *
+	 * @param data the encoded record
+	 * @return the decoded {@link Consents}, or null if {@code data} is null, corrupted or of an unsupported version
+	 */
+	static Consents decode(final byte[] data) {
+		if (data == null) {
+			return null;
+		}
+
+		if (data.length < MAGIC.length + 1 + CHECKSUM_LENGTH) {
+			logDecodeError("record is truncated");
+			return null;
+		}
+
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (data[i] != MAGIC[i]) {
+				logDecodeError("record header is invalid");
+				return null;
+			}
+		}
+
+		final int version = data[MAGIC.length] & 0xFF;
+
+		if (version != VERSION) {
+			logDecodeError("record version " + version + " is not supported");
+			return null;
+		}
+
+		final int checksumOffset = data.length - CHECKSUM_LENGTH;
+		final CRC32 crc32 = new CRC32();
+		crc32.update(data, 0, checksumOffset);
+
+		if ((int) crc32.getValue() != new Reader(data, checksumOffset, checksumOffset + CHECKSUM_LENGTH).readInt()) {
+			logDecodeError("record checksum does not match");
+			return null;
+		}
+
+		try {
+			final Reader reader = new Reader(data, MAGIC.length + 1, checksumOffset);
+			final int payloadLength = (int) reader.readVarint();
+
+			if (payloadLength != reader.remaining()) {
+				logDecodeError("record payload length does not match");
+				return null;
+			}
+
+			if (reader.readTag() != TAG_MAP) {
+				logDecodeError("record payload is not a map");
+				return null;
+			}
+
+			return Consents.fromConsentsMap(reader.readMap(0));
+		} catch (final IllegalArgumentException exception) {
+			logDecodeError(exception.getMessage());
+			return null;
+		}
+	}
+
+	/**
+	 * Writes a tagged value of a type supported by {@link #isSupportedValue(Object)}.
+	 *
+	 * @param out   the stream to write to
+	 * @param value the value to write
+	 */
+	private static void writeValue(final ByteArrayOutputStream out, final Object value) {
+		if (value instanceof String) {
+			writeString(out, (String) value, true);
+		} else if (value instanceof Map) {
+			writeMap(out, (Map<String, Object>) value);
+		} else if (value instanceof List) {
+			writeList(out, (List<Object>) value);
+		} else if (value instanceof Boolean) {
+			out.write((Boolean) value ? TAG_TRUE : TAG_FALSE);
+		} else if (value instanceof Integer) {
+			out.write(TAG_INT);
+			writeVarint(out, zigZag((Integer) value));
+		} else if (value instanceof Long) {
+			out.write(TAG_LONG);
+			writeVarint(out, zigZag((Long) value));
+		} else if (value instanceof Short) {
+			out.write(TAG_SHORT);
+			writeVarint(out, zigZag((Short) value));
+		} else if (value instanceof Byte) {
+			out.write(TAG_BYTE);
+			out.write((Byte) value);
+		} else if (value instanceof Character) {
+			out.write(TAG_CHAR);
+			writeVarint(out, (Character) value);
+		} else if (value instanceof Float) {
+			out.write(TAG_FLOAT);
+			writeInt(out, Float.floatToIntBits((Float) value));
+		} else if (value instanceof Double) {
+			out.write(TAG_DOUBLE);
+			final long bits = Double.doubleToLongBits((Double) value);
+			writeInt(out, (int) (bits >>> 32));
+			writeInt(out, (int) bits);
+		} else if (value instanceof BigInteger) {
+			out.write(TAG_BIG_INTEGER);
+			writeBytes(out, ((BigInteger) value).toByteArray());
+		} else {
+			final BigDecimal decimal = (BigDecimal) value;
+			out.write(TAG_BIG_DECIMAL);
+			writeVarint(out, zigZag(decimal.scale()));
+			writeBytes(out, decimal.unscaledValue().toByteArray());
+		}
+	}
+
+	/**
+	 * Checks if the provided value can be written by {@link #writeValue(ByteArrayOutputStream, Object)} and decoded
+	 * back to the same type and value.
+	 *
+	 * @param value the value to check
+	 * @return true if {@code value} is a {@link String}, {@link Map}, {@link List}, {@link Boolean}, {@link Character},
+	 * boxed primitive number, {@link BigInteger} or {@link BigDecimal}
+	 */
+	private static boolean isSupportedValue(final Object value) {
+		return (
+			value instanceof String ||
+			value instanceof Map ||
+			value instanceof List ||
+			value instanceof Boolean ||
+			value instanceof Integer ||
+			value instanceof Long ||
+			value instanceof Short ||
+			value instanceof Byte ||
+			value instanceof Character ||
+			value instanceof Float ||
+			value instanceof Double ||
+			value instanceof BigInteger ||
+			value instanceof BigDecimal
+		);
+	}
+
+	/**
+	 * Writes a tagged map, its size and its entries. Entries with a null value or a value of an unsupported type are
+	 * skipped.
+	 *
+	 * @param out the stream to write to
+	 * @param map the {@link Map} to write
+	 */
+	private static void writeMap(final ByteArrayOutputStream out, final Map<String, Object> map) {
+		int size = 0;
+
+		for (final Map.Entry<String, Object> entry : map.entrySet()) {
+			if (isSupportedValue(entry.getValue())) {
+				size++;
+			} else if (entry.getValue() != null) {
+				logUnsupportedValue(entry.getValue());
+			}
+		}
+
+		out.write(TAG_MAP);
+		writeVarint(out, size);
+
+		for (final Map.Entry<String, Object> entry : map.entrySet()) {
+			if (isSupportedValue(entry.getValue())) {
+				writeString(out, entry.getKey(), false);
+				writeValue(out, entry.getValue());
+			}
+		}
+	}
+
+	/**
+	 * Writes a tagged list, its size and its elements. Null elements and elements of an unsupported type are skipped.
+	 *
+	 * @param out  the stream to write to
+	 * @param list the {@link List} to write
+	 */
+	private static void writeList(final ByteArrayOutputStream out, final List<Object> list) {
+		int size = 0;
+
+		for (final Object element : list) {
+			if (isSupportedValue(element)) {
+				size++;
+			} else if (element != null) {
+				logUnsupportedValue(element);
+			}
+		}
+
+		out.write(TAG_LIST);
+		writeVarint(out, size);
+
+		for (final Object element : list) {
+			if (isSupportedValue(element)) {
+				writeValue(out, element);
+			}
+		}
+	}
+
+	/**
+	 * Writes a tagged string, using the {@link #DICTIONARY} index or the compact timestamp form when possible.
+	 *
+	 * @param out            the stream to write to
+	 * @param value          the string to write
+	 * @param allowTimestamp true if the string may be written as a timestamp
+	 */
+	private static void writeString(final ByteArrayOutputStream out, final String value, final boolean allowTimestamp) {
+		final Integer dictionaryIndex = DICTIONARY_INDEX.get(value);
+
+		if (dictionaryIndex != null) {
+			out.write(TAG_DICTIONARY_STRING);
+			writeVarint(out, dictionaryIndex);
+			return;
+		}
+
+		if (allowTimestamp) {
+			final long timestamp = DateUtility.iso8601StringToEpochMillis(value);
+
+			// only use the compact form if the string can be restored exactly
+			if (
+				timestamp != DateUtility.INVALID_TIMESTAMP &&
+				value.equals(DateUtility.epochMillisToISO8601String(timestamp))
+			) {
+				out.write(TAG_TIMESTAMP);
+				writeVarint(out, zigZag(timestamp));
+				return;
+			}
+		}
+
+		final byte[] bytes = toUtf8(value);
+		out.write(TAG_STRING);
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * Writes an unsigned LEB128 varint.
+	 *
+	 * @param out   the stream to write to
+	 * @param value the value to write
+	 */
+	private static void writeVarint(final ByteArrayOutputStream out, final long value) {
+		long remaining = value;
+
+		while ((remaining & ~0x7FL) != 0) {
+			out.write((int) ((remaining & 0x7F) | 0x80));
+			remaining >>>= 7;
+		}
+
+		out.write((int) remaining);
+	}
+
+	private static void writeBytes(final ByteArrayOutputStream out, final byte[] bytes) {
+		writeVarint(out, bytes.length);
+		out.write(bytes, 0, bytes.length);
+	}
+
+	private static void writeInt(final ByteArrayOutputStream out, final int value) {
+		out.write(value >>> 24);
+		out.write(value >>> 16);
+		out.write(value >>> 8);
+		out.write(value);
+	}
+
+	private static long zigZag(final long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	private static long unZigZag(final long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	private static byte[] toUtf8(final String value) {
+		try {
+			return value.getBytes(CHARSET);
+		} catch (final UnsupportedEncodingException exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+
+	private static void logUnsupportedValue(final Object value) {
+		MobileCore.log(
+			LoggingMode.WARNING,
+			ConsentConstants.LOG_TAG,
+			"ConsentBinaryFormat - Unable to persist consent value of unsupported type " +
+			value.getClass().getName() +
+			", skipping."
+		);
+	}
+
+	private static void logDecodeError(final String reason) {
+		MobileCore.log(
+			LoggingMode.DEBUG,
+			ConsentConstants.LOG_TAG,
+			"ConsentBinaryFormat - Unable to decode persisted consents, " + reason + "."
+		);
+	}
+
+	/**
+	 * Sequential reader over a range of a byte array. Malformed input results in an {@link IllegalArgumentException}.
+	 */
+	private static final class Reader {
+
+		private final byte[] data;
+		private final int end;
+		private int position;
+
+		Reader(final byte[] data, final int start, final int end) {
+			this.data = data;
+			this.position = start;
+			this.end = end;
+		}
+
+		int remaining() {
+			return end - position;
+		}
+
+		int readByte() {
+			if (position >= end) {
+				throw new IllegalArgumentException("record is truncated");
+			}
+
+			return data[position++] & 0xFF;
+		}
+
+		int readTag() {
+			return readByte();
+		}
+
+		int readInt() {
+			return (readByte() << 24) | (readByte() << 16) | (readByte() << 8) | readByte();
+		}
+
+		long readVarint() {
+			long result = 0;
+
+			for (int shift = 0; shift < 64; shift += 7) {
+				final int b = readByte();
+				result |= (long) (b & 0x7F) << shift;
+
+				if ((b & 0x80) == 0) {
+					return result;
+				}
+			}
+
+			throw new IllegalArgumentException("varint is malformed");
+		}
+
+		int readLength() {
+			final long length = readVarint();
+
+			if (length < 0 || length > remaining()) {
+				throw new IllegalArgumentException("length " + length + " exceeds the record");
+			}
+
+			return (int) length;
+		}
+
+		Map<String, Object> readMap(final int depth) {
+			if (depth > MAX_DEPTH) {
+				throw new IllegalArgumentException("record is nested too deep");
+			}
+
+			final int size = readLength();
+			final Map<String, Object> map = CompactMap.newMap(size);
+
+			for (int i = 0; i < size; i++) {
+				final int keyTag = readTag();
+
+				if (keyTag != TAG_STRING && keyTag != TAG_DICTIONARY_STRING) {
+					throw new IllegalArgumentException("map key is not a string");
+				}
+
+				final String key = readString(keyTag);
+				final Object value = readValue(readTag(), depth);
+
+				// dropped like the other readers do, only written by earlier versions
+				if (value != null) {
+					map.put(key, value);
+				}
+			}
+
+			return Collections.unmodifiableMap(map);
+		}
+
+		List<Object> readList(final int depth) {
+			final int size = readLength();
+			final List<Object> list = new ArrayList<>(size);
+
+			for (int i = 0; i < size; i++) {
+				final Object value = readValue(readTag(), depth);
+
+				if (value != null) {
+					list.add(value);
+				}
+			}
+
+			return Collections.unmodifiableList(list);
+		}
+
+		Object readValue(final int tag, final int depth) {
+			switch (tag) {
+				case TAG_MAP:
+					return readMap(depth + 1);
+				case TAG_LIST:
+					return readList(depth + 1);
+				case TAG_STRING:
+				case TAG_DICTIONARY_STRING:
+					return readString(tag);
+				case TAG_TRUE:
+					return Boolean.TRUE;
+				case TAG_FALSE:
+					return Boolean.FALSE;
+				case TAG_NULL:
+					return null;
+				case TAG_INT:
+					return (int) unZigZag(readVarint());
+				case TAG_LONG:
+					return unZigZag(readVarint());
+				case TAG_SHORT:
+					return (short) unZigZag(readVarint());
+				case TAG_BYTE:
+					return (byte) readByte();
+				case TAG_CHAR:
+					return (char) readVarint();
+				case TAG_FLOAT:
+					return Float.intBitsToFloat(readInt());
+				case TAG_DOUBLE:
+					final long highBits = readInt() & 0xFFFFFFFFL;
+					return Double.longBitsToDouble((highBits << 32) | (readInt() & 0xFFFFFFFFL));
+				case TAG_TIMESTAMP:
+					return DateUtility.epochMillisToISO8601String(unZigZag(readVarint()));
+				case TAG_BIG_INTEGER:
+					return new BigInteger(readBytes());
+				case TAG_BIG_DECIMAL:
+					final int scale = (int) unZigZag(readVarint());
+					return new BigDecimal(new BigInteger(readBytes()), scale);
+				default:
+					throw new IllegalArgumentException("unknown value tag " + tag);
+			}
+		}
+
+		byte[] readBytes() {
+			final int length = readLength();
+
+			if (length == 0) {
+				throw new IllegalArgumentException("number is empty");
+			}
+
+			final byte[] bytes = new byte[length];
+			System.arraycopy(data, position, bytes, 0, length);
+			position += length;
+			return bytes;
+		}
+
+		String readString(final int tag) {
+			if (tag == TAG_DICTIONARY_STRING) {
+				final long index = readVarint();
+
+				if (index < 0 || index >= DICTIONARY.length) {
+					throw new IllegalArgumentException("dictionary index " + index + " is unknown");
+				}
+
+				return DICTIONARY[(int) index];
+			}
+
+			final int length = readLength();
+
+			try {
+				final String value = new String(data, position, length, CHARSET);
+				position += length;
+				return value;
+			} catch (final UnsupportedEncodingException exception) {
+				throw new IllegalStateException(exception);
+			}
+		}
+	}
+}
@@ -0,0 +1,120 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Change of the current consents, delivered to the registered {@link ConsentChangeListener}s.
+ * <p>
+ * Changes are reported per top level purpose of the consents, for example {@code collect} or {@code personalize}.
+ * Changes of the consents metadata are not reported.
+ */
+public final class ConsentChange {
+
+	private final Map<String, Object> previousValues;
+	private final Map<String, Object> newValues;
+	private final Set<String> changedPurposes;
+
+	private ConsentChange(
+		final Set<String> changedPurposes,
+		final Map<String, Object> previousValues,
+		final Map<String, Object> newValues
+	) {
+		this.changedPurposes = Collections.unmodifiableSet(changedPurposes);
+		this.previousValues = previousValues;
+		this.newValues = newValues;
+	}
+
+	/**
+	 * Returns the purposes whose value changed.
+	 *
+	 * @return an unmodifiable {@link Set} of the changed purposes, never empty
+	 */
+	public Set<String> getChangedPurposes() {
+		return changedPurposes;
+	}
+
+	/**
+	 * Returns the value of a changed purpose before the change.
+	 * <p>
+	 * Example for {@code collect}: {"val": "y"}
+	 *
+	 * @param purpose one of the {@link #getChangedPurposes()}
+	 * @return the unmodifiable previous value of the purpose, null if the purpose was not set or did not change
+	 */
+	public Object getPreviousValue(final String purpose) {
+		return previousValues.get(purpose);
+	}
+
+	/**
+	 * Returns the value of a changed purpose after the change.
+	 *
+	 * @param purpose one of the {@link #getChangedPurposes()}
+	 * @return the unmodifiable new value of the purpose, null if the purpose was removed or did not change
+	 */
+	public Object getNewValue(final String purpose) {
+		return newValues.get(purpose);
+	}
+
+	@Override
+	public String toString() {
+		return "ConsentChange{previousValues=" + previousValues + ", newValues=" + newValues + "}";
+	}
+
+	/**
+	 * Computes the change between two {@link Consents}, grouping the {@link ConsentsDiff} entries by purpose.
+	 *
+	 * @param previousConsents the consents before the change
+	 * @param currentConsents  the consents after the change
+	 * @return the {@link ConsentChange}, or null if no purpose changed
+	 */
+	static ConsentChange compute(final Consents previousConsents, final Consents currentConsents) {
+		final ConsentsDiff diff = ConsentsDiff.compute(previousConsents, currentConsents);
+
+		if (diff.isEmpty()) {
+			return null;
+		}
+
+		final Map<String, Object> previousMap = readConsentsMap(previousConsents);
+		final Map<String, Object> currentMap = readConsentsMap(currentConsents);
+		final Set<String> changedPurposes = new HashSet<>();
+		final Map<String, Object> previousValues = new HashMap<>();
+		final Map<String, Object> newValues = new HashMap<>();
+
+		for (final ConsentsDiff.Entry entry : diff.getEntries()) {
+			final String purpose = entry.getPath().get(0);
+
+			if (ConsentConstants.EventDataKey.METADATA.equals(purpose) || !changedPurposes.add(purpose)) {
+				continue;
+			}
+
+			if (previousMap.get(purpose) != null) {
+				previousValues.put(purpose, previousMap.get(purpose));
+			}
+
+			if (currentMap.get(purpose) != null) {
+				newValues.put(purpose, currentMap.get(purpose));
+			}
+		}
+
+		return changedPurposes.isEmpty() ? null : new ConsentChange(changedPurposes, previousValues, newValues);
+	}
+
+	private static Map<String, Object> readConsentsMap(final Consents consents) {
+		return consents == null ? Collections.<String, Object>emptyMap() : consents.getConsentsMap();
+	}
+}
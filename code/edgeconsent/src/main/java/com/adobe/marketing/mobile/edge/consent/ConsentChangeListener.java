@@ -0,0 +1,26 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+/**
+ * Listener notified of the consent changes, see {@link Consent#registerConsentChangeListener(ConsentChangeListener)}.
+ */
+public interface ConsentChangeListener {
+	/**
+	 * Called on the Consent extension thread after the current consents changed.
+	 * <p>
+	 * Implementations should return quickly and must not block, as they delay the processing of the consent events.
+	 *
+	 * @param change the {@link ConsentChange} describing the purposes whose value changed
+	 */
+	void onConsentChanged(ConsentChange change);
+}
@@ -0,0 +1,75 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import com.adobe.marketing.mobile.LoggingMode;
+import com.adobe.marketing.mobile.MobileCore;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Holds the registered {@link ConsentChangeListener}s and notifies them of the consent changes.
+ */
+final class ConsentChangeNotifier {
+
+	private static final CopyOnWriteArrayList<ConsentChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+	private ConsentChangeNotifier() {}
+
+	/**
+	 * Registers a listener, a listener registered more than once is notified once.
+	 *
+	 * @param listener the {@link ConsentChangeListener} to register
+	 */
+	static void registerListener(final ConsentChangeListener listener) {
+		listeners.addIfAbsent(listener);
+	}
+
+	/**
+	 * Unregisters a previously registered listener.
+	 *
+	 * @param listener the {@link ConsentChangeListener} to unregister
+	 */
+	static void unregisterListener(final ConsentChangeListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Computes the change between the provided consents and notifies it to all the registered listeners.
+	 * The change is computed once, and only if there are listeners. Listeners are not notified if no purpose changed.
+	 *
+	 * @param previousConsents the consents before the change
+	 * @param currentConsents  the consents after the change
+	 */
+	static void notifyListeners(final Consents previousConsents, final Consents currentConsents) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+
+		final ConsentChange change = ConsentChange.compute(previousConsents, currentConsents);
+
+		if (change == null) {
+			return;
+		}
+
+		for (final ConsentChangeListener listener : listeners) {
+			try {
+				listener.onConsentChanged(change);
+			} catch (final Exception exception) {
+				MobileCore.log(
+					LoggingMode.WARNING,
+					ConsentConstants.LOG_TAG,
+					"ConsentChangeNotifier - Consent change listener threw an exception: " + exception
+				);
+			}
+		}
+	}
+}
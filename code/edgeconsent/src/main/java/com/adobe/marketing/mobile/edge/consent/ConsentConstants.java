@@ -16,6 +16,9 @@ final class ConsentConstants {
 	static final String LOG_TAG = "Consent";
 	static final String EXTENSION_VERSION = "1.0.1";
 	static final String EXTENSION_NAME = "com.adobe.edge.consent";
+	static final long MAX_PERSISTENCE_WRITE_DELAY_MS = 10000;
+	static final long MAX_CONSENTS_FILE_SIZE = 1024 * 1024;
+	static final long MAX_SHARED_STATE_COALESCE_WINDOW_MS = 1000;
 
 	private ConsentConstants() {}
 
@@ -26,6 +29,7 @@ final class ConsentConstants {
 		static final String PAYLOAD = "payload";
 
 		static final String TIME = "time";
+		static final String VALUE = "val";
 
 		private EventDataKey() {}
 	}
@@ -55,6 +59,8 @@ final class ConsentConstants {
 
 		static final String DATASTORE_NAME = EXTENSION_NAME;
 		static final String CONSENT_PREFERENCES = "consent:preferences";
+		static final String CONSENT_PREFERENCES_FILE = DATASTORE_NAME + ".preferences";
+		static final String CONSENT_HISTORY_FILE = DATASTORE_NAME + ".history";
 
 		private DataStoreKey() {}
 	}
@@ -73,6 +79,11 @@ final class ConsentConstants {
 	static final class ConfigurationKey {
 
 		static final String DEFAULT_CONSENT = "consent.default";
+		static final String PERSISTENCE_WRITE_DELAY = "consent.persistence.writeDelayMs";
+		static final String PERSISTENCE_JOURNAL = "consent.persistence.journal";
+		static final String HISTORY_ENABLED = "consent.history.enabled";
+		static final String SHARED_STATE_COALESCE_WINDOW = "consent.sharedState.coalesceWindowMs";
+		static final String UPDATE_REFRESH_TIMESTAMP = "consent.update.refreshTimestamp";
 
 		private ConfigurationKey() {}
 	}
@@ -0,0 +1,152 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Index of the {@link ConsentStatus} of each {@link ConsentPurpose}, compiled from {@link Consents}.
+ * <p>
+ * The statuses are stored in an array indexed by the purpose ordinal, so a lookup is a single array access.
+ * The statuses are read from the consents map without copying it, and the immutable XDM snapshot of the indexed
+ * consents is built on first use.
+ * The latest index of the Consent extension is published using {@link #publish(Consents)}, and read without locking
+ * by the synchronous {@link Consent} APIs.
+ */
+final class ConsentDecisionIndex {
+
+	private static final ConsentPurpose[] PURPOSES = ConsentPurpose.values();
+
+	static final ConsentDecisionIndex EMPTY = new ConsentDecisionIndex(null);
+
+	private static volatile ConsentDecisionIndex published = EMPTY;
+
+	private final Consents consents;
+	private volatile Map<String, Object> xdmSnapshot; // built by getXDMSnapshot
+	private final ConsentStatus[] statuses;
+
+	/**
+	 * Compiles the index of the provided consents.
+	 *
+	 * @param consents the {@link Consents} to index, all statuses are {@link ConsentStatus#UNKNOWN} if null
+	 */
+	ConsentDecisionIndex(final Consents consents) {
+		this.consents = consents;
+		this.statuses = new ConsentStatus[PURPOSES.length];
+
+		final Map<String, Object> consentsMap = consents == null ? null : consents.getConsentsMap();
+
+		for (final ConsentPurpose purpose : PURPOSES) {
+			statuses[purpose.ordinal()] = ConsentStatus.fromValue(readValue(consentsMap, purpose.getPath()));
+		}
+	}
+
+	/**
+	 * Publishes the index of the provided consents, to be returned by {@link #getPublished()}.
+	 * <p>
+	 * The index is compiled only if the consents changed since the last publication.
+	 *
+	 * @param consents the latest {@link Consents}
+	 */
+	static void publish(final Consents consents) {
+		final ConsentDecisionIndex current = published;
+
+		if (current.consents == consents || (consents != null && consents.equals(current.consents))) {
+			return;
+		}
+
+		published = new ConsentDecisionIndex(consents);
+	}
+
+	/**
+	 * Resets the published index to {@link #EMPTY}, when the extension goes away.
+	 */
+	static void reset() {
+		published = EMPTY;
+	}
+
+	/**
+	 * Returns the latest published index, {@link #EMPTY} if none was published yet.
+	 *
+	 * @return the latest {@link ConsentDecisionIndex}
+	 */
+	static ConsentDecisionIndex getPublished() {
+		return published;
+	}
+
+	/**
+	 * Returns the status of the provided purpose.
+	 *
+	 * @param purpose the {@link ConsentPurpose} to query
+	 * @return the {@link ConsentStatus} of the purpose, {@link ConsentStatus#UNKNOWN} if {@code purpose} is null
+	 */
+	ConsentStatus getStatus(final ConsentPurpose purpose) {
+		return purpose == null ? ConsentStatus.UNKNOWN : statuses[purpose.ordinal()];
+	}
+
+	/**
+	 * Returns the consents this index was compiled from.
+	 *
+	 * @return the indexed {@link Consents}, null for the {@link #EMPTY} index
+	 */
+	Consents getConsents() {
+		return consents;
+	}
+
+	/**
+	 * Returns the indexed consents in XDM format, the same instance on every call.
+	 *
+	 * @return an unmodifiable XDM {@link Map} of the indexed consents, null for the {@link #EMPTY} index
+	 */
+	Map<String, Object> getXDMSnapshot() {
+		if (consents == null) {
+			return null;
+		}
+
+		Map<String, Object> snapshot = xdmSnapshot;
+
+		if (snapshot == null) {
+			synchronized (this) {
+				snapshot = xdmSnapshot;
+
+				if (snapshot == null) {
+					snapshot = Collections.unmodifiableMap(consents.asXDMMap());
+					xdmSnapshot = snapshot;
+				}
+			}
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * Reads the {@code val} of a purpose from the consents map.
+	 *
+	 * @param consentsMap the consents map, the value of the {@code consents} XDM key
+	 * @param path        the keys leading to the purpose
+	 * @return the consent value, or null if not found
+	 */
+	private static Object readValue(final Object consentsMap, final String[] path) {
+		Object node = consentsMap;
+
+		for (final String key : path) {
+			if (!(node instanceof Map)) {
+				return null;
+			}
+
+			node = ((Map<?, ?>) node).get(key);
+		}
+
+		return node instanceof Map ? ((Map<?, ?>) node).get(ConsentConstants.EventDataKey.VALUE) : null;
+	}
+}
@@ -0,0 +1,181 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Encoding of the top level changes between two {@link Consents}, and of the checksummed records holding them, used by
+ * the append-only consents files.
+ * <p>
+ * Layout of a record and of an encoded delta:
+ * <pre>
+ *     record: payload length (4 bytes) | payload | CRC32 of the payload (4 bytes)
+ *     delta: removed keys count (4 bytes) | removed keys (modified UTF-8) | changed consents record
+ * </pre>
+ * The changed consents are encoded with {@link ConsentBinaryFormat}. A delta replaces whole top level consents, so
+ * applying a delta is idempotent.
+ */
+final class ConsentDeltaFormat {
+
+	static final int RECORD_OVERHEAD = 8;
+
+	private ConsentDeltaFormat() {}
+
+	/**
+	 * Writes the changes between the provided consents.
+	 * Top level consents are compared by reference first, as merged {@link Consents} share their unchanged subtrees.
+	 *
+	 * @param out      the stream to write to
+	 * @param previous the previous {@link Consents}
+	 * @param current  the new {@code Consents}
+	 * @return false if the consents did not change, in which case nothing is written
+	 * @throws IOException if writing to {@code out} fails
+	 */
+	static boolean writeDelta(final DataOutputStream out, final Consents previous, final Consents current)
+		throws IOException {
+		final Map<String, Object> previousMap = previous.getConsentsMap();
+		final Map<String, Object> currentMap = current.getConsentsMap();
+		final Map<String, Object> changed = new HashMap<>();
+		final List<String> removed = new ArrayList<>();
+
+		for (final Map.Entry<String, Object> entry : currentMap.entrySet()) {
+			final Object previousValue = previousMap.get(entry.getKey());
+			final Object value = entry.getValue();
+
+			if (previousValue != value && (previousValue == null || !previousValue.equals(value))) {
+				changed.put(entry.getKey(), value);
+			}
+		}
+
+		for (final String key : previousMap.keySet()) {
+			if (!currentMap.containsKey(key)) {
+				removed.add(key);
+			}
+		}
+
+		if (changed.isEmpty() && removed.isEmpty()) {
+			return false;
+		}
+
+		out.writeInt(removed.size());
+
+		for (final String key : removed) {
+			out.writeUTF(key);
+		}
+
+		out.write(ConsentBinaryFormat.encode(Consents.fromConsentsMap(changed)));
+		return true;
+	}
+
+	/**
+	 * Reads a delta written by {@link #writeDelta(DataOutputStream, Consents, Consents)} up to the end of the stream,
+	 * and applies it to the provided consents map.
+	 *
+	 * @param in          the stream to read from
+	 * @param consentsMap the consents map to update
+	 * @throws IOException if the delta cannot be read or decoded, {@code consentsMap} is not modified in this case
+	 */
+	static void readDelta(final DataInputStream in, final Map<String, Object> consentsMap) throws IOException {
+		final int removedCount = in.readInt();
+
+		if (removedCount < 0 || removedCount > in.available()) {
+			throw new IOException("Invalid removed consents count " + removedCount);
+		}
+
+		final List<String> removed = new ArrayList<>(removedCount);
+
+		for (int i = 0; i < removedCount; i++) {
+			removed.add(in.readUTF());
+		}
+
+		final byte[] changedData = new byte[in.available()];
+		in.readFully(changedData);
+		final Consents changed = ConsentBinaryFormat.decode(changedData);
+
+		if (changed == null) {
+			throw new IOException("Invalid changed consents");
+		}
+
+		for (final String key : removed) {
+			consentsMap.remove(key);
+		}
+
+		consentsMap.putAll(changed.getConsentsMap());
+	}
+
+	/**
+	 * Wraps the provided payload in a record.
+	 *
+	 * @param payload the stream holding the record payload
+	 * @return the encoded record
+	 */
+	static byte[] toRecord(final ByteArrayOutputStream payload) {
+		final ByteBuffer record = ByteBuffer.allocate(payload.size() + RECORD_OVERHEAD);
+		record.putInt(payload.size());
+		record.put(payload.toByteArray());
+		record.putInt(checksum(record.array(), 4, payload.size()));
+		return record.array();
+	}
+
+	/**
+	 * Checks if a complete record with a valid checksum starts at the provided offset.
+	 *
+	 * @param data   the data holding the records
+	 * @param offset the offset of the record in {@code data}
+	 * @param limit  the end of the readable part of {@code data}
+	 * @return the length of the record payload, which starts at {@code offset + 4}, or -1 if there is no valid record
+	 */
+	static int readPayloadLength(final byte[] data, final int offset, final int limit) {
+		if (limit - offset < RECORD_OVERHEAD) {
+			return -1;
+		}
+
+		final int payloadLength = ByteBuffer.wrap(data, offset, 4).getInt();
+		final int payloadOffset = offset + 4;
+
+		if (payloadLength < 0 || payloadLength > limit - payloadOffset - 4) {
+			return -1;
+		}
+
+		final int expectedChecksum = ByteBuffer.wrap(data, payloadOffset + payloadLength, 4).getInt();
+		return checksum(data, payloadOffset, payloadLength) == expectedChecksum ? payloadLength : -1;
+	}
+
+	/**
+	 * Creates a stream reading the payload of a record validated by {@link #readPayloadLength(byte[], int, int)}.
+	 *
+	 * @param data          the data holding the records
+	 * @param offset        the offset of the record in {@code data}
+	 * @param payloadLength the length of the record payload
+	 * @return a {@link DataInputStream} over the record payload
+	 */
+	static DataInputStream openPayload(final byte[] data, final int offset, final int payloadLength) {
+		return new DataInputStream(new ByteArrayInputStream(data, offset + 4, payloadLength));
+	}
+
+	static int checksum(final byte[] data, final int offset, final int length) {
+		final CRC32 crc32 = new CRC32();
+		crc32.update(data, offset, length);
+		return (int) crc32.getValue();
+	}
+}
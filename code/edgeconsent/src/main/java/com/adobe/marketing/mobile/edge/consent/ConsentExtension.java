@@ -21,10 +21,24 @@ import com.adobe.marketing.mobile.MobileCore;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 class ConsentExtension extends Extension {
 
 	private final ConsentManager consentManager;
+	private volatile boolean refreshTimestampOnUnchangedUpdate = false;
+
+	// coalescing of the consent preferences updated events, guarded by coalesceMutex
+	private final Object coalesceMutex = new Object();
+	private long coalesceWindowMillis = 0; // coalescing window, every update is notified immediately when 0
+	private Event coalescedEvent; // latest event of the current burst, not notified yet
+	private Map<String, Object> coalescedConsents; // consents shared for the coalescedEvent
+	private ScheduledFuture<?> scheduledNotification; // pending notification of the coalescedConsents
+	private ScheduledExecutorService coalesceExecutor;
 
 	/**
 	 * Constructor.
@@ -117,19 +131,58 @@ class ConsentExtension extends Extension {
 		return ConsentConstants.EXTENSION_VERSION;
 	}
 
+	/**
+	 * Optional override.
+	 * <p>
+	 * Writes any consents waiting for a deferred write to persistence before the extension goes away.
+	 */
+	@Override
+	protected void onUnregistered() {
+		synchronized (coalesceMutex) {
+			notifyCoalescedConsents();
+
+			if (coalesceExecutor != null) {
+				coalesceExecutor.shutdown();
+				coalesceExecutor = null;
+			}
+		}
+
+		ConsentStorageService.flushPendingConsents();
+		ConsentDecisionIndex.reset();
+	}
+
 	/**
 	 * Call this method with the EventHub's Boot event to handle the boot operation of the {@code Consent} Extension.
 	 * <p>
-	 * On boot share the initial consents loaded from persistence to XDM shared state.
+	 * On boot share the initial consents loaded from persistence to XDM shared state, and publish them for the
+	 * synchronous {@link Consent#getConsentsSnapshot()} and {@link Consent#getConsentStatus(ConsentPurpose)} APIs.
 	 *
 	 * @param event the boot {@link Event}
 	 */
 	void handleEventHubBoot(final Event event) {
-		// share the initial XDMSharedState on bootUp
-		final Consents currentConsents = consentManager.getCurrentConsents();
+		final boolean timed = ConsentMetrics.isEnabled();
+		final long startNanos = timed ? System.nanoTime() : 0;
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? ConsentTracer.startEvent(event) : 0;
 
-		if (!currentConsents.isEmpty()) {
-			shareCurrentConsents(event);
+		try {
+			// share the initial XDMSharedState on bootUp
+			final Consents currentConsents = consentManager.getCurrentConsents();
+
+			// publish the initial consents for synchronous reads, even if empty, as they are now loaded
+			publishCurrentConsents(currentConsents);
+
+			if (!currentConsents.isEmpty()) {
+				shareCurrentConsents(event);
+			}
+		} finally {
+			if (timed) {
+				ConsentMetrics.stop(ConsentMetrics.Timer.HANDLE_EVENT_HUB_BOOT, startNanos);
+			}
+
+			if (traced) {
+				ConsentTracer.endEvent(ConsentTraceSpan.HANDLE_EVENT_HUB_BOOT, event, traceStartNanos);
+			}
 		}
 	}
 
@@ -138,43 +191,72 @@ class ConsentExtension extends Extension {
 	 * and EventSource {@link ConsentConstants.EventSource#UPDATE_CONSENT}.
 	 * <p>
 	 * 1. Reads the event data and extract new available consents in XDM Format.
-	 * 2. Merge with the existing consents.
-	 * 3. Dispatch the merged consent to edge for processing.
+	 * 2. Ignores the event if the new consents are already merged, unless
+	 * {@link ConsentConstants.ConfigurationKey#UPDATE_REFRESH_TIMESTAMP} is enabled to refresh the consents timestamp.
+	 * 3. Merge with the existing consents.
+	 * 4. Dispatch the merged consent to edge for processing.
 	 *
 	 * @param event the {@link Event} to be processed
 	 */
 	void handleConsentUpdate(final Event event) {
-		// bail out if event data is empty
-		final Map<String, Object> consentData = event.getEventData();
+		final boolean timed = ConsentMetrics.isEnabled();
+		final long startNanos = timed ? System.nanoTime() : 0;
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? ConsentTracer.startEvent(event) : 0;
 
-		if (consentData == null || consentData.isEmpty()) {
-			MobileCore.log(
-				LoggingMode.DEBUG,
-				ConsentConstants.LOG_TAG,
-				"ConsentExtension - Consent data not found in consent update event. Dropping event."
-			);
-			return;
-		}
+		try {
+			// bail out if event data is empty
+			final Map<String, Object> consentData = event.getEventData();
+
+			if (consentData == null || consentData.isEmpty()) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentExtension - Consent data not found in consent update event. Dropping event."
+				);
+				return;
+			}
 
-		// bail out if no valid consents are found in eventData
-		final Consents newConsents = new Consents(consentData);
+			// bail out if no valid consents are found in eventData
+			final Consents updatedConsents = new Consents(consentData);
 
-		if (newConsents.isEmpty()) {
-			MobileCore.log(
-				LoggingMode.DEBUG,
-				ConsentConstants.LOG_TAG,
-				"ConsentExtension - Unable to find valid data from consent update event. Dropping event."
-			);
-			return;
-		}
+			if (updatedConsents.isEmpty()) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentExtension - Unable to find valid data from consent update event. Dropping event."
+				);
+				return;
+			}
+
+			// redundant updates cause no persistence write, shared state or Edge request, unless configured otherwise
+			if (!refreshTimestampOnUnchangedUpdate && consentManager.isAlreadyMerged(updatedConsents)) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentExtension - Consents in consent update event are unchanged. Ignoring event."
+				);
+				ConsentMetrics.increment(ConsentMetrics.Counter.UNCHANGED_UPDATES_IGNORED);
+				return;
+			}
 
-		// set the timestamp and merge with existing consents
-		newConsents.setTimestamp(event.getTimestamp());
-		consentManager.mergeAndPersist(newConsents);
+			// set the timestamp and merge with existing consents
+			final Consents newConsents = updatedConsents.withTimestamp(event.getTimestamp());
+			consentManager.mergeAndPersist(newConsents);
+			recordConsentsHistory(event, ConsentSource.UPDATE);
+
+			// share and dispatch the updated consents, consecutive updates may be coalesced into a single shared state
+			shareCurrentConsents(event, true);
+			dispatchEdgeConsentUpdateEvent(newConsents); // dispatches only the newly updated consents
+		} finally {
+			if (timed) {
+				ConsentMetrics.stop(ConsentMetrics.Timer.HANDLE_CONSENT_UPDATE, startNanos);
+			}
 
-		// share and dispatch the updated consents
-		shareCurrentConsents(event);
-		dispatchEdgeConsentUpdateEvent(newConsents); // dispatches only the newly updated consents
+			if (traced) {
+				ConsentTracer.endEvent(ConsentTraceSpan.HANDLE_CONSENT_UPDATE, event, traceStartNanos);
+			}
+		}
 	}
 
 	/**
@@ -187,67 +269,83 @@ class ConsentExtension extends Extension {
 	 * @param event the Edge consent preferences response {@link Event} to be processed
 	 */
 	void handleEdgeConsentPreferenceHandle(final Event event) {
-		// bail out if event data is empty
-		final Map<String, Object> eventData = event.getEventData();
-
-		// bail out if you don't find payload in edge consent preference response event
-		final List<Map<String, Object>> payload;
+		final boolean timed = ConsentMetrics.isEnabled();
+		final long startNanos = timed ? System.nanoTime() : 0;
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? ConsentTracer.startEvent(event) : 0;
 
 		try {
-			payload = (List<Map<String, Object>>) eventData.get(ConsentConstants.EventDataKey.PAYLOAD);
-		} catch (ClassCastException exp) {
-			MobileCore.log(
-				LoggingMode.DEBUG,
-				ConsentConstants.LOG_TAG,
-				"ConsentExtension - Ignoring the consent:preferences handle event from Edge Network, invalid payload."
-			);
-			return;
-		}
+			// bail out if event data is empty
+			final Map<String, Object> eventData = event.getEventData();
 
-		if (payload == null || payload.isEmpty()) {
-			MobileCore.log(
-				LoggingMode.DEBUG,
-				ConsentConstants.LOG_TAG,
-				"ConsentExtension - Ignoring the consent:preferences handle event from Edge Network, empty/missing payload."
-			);
-			return;
-		}
+			// bail out if you don't find payload in edge consent preference response event
+			final List<Map<String, Object>> payload;
 
-		// bail out if no valid consents are found in eventData
-		final Consents newConsents = new Consents(prepareConsentXDMMapWithPayload(payload.get(0)));
+			try {
+				payload = (List<Map<String, Object>>) eventData.get(ConsentConstants.EventDataKey.PAYLOAD);
+			} catch (ClassCastException exp) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentExtension - Ignoring the consent:preferences handle event from Edge Network, invalid payload."
+				);
+				return;
+			}
 
-		if (newConsents.isEmpty()) {
-			MobileCore.log(
-				LoggingMode.DEBUG,
-				ConsentConstants.LOG_TAG,
-				"ConsentExtension - Ignoring the consent:preferences handle event from Edge Network, no valid consent data found."
-			);
-			return;
-		}
+			if (payload == null || payload.isEmpty()) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentExtension - Ignoring the consent:preferences handle event from Edge Network, empty/missing payload."
+				);
+				return;
+			}
 
-		// If the consentPreferences handle has
-		// 1. same consent as current and without timestamp
-		// or
-		// 2. same consent as current and with same timestamp
-		// then ignore this event and do not update the sharedState unnecessarily
-		final Consents currentConsent = consentManager.getCurrentConsents();
+			// bail out if no valid consents are found in eventData
+			final Consents newConsents = new Consents(prepareConsentXDMMapWithPayload(payload.get(0)));
 
-		if (newConsents.getTimestamp() == null || newConsents.getTimestamp().equals(currentConsent.getTimestamp())) {
-			// compare the consents ignoring the timestamp
-			if (newConsents.equalsIgnoreTimestamp(currentConsent)) {
+			if (newConsents.isEmpty()) {
 				MobileCore.log(
-					LoggingMode.VERBOSE,
+					LoggingMode.DEBUG,
 					ConsentConstants.LOG_TAG,
-					"ConsentExtension - Ignoring the consent:preferences handle event from Edge Network. There is no modification from existing consent data"
+					"ConsentExtension - Ignoring the consent:preferences handle event from Edge Network, no valid consent data found."
 				);
 				return;
 			}
-		}
 
-		// update the timestamp and share the updatedConsents as XDMSharedState and dispatch the consent response event
-		newConsents.setTimestamp(event.getTimestamp());
-		consentManager.mergeAndPersist(newConsents);
-		shareCurrentConsents(event);
+			// If the consentPreferences handle has
+			// 1. same consent as current and without timestamp
+			// or
+			// 2. same consent as current and with same timestamp
+			// then ignore this event and do not update the sharedState unnecessarily
+			final Consents currentConsent = consentManager.getCurrentConsents();
+
+			if (newConsents.getTimestamp() == null || newConsents.hasSameTimestamp(currentConsent)) {
+				// compare the consents ignoring the timestamp
+				if (newConsents.equalsIgnoreTimestamp(currentConsent)) {
+					MobileCore.log(
+						LoggingMode.VERBOSE,
+						ConsentConstants.LOG_TAG,
+						"ConsentExtension - Ignoring the consent:preferences handle event from Edge Network. There is no modification from existing consent data"
+					);
+					ConsentMetrics.increment(ConsentMetrics.Counter.UNCHANGED_EDGE_PREFERENCES_IGNORED);
+					return;
+				}
+			}
+
+			// update the timestamp and share the updatedConsents as XDMSharedState and dispatch the consent response event
+			consentManager.mergeAndPersist(newConsents.withTimestamp(event.getTimestamp()), ConsentSource.EDGE);
+			recordConsentsHistory(event, ConsentSource.EDGE);
+			shareCurrentConsents(event);
+		} finally {
+			if (timed) {
+				ConsentMetrics.stop(ConsentMetrics.Timer.HANDLE_EDGE_CONSENT_PREFERENCE, startNanos);
+			}
+
+			if (traced) {
+				ConsentTracer.endEvent(ConsentTraceSpan.HANDLE_EDGE_CONSENT_PREFERENCE, event, traceStartNanos);
+			}
+		}
 	}
 
 	/**
@@ -259,94 +357,293 @@ class ConsentExtension extends Extension {
 	 * @param event the {@link Event} requesting consents
 	 */
 	void handleRequestContent(final Event event) {
-		ExtensionErrorCallback<ExtensionError> errorCallback = new ExtensionErrorCallback<ExtensionError>() {
-			@Override
-			public void error(final ExtensionError extensionError) {
-				MobileCore.log(
-					LoggingMode.DEBUG,
-					ConsentConstants.LOG_TAG,
-					String.format(
-						"ConsentExtension - Failed to dispatch %s event: Error : %s.",
-						ConsentConstants.EventNames.GET_CONSENTS_RESPONSE,
-						extensionError.getErrorName()
-					)
-				);
+		final boolean timed = ConsentMetrics.isEnabled();
+		final long startNanos = timed ? System.nanoTime() : 0;
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? ConsentTracer.startEvent(event) : 0;
+
+		try {
+			ExtensionErrorCallback<ExtensionError> errorCallback = new ExtensionErrorCallback<ExtensionError>() {
+				@Override
+				public void error(final ExtensionError extensionError) {
+					MobileCore.log(
+						LoggingMode.DEBUG,
+						ConsentConstants.LOG_TAG,
+						String.format(
+							"ConsentExtension - Failed to dispatch %s event: Error : %s.",
+							ConsentConstants.EventNames.GET_CONSENTS_RESPONSE,
+							extensionError.getErrorName()
+						)
+					);
+				}
+			};
+			final Event responseEvent = new Event.Builder(
+				ConsentConstants.EventNames.GET_CONSENTS_RESPONSE,
+				ConsentConstants.EventType.CONSENT,
+				ConsentConstants.EventSource.RESPONSE_CONTENT
+			)
+				.setEventData(consentManager.getCurrentConsents().asXDMMap())
+				.build();
+			final long dispatchStartNanos = traced ? System.nanoTime() : 0;
+			MobileCore.dispatchResponseEvent(responseEvent, event, errorCallback);
+
+			if (traced) {
+				ConsentTracer.end(ConsentTraceSpan.DISPATCH, event, dispatchStartNanos);
 			}
-		};
-		final Event responseEvent = new Event.Builder(
-			ConsentConstants.EventNames.GET_CONSENTS_RESPONSE,
-			ConsentConstants.EventType.CONSENT,
-			ConsentConstants.EventSource.RESPONSE_CONTENT
-		)
-			.setEventData(consentManager.getCurrentConsents().asXDMMap())
-			.build();
-		MobileCore.dispatchResponseEvent(responseEvent, event, errorCallback);
+		} finally {
+			if (timed) {
+				ConsentMetrics.stop(ConsentMetrics.Timer.HANDLE_REQUEST_CONTENT, startNanos);
+			}
+
+			if (traced) {
+				ConsentTracer.endEvent(ConsentTraceSpan.HANDLE_REQUEST_CONTENT, event, traceStartNanos);
+			}
+		}
 	}
 
 	/**
-	 * Handles the configuration response to read the default consents.
+	 * Handles the configuration response to read the default consents and the consent persistence settings.
 	 *
 	 * @param event an {@link Event} representing configuration response event
 	 */
 	void handleConfigurationResponse(final Event event) {
-		final Map<String, Object> configData = event.getEventData();
+		final boolean timed = ConsentMetrics.isEnabled();
+		final long startNanos = timed ? System.nanoTime() : 0;
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? ConsentTracer.startEvent(event) : 0;
 
-		if (configData == null || configData.isEmpty()) {
-			MobileCore.log(
-				LoggingMode.DEBUG,
-				ConsentConstants.LOG_TAG,
-				"ConsentExtension - Event data configuration response event is empty, unable to read configuration consent.default. Dropping event."
+		try {
+			final Map<String, Object> configData = event.getEventData();
+
+			ConsentStorageService.setWriteDelay(
+				Utility.optLong(configData, ConsentConstants.ConfigurationKey.PERSISTENCE_WRITE_DELAY, 0)
 			);
-			return;
-		}
+			ConsentStorageService.setJournalEnabled(
+				Utility.optBoolean(configData, ConsentConstants.ConfigurationKey.PERSISTENCE_JOURNAL, false)
+			);
+			ConsentStorageService.setHistoryEnabled(
+				Utility.optBoolean(configData, ConsentConstants.ConfigurationKey.HISTORY_ENABLED, false)
+			);
+			setCoalesceWindow(
+				Utility.optLong(configData, ConsentConstants.ConfigurationKey.SHARED_STATE_COALESCE_WINDOW, 0)
+			);
+			refreshTimestampOnUnchangedUpdate =
+				Utility.optBoolean(configData, ConsentConstants.ConfigurationKey.UPDATE_REFRESH_TIMESTAMP, false);
 
-		final Map<String, Object> defaultConsentMap = (Map<String, Object>) configData.get(
-			ConsentConstants.ConfigurationKey.DEFAULT_CONSENT
-		);
+			if (configData == null || configData.isEmpty()) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentExtension - Event data configuration response event is empty, unable to read configuration consent.default. Dropping event."
+				);
+				return;
+			}
 
-		if (defaultConsentMap == null || defaultConsentMap.isEmpty()) {
-			MobileCore.log(
-				LoggingMode.DEBUG,
-				ConsentConstants.LOG_TAG,
-				"ConsentExtension - consent.default not found in configuration. Make sure Consent extension is installed in your mobile property"
+			final Map<String, Object> defaultConsentMap = (Map<String, Object>) configData.get(
+				ConsentConstants.ConfigurationKey.DEFAULT_CONSENT
 			);
-			// do not return here, even with empty default consent go ahead and update the defaultConsent in ConsentManager
-			// This handles the case where if ConsentExtension was installed and then removed from launch property. Then the defaults should be updated.
-		}
 
-		if (consentManager.updateDefaultConsents(new Consents(defaultConsentMap))) {
-			shareCurrentConsents(event);
+			if (defaultConsentMap == null || defaultConsentMap.isEmpty()) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentExtension - consent.default not found in configuration. Make sure Consent extension is installed in your mobile property"
+				);
+				// do not return here, even with empty default consent go ahead and update the defaultConsent in ConsentManager
+				// This handles the case where if ConsentExtension was installed and then removed from launch property. Then the defaults should be updated.
+			}
+
+			if (consentManager.updateDefaultConsents(new Consents(defaultConsentMap))) {
+				recordConsentsHistory(event, ConsentSource.DEFAULT);
+				shareCurrentConsents(event);
+			}
+		} finally {
+			if (timed) {
+				ConsentMetrics.stop(ConsentMetrics.Timer.HANDLE_CONFIGURATION_RESPONSE, startNanos);
+			}
+
+			if (traced) {
+				ConsentTracer.endEvent(ConsentTraceSpan.HANDLE_CONFIGURATION_RESPONSE, event, traceStartNanos);
+			}
 		}
 	}
 
 	/**
-	 * Creates an XDM Shared state with the consents provided and then dispatches {@link ConsentConstants.EventNames#CONSENT_PREFERENCES_UPDATED}
-	 * event to eventHub to notify other concerned extensions about the Consent changes.
-	 * <p>
-	 * Will not share the XDMSharedEventState or dispatch event if consents is null.
+	 * Shares the current consents, see {@link #shareCurrentConsents(Event, boolean)}.
 	 *
 	 * @param event the {@link Event} that triggered the consents update
 	 */
 	private void shareCurrentConsents(final Event event) {
-		final Map<String, Object> xdmConsents = consentManager.getCurrentConsents().asXDMMap();
+		shareCurrentConsents(event, false);
+	}
 
-		// set the shared state
-		ExtensionErrorCallback<ExtensionError> errorCallback = new ExtensionErrorCallback<ExtensionError>() {
-			@Override
-			public void error(final ExtensionError extensionError) {
-				MobileCore.log(
-					LoggingMode.DEBUG,
-					ConsentConstants.LOG_TAG,
-					String.format(
-						"ConsentExtension - Failed create XDM shared state. Error : %s.",
-						extensionError.getErrorName()
-					)
-				);
+	/**
+	 * Creates an XDM Shared state with the current consents and then dispatches {@link ConsentConstants.EventNames#CONSENT_PREFERENCES_UPDATED}
+	 * event to eventHub to notify other concerned extensions about the Consent changes.
+	 * <p>
+	 * Every event gets its own XDM shared state, holding the consents as of that event. When a coalescing window is
+	 * configured using {@link ConsentConstants.ConfigurationKey#SHARED_STATE_COALESCE_WINDOW}, a burst of coalescible
+	 * updates is notified once: the {@code CONSENT_PREFERENCES_UPDATED} event is dispatched with the consents of the
+	 * last update of the burst when the window ends. Any pending burst is notified before consents updated by a non
+	 * coalescible event.
+	 *
+	 * @param event       the {@link Event} that triggered the consents update
+	 * @param coalescible true if the update may be coalesced with the updates that follow it
+	 */
+	private void shareCurrentConsents(final Event event, final boolean coalescible) {
+		final Consents currentConsents = consentManager.getCurrentConsents();
+		final Map<String, Object> xdmConsents = currentConsents.asXDMMap();
+
+		// synchronous queries and listeners see the latest consents right away, even while the notification is coalesced
+		publishCurrentConsents(currentConsents);
+
+		synchronized (coalesceMutex) {
+			final boolean coalesced = coalescible && coalesceWindowMillis > 0;
+
+			if (!coalesced) {
+				notifyCoalescedConsents();
 			}
-		};
 
-		getApi().setXDMSharedEventState(xdmConsents, event, errorCallback);
+			// the shared state is versioned against the triggering event, so it is never coalesced
+			setXDMSharedState(xdmConsents, event);
+			ConsentMetrics.increment(ConsentMetrics.Counter.SHARED_STATES_CREATED);
+
+			if (coalesced) {
+				// the window is not extended by subsequent updates, bounding the time the notification is delayed
+				if (coalescedEvent == null) {
+					scheduledNotification =
+						getCoalesceExecutor()
+							.schedule(
+								new Runnable() {
+									@Override
+									public void run() {
+										synchronized (coalesceMutex) {
+											scheduledNotification = null;
+											notifyCoalescedConsents();
+										}
+									}
+								},
+								coalesceWindowMillis,
+								TimeUnit.MILLISECONDS
+							);
+				} else {
+					ConsentMetrics.increment(ConsentMetrics.Counter.UPDATES_COALESCED);
+				}
+
+				coalescedEvent = event;
+				coalescedConsents = xdmConsents;
+				return;
+			}
+
+			dispatchConsentPreferencesUpdated(xdmConsents, event);
+		}
+	}
+
+	/**
+	 * Publishes the current consents for the synchronous {@link Consent} APIs and notifies the registered
+	 * {@link ConsentChangeListener}s of the purposes changed since the previously published consents.
+	 * Listeners are not notified of the initial consents loaded on boot.
+	 *
+	 * @param currentConsents the current {@link Consents}
+	 */
+	private void publishCurrentConsents(final Consents currentConsents) {
+		final Consents previousConsents = ConsentDecisionIndex.getPublished().getConsents();
+		ConsentDecisionIndex.publish(currentConsents);
+
+		if (previousConsents != null) {
+			ConsentChangeNotifier.notifyListeners(previousConsents, currentConsents);
+		}
+	}
+
+	/**
+	 * Appends the current consents to the on-device consents history, if enabled with
+	 * {@link ConsentConstants.ConfigurationKey#HISTORY_ENABLED}, see {@link ConsentHistory}.
+	 *
+	 * @param event  the {@link Event} that changed the current consents
+	 * @param source the {@link ConsentSource} of the change
+	 */
+	private void recordConsentsHistory(final Event event, final ConsentSource source) {
+		ConsentStorageService.recordConsentsHistory(consentManager.getCurrentConsents(), event.getTimestamp(), source);
+	}
+
+	/**
+	 * Updates the window within which consecutive consent updates are coalesced into a single
+	 * {@link ConsentConstants.EventNames#CONSENT_PREFERENCES_UPDATED} event.
+	 * Any pending burst is notified when the window changes.
+	 *
+	 * @param windowMillis the coalescing window in milliseconds, 0 to share every update,
+	 *                     capped to {@link ConsentConstants#MAX_SHARED_STATE_COALESCE_WINDOW_MS}
+	 */
+	private void setCoalesceWindow(final long windowMillis) {
+		final long boundedWindowMillis = Math.max(
+			0,
+			Math.min(windowMillis, ConsentConstants.MAX_SHARED_STATE_COALESCE_WINDOW_MS)
+		);
+
+		synchronized (coalesceMutex) {
+			if (boundedWindowMillis == coalesceWindowMillis) {
+				return;
+			}
+
+			coalesceWindowMillis = boundedWindowMillis;
+			notifyCoalescedConsents();
+		}
+	}
+
+	/**
+	 * Dispatches the {@link ConsentConstants.EventNames#CONSENT_PREFERENCES_UPDATED} event of the current burst with
+	 * the consents of its latest update, if any. Must be called while holding the {@link #coalesceMutex}.
+	 * <p>
+	 * Only dispatches an event, the shared states of the burst were already set by the event handlers.
+	 */
+	private void notifyCoalescedConsents() {
+		if (coalescedEvent == null) {
+			return;
+		}
+
+		if (scheduledNotification != null) {
+			scheduledNotification.cancel(false);
+			scheduledNotification = null;
+		}
+
+		final Event event = coalescedEvent;
+		final Map<String, Object> xdmConsents = coalescedConsents;
+		coalescedEvent = null;
+		coalescedConsents = null;
+		dispatchConsentPreferencesUpdated(xdmConsents, event);
+	}
+
+	/**
+	 * Getter for the executor ending the coalescing windows. Must be called while holding the {@link #coalesceMutex}.
+	 *
+	 * @return a single threaded {@link ScheduledExecutorService}
+	 */
+	private ScheduledExecutorService getCoalesceExecutor() {
+		if (coalesceExecutor == null) {
+			coalesceExecutor =
+				Executors.newSingleThreadScheduledExecutor(
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(final Runnable runnable) {
+							final Thread thread = new Thread(runnable, "ConsentExtension");
+							thread.setDaemon(true);
+							return thread;
+						}
+					}
+				);
+		}
 
+		return coalesceExecutor;
+	}
+
+	/**
+	 * Dispatches {@link ConsentConstants.EventNames#CONSENT_PREFERENCES_UPDATED} event to eventHub to notify other
+	 * concerned extensions about the Consent changes.
+	 *
+	 * @param xdmConsents the updated consents, in XDM format
+	 * @param event       the {@link Event} that triggered the consents update
+	 */
+	private void dispatchConsentPreferencesUpdated(final Map<String, Object> xdmConsents, final Event event) {
 		// create and dispatch an consent response event
 		final Event responseEvent = new Event.Builder(
 			ConsentConstants.EventNames.CONSENT_PREFERENCES_UPDATED,
@@ -369,7 +666,43 @@ class ConsentExtension extends Extension {
 				);
 			}
 		};
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? System.nanoTime() : 0;
 		MobileCore.dispatchEvent(responseEvent, dispatchErrorCallback);
+
+		if (traced) {
+			ConsentTracer.end(ConsentTraceSpan.DISPATCH, event, traceStartNanos);
+		}
+	}
+
+	/**
+	 * Sets the XDM shared state for the provided event.
+	 *
+	 * @param xdmConsents the consents to share in XDM format
+	 * @param event       the {@link Event} the shared state is versioned against
+	 */
+	private void setXDMSharedState(final Map<String, Object> xdmConsents, final Event event) {
+		ExtensionErrorCallback<ExtensionError> errorCallback = new ExtensionErrorCallback<ExtensionError>() {
+			@Override
+			public void error(final ExtensionError extensionError) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					String.format(
+						"ConsentExtension - Failed create XDM shared state. Error : %s.",
+						extensionError.getErrorName()
+					)
+				);
+			}
+		};
+
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? System.nanoTime() : 0;
+		getApi().setXDMSharedEventState(xdmConsents, event, errorCallback);
+
+		if (traced) {
+			ConsentTracer.end(ConsentTraceSpan.SHARED_STATE, event, traceStartNanos);
+		}
 	}
 
 	/**
@@ -412,7 +745,15 @@ class ConsentExtension extends Extension {
 				);
 			}
 		};
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? System.nanoTime() : 0;
 		MobileCore.dispatchEvent(edgeConsentUpdateEvent, errorCallback);
+
+		if (traced) {
+			ConsentTracer.end(ConsentTraceSpan.DISPATCH, null, traceStartNanos);
+		}
+
+		ConsentMetrics.increment(ConsentMetrics.Counter.EDGE_UPDATES_DISPATCHED);
 	}
 
 	/**
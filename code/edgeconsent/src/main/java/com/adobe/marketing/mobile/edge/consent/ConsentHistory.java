@@ -0,0 +1,512 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import com.adobe.marketing.mobile.LoggingMode;
+import com.adobe.marketing.mobile.MobileCore;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded on-device history of the current consents, kept in two rotating segment files.
+ * <p>
+ * Every change of the current consents is appended to the active segment as a record holding its time, its
+ * {@link ConsentSource} and the delta from the previously recorded consents. The full consents are written as a
+ * checkpoint instead of a delta every {@link #CHECKPOINT_INTERVAL} records, and always as the first record of a
+ * segment.
+ * When the active segment would grow past {@link #MAX_SEGMENT_LENGTH}, the other segment is truncated and becomes the
+ * active one, dropping the oldest history, so the history never uses more than two segments on disk.
+ * <p>
+ * The time and position of every record are indexed in memory, so the consents at a given time are found with a
+ * binary search followed by the replay of at most {@code CHECKPOINT_INTERVAL} records from the preceding checkpoint.
+ * <p>
+ * Layout of a segment file, the records and deltas are encoded with {@link ConsentDeltaFormat}:
+ * <pre>
+ *     magic (4 bytes) | version (1 byte) | segment sequence number (8 bytes) | record*
+ *     payload: type (1 byte) | time in epoch milliseconds (8 bytes) | source ordinal (1 byte) | delta
+ * </pre>
+ */
+final class ConsentHistory {
+
+	static final long MAX_SEGMENT_LENGTH = 32 * 1024;
+	static final int CHECKPOINT_INTERVAL = 16;
+
+	private static final byte[] MAGIC = { 'A', 'E', 'C', 'H' };
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = MAGIC.length + 1 + 8;
+	private static final int TYPE_CHECKPOINT = 1;
+	private static final int TYPE_DELTA = 2;
+
+	private final File file;
+	private final File[] segmentFiles;
+
+	// guarded by this
+	private boolean loaded;
+	private int activeSegment = -1; // index of the segment records are appended to, -1 if none was started
+	private long activeSequence;
+	private long activeLength; // length of the valid part of the active segment
+	private final List<Entry> entries = new ArrayList<>(); // index of the records of both segments, oldest first
+	private Consents lastConsents; // last recorded consents, null if the history is empty
+	private int recordsSinceCheckpoint;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file the base {@link File} of the history, its directory must exist. The two segments are kept next to it.
+	 */
+	ConsentHistory(final File file) {
+		this.file = file;
+		this.segmentFiles = new File[] { new File(file.getPath() + ".0"), new File(file.getPath() + ".1") };
+	}
+
+	/**
+	 * Getter for the base file of this history.
+	 *
+	 * @return the base {@link File}
+	 */
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Appends the provided consents to the history, if they differ from the last recorded consents.
+	 * <p>
+	 * Records are indexed by time, so a {@code timestamp} older than the last recorded one is replaced by the latter.
+	 *
+	 * @param consents  the new current {@link Consents}
+	 * @param timestamp the time of the change, in epoch milliseconds
+	 * @param source    the {@link ConsentSource} of the change
+	 */
+	synchronized void record(final Consents consents, final long timestamp, final ConsentSource source) {
+		if (consents == null || source == null) {
+			return;
+		}
+
+		ensureLoaded();
+
+		if (consents.equals(lastConsents)) {
+			return;
+		}
+
+		final long lastTimestamp = entries.isEmpty() ? Long.MIN_VALUE : entries.get(entries.size() - 1).timestamp;
+		final long time = Math.max(timestamp, lastTimestamp);
+		final boolean startSegment = activeSegment < 0 || activeLength >= MAX_SEGMENT_LENGTH;
+		boolean checkpoint = startSegment || lastConsents == null || recordsSinceCheckpoint + 1 >= CHECKPOINT_INTERVAL;
+		byte[] record = encodeRecord(checkpoint, time, source, consents);
+
+		if (startSegment || activeLength + record.length > MAX_SEGMENT_LENGTH) {
+			if (!checkpoint) {
+				checkpoint = true;
+				record = encodeRecord(true, time, source, consents);
+			}
+
+			if (HEADER_LENGTH + record.length > MAX_SEGMENT_LENGTH || !startNextSegment()) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentHistory - Unable to record consents of size " + record.length + " in the consents history."
+				);
+				return;
+			}
+		}
+
+		if (!write(segmentFiles[activeSegment], activeLength, record)) {
+			return;
+		}
+
+		entries.add(new Entry(time, source, activeSegment, activeLength, checkpoint));
+		activeLength += record.length;
+		lastConsents = consents;
+		recordsSinceCheckpoint = checkpoint ? 0 : recordsSinceCheckpoint + 1;
+	}
+
+	/**
+	 * Returns the consents that were current at the provided time.
+	 *
+	 * @param timestamp the time, in epoch milliseconds
+	 * @return the {@link Consents} recorded last at or before {@code timestamp}, or null if the history has no consents
+	 * for that time or cannot be read
+	 */
+	synchronized Consents getConsentsAt(final long timestamp) {
+		ensureLoaded();
+		final int index = findLastEntryAt(timestamp);
+		return index < 0 ? null : readConsents(index);
+	}
+
+	/**
+	 * Returns the source of the change which made the consents current at the provided time.
+	 *
+	 * @param timestamp the time, in epoch milliseconds
+	 * @return the {@link ConsentSource} of the record current at {@code timestamp}, or null if there is none
+	 */
+	synchronized ConsentSource getSourceAt(final long timestamp) {
+		ensureLoaded();
+		final int index = findLastEntryAt(timestamp);
+		return index < 0 ? null : entries.get(index).source;
+	}
+
+	/**
+	 * Deletes both segment files and empties the in-memory index, wiping the whole history.
+	 *
+	 * @return true if no segment file is left on disk
+	 */
+	synchronized boolean clear() {
+		boolean cleared = true;
+
+		for (final File segmentFile : segmentFiles) {
+			if (segmentFile.exists() && !segmentFile.delete()) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"ConsentHistory - Unable to delete consents history segment " + segmentFile.getName() + "."
+				);
+				cleared = false;
+			}
+		}
+
+		// the index is reloaded from what is left on disk on next use
+		loaded = false;
+		activeSegment = -1;
+		activeSequence = 0;
+		activeLength = 0;
+		entries.clear();
+		lastConsents = null;
+		recordsSinceCheckpoint = 0;
+		return cleared;
+	}
+
+	/**
+	 * Binary search of the last entry recorded at or before the provided time.
+	 *
+	 * @return the index of the entry, or -1 if all the entries are more recent
+	 */
+	private int findLastEntryAt(final long timestamp) {
+		int low = 0;
+		int high = entries.size() - 1;
+
+		while (low <= high) {
+			final int middle = (low + high) >>> 1;
+
+			if (entries.get(middle).timestamp <= timestamp) {
+				low = middle + 1;
+			} else {
+				high = middle - 1;
+			}
+		}
+
+		return high;
+	}
+
+	/**
+	 * Rebuilds the consents of an entry by replaying the records since the preceding checkpoint.
+	 *
+	 * @param index the index of the entry
+	 * @return the {@link Consents} of the entry, or null if its records cannot be read
+	 */
+	private Consents readConsents(final int index) {
+		final Entry last = entries.get(index);
+		int first = index;
+
+		while (!entries.get(first).checkpoint) {
+			first--;
+
+			if (first < 0 || entries.get(first).segment != last.segment) {
+				return null;
+			}
+		}
+
+		final long start = entries.get(first).offset;
+		final long end = index + 1 < entries.size() && entries.get(index + 1).segment == last.segment
+			? entries.get(index + 1).offset
+			: (last.segment == activeSegment ? activeLength : segmentFiles[last.segment].length());
+		final byte[] data = read(segmentFiles[last.segment], start, (int) (end - start));
+
+		if (data == null) {
+			return null;
+		}
+
+		final Map<String, Object> consentsMap = new HashMap<>();
+		int offset = 0;
+
+		for (int i = first; i <= index; i++) {
+			final int payloadLength = ConsentDeltaFormat.readPayloadLength(data, offset, data.length);
+
+			if (payloadLength < 0) {
+				return null;
+			}
+
+			try {
+				final DataInputStream payload = ConsentDeltaFormat.openPayload(data, offset, payloadLength);
+				payload.skipBytes(1 + 8 + 1);
+
+				if (entries.get(i).checkpoint) {
+					consentsMap.clear();
+				}
+
+				ConsentDeltaFormat.readDelta(payload, consentsMap);
+			} catch (final IOException exception) {
+				return null;
+			}
+
+			offset += payloadLength + ConsentDeltaFormat.RECORD_OVERHEAD;
+		}
+
+		return Consents.fromConsentsMap(consentsMap);
+	}
+
+	/**
+	 * Encodes a history record.
+	 *
+	 * @param checkpoint true to encode the full consents, false to encode the delta from {@link #lastConsents}
+	 * @return the encoded record
+	 */
+	private byte[] encodeRecord(
+		final boolean checkpoint,
+		final long timestamp,
+		final ConsentSource source,
+		final Consents consents
+	) {
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+
+		try {
+			final DataOutputStream out = new DataOutputStream(payload);
+			out.writeByte(checkpoint ? TYPE_CHECKPOINT : TYPE_DELTA);
+			out.writeLong(timestamp);
+			out.writeByte(source.ordinal());
+
+			if (checkpoint) {
+				// a checkpoint is a delta from empty consents, without removed keys
+				out.writeInt(0);
+				out.write(ConsentBinaryFormat.encode(consents));
+			} else {
+				ConsentDeltaFormat.writeDelta(out, lastConsents, consents);
+			}
+
+			out.flush();
+		} catch (final IOException exception) {
+			throw new IllegalStateException(exception); // not thrown by ByteArrayOutputStream
+		}
+
+		return ConsentDeltaFormat.toRecord(payload);
+	}
+
+	/**
+	 * Truncates the oldest segment and makes it the active one, removing its records from the index.
+	 *
+	 * @return true if the segment header was written successfully
+	 */
+	private boolean startNextSegment() {
+		final int nextSegment = activeSegment < 0 ? 0 : 1 - activeSegment;
+		final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.put(MAGIC).put((byte) VERSION).putLong(activeSequence + 1);
+
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(segmentFiles[nextSegment], "rw")) {
+			randomAccessFile.setLength(0);
+			randomAccessFile.write(header.array());
+			ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_WRITTEN, HEADER_LENGTH);
+		} catch (final IOException exception) {
+			logWriteError(exception);
+			return false;
+		}
+
+		int dropped = 0;
+
+		while (dropped < entries.size() && entries.get(dropped).segment == nextSegment) {
+			dropped++;
+		}
+
+		entries.subList(0, dropped).clear();
+		activeSegment = nextSegment;
+		activeSequence++;
+		activeLength = HEADER_LENGTH;
+		return true;
+	}
+
+	/**
+	 * Loads the index of both segments, oldest first, the first time the history is used.
+	 */
+	private void ensureLoaded() {
+		if (loaded) {
+			return;
+		}
+
+		loaded = true;
+		final byte[][] segments = { readSegment(segmentFiles[0]), readSegment(segmentFiles[1]) };
+		final long[] sequences = { sequenceOf(segments[0]), sequenceOf(segments[1]) };
+		final int newest = sequences[1] > sequences[0] ? 1 : 0;
+
+		if (sequences[newest] < 0) {
+			return;
+		}
+
+		if (sequences[1 - newest] >= 0) {
+			indexSegment(1 - newest, segments[1 - newest]);
+		}
+
+		activeLength = indexSegment(newest, segments[newest]);
+		activeSegment = newest;
+		activeSequence = sequences[newest];
+
+		if (!entries.isEmpty()) {
+			lastConsents = readConsents(entries.size() - 1);
+			recordsSinceCheckpoint = 0;
+
+			for (int i = entries.size() - 1; i >= 0 && !entries.get(i).checkpoint; i--) {
+				recordsSinceCheckpoint++;
+			}
+		}
+	}
+
+	/**
+	 * Adds the records of a segment to the index, up to the first incomplete or corrupted record.
+	 *
+	 * @return the length of the valid part of the segment
+	 */
+	private int indexSegment(final int segment, final byte[] data) {
+		int offset = HEADER_LENGTH;
+
+		while (true) {
+			final int payloadLength = ConsentDeltaFormat.readPayloadLength(data, offset, data.length);
+
+			if (payloadLength < 0) {
+				break;
+			}
+
+			try {
+				final DataInputStream payload = ConsentDeltaFormat.openPayload(data, offset, payloadLength);
+				final int type = payload.readUnsignedByte();
+				final long timestamp = payload.readLong();
+				final int source = payload.readUnsignedByte();
+
+				if ((type != TYPE_CHECKPOINT && type != TYPE_DELTA) || source >= ConsentSource.values().length) {
+					break;
+				}
+
+				final boolean checkpoint = type == TYPE_CHECKPOINT;
+				entries.add(new Entry(timestamp, ConsentSource.values()[source], segment, offset, checkpoint));
+			} catch (final IOException exception) {
+				break;
+			}
+
+			offset += payloadLength + ConsentDeltaFormat.RECORD_OVERHEAD;
+		}
+
+		if (offset < data.length) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"ConsentHistory - Ignoring the incomplete end of consents history segment " + segment + "."
+			);
+		}
+
+		return offset;
+	}
+
+	private static byte[] readSegment(final File segmentFile) {
+		if (!segmentFile.exists()) {
+			return null;
+		}
+
+		return read(segmentFile, 0, (int) Math.min(segmentFile.length(), 2 * MAX_SEGMENT_LENGTH));
+	}
+
+	/**
+	 * Reads the sequence number from the header of a segment.
+	 *
+	 * @return the sequence number, or -1 if the segment is missing or its header is invalid
+	 */
+	private static long sequenceOf(final byte[] segment) {
+		if (segment == null || segment.length < HEADER_LENGTH) {
+			return -1;
+		}
+
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (segment[i] != MAGIC[i]) {
+				return -1;
+			}
+		}
+
+		return (segment[MAGIC.length] & 0xFF) == VERSION ? ByteBuffer.wrap(segment, MAGIC.length + 1, 8).getLong() : -1;
+	}
+
+	private static byte[] read(final File segmentFile, final long offset, final int length) {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(segmentFile, "r")) {
+			final byte[] data = new byte[length];
+			randomAccessFile.seek(offset);
+			randomAccessFile.readFully(data);
+			ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_READ, length);
+			return data;
+		} catch (final IOException exception) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"ConsentHistory - Unable to read consents history: " + exception.getLocalizedMessage()
+			);
+			return null;
+		}
+	}
+
+	private static boolean write(final File segmentFile, final long offset, final byte[] record) {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(segmentFile, "rw")) {
+			randomAccessFile.seek(offset);
+			randomAccessFile.write(record);
+			ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_WRITTEN, record.length);
+			return true;
+		} catch (final IOException exception) {
+			logWriteError(exception);
+			return false;
+		}
+	}
+
+	private static void logWriteError(final IOException exception) {
+		MobileCore.log(
+			LoggingMode.DEBUG,
+			ConsentConstants.LOG_TAG,
+			"ConsentHistory - Unable to write consents history: " + exception.getLocalizedMessage()
+		);
+	}
+
+	/**
+	 * Index entry of a history record.
+	 */
+	private static final class Entry {
+
+		final long timestamp;
+		final ConsentSource source;
+		final int segment;
+		final long offset;
+		final boolean checkpoint;
+
+		Entry(
+			final long timestamp,
+			final ConsentSource source,
+			final int segment,
+			final long offset,
+			final boolean checkpoint
+		) {
+			this.timestamp = timestamp;
+			this.source = source;
+			this.segment = segment;
+			this.offset = offset;
+			this.checkpoint = checkpoint;
+		}
+	}
+}
@@ -0,0 +1,121 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.List;
+
+/**
+ * Canonical instances of the strings that make up consent trees, such as purpose keys and consent values.
+ * <p>
+ * The table holds a fixed vocabulary: the {@link ConsentBinaryFormat#getDictionary() dictionary strings} and the XDM
+ * {@link ConsentConstants.EventDataKey#CONSENTS} key. Parsers and copiers replace the strings they produce with the
+ * canonical instances, so all the consent trees share a single instance of each string of the vocabulary instead of
+ * keeping their own copies alive, and comparing two vocabulary strings ends with the identity check of
+ * {@link String#equals(Object)}. Strings outside the vocabulary are left as is, the table never grows.
+ */
+final class ConsentInterner {
+
+	private static final String[] TABLE; // open addressing with linear probing, the length is a power of two
+	private static int maxLength; // length of the longest string of the vocabulary
+
+	static {
+		final List<String> vocabulary = ConsentBinaryFormat.getDictionary();
+		TABLE = new String[Integer.highestOneBit(vocabulary.size() + 1) * 4];
+
+		add(ConsentConstants.EventDataKey.CONSENTS);
+
+		for (final String value : vocabulary) {
+			add(value);
+		}
+	}
+
+	private ConsentInterner() {}
+
+	/**
+	 * Returns the canonical instance of the provided string.
+	 *
+	 * @param value the string to intern
+	 * @return the canonical instance equal to {@code value}, or {@code value} itself if it is not in the vocabulary
+	 */
+	static String intern(final String value) {
+		if (value == null || value.length() > maxLength) {
+			return value;
+		}
+
+		final int mask = TABLE.length - 1;
+
+		for (int slot = value.hashCode() & mask;; slot = (slot + 1) & mask) {
+			final String canonical = TABLE[slot];
+
+			if (canonical == null) {
+				return value;
+			}
+
+			if (canonical.equals(value)) {
+				return canonical;
+			}
+		}
+	}
+
+	/**
+	 * Returns the canonical instance of the string in the provided range, without creating a new string.
+	 *
+	 * @param source the text containing the string
+	 * @param start  the index of the first character of the string
+	 * @param end    the index after the last character of the string
+	 * @return the canonical instance equal to the string in the range, or null if it is not in the vocabulary
+	 */
+	static String lookup(final String source, final int start, final int end) {
+		final int length = end - start;
+
+		if (length > maxLength) {
+			return null;
+		}
+
+		int hash = 0;
+
+		// same hash as String.hashCode()
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + source.charAt(i);
+		}
+
+		final int mask = TABLE.length - 1;
+
+		for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+			final String canonical = TABLE[slot];
+
+			if (canonical == null) {
+				return null;
+			}
+
+			if (canonical.length() == length && source.regionMatches(start, canonical, 0, length)) {
+				return canonical;
+			}
+		}
+	}
+
+	private static void add(final String value) {
+		final int mask = TABLE.length - 1;
+		int slot = value.hashCode() & mask;
+
+		while (TABLE[slot] != null) {
+			if (TABLE[slot].equals(value)) {
+				return;
+			}
+
+			slot = (slot + 1) & mask;
+		}
+
+		TABLE[slot] = value;
+		maxLength = Math.max(maxLength, value.length());
+	}
+}
@@ -0,0 +1,427 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import com.adobe.marketing.mobile.LoggingMode;
+import com.adobe.marketing.mobile.MobileCore;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONException;
+
+/**
+ * Streaming reader building {@link Consents} from their jsonString in a single pass.
+ * <p>
+ * Unlike parsing a {@link org.json.JSONObject} and converting it with {@link Utility#toMap(org.json.JSONObject)},
+ * no intermediate object graph is built: the consents are read directly into the unmodifiable maps and lists held by
+ * the returned {@code Consents}, and the JSON members other than {@code consents} are skipped without being built.
+ * Values are converted the same way as {@code JSONObject} does: integral numbers become {@link Integer} or
+ * {@link Long}, other numbers {@link Double}, and null values are dropped.
+ */
+final class ConsentJsonReader {
+
+	private static final int MAX_DEPTH = 64;
+
+	private final String json;
+	private int position;
+	private int depth;
+
+	private ConsentJsonReader(final String json) {
+		this.json = json;
+	}
+
+	/**
+	 * Reads the {@link Consents} from their XDM jsonString, for example {"consents": {"collect": {"val": "y"}}}.
+	 *
+	 * @param json the consents jsonString
+	 * @return the {@code Consents}, empty if the json has no consents, or null if {@code json} is not valid JSON
+	 */
+	static Consents readConsents(final String json) {
+		if (json == null) {
+			return null;
+		}
+
+		try {
+			return new ConsentJsonReader(json).readXDMConsents();
+		} catch (final JSONException exception) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"ConsentJsonReader - Unable to read consents jsonString: " + exception.getMessage()
+			);
+			return null;
+		}
+	}
+
+	private Consents readXDMConsents() throws JSONException {
+		Map<String, Object> consentsMap = null;
+
+		expect('{');
+
+		if (!consume('}')) {
+			do {
+				final String key = readString();
+				expect(':');
+
+				if (ConsentConstants.EventDataKey.CONSENTS.equals(key) && peek() == '{') {
+					if (consentsMap != null) {
+						throw syntaxError("Duplicate key " + key);
+					}
+
+					consentsMap = readObject();
+				} else {
+					skipValue();
+				}
+			} while (consume(','));
+
+			expect('}');
+		}
+
+		if (peek() != 0) {
+			throw syntaxError("Unexpected content after the consents");
+		}
+
+		return consentsMap == null ? new Consents((Consents) null) : Consents.fromConsentsMap(consentsMap);
+	}
+
+	/**
+	 * Reads an object, the opening brace being the next character.
+	 *
+	 * @return an unmodifiable {@link Map} of the object members, null members are dropped
+	 */
+	private Map<String, Object> readObject() throws JSONException {
+		enter();
+		expect('{');
+		final Map<String, Object> map = new CompactMap<>();
+
+		if (!consume('}')) {
+			do {
+				final String key = readString();
+				expect(':');
+
+				if (map.containsKey(key)) {
+					throw syntaxError("Duplicate key " + key);
+				}
+
+				final Object value = readValue();
+
+				if (value != null) {
+					map.put(key, value); // large objects are moved to a hash map by the compact map
+				}
+			} while (consume(','));
+
+			expect('}');
+		}
+
+		depth--;
+		return Collections.unmodifiableMap(map);
+	}
+
+	/**
+	 * Reads an array, the opening bracket being the next character.
+	 *
+	 * @return an unmodifiable {@link List} of the array elements, null elements are dropped
+	 */
+	private List<Object> readArray() throws JSONException {
+		enter();
+		expect('[');
+		final List<Object> list = new ArrayList<>();
+
+		if (!consume(']')) {
+			do {
+				final Object value = readValue();
+
+				if (value != null) {
+					list.add(value);
+				}
+			} while (consume(','));
+
+			expect(']');
+		}
+
+		depth--;
+		return Collections.unmodifiableList(list);
+	}
+
+	/**
+	 * Reads any value.
+	 *
+	 * @return the value, null for a JSON null
+	 */
+	private Object readValue() throws JSONException {
+		switch (peek()) {
+			case '{':
+				return readObject();
+			case '[':
+				return readArray();
+			case '"':
+				return readString();
+			case 't':
+				readLiteral("true");
+				return Boolean.TRUE;
+			case 'f':
+				readLiteral("false");
+				return Boolean.FALSE;
+			case 'n':
+				readLiteral("null");
+				return null;
+			default:
+				return readNumber();
+		}
+	}
+
+	/**
+	 * Skips a value without building it.
+	 */
+	private void skipValue() throws JSONException {
+		switch (peek()) {
+			case '{':
+				enter();
+				expect('{');
+
+				if (!consume('}')) {
+					do {
+						readString();
+						expect(':');
+						skipValue();
+					} while (consume(','));
+
+					expect('}');
+				}
+
+				depth--;
+				break;
+			case '[':
+				enter();
+				expect('[');
+
+				if (!consume(']')) {
+					do {
+						skipValue();
+					} while (consume(','));
+
+					expect(']');
+				}
+
+				depth--;
+				break;
+			default:
+				readValue();
+		}
+	}
+
+	private String readString() throws JSONException {
+		expect('"');
+		final int start = position;
+
+		// fast path for strings without escape sequences, known strings are not copied out of the json
+		while (position < json.length()) {
+			final char c = json.charAt(position);
+
+			if (c == '"') {
+				final String canonical = ConsentInterner.lookup(json, start, position);
+				final String value = canonical != null ? canonical : json.substring(start, position);
+				position++;
+				return value;
+			}
+
+			if (c == '\\') {
+				break;
+			}
+
+			if (c < 0x20) {
+				throw syntaxError("Unescaped control character in string");
+			}
+
+			position++;
+		}
+
+		final StringBuilder builder = new StringBuilder(json.substring(start, position));
+
+		while (position < json.length()) {
+			final char c = json.charAt(position++);
+
+			if (c == '"') {
+				return ConsentInterner.intern(builder.toString());
+			}
+
+			if (c < 0x20) {
+				throw syntaxError("Unescaped control character in string");
+			}
+
+			if (c != '\\') {
+				builder.append(c);
+				continue;
+			}
+
+			if (position >= json.length()) {
+				break;
+			}
+
+			final char escaped = json.charAt(position++);
+
+			switch (escaped) {
+				case '"':
+				case '\\':
+				case '/':
+					builder.append(escaped);
+					break;
+				case 'b':
+					builder.append('\b');
+					break;
+				case 'f':
+					builder.append('\f');
+					break;
+				case 'n':
+					builder.append('\n');
+					break;
+				case 'r':
+					builder.append('\r');
+					break;
+				case 't':
+					builder.append('\t');
+					break;
+				case 'u':
+					builder.append(readUnicodeEscape());
+					break;
+				default:
+					throw syntaxError("Invalid escape sequence");
+			}
+		}
+
+		throw syntaxError("Unterminated string");
+	}
+
+	private char readUnicodeEscape() throws JSONException {
+		if (position + 4 > json.length()) {
+			throw syntaxError("Invalid unicode escape sequence");
+		}
+
+		int value = 0;
+
+		for (int i = 0; i < 4; i++) {
+			final int digit = Character.digit(json.charAt(position++), 16);
+
+			if (digit < 0) {
+				throw syntaxError("Invalid unicode escape sequence");
+			}
+
+			value = (value << 4) | digit;
+		}
+
+		return (char) value;
+	}
+
+	/**
+	 * Reads a number, converted the same way as {@link org.json.JSONObject} does.
+	 */
+	private Object readNumber() throws JSONException {
+		final int start = position;
+		boolean decimal = false;
+
+		if (position < json.length() && json.charAt(position) == '-') {
+			position++;
+		}
+
+		while (position < json.length()) {
+			final char c = json.charAt(position);
+
+			if (c >= '0' && c <= '9') {
+				position++;
+			} else if (c == '.' || c == 'e' || c == 'E' || ((c == '+' || c == '-') && decimal)) {
+				decimal = true;
+				position++;
+			} else {
+				break;
+			}
+		}
+
+		final String number = json.substring(start, position);
+
+		if (number.isEmpty() || "-".equals(number)) {
+			throw syntaxError("Unexpected character");
+		}
+
+		try {
+			if (decimal || "-0".equals(number)) {
+				final Double value = Double.valueOf(number);
+
+				if (!value.isInfinite() && !value.isNaN()) {
+					return value;
+				}
+			} else {
+				final long value = Long.parseLong(number);
+
+				if (number.equals(Long.toString(value))) {
+					return value == (int) value ? (Object) Integer.valueOf((int) value) : (Object) Long.valueOf(value);
+				}
+			}
+		} catch (final NumberFormatException exception) {
+			// numbers that do not fit are kept as strings, same as JSONObject
+		}
+
+		return number;
+	}
+
+	private void readLiteral(final String literal) throws JSONException {
+		if (!json.startsWith(literal, position)) {
+			throw syntaxError("Unexpected character");
+		}
+
+		position += literal.length();
+	}
+
+	private void enter() throws JSONException {
+		if (++depth > MAX_DEPTH) {
+			throw syntaxError("Maximum nesting depth exceeded");
+		}
+	}
+
+	/**
+	 * Skips the whitespaces and returns the next character without consuming it.
+	 *
+	 * @return the next character, 0 at the end of the json
+	 */
+	private char peek() {
+		while (position < json.length()) {
+			final char c = json.charAt(position);
+
+			if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+				return c;
+			}
+
+			position++;
+		}
+
+		return 0;
+	}
+
+	private boolean consume(final char expected) {
+		if (peek() == expected) {
+			position++;
+			return true;
+		}
+
+		return false;
+	}
+
+	private void expect(final char expected) throws JSONException {
+		if (!consume(expected)) {
+			throw syntaxError("Expected '" + expected + "'");
+		}
+	}
+
+	private JSONException syntaxError(final String message) {
+		return new JSONException(message + " at " + position);
+	}
+}
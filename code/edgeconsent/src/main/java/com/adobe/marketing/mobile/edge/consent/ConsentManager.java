@@ -18,29 +18,77 @@ final class ConsentManager {
 	private Consents userOptedConsents; // holds on to consents that are updated using PublicAPI or from Edge Consent Response
 	private Consents defaultConsents; // holds on to default consents obtained from configuration response
 
+	private final ConsentResolver resolver = new ConsentResolver(); // resolves the current consents from their sources
+
 	/**
 	 * Constructor.
 	 * <p>
-	 * Initializes the {@link #userOptedConsents} from data in persistence.
+	 * The {@link #userOptedConsents} are initialized from data in persistence when they are first needed, using the
+	 * consents preloaded by {@link ConsentStorageService#preloadConsents()} if available.
 	 */
-	ConsentManager() {
-		userOptedConsents = ConsentStorageService.loadConsentsFromPersistence();
+	ConsentManager() {}
 
-		// Initiate update consent with empty consent object if nothing is loaded from persistence
-		if (userOptedConsents == null) {
-			userOptedConsents = new Consents(new HashMap<String, Object>());
-		}
+	/**
+	 * Merges the provided {@link Consents} with {@link #userOptedConsents} and persists them.
+	 * <p>
+	 * The consents are attributed to {@link ConsentSource#UPDATE}.
+	 *
+	 * @param newConsents the newly obtained consents that needs to be merged with existing consents
+	 * @see #mergeAndPersist(Consents, ConsentSource)
+	 */
+	void mergeAndPersist(final Consents newConsents) {
+		mergeAndPersist(newConsents, ConsentSource.UPDATE);
 	}
 
 	/**
 	 * Merges the provided {@link Consents} with {@link #userOptedConsents} and persists them.
+	 * <p>
+	 * Only the current consents of the merged purposes are resolved again, the current consents stay the same instance
+	 * if the merge did not change them.
 	 *
 	 * @param newConsents the newly obtained consents that needs to be merged with existing consents
+	 * @param source      the {@link ConsentSource} of {@code newConsents}
 	 */
-	void mergeAndPersist(final Consents newConsents) {
+	void mergeAndPersist(final Consents newConsents, final ConsentSource source) {
+		loadUserOptedConsents();
+
 		// merge and persist
-		userOptedConsents.merge(newConsents);
+		final boolean traced = ConsentTracer.isEnabled();
+		final long mergeStartNanos = traced ? System.nanoTime() : 0;
+		userOptedConsents = userOptedConsents.merge(newConsents);
+		resolver.mergeLayer(source, newConsents);
+
+		if (traced) {
+			ConsentTracer.end(ConsentTraceSpan.MERGE, null, mergeStartNanos);
+		}
+
+		final long persistStartNanos = traced ? System.nanoTime() : 0;
 		ConsentStorageService.saveConsentsToPersistence(userOptedConsents);
+
+		if (traced) {
+			ConsentTracer.end(ConsentTraceSpan.PERSIST, null, persistStartNanos);
+		}
+	}
+
+	/**
+	 * Checks if merging the provided {@link Consents} would leave the {@link #userOptedConsents} unchanged,
+	 * ignoring the metadata timestamp.
+	 *
+	 * @param newConsents the newly obtained consents
+	 * @return true if {@code newConsents} are already part of the {@code userOptedConsents}
+	 */
+	boolean isAlreadyMerged(final Consents newConsents) {
+		loadUserOptedConsents();
+
+		if (newConsents == null || newConsents.isEmpty()) {
+			return true;
+		}
+
+		if (userOptedConsents.isEmpty()) {
+			return false;
+		}
+
+		return userOptedConsents.merge(newConsents).equalsIgnoreTimestamp(userOptedConsents);
 	}
 
 	/**
@@ -50,33 +98,66 @@ final class ConsentManager {
 	 * @return true if `currentConsents` has been updated as a result of updating the default consents
 	 */
 	boolean updateDefaultConsents(final Consents newDefaultConsents) {
-		// hold temp copy of current consents for comparison
+		// nothing changes if the defaults are the same as the existing ones
+		if (newDefaultConsents == null ? defaultConsents == null : newDefaultConsents.equals(defaultConsents)) {
+			return false;
+		}
+
+		// hold on to the current consents for comparison
 		final Consents existingConsents = getCurrentConsents();
 
 		// update the defaultConsents variable
 		defaultConsents = newDefaultConsents;
+		resolver.replaceLayer(ConsentSource.DEFAULT, newDefaultConsents);
 
-		return !existingConsents.equals(getCurrentConsents());
+		return !ConsentsDiff.isUnchanged(existingConsents, getCurrentConsents());
 	}
 
 	/**
 	 * Getter method to retrieve the current consents.
 	 * <p>
-	 * The current consents is computed by overriding the {@link #userOptedConsents} over the {@link #defaultConsents}
+	 * The current consents is computed by overriding the {@link #defaultConsents} with the consents from the user tier
+	 * sources, see {@link ConsentSource}.
 	 * The returned consent is never null. When there is no {@code #userOptedConsents} or {@code #defaultConsents}, still an empty consent object is returned.
+	 * {@link Consents} are immutable, so the returned object is a snapshot that is safe to share without copying.
+	 * The current consents are memoized and only the purposes changed by {@link #mergeAndPersist(Consents)} or
+	 * {@link #updateDefaultConsents(Consents)} are resolved again.
 	 *
 	 * @return the sharable complete current consents of this user
 	 */
 	Consents getCurrentConsents() {
-		// if defaults consents are not available, return userOptedConsents
-		if (defaultConsents == null || defaultConsents.isEmpty()) {
-			return new Consents(userOptedConsents);
+		loadUserOptedConsents();
+		return resolver.resolve();
+	}
+
+	/**
+	 * Returns the source of the current value of the provided consent purpose.
+	 *
+	 * @param purpose the top level consent key, such as {@code collect}
+	 * @return the {@link ConsentSource} that supplied the current value, or null if {@code purpose} is not set
+	 */
+	ConsentSource getConsentSource(final String purpose) {
+		loadUserOptedConsents();
+		return resolver.getSource(purpose);
+	}
+
+	/**
+	 * Initializes the {@link #userOptedConsents} from data in persistence, if not done yet.
+	 * <p>
+	 * The persisted consents are attributed to {@link ConsentSource#PERSISTENCE}, their original source is not stored.
+	 */
+	private void loadUserOptedConsents() {
+		if (userOptedConsents != null) {
+			return;
 		}
 
-		// if default consents are available. Merge the userOpted consents on top of it
-		final Consents currentConsents = new Consents(defaultConsents);
-		currentConsents.merge(userOptedConsents);
+		userOptedConsents = ConsentStorageService.takePreloadedConsents();
+
+		// Initiate update consent with empty consent object if nothing is loaded from persistence
+		if (userOptedConsents == null) {
+			userOptedConsents = new Consents(new HashMap<String, Object>());
+		}
 
-		return currentConsents;
+		resolver.mergeLayer(ConsentSource.PERSISTENCE, userOptedConsents);
 	}
 }
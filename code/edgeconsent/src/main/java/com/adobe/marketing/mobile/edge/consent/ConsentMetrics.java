@@ -0,0 +1,236 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters and latency histograms of the Consent extension hot paths.
+ * <p>
+ * Recording is disabled by default. While disabled, recording a metric costs a single volatile read, and the callers
+ * of {@link #stop(Timer, long)} check {@link #isEnabled()} before reading the clock. The metrics are cumulative since the process start or the last
+ * {@link #reset()}, and are read using {@link #snapshot()}.
+ * <p>
+ * Latencies are recorded in a histogram of {@link #BUCKET_COUNT} power of two buckets: bucket 0 counts the durations
+ * below 1 microsecond, bucket {@code i} the durations from 2<sup>i-1</sup> up to 2<sup>i</sup> microseconds, and the
+ * last bucket all the longer durations.
+ */
+final class ConsentMetrics {
+
+	static final int BUCKET_COUNT = 20;
+
+	static final String KEY_ENABLED = "enabled";
+	static final String KEY_COUNTERS = "counters";
+	static final String KEY_TIMERS = "timers";
+	static final String KEY_COUNT = "count";
+	static final String KEY_TOTAL_NANOS = "totalNanos";
+	static final String KEY_MAX_NANOS = "maxNanos";
+	static final String KEY_HISTOGRAM = "histogramMicros";
+
+	/**
+	 * Metrics counting occurrences, values or bytes, as told by their name.
+	 */
+	enum Counter {
+		SHARED_STATES_CREATED("sharedStatesCreated"), // XDM shared states created with consents
+		UPDATES_COALESCED("updatesCoalesced"), // updates notified by the consent preferences event of a later update
+		EDGE_UPDATES_DISPATCHED("edgeUpdatesDispatched"), // consent updates dispatched to the Edge extension
+		UNCHANGED_UPDATES_IGNORED("unchangedUpdatesIgnored"), // consent update events ignored as already merged
+		UNCHANGED_EDGE_PREFERENCES_IGNORED("unchangedEdgePreferencesIgnored"), // Edge preferences ignored as unchanged
+		PERSISTENCE_BYTES_READ("persistenceBytesRead"), // bytes of consents and history read, by every store
+		PERSISTENCE_BYTES_WRITTEN("persistenceBytesWritten"), // bytes of consents and history written, by every store
+		DEEP_COPIES("deepCopies"), // consent maps deep copied by Utility
+		DEEP_COPIED_VALUE_COUNT("deepCopiedValueCount"); // number of map entries and list elements deep copied
+
+		private final String metricName;
+
+		Counter(final String metricName) {
+			this.metricName = metricName;
+		}
+	}
+
+	/**
+	 * Metrics recording durations.
+	 */
+	enum Timer {
+		HANDLE_EVENT_HUB_BOOT("handleEventHubBoot"),
+		HANDLE_CONSENT_UPDATE("handleConsentUpdate"),
+		HANDLE_EDGE_CONSENT_PREFERENCE("handleEdgeConsentPreference"),
+		HANDLE_REQUEST_CONTENT("handleRequestContent"),
+		HANDLE_CONFIGURATION_RESPONSE("handleConfigurationResponse"),
+		PERSISTENCE_READ("persistenceRead"),
+		PERSISTENCE_WRITE("persistenceWrite");
+
+		private final String metricName;
+
+		Timer(final String metricName) {
+			this.metricName = metricName;
+		}
+	}
+
+	// per timer: count, total nanos, max nanos, then the histogram buckets
+	private static final int COUNT_OFFSET = 0;
+	private static final int TOTAL_OFFSET = 1;
+	private static final int MAX_OFFSET = 2;
+	private static final int BUCKETS_OFFSET = 3;
+	private static final int TIMER_STRIDE = BUCKETS_OFFSET + BUCKET_COUNT;
+
+	private static final AtomicLongArray counters = new AtomicLongArray(Counter.values().length);
+	private static final AtomicLongArray timers = new AtomicLongArray(Timer.values().length * TIMER_STRIDE);
+
+	private static volatile boolean enabled;
+
+	private ConsentMetrics() {}
+
+	/**
+	 * Enables or disables the recording of the metrics. The recorded metrics are kept when disabled.
+	 *
+	 * @param enable true to record the metrics
+	 */
+	static void setEnabled(final boolean enable) {
+		enabled = enable;
+	}
+
+	/**
+	 * Checks if the metrics are recorded.
+	 *
+	 * @return true if the metrics are recorded
+	 */
+	static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Increments the provided counter by one.
+	 *
+	 * @param counter the {@link Counter} to increment
+	 */
+	static void increment(final Counter counter) {
+		if (enabled) {
+			counters.incrementAndGet(counter.ordinal());
+		}
+	}
+
+	/**
+	 * Adds the provided amount to the provided counter.
+	 *
+	 * @param counter the {@link Counter} to update
+	 * @param amount  the amount to add
+	 */
+	static void add(final Counter counter, final long amount) {
+		if (enabled) {
+			counters.addAndGet(counter.ordinal(), amount);
+		}
+	}
+
+	/**
+	 * Records the duration elapsed since the provided start time.
+	 * <p>
+	 * Callers read the start time only if {@link #isEnabled()} returned true, and call this method only for a start
+	 * time they read, as any {@link System#nanoTime()} value, including 0, is a valid start time.
+	 * Nothing is recorded if the metrics are disabled now.
+	 *
+	 * @param timer      the {@link Timer} to record the duration in
+	 * @param startNanos the {@link System#nanoTime()} when the measure started
+	 */
+	static void stop(final Timer timer, final long startNanos) {
+		if (!enabled) {
+			return;
+		}
+
+		final long durationNanos = Math.max(System.nanoTime() - startNanos, 0);
+		final int base = timer.ordinal() * TIMER_STRIDE;
+		timers.incrementAndGet(base + COUNT_OFFSET);
+		timers.addAndGet(base + TOTAL_OFFSET, durationNanos);
+		timers.incrementAndGet(base + BUCKETS_OFFSET + bucketOf(durationNanos));
+
+		long max = timers.get(base + MAX_OFFSET);
+
+		while (durationNanos > max && !timers.compareAndSet(base + MAX_OFFSET, max, durationNanos)) {
+			max = timers.get(base + MAX_OFFSET);
+		}
+	}
+
+	/**
+	 * Returns a snapshot of the recorded metrics.
+	 * <p>
+	 * Output example:
+	 * <pre>
+	 * {"enabled": true,
+	 *  "counters": {"edgeUpdatesDispatched": 2, ...},
+	 *  "timers": {"handleConsentUpdate": {"count": 2, "totalNanos": 81200, "maxNanos": 52100,
+	 *                                      "histogramMicros": [0, 0, 0, 0, 0, 1, 1, 0, ...]}, ...}}
+	 * </pre>
+	 * Concurrent recordings may be partially included, the values of a timer are not read atomically.
+	 *
+	 * @return an unmodifiable {@link Map} of the metrics
+	 */
+	static Map<String, Object> snapshot() {
+		final Map<String, Object> counterValues = new HashMap<>();
+
+		for (final Counter counter : Counter.values()) {
+			counterValues.put(counter.metricName, counters.get(counter.ordinal()));
+		}
+
+		final Map<String, Object> timerValues = new HashMap<>();
+
+		for (final Timer timer : Timer.values()) {
+			final int base = timer.ordinal() * TIMER_STRIDE;
+			final List<Object> histogram = new ArrayList<>(BUCKET_COUNT);
+
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				histogram.add(timers.get(base + BUCKETS_OFFSET + i));
+			}
+
+			final Map<String, Object> timerValue = new HashMap<>();
+			timerValue.put(KEY_COUNT, timers.get(base + COUNT_OFFSET));
+			timerValue.put(KEY_TOTAL_NANOS, timers.get(base + TOTAL_OFFSET));
+			timerValue.put(KEY_MAX_NANOS, timers.get(base + MAX_OFFSET));
+			timerValue.put(KEY_HISTOGRAM, Collections.unmodifiableList(histogram));
+			timerValues.put(timer.metricName, Collections.unmodifiableMap(timerValue));
+		}
+
+		final Map<String, Object> snapshot = new HashMap<>();
+		snapshot.put(KEY_ENABLED, enabled);
+		snapshot.put(KEY_COUNTERS, Collections.unmodifiableMap(counterValues));
+		snapshot.put(KEY_TIMERS, Collections.unmodifiableMap(timerValues));
+		return Collections.unmodifiableMap(snapshot);
+	}
+
+	/**
+	 * Resets all the recorded metrics to 0.
+	 */
+	static void reset() {
+		for (int i = 0; i < counters.length(); i++) {
+			counters.set(i, 0);
+		}
+
+		for (int i = 0; i < timers.length(); i++) {
+			timers.set(i, 0);
+		}
+	}
+
+	/**
+	 * Returns the histogram bucket of the provided duration.
+	 *
+	 * @param durationNanos the duration in nanoseconds
+	 * @return the bucket index, from 0 to {@link #BUCKET_COUNT} - 1
+	 */
+	static int bucketOf(final long durationNanos) {
+		final long micros = durationNanos / 1000;
+		return Math.min(64 - Long.numberOfLeadingZeros(micros), BUCKET_COUNT - 1);
+	}
+}
@@ -0,0 +1,69 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+/**
+ * Consent purposes of the XDM consents schema that can be queried using {@link Consent#getConsentStatus(ConsentPurpose)}.
+ */
+public enum ConsentPurpose {
+	/**
+	 * Collection of data about the user, {@code consents.collect}
+	 */
+	COLLECT("collect"),
+	/**
+	 * Use of the advertising identifiers, {@code consents.adID}
+	 */
+	AD_ID("adID"),
+	/**
+	 * Sharing of data with third parties, {@code consents.share}
+	 */
+	SHARE("share"),
+	/**
+	 * Personalization of content, {@code consents.personalize.content}
+	 */
+	PERSONALIZE_CONTENT("personalize", "content"),
+	/**
+	 * Marketing through any channel, {@code consents.marketing.any}
+	 */
+	MARKETING_ANY("marketing", "any"),
+	/**
+	 * Marketing by email, {@code consents.marketing.email}
+	 */
+	MARKETING_EMAIL("marketing", "email"),
+	/**
+	 * Marketing by push notifications, {@code consents.marketing.push}
+	 */
+	MARKETING_PUSH("marketing", "push"),
+	/**
+	 * Marketing by SMS, {@code consents.marketing.sms}
+	 */
+	MARKETING_SMS("marketing", "sms"),
+	/**
+	 * Marketing by phone calls, {@code consents.marketing.call}
+	 */
+	MARKETING_CALL("marketing", "call");
+
+	private final String[] path;
+
+	ConsentPurpose(final String... path) {
+		this.path = path;
+	}
+
+	/**
+	 * Returns the keys leading to this purpose in the consents map, the value is under the last key's {@code val} key.
+	 *
+	 * @return the path of this purpose, do not modify
+	 */
+	String[] getPath() {
+		return path;
+	}
+}
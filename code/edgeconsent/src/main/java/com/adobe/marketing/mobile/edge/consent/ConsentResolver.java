@@ -0,0 +1,165 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the current consents from one layer of consents per {@link ConsentSource}, and tracks which source supplied
+ * each top level consent.
+ * <p>
+ * Each top level consent resolves to the value of the layer with the highest {@link ConsentSource#getTier()}, and
+ * within a tier to the most recently set value. Keys are resolved on demand by looking up each layer, so the source
+ * of a purpose is answered without merging the layers. The resolved {@link Consents} are memoized, and after a layer
+ * changes only the keys set or removed in that layer are resolved again and patched into them.
+ */
+final class ConsentResolver {
+
+	private static final ConsentSource[] SOURCES = ConsentSource.values();
+
+	private final Layer[] layers = new Layer[SOURCES.length];
+	private final Set<String> dirtyKeys = new HashSet<>(); // keys changed in a layer since the last resolve
+	private long clock; // incremented for every key set in a layer, orders the values within a tier
+	private Consents resolvedConsents = new Consents((Consents) null);
+
+	ConsentResolver() {
+		for (final ConsentSource source : SOURCES) {
+			layers[source.ordinal()] = new Layer();
+		}
+	}
+
+	/**
+	 * Merges the provided consents into the layer of the provided source.
+	 * The merged top level consents become the most recent values of their tier.
+	 *
+	 * @param source   the {@link ConsentSource} of the consents
+	 * @param consents the {@link Consents} to merge, ignored if null
+	 */
+	void mergeLayer(final ConsentSource source, final Consents consents) {
+		if (consents == null) {
+			return;
+		}
+
+		final Layer layer = layers[source.ordinal()];
+
+		for (final Map.Entry<String, Object> entry : consents.getConsentsMap().entrySet()) {
+			layer.values.put(entry.getKey(), entry.getValue());
+			layer.versions.put(entry.getKey(), ++clock);
+			dirtyKeys.add(entry.getKey());
+		}
+	}
+
+	/**
+	 * Replaces the layer of the provided source with the provided consents.
+	 *
+	 * @param source   the {@link ConsentSource} of the consents
+	 * @param consents the new {@link Consents} of the layer, null to clear the layer
+	 */
+	void replaceLayer(final ConsentSource source, final Consents consents) {
+		final Layer layer = layers[source.ordinal()];
+		dirtyKeys.addAll(layer.values.keySet());
+		layer.values.clear();
+		layer.versions.clear();
+		mergeLayer(source, consents);
+	}
+
+	/**
+	 * Returns the source that supplies the current value of the provided top level consent.
+	 *
+	 * @param key the top level consent key, such as a purpose name
+	 * @return the {@link ConsentSource} of the current value, or null if no layer has a value for {@code key}
+	 */
+	ConsentSource getSource(final String key) {
+		ConsentSource resolvedSource = null;
+		long resolvedVersion = 0;
+
+		for (final ConsentSource source : SOURCES) {
+			final Long version = layers[source.ordinal()].versions.get(key);
+
+			if (version == null) {
+				continue;
+			}
+
+			if (
+				resolvedSource == null ||
+				source.getTier() > resolvedSource.getTier() ||
+				(source.getTier() == resolvedSource.getTier() && version > resolvedVersion)
+			) {
+				resolvedSource = source;
+				resolvedVersion = version;
+			}
+		}
+
+		return resolvedSource;
+	}
+
+	/**
+	 * Returns the current value of the provided top level consent.
+	 *
+	 * @param key the top level consent key, such as a purpose name
+	 * @return the current value, or null if no layer has a value for {@code key}
+	 */
+	Object getValue(final String key) {
+		final ConsentSource source = getSource(key);
+		return source == null ? null : layers[source.ordinal()].values.get(key);
+	}
+
+	/**
+	 * Returns the current consents resolved from all the layers.
+	 * <p>
+	 * The same instance is returned as long as no resolved value changes.
+	 *
+	 * @return the resolved {@link Consents}, never null
+	 */
+	Consents resolve() {
+		if (dirtyKeys.isEmpty()) {
+			return resolvedConsents;
+		}
+
+		final Map<String, Object> resolvedMap = resolvedConsents.getConsentsMap();
+		final Map<String, Object> changedEntries = new HashMap<>();
+		final Set<String> removedKeys = new HashSet<>();
+
+		for (final String key : dirtyKeys) {
+			final Object value = getValue(key);
+			final Object previousValue = resolvedMap.get(key);
+
+			if (value == null) {
+				if (previousValue != null) {
+					removedKeys.add(key);
+				}
+			} else if (value != previousValue && !value.equals(previousValue)) {
+				changedEntries.put(key, value);
+			}
+		}
+
+		dirtyKeys.clear();
+
+		if (!changedEntries.isEmpty() || !removedKeys.isEmpty()) {
+			resolvedConsents = resolvedConsents.withEntries(changedEntries, removedKeys);
+		}
+
+		return resolvedConsents;
+	}
+
+	/**
+	 * The top level consents of a source, with the clock value at which each one was set.
+	 */
+	private static final class Layer {
+
+		final Map<String, Object> values = new HashMap<>();
+		final Map<String, Long> versions = new HashMap<>();
+	}
+}
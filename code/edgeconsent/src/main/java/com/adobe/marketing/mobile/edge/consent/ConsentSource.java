@@ -0,0 +1,43 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+/**
+ * The origin of consents, used to resolve the current consents and to record their history.
+ * <p>
+ * Consents of a higher tier take precedence over consents of a lower tier. Within a tier, the most recently set
+ * consents take precedence. The history persists sources by ordinal, new sources must be added last.
+ */
+enum ConsentSource {
+	UPDATE(ConsentSource.USER_TIER), // consents updated using the public API
+	EDGE(ConsentSource.USER_TIER), // consent preferences received from the Edge Network
+	DEFAULT(ConsentSource.DEFAULT_TIER), // default consents received from the configuration
+	PERSISTENCE(ConsentSource.USER_TIER); // consents restored from persistence, their original source is not stored
+
+	static final int DEFAULT_TIER = 0;
+	static final int USER_TIER = 1;
+
+	private final int tier;
+
+	ConsentSource(final int tier) {
+		this.tier = tier;
+	}
+
+	/**
+	 * Getter for the precedence tier of this source.
+	 *
+	 * @return the tier, consents of a higher tier take precedence
+	 */
+	int getTier() {
+		return tier;
+	}
+}
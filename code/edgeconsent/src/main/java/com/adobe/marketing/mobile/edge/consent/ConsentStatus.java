@@ -0,0 +1,56 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+/**
+ * Status of a {@link ConsentPurpose}, as returned by {@link Consent#getConsentStatus(ConsentPurpose)}.
+ */
+public enum ConsentStatus {
+	/**
+	 * The user granted consent, either explicitly ({@code y}) or by default ({@code dy})
+	 */
+	GRANTED,
+	/**
+	 * The user denied consent, either explicitly ({@code n}) or by default ({@code dn})
+	 */
+	DENIED,
+	/**
+	 * The consent is pending verification ({@code p})
+	 */
+	PENDING,
+	/**
+	 * No consent value is available for the purpose, or the value is not one of the above
+	 */
+	UNKNOWN;
+
+	/**
+	 * Returns the {@link ConsentStatus} for an XDM consent value.
+	 *
+	 * @param value the {@code val} of a consent purpose
+	 * @return the status of the consent value, {@link #UNKNOWN} if {@code value} is not a known consent value
+	 */
+	static ConsentStatus fromValue(final Object value) {
+		if ("y".equals(value) || "dy".equals(value)) {
+			return GRANTED;
+		}
+
+		if ("n".equals(value) || "dn".equals(value)) {
+			return DENIED;
+		}
+
+		if ("p".equals(value)) {
+			return PENDING;
+		}
+
+		return UNKNOWN;
+	}
+}
@@ -12,116 +12,709 @@
 package com.adobe.marketing.mobile.edge.consent;
 
 import android.app.Application;
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.content.res.Configuration;
 import com.adobe.marketing.mobile.LoggingMode;
 import com.adobe.marketing.mobile.MobileCore;
-import java.util.Map;
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 final class ConsentStorageService {
 
+	private static final Object pendingWriteMutex = new Object();
+	private static final Object writeMutex = new Object(); // serializes the writes, taken before pendingWriteMutex
+
+	// write-behind state, guarded by pendingWriteMutex
+	private static long writeDelayMillis = 0; // coalescing window, writes are done immediately when 0
+	private static Consents pendingConsents; // latest consents waiting to be written to persistence
+	private static ScheduledFuture<?> scheduledWrite; // pending flush of the pendingConsents
+	private static ScheduledExecutorService writeExecutor;
+	private static Application registeredApplication; // application to which the background flush is registered
+	private static Future<Consents> preloadedConsents; // background load started by preloadConsents, not yet consumed
+	private static volatile ConsentStore store; // store set by setStore, null to use the default Android stores
+	private static volatile boolean journalEnabled; // appends changes to the consents journal, see setJournalEnabled
+	private static JournaledConsentStore fileStore; // reused between calls to keep the journal state, see getFileStore
+	private static ConsentHistory history; // reused between calls to keep the history index, see getHistory
+	private static volatile boolean historyEnabled; // records the consents history, see setHistoryEnabled
+
 	private ConsentStorageService() {}
 
 	/**
-	 * Loads the requested consents from persistence.
+	 * Starts loading the consents from persistence on a background thread, so the disk read and decoding are done
+	 * ahead of the first call to {@link #takePreloadedConsents()}.
 	 * <p>
-	 * The jsonString from persistence is serialized into {@link Consents} object and returned.
-	 * <p>
-	 * Returns null, if loading from persistence fails because {@link SharedPreferences} or {@link SharedPreferences.Editor} is null.
-	 * Returns null, if there was any {@link JSONException} while serializing JSONString to {@code Consents} object.
-	 *
-	 * @return {@link Consent} the previously persisted consents
+	 * Nothing is started if a preload is already in progress or if the app is not available yet, unless a
+	 * {@link ConsentStore} was set using {@link #setStore(ConsentStore)}.
 	 */
-	static Consents loadConsentsFromPersistence() {
-		final SharedPreferences sharedPreferences = getSharedPreference();
-
-		if (sharedPreferences == null) {
+	static void preloadConsents() {
+		if (store == null && MobileCore.getApplication() == null) {
 			MobileCore.log(
-				LoggingMode.DEBUG,
+				LoggingMode.VERBOSE,
 				ConsentConstants.LOG_TAG,
-				"ConsentStorageService - Shared Preference value is null. Unable to load saved consents from persistence."
+				"ConsentStorageService - Application value is null. Consents will be loaded on first use."
 			);
-			return null;
+			return;
 		}
 
-		final String jsonString = sharedPreferences.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null);
+		synchronized (pendingWriteMutex) {
+			if (preloadedConsents != null) {
+				return;
+			}
 
-		if (jsonString == null) {
-			MobileCore.log(
-				LoggingMode.VERBOSE,
-				ConsentConstants.LOG_TAG,
-				"ConsentStorageService - No previous consents were stored in persistence. Current consent is null"
-			);
-			return null;
+			preloadedConsents =
+				getWriteExecutor()
+					.submit(
+						new Callable<Consents>() {
+							@Override
+							public Consents call() {
+								return loadConsentsFromPersistence();
+							}
+						}
+					);
+		}
+	}
+
+	/**
+	 * Returns the consents loaded by {@link #preloadConsents()}, waiting for the background load to complete if needed.
+	 * The consents are loaded synchronously if no preload was started, or if it failed.
+	 * <p>
+	 * The preloaded consents can be taken only once, subsequent calls load the consents from persistence.
+	 *
+	 * @return {@link Consent} the previously persisted consents, or null if none
+	 */
+	static Consents takePreloadedConsents() {
+		final Future<Consents> preload;
+
+		synchronized (pendingWriteMutex) {
+			preload = preloadedConsents;
+			preloadedConsents = null;
+		}
+
+		if (preload == null) {
+			return loadConsentsFromPersistence();
 		}
 
 		try {
-			final JSONObject jsonObject = new JSONObject(jsonString);
-			final Map<String, Object> consentMap = Utility.toMap(jsonObject);
-			return new Consents(consentMap);
-		} catch (JSONException exception) {
+			return getUninterruptibly(preload);
+		} catch (final ExecutionException exception) {
 			MobileCore.log(
 				LoggingMode.DEBUG,
 				ConsentConstants.LOG_TAG,
-				"ConsentStorageService - Serialization error while reading consent jsonString from persistence. Unable to load saved consents from persistence."
+				"ConsentStorageService - Preloading consents failed, loading them again: " + exception.getCause()
 			);
-			return null;
+			return loadConsentsFromPersistence();
+		}
+	}
+
+	/**
+	 * Loads the requested consents from persistence.
+	 * <p>
+	 * When a {@link ConsentStore} is set using {@link #setStore(ConsentStore)}, the consents are loaded from it.
+	 * Otherwise consents are read from the binary consents file in the app files directory and its journal, see
+	 * {@link JournaledConsentStore}.
+	 * If the file does not exist or is corrupted, the consents are read from the legacy jsonString stored in the
+	 * {@link SharedPreferences} and migrated to the binary consents file.
+	 * When the app files directory is not available, the {@code SharedPreferences} are used for both reads and writes.
+	 * <p>
+	 * Returns null, if loading from persistence fails because {@link SharedPreferences} or {@link SharedPreferences.Editor} is null.
+	 * Returns null, if the jsonString stored in the {@code SharedPreferences} is not valid JSON.
+	 *
+	 * @return {@link Consent} the previously persisted consents
+	 */
+	static Consents loadConsentsFromPersistence() {
+		// read back the latest saved consents, even if their write is deferred
+		flushPendingConsents();
+
+		final boolean timed = ConsentMetrics.isEnabled();
+		final long startNanos = timed ? System.nanoTime() : 0;
+
+		try {
+			return readConsentsFromPersistence();
+		} finally {
+			if (timed) {
+				ConsentMetrics.stop(ConsentMetrics.Timer.PERSISTENCE_READ, startNanos);
+			}
 		}
 	}
 
+	/**
+	 * Reads the consents from persistence, see {@link #loadConsentsFromPersistence()}.
+	 *
+	 * @return {@link Consent} the previously persisted consents
+	 */
+	private static Consents readConsentsFromPersistence() {
+		final ConsentStore customStore = store;
+
+		if (customStore != null) {
+			return customStore.load();
+		}
+
+		final JournaledConsentStore fileStore = getFileStore();
+
+		if (fileStore != null) {
+			final Consents consents = fileStore.load();
+
+			if (consents != null) {
+				clearLegacyStore();
+				return consents;
+			}
+		}
+
+		final ConsentStore legacyStore = getLegacyStore();
+		final Consents legacyConsents = legacyStore == null ? null : legacyStore.load();
+
+		// migrate the consents from shared preference to the consents file
+		if (legacyConsents != null && fileStore != null && fileStore.save(legacyConsents)) {
+			legacyStore.clear();
+		}
+
+		return legacyConsents;
+	}
+
 	/**
 	 * Call this method to save the consents to persistence.
 	 * <p>
-	 * The consents are converted to jsonString and stored in the persistence.
+	 * The consents are written to the {@link ConsentStore} set using {@link #setStore(ConsentStore)}, or to the default
+	 * stores, see {@link #loadConsentsFromPersistence()}.
 	 * Saving to persistence fails if {@link SharedPreferences} or {@link SharedPreferences.Editor} is null.
+	 * <p>
+	 * Without a write delay, the consents are written before this method returns, so a saved change survives a crash
+	 * right after it. When a write delay is configured using {@link #setWriteDelay(long)}, the write is deferred and
+	 * coalesced with any other save requested within the write delay, so only the latest consents are serialized and
+	 * written.
+	 * The pending write is flushed at the latest after the write delay, when the app goes to background or
+	 * when {@link #flushPendingConsents()} is called.
 	 *
 	 * @param consents the consents that needs to be persisted under key {@link ConsentConstants.DataStoreKey#CONSENT_PREFERENCES}
 	 */
 	static void saveConsentsToPersistence(final Consents consents) {
-		SharedPreferences sharedPreferences = getSharedPreference();
+		synchronized (pendingWriteMutex) {
+			// an unconsumed preload no longer reflects the persisted consents
+			if (preloadedConsents != null) {
+				preloadedConsents.cancel(false);
+				preloadedConsents = null;
+			}
 
-		if (sharedPreferences == null) {
-			MobileCore.log(
-				LoggingMode.DEBUG,
-				ConsentConstants.LOG_TAG,
-				"ConsentStorageService - Shared Preference value is null. Unable to write consents to persistence."
-			);
+			pendingConsents = consents;
+
+			if (writeDelayMillis > 0) {
+				registerBackgroundFlush();
+				scheduleFlush(writeDelayMillis);
+				return;
+			}
+
+			cancelScheduledWrite();
+		}
+
+		flushPendingConsents();
+	}
+
+	/**
+	 * Writes the consents waiting for a deferred write to persistence, if any.
+	 * <p>
+	 * The pending consents are taken under the {@link #pendingWriteMutex} and written after releasing it, so saves are
+	 * not blocked by the disk I/O. Flushes are serialized, so consents taken later are always written last.
+	 */
+	static void flushPendingConsents() {
+		synchronized (writeMutex) {
+			final Consents consents;
+
+			synchronized (pendingWriteMutex) {
+				cancelScheduledWrite();
+				consents = pendingConsents;
+				pendingConsents = null;
+			}
+
+			if (consents != null) {
+				writeConsentsToPersistence(consents);
+			}
+		}
+	}
+
+	/**
+	 * Sets the coalescing window used for writing consents to persistence.
+	 * <p>
+	 * With a write delay of 0, consents are written to persistence on every save. With a positive write delay, saves are
+	 * coalesced and the consents are written at most {@code delayMillis} milliseconds after the first unsaved change,
+	 * which is the maximum time changes can be lost if the process is killed. The delay is capped at
+	 * {@link ConsentConstants#MAX_PERSISTENCE_WRITE_DELAY_MS}. Any pending write is flushed in background when the delay
+	 * changes.
+	 *
+	 * @param delayMillis the write delay in milliseconds
+	 */
+	static void setWriteDelay(final long delayMillis) {
+		final long boundedDelayMillis = Math.min(
+			Math.max(delayMillis, 0),
+			ConsentConstants.MAX_PERSISTENCE_WRITE_DELAY_MS
+		);
+
+		synchronized (pendingWriteMutex) {
+			if (boundedDelayMillis == writeDelayMillis) {
+				return;
+			}
+
+			writeDelayMillis = boundedDelayMillis;
+
+			if (pendingConsents != null) {
+				scheduleFlush(0);
+			}
+		}
+	}
+
+	/**
+	 * Sets the {@link ConsentStore} used to load and save the consents, instead of the default Android stores.
+	 * <p>
+	 * Used to run the persistence on the JVM, in unit tests and benchmarks.
+	 *
+	 * @param consentStore the {@code ConsentStore} to use, or null to use the default stores
+	 */
+	static void setStore(final ConsentStore consentStore) {
+		store = consentStore;
+	}
+
+	/**
+	 * Appends the provided current consents to the on-device consents history, if they changed.
+	 * <p>
+	 * Nothing is recorded unless the history is enabled using {@link #setHistoryEnabled(boolean)}. The record is
+	 * appended in background, in the order the changes were requested. Nothing is recorded if the app files directory
+	 * is not available.
+	 *
+	 * @param consents  the new current {@link Consents}
+	 * @param timestamp the time of the change, in epoch milliseconds
+	 * @param source    the {@link ConsentSource} of the change
+	 */
+	static void recordConsentsHistory(final Consents consents, final long timestamp, final ConsentSource source) {
+		if (!historyEnabled) {
 			return;
 		}
 
-		final SharedPreferences.Editor editor = sharedPreferences.edit();
+		synchronized (pendingWriteMutex) {
+			getWriteExecutor()
+				.execute(
+					new Runnable() {
+						@Override
+						public void run() {
+							final ConsentHistory consentHistory = getHistory();
+
+							if (consentHistory != null) {
+								consentHistory.record(consents, timestamp, source);
+							}
+						}
+					}
+				);
+		}
+	}
+
+	/**
+	 * Returns the consents that were current at the provided time, according to the on-device consents history.
+	 * <p>
+	 * The history is read once the changes recorded before this call are appended to it. Returns null while the
+	 * history is disabled.
+	 *
+	 * @param timestamp the time, in epoch milliseconds
+	 * @return the {@link Consents} current at {@code timestamp}, or null if the history has no consents for that time
+	 */
+	static Consents getConsentsAt(final long timestamp) {
+		if (!historyEnabled) {
+			return null;
+		}
+
+		final Future<Consents> consentsAt;
+
+		synchronized (pendingWriteMutex) {
+			consentsAt =
+				getWriteExecutor()
+					.submit(
+						new Callable<Consents>() {
+							@Override
+							public Consents call() {
+								final ConsentHistory consentHistory = getHistory();
+								return consentHistory == null ? null : consentHistory.getConsentsAt(timestamp);
+							}
+						}
+					);
+		}
 
-		if (editor == null) {
+		try {
+			return getUninterruptibly(consentsAt);
+		} catch (final ExecutionException exception) {
 			MobileCore.log(
 				LoggingMode.DEBUG,
 				ConsentConstants.LOG_TAG,
-				"ConsentStorageService - Shared Preference Editor is null. Unable to write consents to persistence."
+				"ConsentStorageService - Unable to read the consents history: " + exception.getCause()
 			);
+			return null;
+		}
+	}
+
+	/**
+	 * Enables or disables the on-device consents history, see {@link ConsentHistory}.
+	 * <p>
+	 * The history is disabled by default. Disabling a history enabled earlier in this run deletes the recorded history
+	 * in background. Keeping the history disabled, such as when applying the default configuration, leaves any history
+	 * recorded by a previous run on disk.
+	 *
+	 * @param enabled true to record the changes of the current consents
+	 */
+	static void setHistoryEnabled(final boolean enabled) {
+		synchronized (pendingWriteMutex) {
+			final boolean wasEnabled = historyEnabled;
+			historyEnabled = enabled;
+
+			if (enabled || !wasEnabled) {
+				return;
+			}
+
+			getWriteExecutor()
+				.execute(
+					new Runnable() {
+						@Override
+						public void run() {
+							final ConsentHistory consentHistory = getHistory();
+
+							if (consentHistory != null) {
+								consentHistory.clear();
+							}
+						}
+					}
+				);
+		}
+	}
+
+	/**
+	 * Enables or disables the journal of the binary consents file.
+	 * <p>
+	 * When enabled, a save appends the changed consents to the journal instead of rewriting the whole consents file,
+	 * see {@link JournaledConsentStore}. The journal is always replayed when loading the consents.
+	 *
+	 * @param enabled true to append the saved changes to the journal
+	 */
+	static void setJournalEnabled(final boolean enabled) {
+		journalEnabled = enabled;
+	}
+
+	/**
+	 * Writes the provided consents to the binary consents file, or to the {@link SharedPreferences} if the app files
+	 * directory is not available or the consents file cannot be written.
+	 *
+	 * @param consents the consents that needs to be persisted
+	 */
+	private static void writeConsentsToPersistence(final Consents consents) {
+		final boolean timed = ConsentMetrics.isEnabled();
+		final long startNanos = timed ? System.nanoTime() : 0;
+
+		try {
+			writeConsents(consents);
+		} finally {
+			if (timed) {
+				ConsentMetrics.stop(ConsentMetrics.Timer.PERSISTENCE_WRITE, startNanos);
+			}
+		}
+	}
+
+	/**
+	 * Writes the provided consents to persistence, see {@link #writeConsentsToPersistence(Consents)}.
+	 *
+	 * @param consents the consents that needs to be persisted
+	 */
+	private static void writeConsents(final Consents consents) {
+		final ConsentStore customStore = store;
+
+		if (customStore != null) {
+			customStore.save(consents);
+			return;
+		}
+
+		final JournaledConsentStore fileStore = getFileStore();
+
+		if (fileStore == null) {
+			writeLegacyConsents(consents);
 			return;
 		}
 
 		if (consents.isEmpty()) {
-			editor.remove(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES);
-			editor.apply();
+			fileStore.clear();
+			clearLegacyStore();
 			return;
 		}
 
-		final JSONObject jsonObject = new JSONObject(consents.asXDMMap());
-		final String jsonString = jsonObject.toString();
-		editor.putString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, jsonString);
-		editor.apply();
+		if (!fileStore.save(consents)) {
+			// do not leave outdated consents in the file, they would take precedence on the next load
+			fileStore.clear();
+			writeLegacyConsents(consents);
+		}
+	}
+
+	/**
+	 * Writes the provided consents as jsonString to the {@link SharedPreferences}.
+	 *
+	 * @param consents the consents that needs to be persisted under key {@link ConsentConstants.DataStoreKey#CONSENT_PREFERENCES}
+	 */
+	private static void writeLegacyConsents(final Consents consents) {
+		final ConsentStore legacyStore = getLegacyStore();
+
+		if (legacyStore != null) {
+			legacyStore.save(consents);
+		}
+	}
+
+	/**
+	 * Removes the consents jsonString from the {@link SharedPreferences}, if present.
+	 */
+	private static void clearLegacyStore() {
+		final ConsentStore legacyStore = getLegacyStore();
+
+		if (legacyStore != null) {
+			legacyStore.clear();
+		}
+	}
+
+	/**
+	 * Schedules a flush of the pending consents on the write executor. A flush already scheduled is kept if
+	 * {@code delayMillis} is positive, so the write delay is not extended by subsequent saves, bounding the time consents
+	 * stay in memory only. It is replaced by an immediate flush otherwise.
+	 * Must be called while holding the {@link #pendingWriteMutex}.
+	 *
+	 * @param delayMillis the delay before the flush in milliseconds, 0 to flush as soon as possible
+	 */
+	private static void scheduleFlush(final long delayMillis) {
+		if (scheduledWrite != null) {
+			if (delayMillis > 0) {
+				return;
+			}
+
+			scheduledWrite.cancel(false);
+		}
+
+		scheduledWrite =
+			getWriteExecutor()
+				.schedule(
+					new Runnable() {
+						@Override
+						public void run() {
+							flushPendingConsents();
+						}
+					},
+					delayMillis,
+					TimeUnit.MILLISECONDS
+				);
+	}
+
+	/**
+	 * Flushes the pending consents, if any, on the write executor without waiting for the write. Used from the
+	 * application callbacks, which run on the main thread.
+	 */
+	private static void requestFlush() {
+		synchronized (pendingWriteMutex) {
+			if (pendingConsents != null) {
+				scheduleFlush(0);
+			}
+		}
+	}
+
+	/**
+	 * Cancels the scheduled deferred write, if any. Must be called while holding the {@link #pendingWriteMutex}.
+	 */
+	private static void cancelScheduledWrite() {
+		if (scheduledWrite != null) {
+			scheduledWrite.cancel(false);
+			scheduledWrite = null;
+		}
+	}
+
+	/**
+	 * Waits for the provided {@link Future} to complete, restoring the interrupt status of the calling thread if it is
+	 * interrupted while waiting.
+	 *
+	 * @param future the {@code Future} to wait for
+	 * @return the result of {@code future}
+	 * @throws ExecutionException if {@code future} completed with an exception
+	 */
+	private static <T> T getUninterruptibly(final Future<T> future) throws ExecutionException {
+		boolean interrupted = false;
+
+		try {
+			while (true) {
+				try {
+					return future.get();
+				} catch (final InterruptedException exception) {
+					interrupted = true;
+				}
+			}
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Getter for the executor running the deferred writes, the consents history and the preload.
+	 * Must be called while holding the {@link #pendingWriteMutex}.
+	 *
+	 * @return a single threaded {@link ScheduledExecutorService}
+	 */
+	private static ScheduledExecutorService getWriteExecutor() {
+		if (writeExecutor == null) {
+			writeExecutor =
+				Executors.newSingleThreadScheduledExecutor(
+					new ThreadFactory() {
+						@Override
+						public Thread newThread(final Runnable runnable) {
+							final Thread thread = new Thread(runnable, "ConsentStorageService");
+							thread.setDaemon(true);
+							return thread;
+						}
+					}
+				);
+		}
+
+		return writeExecutor;
+	}
+
+	/**
+	 * Registers a {@link ComponentCallbacks2} with the application that flushes the pending consents when the app UI
+	 * is hidden, so deferred writes do not outlive the app going to background. The callbacks run on the main thread,
+	 * so they only request the flush on the write executor.
+	 * Must be called while holding the {@link #pendingWriteMutex}.
+	 */
+	private static void registerBackgroundFlush() {
+		final Application application = MobileCore.getApplication();
+
+		if (application == null || application == registeredApplication) {
+			return;
+		}
+
+		application.registerComponentCallbacks(
+			new ComponentCallbacks2() {
+				@Override
+				public void onTrimMemory(final int level) {
+					if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+						requestFlush();
+					}
+				}
+
+				@Override
+				public void onConfigurationChanged(final Configuration configuration) {}
+
+				@Override
+				public void onLowMemory() {
+					requestFlush();
+				}
+			}
+		);
+		registeredApplication = application;
+	}
+
+	/**
+	 * Getter for the {@link JournaledConsentStore} holding the binary consents file in the app files directory.
+	 * <p>
+	 * The store is reused as long as the consents file does not change, so the journal is not read again on every save.
+	 * Returns null if the app, app context or app files directory is not available
+	 *
+	 * @return the consents file {@code JournaledConsentStore}
+	 */
+	private static synchronized JournaledConsentStore getFileStore() {
+		final File filesDir = getFilesDir();
+
+		if (filesDir == null) {
+			return null;
+		}
+
+		final File file = new File(filesDir, ConsentConstants.DataStoreKey.CONSENT_PREFERENCES_FILE);
+
+		if (fileStore == null || !fileStore.getFile().equals(file)) {
+			fileStore = new JournaledConsentStore(file);
+		}
+
+		fileStore.setJournalEnabled(journalEnabled);
+		return fileStore;
+	}
+
+	/**
+	 * Getter for the {@link ConsentHistory} kept in the app files directory.
+	 * <p>
+	 * The history is reused as long as the app files directory does not change, so its index is loaded only once.
+	 * Returns null if the app, app context or app files directory is not available
+	 *
+	 * @return the {@code ConsentHistory}
+	 */
+	private static synchronized ConsentHistory getHistory() {
+		final File filesDir = getFilesDir();
+
+		if (filesDir == null) {
+			return null;
+		}
+
+		final File file = new File(filesDir, ConsentConstants.DataStoreKey.CONSENT_HISTORY_FILE);
+
+		if (history == null || !history.getFile().equals(file)) {
+			history = new ConsentHistory(file);
+		}
+
+		return history;
+	}
+
+	/**
+	 * Getter for the app files directory.
+	 * <p>
+	 * Returns null if the app, app context or app files directory is not available
+	 *
+	 * @return the app files directory {@link File}
+	 */
+	private static File getFilesDir() {
+		final Context context = getApplicationContext();
+		return context == null ? null : context.getFilesDir();
+	}
+
+	/**
+	 * Getter for the legacy {@link SharedPreferencesConsentStore}
+	 * <p>
+	 * Returns null if the app, app context or the applications {@link SharedPreferences} are not available
+	 *
+	 * @return a {@code SharedPreferencesConsentStore} instance
+	 */
+	private static ConsentStore getLegacyStore() {
+		final Context context = getApplicationContext();
+
+		if (context == null) {
+			return null;
+		}
+
+		final SharedPreferences sharedPreferences = context.getSharedPreferences(
+			ConsentConstants.DataStoreKey.DATASTORE_NAME,
+			Context.MODE_PRIVATE
+		);
+
+		if (sharedPreferences == null) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"ConsentStorageService - Shared Preference value is null. Unable to read/write consents from persistence."
+			);
+			return null;
+		}
+
+		return new SharedPreferencesConsentStore(sharedPreferences);
 	}
 
 	/**
-	 * Getter for the applications {@link SharedPreferences}
+	 * Getter for the applications {@link Context}
 	 * <p>
 	 * Returns null if the app or app context is not available
 	 *
-	 * @return a {@code SharedPreferences} instance
+	 * @return the application {@code Context}
 	 */
-	private static SharedPreferences getSharedPreference() {
+	private static Context getApplicationContext() {
 		final Application application = MobileCore.getApplication();
 
 		if (application == null) {
@@ -144,6 +737,6 @@ final class ConsentStorageService {
 			return null;
 		}
 
-		return context.getSharedPreferences(ConsentConstants.DataStoreKey.DATASTORE_NAME, Context.MODE_PRIVATE);
+		return context;
 	}
 }
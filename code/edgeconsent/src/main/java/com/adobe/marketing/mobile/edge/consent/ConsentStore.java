@@ -0,0 +1,42 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+/**
+ * Storage backend for the persisted consents, see {@link ConsentStorageService}.
+ * <p>
+ * Implementations are called from the Consent extension thread and from the {@code ConsentStorageService} background
+ * thread, but never concurrently for writes.
+ */
+interface ConsentStore {
+	/**
+	 * Loads the stored consents.
+	 *
+	 * @return the stored {@link Consents}, or null if there are none or if they cannot be read
+	 */
+	Consents load();
+
+	/**
+	 * Replaces the stored consents with the provided ones. Empty consents remove the stored consents.
+	 *
+	 * @param consents the {@link Consents} to store, should not be null
+	 * @return true if the consents were stored successfully
+	 */
+	boolean save(Consents consents);
+
+	/**
+	 * Removes the stored consents, if any.
+	 *
+	 * @return true if there are no stored consents anymore
+	 */
+	boolean clear();
+}
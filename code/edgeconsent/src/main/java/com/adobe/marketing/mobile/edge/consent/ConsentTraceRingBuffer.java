@@ -0,0 +1,112 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * {@link ConsentTraceSink} keeping the most recent spans in memory, for example to display them in a debug screen.
+ * <p>
+ * Recording a span is lock-free: a writer claims the next sequence number and stores the span in the slot of that
+ * sequence, overwriting the oldest span once the buffer is full. Readers never block the writers, a span being
+ * overwritten while the buffer is read is skipped.
+ */
+public final class ConsentTraceRingBuffer implements ConsentTraceSink {
+
+	private final AtomicReferenceArray<Entry> slots;
+	private final AtomicLong nextSequence = new AtomicLong();
+
+	/**
+	 * Constructor.
+	 *
+	 * @param capacity the maximum number of spans kept, must be positive
+	 * @throws IllegalArgumentException if {@code capacity} is not positive
+	 */
+	public ConsentTraceRingBuffer(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive, was " + capacity);
+		}
+
+		slots = new AtomicReferenceArray<>(capacity);
+	}
+
+	@Override
+	public void onSpan(final ConsentTraceSpan span) {
+		if (span == null) {
+			return;
+		}
+
+		final long sequence = nextSequence.getAndIncrement();
+		slots.set(slotOf(sequence), new Entry(sequence, span));
+	}
+
+	/**
+	 * Returns the spans currently in the buffer, oldest first.
+	 *
+	 * @return a new {@link List} of up to {@link #getCapacity()} spans
+	 */
+	public List<ConsentTraceSpan> getSpans() {
+		final long end = nextSequence.get();
+		final long start = Math.max(0, end - slots.length());
+		final List<ConsentTraceSpan> spans = new ArrayList<>((int) (end - start));
+
+		for (long sequence = start; sequence < end; sequence++) {
+			final Entry entry = slots.get(slotOf(sequence));
+
+			// the slot is still being written, or was already overwritten by a newer span
+			if (entry != null && entry.sequence == sequence) {
+				spans.add(entry.span);
+			}
+		}
+
+		return spans;
+	}
+
+	/**
+	 * Getter for the maximum number of spans kept.
+	 *
+	 * @return the capacity of the buffer
+	 */
+	public int getCapacity() {
+		return slots.length();
+	}
+
+	/**
+	 * Getter for the number of spans recorded since the buffer was created, including the overwritten ones.
+	 *
+	 * @return the number of recorded spans
+	 */
+	public long getRecordedCount() {
+		return nextSequence.get();
+	}
+
+	private int slotOf(final long sequence) {
+		return (int) (sequence % slots.length());
+	}
+
+	/**
+	 * A span and its sequence number.
+	 */
+	private static final class Entry {
+
+		final long sequence;
+		final ConsentTraceSpan span;
+
+		Entry(final long sequence, final ConsentTraceSpan span) {
+			this.sequence = sequence;
+			this.span = span;
+		}
+	}
+}
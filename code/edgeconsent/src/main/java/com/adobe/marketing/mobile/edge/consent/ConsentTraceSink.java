@@ -0,0 +1,26 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+/**
+ * Receives the trace spans recorded by the Consent extension, see {@link Consent#setTraceSink(ConsentTraceSink)}.
+ */
+public interface ConsentTraceSink {
+	/**
+	 * Called on the thread that ran the traced operation, usually the Consent extension thread, when a span ends.
+	 * <p>
+	 * Implementations should return quickly and must not block, as they delay the processing of the consent events.
+	 *
+	 * @param span the completed {@link ConsentTraceSpan}
+	 */
+	void onSpan(ConsentTraceSpan span);
+}
@@ -0,0 +1,117 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+/**
+ * A timed operation of the Consent extension, delivered to the {@link ConsentTraceSink}.
+ * <p>
+ * Spans recorded while handling an event are correlated by the unique identifier of the triggering event. Spans
+ * nest: the {@link #HEAR} span of an event contains its handler span, which contains the merge, persistence, shared
+ * state and dispatch spans of the event.
+ */
+public final class ConsentTraceSpan {
+
+	/** An event received by a Consent extension listener. */
+	public static final String HEAR = "hear";
+	/** The handling of the update consent event. */
+	public static final String HANDLE_CONSENT_UPDATE = "handleConsentUpdate";
+	/** The handling of the Edge consent preferences event. */
+	public static final String HANDLE_EDGE_CONSENT_PREFERENCE = "handleEdgeConsentPreference";
+	/** The handling of the get consents request event. */
+	public static final String HANDLE_REQUEST_CONTENT = "handleRequestContent";
+	/** The handling of the configuration response event. */
+	public static final String HANDLE_CONFIGURATION_RESPONSE = "handleConfigurationResponse";
+	/** The handling of the Event Hub boot event. */
+	public static final String HANDLE_EVENT_HUB_BOOT = "handleEventHubBoot";
+	/** The merge of consents with the consents of the user. */
+	public static final String MERGE = "merge";
+	/** The persistence of the consents of the user, or the scheduling of a deferred write. */
+	public static final String PERSIST = "persist";
+	/** The creation of the XDM shared state. */
+	public static final String SHARED_STATE = "sharedState";
+	/** The dispatch of an event by the Consent extension. */
+	public static final String DISPATCH = "dispatch";
+
+	private final String name;
+	private final String eventId;
+	private final String threadName;
+	private final long startNanos;
+	private final long durationNanos;
+
+	ConsentTraceSpan(
+		final String name,
+		final String eventId,
+		final String threadName,
+		final long startNanos,
+		final long durationNanos
+	) {
+		this.name = name;
+		this.eventId = eventId;
+		this.threadName = threadName;
+		this.startNanos = startNanos;
+		this.durationNanos = durationNanos;
+	}
+
+	/**
+	 * Getter for the name of the traced operation, such as {@link #HANDLE_CONSENT_UPDATE}.
+	 *
+	 * @return the span name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Getter for the unique identifier of the event the span was recorded for.
+	 *
+	 * @return the event unique identifier, or null if the operation did not run while handling an event
+	 */
+	public String getEventId() {
+		return eventId;
+	}
+
+	/**
+	 * Getter for the name of the thread that ran the traced operation.
+	 *
+	 * @return the thread name
+	 */
+	public String getThreadName() {
+		return threadName;
+	}
+
+	/**
+	 * Getter for the start time of the span, from {@link System#nanoTime()}.
+	 * Only meaningful to order and compare spans recorded in the same process.
+	 *
+	 * @return the start time in nanoseconds
+	 */
+	public long getStartNanos() {
+		return startNanos;
+	}
+
+	/**
+	 * Getter for the duration of the span.
+	 *
+	 * @return the duration in nanoseconds
+	 */
+	public long getDurationNanos() {
+		return durationNanos;
+	}
+
+	@Override
+	public String toString() {
+		return (
+			"ConsentTraceSpan{name=" + name + ", eventId=" + eventId + ", threadName=" + threadName +
+			", startNanos=" + startNanos + ", durationNanos=" + durationNanos + "}"
+		);
+	}
+}
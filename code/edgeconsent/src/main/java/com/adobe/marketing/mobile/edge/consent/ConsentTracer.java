@@ -0,0 +1,112 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import com.adobe.marketing.mobile.Event;
+import com.adobe.marketing.mobile.LoggingMode;
+import com.adobe.marketing.mobile.MobileCore;
+
+/**
+ * Records the {@link ConsentTraceSpan}s of the Consent extension to the registered {@link ConsentTraceSink}.
+ * <p>
+ * Tracing is disabled while no sink is set. While disabled, tracing an operation costs a single volatile read, as the
+ * callers of {@link #end(String, Event, long)} check {@link #isEnabled()} before reading the clock.
+ * <p>
+ * The span of an event handler makes its event the current event of the thread, so spans recorded by code that has
+ * no access to the event, such as the merge and the persistence, are correlated with it.
+ */
+final class ConsentTracer {
+
+	private static final ThreadLocal<String> currentEventId = new ThreadLocal<>();
+
+	private static volatile ConsentTraceSink sink;
+
+	private ConsentTracer() {}
+
+	/**
+	 * Sets the sink receiving the spans.
+	 *
+	 * @param traceSink the {@link ConsentTraceSink}, or null to disable tracing
+	 */
+	static void setSink(final ConsentTraceSink traceSink) {
+		sink = traceSink;
+	}
+
+	/**
+	 * Checks if the spans are recorded, that is if a sink is set.
+	 *
+	 * @return true if tracing is enabled
+	 */
+	static boolean isEnabled() {
+		return sink != null;
+	}
+
+	/**
+	 * Starts the span of an event handler and makes the provided event the current event of the thread until the span
+	 * is ended using {@link #endEvent(String, Event, long)}.
+	 * <p>
+	 * Callers start the span only if {@link #isEnabled()} returned true, and end it only if they started it.
+	 *
+	 * @param event the {@link Event} being handled
+	 * @return the {@link System#nanoTime()} when the span started
+	 */
+	static long startEvent(final Event event) {
+		currentEventId.set(event == null ? null : event.getUniqueIdentifier());
+		return System.nanoTime();
+	}
+
+	/**
+	 * Ends a span started using {@link #startEvent(Event)} and clears the current event of the thread.
+	 *
+	 * @param name       the span name
+	 * @param event      the {@link Event} being handled
+	 * @param startNanos the start time returned by {@link #startEvent(Event)}
+	 */
+	static void endEvent(final String name, final Event event, final long startNanos) {
+		currentEventId.remove();
+		end(name, event, startNanos);
+	}
+
+	/**
+	 * Ends a span and sends it to the sink.
+	 * <p>
+	 * Callers read the start time only if {@link #isEnabled()} returned true, and call this method only for a start
+	 * time they read, as any {@link System#nanoTime()} value, including 0, is a valid start time.
+	 * Nothing is recorded if tracing is disabled now.
+	 *
+	 * @param name       the span name
+	 * @param event      the {@link Event} the span is recorded for, or null for the current event of the thread
+	 * @param startNanos the {@link System#nanoTime()} when the span started
+	 */
+	static void end(final String name, final Event event, final long startNanos) {
+		final ConsentTraceSink traceSink = sink;
+
+		if (traceSink == null) {
+			return;
+		}
+
+		final long durationNanos = Math.max(System.nanoTime() - startNanos, 0);
+		final String eventId = event == null ? currentEventId.get() : event.getUniqueIdentifier();
+
+		try {
+			traceSink.onSpan(
+				new ConsentTraceSpan(name, eventId, Thread.currentThread().getName(), startNanos, durationNanos)
+			);
+		} catch (final Exception exception) {
+			MobileCore.log(
+				LoggingMode.WARNING,
+				ConsentConstants.LOG_TAG,
+				"ConsentTracer - Trace sink threw an exception: " + exception
+			);
+		}
+	}
+}
@@ -11,19 +11,34 @@
 
 package com.adobe.marketing.mobile.edge.consent;
 
-import java.util.Date;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 
+/**
+ * Immutable representation of the consents in XDM format.
+ * <p>
+ * The internal consents map and all its nested maps are unmodifiable. Operations such as {@link #merge(Consents)} and
+ * {@link #withTimestamp(long)} return a new {@link Consents} instance that shares the unchanged purpose subtrees with
+ * the original ones, so instances can be handed to other readers without defensive copies.
+ * <p>
+ * Each instance carries the hash of its consents, with and without the metadata timestamp. The hashes are updated
+ * incrementally by {@link #merge(Consents)} and {@link #withTimestamp(long)}, and let most inequality checks fail
+ * without walking the consents.
+ */
 final class Consents {
 
-	private Map<String, Object> consentsMap = new HashMap<>();
+	private Map<String, Object> consentsMap = Collections.emptyMap();
+	private int contentHash; // consentsMap.hashCode()
+	private int contentHashIgnoringTimestamp; // hash of consentsMap without the metadata timestamp
 
 	// Suppresses default constructor.
 	private Consents() {}
 
 	/**
 	 * Copy Constructor.
+	 * <p>
+	 * {@code Consents} are immutable, so the new instance shares the consents of {@code newConsents}.
 	 *
 	 * @param newConsents the consents values
 	 */
@@ -32,11 +47,17 @@ final class Consents {
 			return;
 		}
 
-		this.consentsMap = Utility.deepCopy(newConsents.consentsMap);
+		this.consentsMap = newConsents.consentsMap;
+		this.contentHash = newConsents.contentHash;
+		this.contentHashIgnoringTimestamp = newConsents.contentHashIgnoringTimestamp;
 	}
 
 	/**
 	 * Constructor.
+	 * <p>
+	 * Makes an immutable deep copy of the consents in the provided map. The consents may be held in any {@link Map}
+	 * implementation, such as the unmodifiable maps returned by {@link #asXDMMap()}, and are ignored if they are not
+	 * a {@code Map}.
 	 *
 	 * @param xdmMap a {@link Map} in consents XDMFormat
 	 */
@@ -45,15 +66,11 @@ final class Consents {
 			return;
 		}
 
-		Object allConsents = xdmMap.get(ConsentConstants.EventDataKey.CONSENTS);
+		final Object allConsents = xdmMap.get(ConsentConstants.EventDataKey.CONSENTS);
 
-		try {
-			consentsMap =
-				(allConsents instanceof HashMap)
-					? Utility.deepCopy((Map<String, Object>) allConsents)
-					: new HashMap<String, Object>();
-		} catch (final ClassCastException exp) {
-			consentsMap = new HashMap<>();
+		if (allConsents instanceof Map) {
+			consentsMap = Utility.immutableDeepCopy((Map<String, Object>) allConsents);
+			computeContentHashes();
 		}
 	}
 
@@ -83,29 +100,72 @@ final class Consents {
 	}
 
 	/**
-	 * Use this method to set the metadata timestamp for the consents.
+	 * Verifies if the timestamp of this {@link Consents} represents the same instant as the timestamp of the provided
+	 * {@code Consents}. Timestamps are compared as milliseconds since epoch, or as strings if they cannot be parsed.
+	 *
+	 * @param comparingConsent the consents to compare with
+	 * @return true if both consents have the same timestamp, or if both have no timestamp
+	 */
+	boolean hasSameTimestamp(final Consents comparingConsent) {
+		final String timestamp = getTimestamp();
+		final String comparingTimestamp = comparingConsent == null ? null : comparingConsent.getTimestamp();
+
+		if (timestamp == null || comparingTimestamp == null) {
+			return timestamp == null && comparingTimestamp == null;
+		}
+
+		final long epochMillis = DateUtility.iso8601StringToEpochMillis(timestamp);
+		final long comparingEpochMillis = DateUtility.iso8601StringToEpochMillis(comparingTimestamp);
+
+		if (epochMillis == DateUtility.INVALID_TIMESTAMP || comparingEpochMillis == DateUtility.INVALID_TIMESTAMP) {
+			return timestamp.equals(comparingTimestamp);
+		}
+
+		return epochMillis == comparingEpochMillis;
+	}
+
+	/**
+	 * Returns a copy of these consents with the metadata timestamp set to the provided value.
+	 * <p>
+	 * Returns this instance if the consents are empty or the existing metadata is invalid.
 	 *
 	 * @param timeStamp {@code long} timestamp in milliseconds indicating the time of last consents update
+	 * @return {@link Consents} with the updated timestamp
 	 */
-	void setTimestamp(final long timeStamp) {
+	Consents withTimestamp(final long timeStamp) {
 		if (isEmpty()) {
-			return;
+			return this;
 		}
 
-		Map<String, Object> metaDataContents;
+		final Map<String, Object> metaDataContents = new CompactMap<>();
 
 		try {
-			metaDataContents = (Map<String, Object>) consentsMap.get(ConsentConstants.EventDataKey.METADATA);
+			final Map<String, Object> existingMetaDataContents = (Map<String, Object>) consentsMap.get(
+				ConsentConstants.EventDataKey.METADATA
+			);
 
-			if (metaDataContents == null || metaDataContents.isEmpty()) {
-				metaDataContents = new HashMap<>();
+			if (existingMetaDataContents != null) {
+				metaDataContents.putAll(existingMetaDataContents);
 			}
 		} catch (final ClassCastException exception) {
-			return;
+			return this;
 		}
 
-		metaDataContents.put(ConsentConstants.EventDataKey.TIME, DateUtility.dateToISO8601String(new Date(timeStamp)));
-		consentsMap.put(ConsentConstants.EventDataKey.METADATA, metaDataContents);
+		metaDataContents.put(ConsentConstants.EventDataKey.TIME, DateUtility.epochMillisToISO8601String(timeStamp));
+
+		final Map<String, Object> updatedMetaData = Collections.unmodifiableMap(metaDataContents);
+		final Map<String, Object> updatedConsentsMap = CompactMap.newMap(consentsMap.size() + 1);
+		updatedConsentsMap.putAll(consentsMap);
+		final Object previousMetaData = updatedConsentsMap.put(ConsentConstants.EventDataKey.METADATA, updatedMetaData);
+
+		// only the timestamp changed, so the hash ignoring the timestamp is the same
+		return fromConsentsMap(
+			updatedConsentsMap,
+			contentHash -
+			entryHash(ConsentConstants.EventDataKey.METADATA, previousMetaData) +
+			entryHash(ConsentConstants.EventDataKey.METADATA, updatedMetaData),
+			contentHashIgnoringTimestamp
+		);
 	}
 
 	/**
@@ -115,43 +175,91 @@ final class Consents {
 	 * @return {@code true} if there are no consents
 	 */
 	boolean isEmpty() {
-		return consentsMap == null || consentsMap.isEmpty();
+		return consentsMap.isEmpty();
 	}
 
 	/**
-	 * Merges the provided {@link Consents} with the current object.
-	 * The current object is undisturbed if the provided consent is null or empty.
+	 * Merges the provided {@link Consents} on top of the current object.
+	 * <p>
+	 * The current object is never modified. The returned {@code Consents} shares the purpose subtrees of both inputs,
+	 * only the top level map is rebuilt.
+	 * Returns the current object if the provided consent is null or empty.
 	 *
 	 * @param newConsents the consents that needs to be merged
+	 * @return the merged {@link Consents}
 	 */
-	void merge(final Consents newConsents) {
+	Consents merge(final Consents newConsents) {
 		if (newConsents == null || newConsents.isEmpty()) {
-			return;
+			return this;
 		}
 
 		if (isEmpty()) {
-			consentsMap = newConsents.consentsMap;
-			return;
+			return newConsents;
+		}
+
+		return withEntries(newConsents.consentsMap, Collections.<String>emptySet());
+	}
+
+	/**
+	 * Returns a new {@link Consents} with the provided top level consents replaced and removed.
+	 * <p>
+	 * The current object is never modified. Only the top level map is rebuilt, and the hashes are updated with the
+	 * replaced and removed entries only.
+	 *
+	 * @param changedEntries the top level consents to add or replace, their values must be immutable
+	 * @param removedKeys    the keys of the top level consents to remove
+	 * @return the updated {@link Consents}
+	 */
+	Consents withEntries(final Map<String, Object> changedEntries, final Collection<String> removedKeys) {
+		final Map<String, Object> updatedConsentsMap = CompactMap.newMap(consentsMap.size() + changedEntries.size());
+		updatedConsentsMap.putAll(consentsMap);
+		int updatedHash = contentHash;
+		int updatedHashIgnoringTimestamp = contentHashIgnoringTimestamp;
+
+		// update the hashes with the replaced entries only, the shared subtrees are not walked
+		for (final Map.Entry<String, Object> entry : changedEntries.entrySet()) {
+			final String key = entry.getKey();
+			final Object previousValue = updatedConsentsMap.put(key, entry.getValue());
+			final int newEntryHash = entryHash(key, entry.getValue());
+			final int previousEntryHash = entryHash(key, previousValue);
+			updatedHash += newEntryHash - previousEntryHash;
+			updatedHashIgnoringTimestamp +=
+				timestampIgnoringEntryHash(key, entry.getValue(), newEntryHash) -
+				timestampIgnoringEntryHash(key, previousValue, previousEntryHash);
+		}
+
+		for (final String key : removedKeys) {
+			final Object previousValue = updatedConsentsMap.remove(key);
+			final int previousEntryHash = entryHash(key, previousValue);
+			updatedHash -= previousEntryHash;
+			updatedHashIgnoringTimestamp -= timestampIgnoringEntryHash(key, previousValue, previousEntryHash);
 		}
 
-		consentsMap.putAll(newConsents.consentsMap);
+		return fromConsentsMap(updatedConsentsMap, updatedHash, updatedHashIgnoringTimestamp);
+	}
+
+	/**
+	 * Returns the internal consents map, without the XDM {@link ConsentConstants.EventDataKey#CONSENTS} wrapper.
+	 * <p>
+	 * The map and all its nested maps are unmodifiable and shared with this object, they are not copied.
+	 *
+	 * @return the unmodifiable consents {@link Map}, empty if there are no consents
+	 */
+	Map<String, Object> getConsentsMap() {
+		return consentsMap;
 	}
 
 	/**
 	 * XDMMap representation of the available consents associated with this {@link Consents} object.
 	 * <p>
-	 * Will make a deep copy of the available consents map before sharing.
+	 * The consents in the returned map are unmodifiable and shared with this object, they are not copied.
 	 * An empty XDMFormatted consent Map is returned if there are no consents present in this object.
 	 *
 	 * @return {@link Map} representing the Consents in XDM format
 	 */
 	Map<String, Object> asXDMMap() {
-		final Map<String, Object> internalConsentMap = consentsMap != null
-			? Utility.deepCopy(consentsMap)
-			: new HashMap<String, Object>();
-
-		final Map<String, Object> xdmFormattedMap = new HashMap<>();
-		xdmFormattedMap.put(ConsentConstants.EventDataKey.CONSENTS, internalConsentMap);
+		final Map<String, Object> xdmFormattedMap = new CompactMap<>(1);
+		xdmFormattedMap.put(ConsentConstants.EventDataKey.CONSENTS, consentsMap);
 		return xdmFormattedMap;
 	}
 
@@ -176,15 +284,23 @@ final class Consents {
 
 		Consents comparingConsent = (Consents) comparingConsentObject;
 
-		if (consentsMap == null) {
-			return comparingConsent.consentsMap == null;
+		// different hashes guarantee different consents, only equal hashes need the full comparison
+		if (this.contentHash != comparingConsent.contentHash) {
+			return false;
 		}
 
 		return this.consentsMap.equals(comparingConsent.consentsMap);
 	}
 
+	@Override
+	public int hashCode() {
+		return contentHash;
+	}
+
 	/**
 	 * Compares the current consent instance the with the passed object ignoring the timestamp field in metadata
+	 * <p>
+	 * Neither consents is copied, see {@link ConsentsDiff#isUnchanged(Consents, Consents)}.
 	 *
 	 * @return true, if both the consents are equal ignoring timestamp
 	 */
@@ -197,36 +313,101 @@ final class Consents {
 			return true;
 		}
 
-		final Consents originalConsentCopy = new Consents(this);
-		final Consents comparingConsentCopy = new Consents(comparingConsent);
+		if (contentHashIgnoringTimestamp != comparingConsent.contentHashIgnoringTimestamp) {
+			return false;
+		}
 
-		originalConsentCopy.removeTimeStamp();
-		comparingConsentCopy.removeTimeStamp();
+		return ConsentsDiff.isUnchanged(this, comparingConsent);
+	}
 
-		return originalConsentCopy.consentsMap.equals(comparingConsentCopy.consentsMap);
+	/**
+	 * Creates a {@link Consents} from an internal consents map without copying it.
+	 * <p>
+	 * The nested values of {@code consentsMap} must already be immutable and must not be shared with any code that
+	 * could modify them, only the top level map is wrapped.
+	 *
+	 * @param consentsMap the consents map, without the XDM {@link ConsentConstants.EventDataKey#CONSENTS} wrapper
+	 * @return a new {@link Consents} instance
+	 */
+	static Consents fromConsentsMap(final Map<String, Object> consentsMap) {
+		final Consents consents = new Consents();
+		consents.consentsMap = Collections.unmodifiableMap(consentsMap);
+		consents.computeContentHashes();
+		return consents;
 	}
 
 	/**
-	 * Private helper method to remove metadata timestamp from this {@link Consents}
+	 * Creates a {@link Consents} from an internal consents map and its already computed hashes.
 	 */
-	private void removeTimeStamp() {
-		Map<String, Object> metaDataContents;
-		try {
-			metaDataContents = (Map<String, Object>) consentsMap.get(ConsentConstants.EventDataKey.METADATA);
-		} catch (final ClassCastException exp) {
-			return;
+	private static Consents fromConsentsMap(
+		final Map<String, Object> consentsMap,
+		final int contentHash,
+		final int contentHashIgnoringTimestamp
+	) {
+		final Consents consents = new Consents();
+		consents.consentsMap = Collections.unmodifiableMap(consentsMap);
+		consents.contentHash = contentHash;
+		consents.contentHashIgnoringTimestamp = contentHashIgnoringTimestamp;
+		return consents;
+	}
+
+	/**
+	 * Computes both content hashes by walking the whole consents map.
+	 */
+	private void computeContentHashes() {
+		int hash = 0;
+		int hashIgnoringTimestamp = 0;
+
+		for (final Map.Entry<String, Object> entry : consentsMap.entrySet()) {
+			final int entryHash = entryHash(entry.getKey(), entry.getValue());
+			hash += entryHash;
+			hashIgnoringTimestamp += timestampIgnoringEntryHash(entry.getKey(), entry.getValue(), entryHash);
 		}
 
-		if (metaDataContents == null || metaDataContents.isEmpty()) {
-			return;
+		contentHash = hash;
+		contentHashIgnoringTimestamp = hashIgnoringTimestamp;
+	}
+
+	/**
+	 * Returns the contribution of an entry to the hash of the consents map, as defined by {@link Map#hashCode()}.
+	 *
+	 * @param key   the entry key
+	 * @param value the entry value, null if the entry is missing
+	 * @return the hash contribution of the entry, 0 if the entry is missing
+	 */
+	private static int entryHash(final String key, final Object value) {
+		return value == null ? 0 : key.hashCode() ^ value.hashCode();
+	}
+
+	/**
+	 * Returns the contribution of an entry to the hash of the consents map without the metadata timestamp.
+	 * <p>
+	 * The metadata contributes as if its timestamp was removed, and nothing if it only holds the timestamp, the same
+	 * way {@link ConsentsDiff} compares the metadata. Other entries contribute their
+	 * {@link #entryHash(String, Object)}.
+	 *
+	 * @param key       the entry key
+	 * @param value     the entry value, null if the entry is missing
+	 * @param entryHash the {@link #entryHash(String, Object)} of the entry
+	 * @return the hash contribution of the entry ignoring the timestamp
+	 */
+	private static int timestampIgnoringEntryHash(final String key, final Object value, final int entryHash) {
+		if (!(value instanceof Map) || !ConsentConstants.EventDataKey.METADATA.equals(key)) {
+			return entryHash;
 		}
 
-		metaDataContents.remove(ConsentConstants.EventDataKey.TIME);
+		final Map<?, ?> metaData = (Map<?, ?>) value;
+		final Object time = metaData.get(ConsentConstants.EventDataKey.TIME);
+
+		if (time == null) {
+			return entryHash;
+		}
 
-		if (metaDataContents.isEmpty()) {
-			consentsMap.remove(ConsentConstants.EventDataKey.METADATA);
-		} else {
-			consentsMap.put(ConsentConstants.EventDataKey.METADATA, metaDataContents);
+		if (metaData.size() == 1) {
+			return 0;
 		}
+
+		final int timeEntryHash = ConsentConstants.EventDataKey.TIME.hashCode() ^ time.hashCode();
+		return key.hashCode() ^ (metaData.hashCode() - timeEntryHash);
 	}
 }
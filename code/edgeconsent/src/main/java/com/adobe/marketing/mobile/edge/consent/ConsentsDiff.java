@@ -0,0 +1,316 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Structural diff between two {@link Consents}.
+ * <p>
+ * The consent trees are walked once, without being copied. Subtrees shared by both consents, which is the common case
+ * as {@link Consents#merge(Consents)} shares the unchanged purposes, are skipped by reference. Differences are
+ * reported at the deepest level where the trees differ, and the metadata timestamp is always ignored.
+ */
+final class ConsentsDiff {
+
+	/**
+	 * Type of a {@link Entry}.
+	 */
+	enum Type {
+		ADDED,
+		CHANGED,
+		REMOVED
+	}
+
+	/**
+	 * A single difference between two consent trees.
+	 */
+	static final class Entry {
+
+		private final Type type;
+		private final List<String> path;
+		private final Object previousValue;
+		private final Object newValue;
+
+		private Entry(final Type type, final List<String> path, final Object previousValue, final Object newValue) {
+			this.type = type;
+			this.path = path;
+			this.previousValue = previousValue;
+			this.newValue = newValue;
+		}
+
+		Type getType() {
+			return type;
+		}
+
+		/**
+		 * @return the path of the value in the consents map, for example [personalize, content, val]
+		 */
+		List<String> getPath() {
+			return path;
+		}
+
+		/**
+		 * @return the previous value, null if the entry was {@link Type#ADDED}
+		 */
+		Object getPreviousValue() {
+			return previousValue;
+		}
+
+		/**
+		 * @return the new value, null if the entry was {@link Type#REMOVED}
+		 */
+		Object getNewValue() {
+			return newValue;
+		}
+
+		@Override
+		public String toString() {
+			return type + " " + path + ": " + previousValue + " -> " + newValue;
+		}
+	}
+
+	private static final ConsentsDiff EMPTY = new ConsentsDiff(Collections.<Entry>emptyList());
+	private static final List<String> METADATA_PATH = Collections.singletonList(ConsentConstants.EventDataKey.METADATA);
+
+	private final List<Entry> entries;
+
+	private ConsentsDiff(final List<Entry> entries) {
+		this.entries = entries;
+	}
+
+	/**
+	 * @return the unmodifiable list of differences, empty if the consents are the same
+	 */
+	List<Entry> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @return true if there is no difference between the consents
+	 */
+	boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	/**
+	 * Computes the differences needed to go from {@code previousConsents} to {@code currentConsents}, ignoring the
+	 * metadata timestamp. Null consents are treated as empty consents.
+	 *
+	 * @param previousConsents the consents before the change
+	 * @param currentConsents  the consents after the change
+	 * @return the {@link ConsentsDiff}, never null
+	 */
+	static ConsentsDiff compute(final Consents previousConsents, final Consents currentConsents) {
+		final List<Entry> entries = new ArrayList<>();
+		diffConsents(previousConsents, currentConsents, entries);
+		return entries.isEmpty() ? EMPTY : new ConsentsDiff(Collections.unmodifiableList(entries));
+	}
+
+	/**
+	 * Checks if two consents are the same, ignoring the metadata timestamp.
+	 * Stops at the first difference and does not build any {@link Entry}.
+	 *
+	 * @param first  the first consents
+	 * @param second the second consents
+	 * @return true if the consents are the same, ignoring the metadata timestamp
+	 */
+	static boolean isUnchanged(final Consents first, final Consents second) {
+		return !diffConsents(first, second, null);
+	}
+
+	/**
+	 * Walks the consents, collecting the differences into {@code entries}.
+	 *
+	 * @param entries the list receiving the differences, or null to stop at the first difference
+	 * @return true if a difference was found
+	 */
+	private static boolean diffConsents(final Consents previous, final Consents current, final List<Entry> entries) {
+		final Map<String, Object> previousMap = consentsMapOf(previous);
+		final Map<String, Object> currentMap = consentsMapOf(current);
+
+		if (previousMap == currentMap) {
+			return false;
+		}
+
+		return diffMaps(previousMap, currentMap, Collections.<String>emptyList(), true, false, entries);
+	}
+
+	/**
+	 * Compares two maps of the consent trees.
+	 *
+	 * @param path       the path of the maps, only maintained when {@code entries} is not null
+	 * @param isTopLevel true for the consents map itself
+	 * @param isMetadata true for the metadata map, whose timestamp is ignored
+	 * @param entries    the list receiving the differences, or null to stop at the first difference
+	 * @return true if a difference was found
+	 */
+	private static boolean diffMaps(
+		final Map<String, Object> previousMap,
+		final Map<String, Object> currentMap,
+		final List<String> path,
+		final boolean isTopLevel,
+		final boolean isMetadata,
+		final List<Entry> entries
+	) {
+		boolean changed = false;
+
+		for (final Map.Entry<String, Object> entry : currentMap.entrySet()) {
+			final String key = entry.getKey();
+			final Object previousValue = previousMap.get(key);
+			final Object currentValue = entry.getValue();
+
+			if (previousValue == currentValue || (isMetadata && ConsentConstants.EventDataKey.TIME.equals(key))) {
+				continue;
+			}
+
+			if (isTopLevel && ConsentConstants.EventDataKey.METADATA.equals(key)) {
+				changed |= diffMetadata(previousValue, currentValue, entries);
+			} else if (previousValue instanceof Map && currentValue instanceof Map) {
+				changed |=
+					diffMaps(
+						(Map<String, Object>) previousValue,
+						(Map<String, Object>) currentValue,
+						entries == null ? path : append(path, key),
+						false,
+						false,
+						entries
+					);
+			} else if (previousValue == null) {
+				changed = true;
+				addEntry(entries, Type.ADDED, path, key, null, currentValue);
+			} else if (!previousValue.equals(currentValue)) {
+				changed = true;
+				addEntry(entries, Type.CHANGED, path, key, previousValue, currentValue);
+			}
+
+			if (changed && entries == null) {
+				return true;
+			}
+		}
+
+		for (final Map.Entry<String, Object> entry : previousMap.entrySet()) {
+			final String key = entry.getKey();
+
+			if (currentMap.containsKey(key) || (isMetadata && ConsentConstants.EventDataKey.TIME.equals(key))) {
+				continue;
+			}
+
+			if (isTopLevel && ConsentConstants.EventDataKey.METADATA.equals(key)) {
+				changed |= diffMetadata(entry.getValue(), null, entries);
+			} else {
+				changed = true;
+				addEntry(entries, Type.REMOVED, path, key, entry.getValue(), null);
+			}
+
+			if (changed && entries == null) {
+				return true;
+			}
+		}
+
+		return changed;
+	}
+
+	/**
+	 * Compares the metadata, a missing metadata being the same as a metadata holding only the timestamp. An empty
+	 * metadata differs from a missing one.
+	 */
+	private static boolean diffMetadata(
+		final Object previousValue,
+		final Object currentValue,
+		final List<Entry> entries
+	) {
+		if (isMapOrNull(previousValue) && isMapOrNull(currentValue)) {
+			final boolean previousMissing = isMissingIgnoringTimestamp(previousValue);
+
+			if (previousMissing != isMissingIgnoringTimestamp(currentValue)) {
+				if (entries != null) {
+					entries.add(
+						new Entry(
+							previousMissing ? Type.ADDED : Type.REMOVED,
+							METADATA_PATH,
+							previousValue,
+							currentValue
+						)
+					);
+				}
+
+				return true;
+			}
+
+			return diffMaps(
+				previousValue == null ? Collections.<String, Object>emptyMap() : (Map<String, Object>) previousValue,
+				currentValue == null ? Collections.<String, Object>emptyMap() : (Map<String, Object>) currentValue,
+				METADATA_PATH,
+				false,
+				true,
+				entries
+			);
+		}
+
+		if (previousValue != null && previousValue.equals(currentValue)) {
+			return false;
+		}
+
+		final Type type = previousValue == null ? Type.ADDED : (currentValue == null ? Type.REMOVED : Type.CHANGED);
+
+		if (entries != null) {
+			entries.add(new Entry(type, METADATA_PATH, previousValue, currentValue));
+		}
+
+		return true;
+	}
+
+	private static boolean isMapOrNull(final Object value) {
+		return value == null || value instanceof Map;
+	}
+
+	private static boolean isMissingIgnoringTimestamp(final Object metadata) {
+		if (metadata == null) {
+			return true;
+		}
+
+		final Map<?, ?> metadataMap = (Map<?, ?>) metadata;
+		return metadataMap.size() == 1 && metadataMap.containsKey(ConsentConstants.EventDataKey.TIME);
+	}
+
+	private static void addEntry(
+		final List<Entry> entries,
+		final Type type,
+		final List<String> parentPath,
+		final String key,
+		final Object previousValue,
+		final Object newValue
+	) {
+		if (entries != null) {
+			entries.add(new Entry(type, append(parentPath, key), previousValue, newValue));
+		}
+	}
+
+	private static List<String> append(final List<String> path, final String key) {
+		if (path.isEmpty()) {
+			return Collections.singletonList(key);
+		}
+
+		final String[] appended = path.toArray(new String[path.size() + 1]);
+		appended[path.size()] = key;
+		return Collections.unmodifiableList(Arrays.asList(appended));
+	}
+
+	private static Map<String, Object> consentsMapOf(final Consents consents) {
+		return consents == null ? Collections.<String, Object>emptyMap() : consents.getConsentsMap();
+	}
+}
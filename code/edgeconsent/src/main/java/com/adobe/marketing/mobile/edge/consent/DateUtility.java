@@ -19,6 +19,26 @@ import java.util.TimeZone;
 final class DateUtility {
 
 	private static final String TIMESTAMP_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";
+	static final long INVALID_TIMESTAMP = Long.MIN_VALUE;
+
+	private static final int TIMESTAMP_LENGTH = 24; // length of yyyy-MM-ddTHH:mm:ss.SSSZ
+	private static final long MILLIS_PER_DAY = 86400000L;
+	private static final int DAYS_PER_ERA = 146097; // days in a 400 years cycle of the Gregorian calendar
+	private static final int DAYS_FROM_ERA_START_TO_EPOCH = 719468; // days from 0000-03-01 to 1970-01-01
+
+	// Timestamps in [1600-01-01T00:00:00.000Z, 9999-12-31T23:59:59.999Z] are formatted and parsed without
+	// SimpleDateFormat, which uses the Julian calendar before 1582 and more than 4 digits for years after 9999
+	private static final int MIN_YEAR = 1600;
+	private static final int MAX_YEAR = 9999;
+	private static final long MIN_FAST_TIMESTAMP = -11676096000000L;
+	private static final long MAX_FAST_TIMESTAMP = 253402300799999L;
+
+	private static final ThreadLocal<char[]> formatBuffer = new ThreadLocal<char[]>() {
+		@Override
+		protected char[] initialValue() {
+			return new char[TIMESTAMP_LENGTH];
+		}
+	};
 
 	private DateUtility() {}
 
@@ -35,9 +55,210 @@ final class DateUtility {
 		if (timestamp == null) {
 			return "";
 		}
+
+		return epochMillisToISO8601String(timestamp.getTime());
+	}
+
+	/**
+	 * Formats a timestamp in milliseconds since epoch to an ISO 8601 date-time string in UTC,
+	 * see {@link #dateToISO8601String(Date)}.
+	 * <p>
+	 * The string is written to a per thread buffer, so apart from the returned {@code String} nothing is allocated.
+	 *
+	 * @param epochMillis the timestamp in milliseconds since epoch
+	 * @return {@code epochMillis} formatted to a string in the format of {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}
+	 */
+	static String epochMillisToISO8601String(final long epochMillis) {
+		if (epochMillis < MIN_FAST_TIMESTAMP || epochMillis > MAX_FAST_TIMESTAMP) {
+			return createDateFormat().format(new Date(epochMillis));
+		}
+
+		final char[] buffer = formatBuffer.get();
+		final long days = floorDiv(epochMillis, MILLIS_PER_DAY);
+		int millisOfDay = (int) (epochMillis - days * MILLIS_PER_DAY);
+
+		// civil date from days since epoch, see http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+		final long daysFromEraStart = days + DAYS_FROM_ERA_START_TO_EPOCH;
+		final long era = floorDiv(daysFromEraStart, DAYS_PER_ERA);
+		final int dayOfEra = (int) (daysFromEraStart - era * DAYS_PER_ERA);
+		final int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		final int shiftedMonth = (5 * dayOfYear + 2) / 153; // months starting from March
+		final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+		final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+		final int year = (int) (era * 400 + yearOfEra + (month <= 2 ? 1 : 0));
+
+		writeDigits(buffer, 0, year, 4);
+		buffer[4] = '-';
+		writeDigits(buffer, 5, month, 2);
+		buffer[7] = '-';
+		writeDigits(buffer, 8, day, 2);
+		buffer[10] = 'T';
+		writeDigits(buffer, 11, millisOfDay / 3600000, 2);
+		millisOfDay %= 3600000;
+		buffer[13] = ':';
+		writeDigits(buffer, 14, millisOfDay / 60000, 2);
+		millisOfDay %= 60000;
+		buffer[16] = ':';
+		writeDigits(buffer, 17, millisOfDay / 1000, 2);
+		buffer[19] = '.';
+		writeDigits(buffer, 20, millisOfDay % 1000, 3);
+		buffer[23] = 'Z';
+		return new String(buffer, 0, TIMESTAMP_LENGTH);
+	}
+
+	/**
+	 * Parses an ISO 8601 date-time string in UTC, in the format of {@code yyyy-MM-dd'T'HH:mm:ss[.S...]'Z'},
+	 * to the number of milliseconds since epoch. Fractions of seconds are optional, digits after milliseconds are
+	 * ignored. Only years in [1600, 9999] are supported.
+	 *
+	 * @param iso8601String a date-time string as produced by {@link #dateToISO8601String(Date)}
+	 * @return the epoch timestamp in milliseconds, or {@link #INVALID_TIMESTAMP} if {@code iso8601String} is null or
+	 * not in the expected format
+	 */
+	static long iso8601StringToEpochMillis(final String iso8601String) {
+		if (iso8601String == null) {
+			return INVALID_TIMESTAMP;
+		}
+
+		final int length = iso8601String.length();
+
+		if (
+			length < 20 ||
+			iso8601String.charAt(4) != '-' ||
+			iso8601String.charAt(7) != '-' ||
+			iso8601String.charAt(10) != 'T' ||
+			iso8601String.charAt(13) != ':' ||
+			iso8601String.charAt(16) != ':' ||
+			iso8601String.charAt(length - 1) != 'Z'
+		) {
+			return INVALID_TIMESTAMP;
+		}
+
+		final int year = readDigits(iso8601String, 0, 4);
+		final int month = readDigits(iso8601String, 5, 2);
+		final int day = readDigits(iso8601String, 8, 2);
+		final int hour = readDigits(iso8601String, 11, 2);
+		final int minute = readDigits(iso8601String, 14, 2);
+		final int second = readDigits(iso8601String, 17, 2);
+		int millis = 0;
+
+		if (length != 20) {
+			// fraction of seconds, .S to .SSSSSSSSS
+			final int fractionDigits = length - 21;
+
+			if (iso8601String.charAt(19) != '.' || fractionDigits < 1 || fractionDigits > 9) {
+				return INVALID_TIMESTAMP;
+			}
+
+			final int fraction = readDigits(iso8601String, 20, fractionDigits);
+
+			if (fraction < 0) {
+				return INVALID_TIMESTAMP;
+			}
+
+			millis = fraction;
+
+			for (int i = fractionDigits; i < 3; i++) {
+				millis *= 10;
+			}
+
+			for (int i = fractionDigits; i > 3; i--) {
+				millis /= 10;
+			}
+		}
+
+		if (
+			year < MIN_YEAR ||
+			year > MAX_YEAR ||
+			month < 1 ||
+			month > 12 ||
+			day < 1 ||
+			day > daysInMonth(year, month) ||
+			hour < 0 ||
+			hour > 23 ||
+			minute < 0 ||
+			minute > 59 ||
+			second < 0 ||
+			second > 59
+		) {
+			return INVALID_TIMESTAMP;
+		}
+
+		// days since epoch from civil date, see http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+		final int marchBasedYear = month <= 2 ? year - 1 : year;
+		final int era = marchBasedYear / 400; // years are positive, no floor division needed
+		final int yearOfEra = marchBasedYear - era * 400;
+		final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+		final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		final long days = (long) era * DAYS_PER_ERA + dayOfEra - DAYS_FROM_ERA_START_TO_EPOCH;
+
+		return days * MILLIS_PER_DAY + hour * 3600000L + minute * 60000L + second * 1000L + millis;
+	}
+
+	/**
+	 * Creates a {@link SimpleDateFormat} for the {@link #TIMESTAMP_FORMAT} in UTC.
+	 *
+	 * @return a new {@code SimpleDateFormat} instance
+	 */
+	private static SimpleDateFormat createDateFormat() {
 		final Locale posixLocale = new Locale(Locale.US.getLanguage(), Locale.US.getCountry(), "POSIX");
-		SimpleDateFormat simpleDateFormat = new SimpleDateFormat(TIMESTAMP_FORMAT, posixLocale);
+		final SimpleDateFormat simpleDateFormat = new SimpleDateFormat(TIMESTAMP_FORMAT, posixLocale);
 		simpleDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
-		return simpleDateFormat.format(timestamp);
+		return simpleDateFormat;
+	}
+
+	/**
+	 * Writes {@code value} as {@code digits} decimal digits, left padded with zeros.
+	 *
+	 * @param buffer the buffer to write to
+	 * @param offset the position of the first digit in {@code buffer}
+	 * @param value  a positive value with at most {@code digits} digits
+	 * @param digits the number of digits to write
+	 */
+	private static void writeDigits(final char[] buffer, final int offset, final int value, final int digits) {
+		int remaining = value;
+
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			buffer[i] = (char) ('0' + remaining % 10);
+			remaining /= 10;
+		}
+	}
+
+	/**
+	 * Reads {@code digits} decimal digits.
+	 *
+	 * @param value  the string to read from
+	 * @param offset the position of the first digit in {@code value}
+	 * @param digits the number of digits to read
+	 * @return the read number, or -1 if a character is not a decimal digit
+	 */
+	private static int readDigits(final String value, final int offset, final int digits) {
+		int result = 0;
+
+		for (int i = offset; i < offset + digits; i++) {
+			final char character = value.charAt(i);
+
+			if (character < '0' || character > '9') {
+				return -1;
+			}
+
+			result = result * 10 + (character - '0');
+		}
+
+		return result;
+	}
+
+	private static int daysInMonth(final int year, final int month) {
+		if (month == 2) {
+			return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+		}
+
+		return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+	}
+
+	private static long floorDiv(final long dividend, final long divisor) {
+		final long quotient = dividend / divisor;
+		return (dividend % divisor != 0 && (dividend < 0) != (divisor < 0)) ? quotient - 1 : quotient;
 	}
 }
@@ -0,0 +1,173 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import com.adobe.marketing.mobile.LoggingMode;
+import com.adobe.marketing.mobile.MobileCore;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * {@link ConsentStore} keeping the consents in a file, encoded with {@link ConsentBinaryFormat}.
+ * <p>
+ * The file is read and written through {@link FileChannel}s, and replaced atomically on every save. It only depends on
+ * {@link java.io} and {@link java.nio}, so it can be used from JVM tests and benchmarks.
+ */
+final class FileConsentStore implements ConsentStore {
+
+	private final File file;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file the {@link File} holding the consents, its directory must exist
+	 */
+	FileConsentStore(final File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Loads the consents from the file.
+	 *
+	 * @return the stored {@link Consents}, null if the file does not exist, cannot be read or is corrupted
+	 */
+	@Override
+	public Consents load() {
+		if (!file.exists()) {
+			return null;
+		}
+
+		final byte[] data = readFile();
+		final Consents consents = data == null ? null : ConsentBinaryFormat.decode(data);
+
+		if (consents == null) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"FileConsentStore - Unable to read consents file " + file.getName() + "."
+			);
+		}
+
+		return consents;
+	}
+
+	@Override
+	public boolean save(final Consents consents) {
+		if (consents.isEmpty()) {
+			return clear();
+		}
+
+		return writeFileAtomically(ConsentBinaryFormat.encode(consents));
+	}
+
+	@Override
+	public boolean clear() {
+		if (file.exists() && !file.delete()) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"FileConsentStore - Unable to delete consents file."
+			);
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Reads the content of the file.
+	 *
+	 * @return the file content, or null if the file cannot be read or exceeds {@link ConsentConstants#MAX_CONSENTS_FILE_SIZE}
+	 */
+	byte[] readFile() {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r")) {
+			final FileChannel channel = randomAccessFile.getChannel();
+			final long length = channel.size();
+
+			if (length > ConsentConstants.MAX_CONSENTS_FILE_SIZE) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					ConsentConstants.LOG_TAG,
+					"FileConsentStore - Consents file size " + length + " exceeds the maximum size, ignoring it."
+				);
+				return null;
+			}
+
+			final ByteBuffer buffer = ByteBuffer.allocate((int) length);
+
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer) < 0) {
+					return null;
+				}
+			}
+
+			ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_READ, length);
+			return buffer.array();
+		} catch (final IOException exception) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"FileConsentStore - Unable to read consents file: " + exception.getLocalizedMessage()
+			);
+			return null;
+		}
+	}
+
+	/**
+	 * Atomically replaces the content of the file.
+	 * <p>
+	 * The data is written and synced to a temporary file which is then renamed to the consents file, so the file always
+	 * contains either the previous or the new content.
+	 *
+	 * @param data the new file content
+	 * @return true if the file was written successfully
+	 */
+	boolean writeFileAtomically(final byte[] data) {
+		final File tempFile = new File(file.getPath() + ".tmp");
+
+		try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
+			final FileChannel channel = outputStream.getChannel();
+			final ByteBuffer buffer = ByteBuffer.wrap(data);
+
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+
+			channel.force(true);
+			ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_WRITTEN, data.length);
+		} catch (final IOException exception) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"FileConsentStore - Unable to write consents file: " + exception.getLocalizedMessage()
+			);
+			tempFile.delete();
+			return false;
+		}
+
+		if (!tempFile.renameTo(file)) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"FileConsentStore - Unable to replace consents file."
+			);
+			tempFile.delete();
+			return false;
+		}
+
+		return true;
+	}
+}
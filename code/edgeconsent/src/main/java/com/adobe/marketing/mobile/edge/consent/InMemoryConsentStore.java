@@ -0,0 +1,41 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+/**
+ * {@link ConsentStore} keeping the consents in memory, for unit tests and benchmarks.
+ * <p>
+ * The consents are kept encoded with {@link ConsentBinaryFormat}, so loads and saves cost the same serialization as
+ * the {@link FileConsentStore}, without the I/O.
+ */
+final class InMemoryConsentStore implements ConsentStore {
+
+	private volatile byte[] data;
+
+	@Override
+	public Consents load() {
+		final byte[] storedData = data;
+		return storedData == null ? null : ConsentBinaryFormat.decode(storedData);
+	}
+
+	@Override
+	public boolean save(final Consents consents) {
+		data = consents == null || consents.isEmpty() ? null : ConsentBinaryFormat.encode(consents);
+		return true;
+	}
+
+	@Override
+	public boolean clear() {
+		data = null;
+		return true;
+	}
+}
@@ -0,0 +1,376 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import com.adobe.marketing.mobile.LoggingMode;
+import com.adobe.marketing.mobile.MobileCore;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ConsentStore} keeping a snapshot of the consents in a {@link FileConsentStore} file, followed by a journal of
+ * the changes saved since the snapshot was written.
+ * <p>
+ * When journaling is enabled, a save appends a record holding only the changed and removed top level consents to the
+ * journal and syncs it, instead of rewriting the whole snapshot. The journal is compacted into a new snapshot once it
+ * holds {@link #MAX_JOURNAL_RECORDS} records or grows larger than both the snapshot and
+ * {@link #MIN_COMPACTION_LENGTH}, which bounds the work done on load.
+ * When journaling is disabled, every save writes a new snapshot and removes the journal.
+ * <p>
+ * Layout of the journal file, the record payloads are deltas encoded with {@link ConsentDeltaFormat}:
+ * <pre>
+ *     magic (4 bytes) | version (1 byte) | CRC32 of the snapshot file (4 bytes) | record*
+ * </pre>
+ * <p>
+ * On load the journal is replayed on top of the snapshot, up to the first incomplete or corrupted record. A journal
+ * written for a different snapshot, for example when the process died while compacting, is ignored.
+ * <p>
+ * The snapshot file has the same format as the {@code FileConsentStore} file, so the consents written by one store can
+ * be loaded by the other as long as the journal is empty.
+ */
+final class JournaledConsentStore implements ConsentStore {
+
+	static final int MAX_JOURNAL_RECORDS = 32;
+	static final long MIN_COMPACTION_LENGTH = 4096;
+
+	private static final byte[] MAGIC = { 'A', 'E', 'C', 'J' };
+	private static final int VERSION = 1;
+	private static final int HEADER_LENGTH = MAGIC.length + 1 + 4;
+
+	private final File file;
+	private final File journalFile;
+	private final FileConsentStore snapshotStore;
+	private volatile boolean journalEnabled;
+
+	// state of the persisted files, guarded by this
+	private Consents persistedConsents; // consents in the snapshot and journal, null if unknown
+	private int snapshotChecksum;
+	private long snapshotLength;
+	private long snapshotLastModified;
+	private boolean journalValid; // true if the journal file has a header matching the snapshot
+	private long journalLength; // length of the valid part of the journal
+	private int journalRecords;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param file the snapshot {@link File}, its directory must exist. The journal is kept next to it.
+	 */
+	JournaledConsentStore(final File file) {
+		this.file = file;
+		this.journalFile = new File(file.getPath() + ".journal");
+		this.snapshotStore = new FileConsentStore(file);
+	}
+
+	/**
+	 * Enables or disables appending the saved consents to the journal.
+	 * <p>
+	 * An existing journal is still replayed on load when journaling is disabled, and removed by the next save.
+	 *
+	 * @param enabled true to append changes to the journal, false to write a snapshot on every save
+	 */
+	void setJournalEnabled(final boolean enabled) {
+		journalEnabled = enabled;
+	}
+
+	/**
+	 * Getter for the snapshot file of this store.
+	 *
+	 * @return the snapshot {@link File}
+	 */
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Loads the consents from the snapshot and replays the journal on top of it.
+	 *
+	 * @return the stored {@link Consents}, null if the snapshot does not exist, cannot be read or is corrupted
+	 */
+	@Override
+	public synchronized Consents load() {
+		persistedConsents = null;
+
+		if (!file.exists()) {
+			return null;
+		}
+
+		final byte[] snapshot = snapshotStore.readFile();
+		final Consents snapshotConsents = snapshot == null ? null : ConsentBinaryFormat.decode(snapshot);
+
+		if (snapshotConsents == null) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"JournaledConsentStore - Unable to read consents snapshot " + file.getName() + "."
+			);
+			return null;
+		}
+
+		updateSnapshotState(snapshot);
+		persistedConsents = replayJournal(snapshotConsents);
+		return persistedConsents;
+	}
+
+	@Override
+	public synchronized boolean save(final Consents consents) {
+		if (consents.isEmpty()) {
+			return clear();
+		}
+
+		if (!canAppend()) {
+			return writeSnapshot(consents);
+		}
+
+		final byte[] record = encodeRecord(persistedConsents, consents);
+
+		if (record == null) {
+			persistedConsents = consents;
+			return true;
+		}
+
+		if (!appendRecord(record)) {
+			return writeSnapshot(consents);
+		}
+
+		persistedConsents = consents;
+		return true;
+	}
+
+	@Override
+	public synchronized boolean clear() {
+		persistedConsents = null;
+		journalValid = false;
+
+		// the snapshot is removed first, a journal left without its snapshot is ignored
+		final boolean cleared = snapshotStore.clear();
+		deleteJournal();
+		return cleared;
+	}
+
+	/**
+	 * Checks if the next save can be appended to the journal.
+	 *
+	 * @return true if journaling is enabled, the persisted consents are known, the snapshot was not modified by another
+	 * writer and the journal does not need to be compacted
+	 */
+	private boolean canAppend() {
+		return (
+			journalEnabled &&
+			persistedConsents != null &&
+			journalRecords < MAX_JOURNAL_RECORDS &&
+			journalLength <= Math.max(snapshotLength, MIN_COMPACTION_LENGTH) &&
+			file.length() == snapshotLength &&
+			file.lastModified() == snapshotLastModified
+		);
+	}
+
+	/**
+	 * Writes the provided consents to a new snapshot and removes the journal, which is compacted into the snapshot.
+	 *
+	 * @param consents the {@link Consents} to write
+	 * @return true if the snapshot was written successfully
+	 */
+	private boolean writeSnapshot(final Consents consents) {
+		final byte[] snapshot = ConsentBinaryFormat.encode(consents);
+
+		if (!snapshotStore.writeFileAtomically(snapshot)) {
+			persistedConsents = null;
+			return false;
+		}
+
+		updateSnapshotState(snapshot);
+		deleteJournal();
+		persistedConsents = consents;
+		return true;
+	}
+
+	private void updateSnapshotState(final byte[] snapshot) {
+		snapshotChecksum = ConsentDeltaFormat.checksum(snapshot, 0, snapshot.length);
+		snapshotLength = file.length();
+		snapshotLastModified = file.lastModified();
+		journalValid = false;
+		journalLength = 0;
+		journalRecords = 0;
+	}
+
+	private void deleteJournal() {
+		if (journalFile.exists() && !journalFile.delete()) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"JournaledConsentStore - Unable to delete consents journal."
+			);
+		}
+	}
+
+	/**
+	 * Appends a record to the journal and syncs it, starting a new journal if the current one does not match the
+	 * snapshot. A partially written record left by a previous failed append is overwritten.
+	 *
+	 * @param record the encoded record
+	 * @return true if the record was appended successfully
+	 */
+	private boolean appendRecord(final byte[] record) {
+		try (RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw")) {
+			final FileChannel channel = randomAccessFile.getChannel();
+
+			if (!journalValid) {
+				channel.truncate(0);
+				final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+				header.put(MAGIC).put((byte) VERSION).putInt(snapshotChecksum).flip();
+				write(channel, header, 0);
+				ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_WRITTEN, HEADER_LENGTH);
+				journalValid = true;
+				journalLength = HEADER_LENGTH;
+			} else if (channel.size() > journalLength) {
+				channel.truncate(journalLength);
+			}
+
+			write(channel, ByteBuffer.wrap(record), journalLength);
+			channel.force(false);
+			ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_WRITTEN, record.length);
+			journalLength += record.length;
+			journalRecords++;
+			return true;
+		} catch (final IOException exception) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"JournaledConsentStore - Unable to append to consents journal: " + exception.getLocalizedMessage()
+			);
+			journalValid = false;
+			return false;
+		}
+	}
+
+	private static void write(final FileChannel channel, final ByteBuffer buffer, final long position)
+		throws IOException {
+		long offset = position;
+
+		while (buffer.hasRemaining()) {
+			offset += channel.write(buffer, offset);
+		}
+	}
+
+	/**
+	 * Replays the journal records matching the current snapshot on top of the snapshot consents.
+	 *
+	 * @param snapshotConsents the consents read from the snapshot
+	 * @return the consents after applying the valid journal records
+	 */
+	private Consents replayJournal(final Consents snapshotConsents) {
+		if (!journalFile.exists()) {
+			return snapshotConsents;
+		}
+
+		final byte[] journal = new FileConsentStore(journalFile).readFile();
+
+		if (journal == null || !hasValidHeader(journal)) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"JournaledConsentStore - Consents journal does not match the snapshot, ignoring it."
+			);
+			return snapshotConsents;
+		}
+
+		Map<String, Object> consentsMap = null;
+		int offset = HEADER_LENGTH;
+		int records = 0;
+
+		while (true) {
+			final int payloadLength = ConsentDeltaFormat.readPayloadLength(journal, offset, journal.length);
+
+			if (payloadLength < 0) {
+				break;
+			}
+
+			if (consentsMap == null) {
+				consentsMap = new HashMap<>(snapshotConsents.getConsentsMap());
+			}
+
+			try {
+				final DataInputStream payload = ConsentDeltaFormat.openPayload(journal, offset, payloadLength);
+				ConsentDeltaFormat.readDelta(payload, consentsMap);
+			} catch (final IOException exception) {
+				break;
+			}
+
+			offset += payloadLength + ConsentDeltaFormat.RECORD_OVERHEAD;
+			records++;
+		}
+
+		if (offset < journal.length) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"JournaledConsentStore - Ignoring the incomplete end of the consents journal at offset " + offset + "."
+			);
+		}
+
+		journalValid = true;
+		journalLength = offset;
+		journalRecords = records;
+		return consentsMap == null ? snapshotConsents : Consents.fromConsentsMap(consentsMap);
+	}
+
+	private boolean hasValidHeader(final byte[] journal) {
+		if (journal.length < HEADER_LENGTH) {
+			return false;
+		}
+
+		for (int i = 0; i < MAGIC.length; i++) {
+			if (journal[i] != MAGIC[i]) {
+				return false;
+			}
+		}
+
+		return (
+			(journal[MAGIC.length] & 0xFF) == VERSION &&
+			ByteBuffer.wrap(journal, MAGIC.length + 1, 4).getInt() == snapshotChecksum
+		);
+	}
+
+	/**
+	 * Encodes the changes between the persisted and the new consents as a journal record.
+	 *
+	 * @param previous the persisted {@link Consents}
+	 * @param current  the {@code Consents} to save
+	 * @return the encoded record, or null if the consents did not change
+	 */
+	private static byte[] encodeRecord(final Consents previous, final Consents current) {
+		final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+
+		try {
+			final DataOutputStream out = new DataOutputStream(payload);
+
+			if (!ConsentDeltaFormat.writeDelta(out, previous, current)) {
+				return null;
+			}
+
+			out.flush();
+		} catch (final IOException exception) {
+			throw new IllegalStateException(exception); // not thrown by ByteArrayOutputStream
+		}
+
+		return ConsentDeltaFormat.toRecord(payload);
+	}
+}
@@ -58,7 +58,13 @@ class ListenerConsentUpdateConsent extends ExtensionListener {
 			return;
 		}
 
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? System.nanoTime() : 0;
 		parentExtension.handleConsentUpdate(event);
+
+		if (traced) {
+			ConsentTracer.end(ConsentTraceSpan.HEAR, event, traceStartNanos);
+		}
 	}
 
 	/**
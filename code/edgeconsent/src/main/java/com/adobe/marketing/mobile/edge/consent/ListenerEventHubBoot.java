@@ -49,7 +49,13 @@ class ListenerEventHubBoot extends ExtensionListener {
 			return;
 		}
 
+		final boolean traced = ConsentTracer.isEnabled();
+		final long traceStartNanos = traced ? System.nanoTime() : 0;
 		parentExtension.handleEventHubBoot(event);
+
+		if (traced) {
+			ConsentTracer.end(ConsentTraceSpan.HEAR, event, traceStartNanos);
+		}
 	}
 
 	/**
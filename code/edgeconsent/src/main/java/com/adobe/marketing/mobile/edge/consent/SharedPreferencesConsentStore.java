@@ -0,0 +1,140 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import android.content.SharedPreferences;
+import com.adobe.marketing.mobile.LoggingMode;
+import com.adobe.marketing.mobile.MobileCore;
+import java.nio.charset.Charset;
+import org.json.JSONObject;
+
+/**
+ * {@link ConsentStore} keeping the consents as jsonString in the {@link SharedPreferences}, under the key
+ * {@link ConsentConstants.DataStoreKey#CONSENT_PREFERENCES}.
+ */
+final class SharedPreferencesConsentStore implements ConsentStore {
+
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final SharedPreferences sharedPreferences;
+
+	/**
+	 * Constructor.
+	 *
+	 * @param sharedPreferences the {@link SharedPreferences} holding the consents, should not be null
+	 */
+	SharedPreferencesConsentStore(final SharedPreferences sharedPreferences) {
+		this.sharedPreferences = sharedPreferences;
+	}
+
+	/**
+	 * Loads the consents stored as jsonString, using the streaming {@link ConsentJsonReader}.
+	 * <p>
+	 * Returns null, if the jsonString is not valid JSON.
+	 *
+	 * @return {@link Consents} the previously persisted consents, null if none or if reading them fails
+	 */
+	@Override
+	public Consents load() {
+		final String jsonString = sharedPreferences.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null);
+
+		if (jsonString == null) {
+			MobileCore.log(
+				LoggingMode.VERBOSE,
+				ConsentConstants.LOG_TAG,
+				"SharedPreferencesConsentStore - No previous consents were stored in persistence. Current consent is null"
+			);
+			return null;
+		}
+
+		countBytes(ConsentMetrics.Counter.PERSISTENCE_BYTES_READ, jsonString);
+		final Consents consents = ConsentJsonReader.readConsents(jsonString);
+
+		if (consents == null) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"SharedPreferencesConsentStore - Serialization error while reading consent jsonString from persistence. Unable to load saved consents from persistence."
+			);
+		}
+
+		return consents;
+	}
+
+	/**
+	 * Saves the consents as jsonString.
+	 * Saving fails if the {@link SharedPreferences.Editor} is null.
+	 *
+	 * @param consents the {@link Consents} to store
+	 * @return true if the consents were stored
+	 */
+	@Override
+	public boolean save(final Consents consents) {
+		final SharedPreferences.Editor editor = sharedPreferences.edit();
+
+		if (editor == null) {
+			MobileCore.log(
+				LoggingMode.DEBUG,
+				ConsentConstants.LOG_TAG,
+				"SharedPreferencesConsentStore - Shared Preference Editor is null. Unable to write consents to persistence."
+			);
+			return false;
+		}
+
+		if (consents.isEmpty()) {
+			editor.remove(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES);
+			editor.apply();
+			return true;
+		}
+
+		final JSONObject jsonObject = new JSONObject(consents.asXDMMap());
+		final String jsonString = jsonObject.toString();
+		editor.putString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, jsonString);
+		editor.apply();
+		countBytes(ConsentMetrics.Counter.PERSISTENCE_BYTES_WRITTEN, jsonString);
+		return true;
+	}
+
+	/**
+	 * Removes the consents jsonString, if present.
+	 *
+	 * @return true if no consents are stored anymore
+	 */
+	@Override
+	public boolean clear() {
+		if (!sharedPreferences.contains(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES)) {
+			return true;
+		}
+
+		final SharedPreferences.Editor editor = sharedPreferences.edit();
+
+		if (editor == null) {
+			return false;
+		}
+
+		editor.remove(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES);
+		editor.apply();
+		return true;
+	}
+
+	/**
+	 * Adds the UTF-8 length of the provided jsonString to the provided metric, only computed if metrics are recorded.
+	 *
+	 * @param counter    the {@link ConsentMetrics.Counter} to update
+	 * @param jsonString the jsonString read or written
+	 */
+	private static void countBytes(final ConsentMetrics.Counter counter, final String jsonString) {
+		if (ConsentMetrics.isEnabled()) {
+			ConsentMetrics.add(counter, jsonString.getBytes(UTF_8).length);
+		}
+	}
+}
@@ -15,11 +15,17 @@ import static com.adobe.marketing.mobile.edge.consent.ConsentConstants.LOG_TAG;
 
 import com.adobe.marketing.mobile.LoggingMode;
 import com.adobe.marketing.mobile.MobileCore;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -40,7 +46,7 @@ final class Utility {
 			return null;
 		}
 
-		final Map<String, Object> jsonAsMap = new HashMap<>();
+		final Map<String, Object> jsonAsMap = CompactMap.newMap(jsonObject.length());
 		final Iterator<String> keysIterator = jsonObject.keys();
 
 		while (keysIterator.hasNext()) {
@@ -66,11 +72,13 @@ final class Utility {
 				returnValue = toMap((JSONObject) value);
 			} else if (value instanceof JSONArray) {
 				returnValue = toList((JSONArray) value);
+			} else if (value instanceof String) {
+				returnValue = ConsentInterner.intern((String) value);
 			} else {
 				returnValue = value;
 			}
 
-			jsonAsMap.put(nextKey, returnValue);
+			jsonAsMap.put(ConsentInterner.intern(nextKey), returnValue);
 		}
 
 		return jsonAsMap;
@@ -114,6 +122,8 @@ final class Utility {
 				returnValue = toMap((JSONObject) value);
 			} else if (value instanceof JSONArray) {
 				returnValue = toList((JSONArray) value);
+			} else if (value instanceof String) {
+				returnValue = ConsentInterner.intern((String) value);
 			} else {
 				returnValue = value;
 			}
@@ -124,27 +134,220 @@ final class Utility {
 		return jsonArrayAsList;
 	}
 
+	/**
+	 * Reads a numeric value from the provided {@link Map} as a {@code long}.
+	 *
+	 * @param map      the {@link Map} to read from
+	 * @param key      the key of the value to read
+	 * @param fallback the value returned if {@code map} is null or the value is missing or not a {@link Number}
+	 * @return the {@code long} value for {@code key}, or {@code fallback}
+	 */
+	static long optLong(final Map<String, Object> map, final String key, final long fallback) {
+		if (map == null) {
+			return fallback;
+		}
+
+		final Object value = map.get(key);
+		return value instanceof Number ? ((Number) value).longValue() : fallback;
+	}
+
+	/**
+	 * Reads a boolean value from the provided {@link Map}.
+	 *
+	 * @param map      the {@link Map} to read from
+	 * @param key      the key of the value to read
+	 * @param fallback the value returned if {@code map} is null or the value is missing or not a {@link Boolean}
+	 * @return the {@code boolean} value for {@code key}, or {@code fallback}
+	 */
+	static boolean optBoolean(final Map<String, Object> map, final String key, final boolean fallback) {
+		if (map == null) {
+			return fallback;
+		}
+
+		final Object value = map.get(key);
+		return value instanceof Boolean ? (Boolean) value : fallback;
+	}
+
 	/**
 	 * Creates a deep copy of the provided {@link Map}.
+	 * <p>
+	 * Nested {@link Map}s, {@link Collection}s and arrays are copied recursively into new maps, see
+	 * {@link CompactMap#newMap(int)}, and {@link ArrayList}s. Strings, booleans, characters and boxed numbers are
+	 * immutable and are shared with the source, so numeric values keep their exact type. Keys and strings of the
+	 * consent vocabulary are replaced with their canonical instance, see {@link ConsentInterner}.
+	 * The following entries are skipped, same as in {@link #toMap(JSONObject)}:
+	 * <ul>
+	 *     <li>null keys, non {@code String} keys and null values</li>
+	 *     <li>values of unsupported types</li>
+	 *     <li>values that reference one of their own ancestors (cycles)</li>
+	 * </ul>
 	 *
 	 * @param map to be copied
-	 * @return {@link Map} containing a deep copy of all the elements in {@code map}
+	 * @return {@link Map} containing a deep copy of all the elements in {@code map}, null if {@code map} is null
 	 */
 	static Map<String, Object> deepCopy(final Map<String, Object> map) {
 		if (map == null) {
 			return null;
 		}
 
-		try {
-			return toMap(new JSONObject(map));
-		} catch (NullPointerException e) {
+		ConsentMetrics.increment(ConsentMetrics.Counter.DEEP_COPIES);
+		return copyMap(map, false, Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+	}
+
+	/**
+	 * Creates a deep copy of the provided {@link Map} where every nested {@code Map} and {@code List} is unmodifiable.
+	 * <p>
+	 * Follows the same copy rules as {@link #deepCopy(Map)}. The returned tree can be safely shared between readers
+	 * without any further copies.
+	 *
+	 * @param map to be copied
+	 * @return unmodifiable {@link Map} containing a deep copy of all the elements in {@code map}, null if {@code map} is null
+	 */
+	static Map<String, Object> immutableDeepCopy(final Map<String, Object> map) {
+		if (map == null) {
+			return null;
+		}
+
+		ConsentMetrics.increment(ConsentMetrics.Counter.DEEP_COPIES);
+		return copyMap(map, true, Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>()));
+	}
+
+	/**
+	 * Recursively copies the provided {@link Map}.
+	 *
+	 * @param map       to be copied
+	 * @param immutable true if the copied containers should be unmodifiable
+	 * @param ancestors the containers currently being copied, used for cycle detection
+	 * @return a new {@link Map} containing a deep copy of {@code map}
+	 */
+	private static Map<String, Object> copyMap(
+		final Map<?, ?> map,
+		final boolean immutable,
+		final Set<Object> ancestors
+	) {
+		final Map<String, Object> copy = CompactMap.newMap(map.size());
+		ancestors.add(map);
+
+		for (final Map.Entry<?, ?> entry : map.entrySet()) {
+			final Object key = entry.getKey();
+
+			if (!(key instanceof String)) {
+				MobileCore.log(
+					LoggingMode.DEBUG,
+					LOG_TAG,
+					"Utility(deepCopy) - Unable to copy map entry with non string key " + key + ", skipping."
+				);
+				continue;
+			}
+
+			final Object value = copyValue(entry.getValue(), immutable, ancestors);
+
+			if (value != null) {
+				copy.put(ConsentInterner.intern((String) key), value);
+			}
+		}
+
+		ancestors.remove(map);
+		ConsentMetrics.add(ConsentMetrics.Counter.DEEP_COPIED_VALUE_COUNT, copy.size());
+		return immutable ? Collections.unmodifiableMap(copy) : copy;
+	}
+
+	/**
+	 * Recursively copies the provided {@link Collection} or array.
+	 *
+	 * @param elements  to be copied
+	 * @param container the source container, either the {@code Collection} itself or the array it wraps
+	 * @param immutable true if the copied containers should be unmodifiable
+	 * @param ancestors the containers currently being copied, used for cycle detection
+	 * @return a new {@link List} containing a deep copy of {@code elements}
+	 */
+	private static List<Object> copyList(
+		final Collection<?> elements,
+		final Object container,
+		final boolean immutable,
+		final Set<Object> ancestors
+	) {
+		final List<Object> copy = new ArrayList<>(elements.size());
+		ancestors.add(container);
+
+		for (final Object element : elements) {
+			final Object value = copyValue(element, immutable, ancestors);
+
+			if (value != null) {
+				copy.add(value);
+			}
+		}
+
+		ancestors.remove(container);
+		ConsentMetrics.add(ConsentMetrics.Counter.DEEP_COPIED_VALUE_COUNT, copy.size());
+		return immutable ? Collections.unmodifiableList(copy) : copy;
+	}
+
+	/**
+	 * Copies a single value, recursing into containers.
+	 *
+	 * @param value     to be copied
+	 * @param immutable true if the copied containers should be unmodifiable
+	 * @param ancestors the containers currently being copied, used for cycle detection
+	 * @return the copied value, or null if the value is null, unsupported or would create a cycle
+	 */
+	private static Object copyValue(final Object value, final boolean immutable, final Set<Object> ancestors) {
+		if (value instanceof String) {
+			return ConsentInterner.intern((String) value);
+		}
+
+		if (value == null || isImmutableValue(value)) {
+			return value;
+		}
+
+		if (ancestors.contains(value)) {
 			MobileCore.log(
 				LoggingMode.DEBUG,
 				LOG_TAG,
-				"Utility(deepCopy) - Unable to deep copy map, json string invalid."
+				"Utility(deepCopy) - Unable to copy value referencing one of its ancestors, skipping."
 			);
+			return null;
+		}
+
+		if (value instanceof Map) {
+			return copyMap((Map<?, ?>) value, immutable, ancestors);
 		}
 
+		if (value instanceof Collection) {
+			return copyList((Collection<?>) value, value, immutable, ancestors);
+		}
+
+		if (value instanceof Object[]) {
+			return copyList(Arrays.asList((Object[]) value), value, immutable, ancestors);
+		}
+
+		MobileCore.log(
+			LoggingMode.DEBUG,
+			LOG_TAG,
+			"Utility(deepCopy) - Unable to copy value of unsupported type " + value.getClass().getName() + ", skipping."
+		);
 		return null;
 	}
+
+	/**
+	 * Checks if the provided value is of an immutable type that can be shared between copies.
+	 *
+	 * @param value a non null value
+	 * @return true if {@code value} is a {@link String}, {@link Boolean}, {@link Character} or boxed number
+	 */
+	private static boolean isImmutableValue(final Object value) {
+		return (
+			value instanceof String ||
+			value instanceof Boolean ||
+			value instanceof Integer ||
+			value instanceof Long ||
+			value instanceof Double ||
+			value instanceof Float ||
+			value instanceof Short ||
+			value instanceof Byte ||
+			value instanceof Character ||
+			value instanceof BigDecimal ||
+			value instanceof BigInteger
+		);
+	}
 }
@@ -0,0 +1,361 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Test;
+
+public class CompactMapTest {
+
+	// ========================================================================================
+	// Test method : newMap
+	// ========================================================================================
+	@Test
+	public void test_newMap_smallSize_returnsCompactMap() {
+		assertTrue(CompactMap.newMap(0) instanceof CompactMap);
+		assertTrue(CompactMap.newMap(CompactMap.MAX_SIZE) instanceof CompactMap);
+	}
+
+	@Test
+	public void test_newMap_largeSize_returnsHashMap() {
+		assertTrue(CompactMap.newMap(CompactMap.MAX_SIZE + 1) instanceof HashMap);
+	}
+
+	// ========================================================================================
+	// Test method : put, get, remove
+	// ========================================================================================
+	@Test
+	public void test_put_get() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+
+		// test
+		assertNull(map.put("val", "y"));
+		assertEquals("y", map.put("val", "n"));
+		map.put("time", "2021-01-01T00:00:00Z");
+
+		// verify
+		assertEquals(2, map.size());
+		assertEquals("n", map.get("val"));
+		assertEquals("2021-01-01T00:00:00Z", map.get("time"));
+		assertNull(map.get("other"));
+		assertTrue(map.containsKey("val"));
+		assertTrue(map.containsValue("n"));
+		assertFalse(map.containsValue("y"));
+	}
+
+	@Test
+	public void test_put_growsBeyondCapacity() {
+		// setup
+		Map<String, Object> map = new CompactMap<>(0);
+		Map<String, Object> expected = new HashMap<>();
+
+		// test
+		for (int i = 0; i < 20; i++) {
+			map.put("key" + i, i);
+			expected.put("key" + i, i);
+		}
+
+		// verify
+		assertEquals(expected, map);
+		assertEquals(19, map.get("key19"));
+	}
+
+	@Test
+	public void test_put_beyondMaxSize_behavesLikeHashMap() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		Map<String, Object> expected = new HashMap<>();
+
+		for (int i = 0; i <= CompactMap.MAX_SIZE; i++) {
+			map.put("key" + i, i);
+			expected.put("key" + i, i);
+		}
+
+		// test
+		map.remove("key0");
+		expected.remove("key0");
+		map.put("key1", "updated");
+		expected.put("key1", "updated");
+		Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+
+		while (iterator.hasNext()) {
+			if ("key2".equals(iterator.next().getKey())) {
+				iterator.remove();
+			}
+		}
+
+		expected.remove("key2");
+
+		// verify
+		assertEquals(expected, map);
+		assertEquals(map, expected);
+		assertEquals(expected.hashCode(), map.hashCode());
+		assertEquals(CompactMap.MAX_SIZE - 1, map.size());
+		assertFalse(map.containsKey("key2"));
+		assertTrue(map.containsValue("updated"));
+	}
+
+	@Test
+	public void test_nullKeyAndValue() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+
+		// test
+		map.put(null, "nullKey");
+		map.put("nullValue", null);
+
+		// verify
+		assertEquals("nullKey", map.get(null));
+		assertTrue(map.containsKey("nullValue"));
+		assertTrue(map.containsValue(null));
+		assertNull(map.get("nullValue"));
+	}
+
+	@Test
+	public void test_remove_keepsInsertionOrder() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+
+		// test
+		assertEquals(2, map.remove("b"));
+		assertNull(map.remove("b"));
+
+		// verify
+		assertEquals(2, map.size());
+		assertEquals(Arrays.asList("a", "c"), Arrays.asList(map.keySet().toArray()));
+		assertFalse(map.containsKey("b"));
+	}
+
+	@Test
+	public void test_clear() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("val", "y");
+
+		// test
+		map.clear();
+
+		// verify
+		assertTrue(map.isEmpty());
+		assertNull(map.get("val"));
+	}
+
+	// ========================================================================================
+	// Test method : entrySet
+	// ========================================================================================
+	@Test
+	public void test_entrySet_iteratesInInsertionOrder() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		Map<String, Object> expected = new LinkedHashMap<>();
+
+		for (String key : Arrays.asList("val", "metadata", "adID")) {
+			map.put(key, key.length());
+			expected.put(key, key.length());
+		}
+
+		// test & verify
+		assertEquals(Arrays.asList(expected.entrySet().toArray()), Arrays.asList(map.entrySet().toArray()));
+		assertEquals(expected.toString(), map.toString());
+	}
+
+	@Test
+	public void test_entrySet_setValueWritesThrough() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("val", "y");
+
+		// test
+		Map.Entry<String, Object> entry = map.entrySet().iterator().next();
+		assertEquals("y", entry.setValue("n"));
+
+		// verify
+		assertEquals("n", map.get("val"));
+	}
+
+	@Test
+	public void test_entrySet_entryAfterRemove_keepsKeyAndValue() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+		Map.Entry<String, Object> entry = null;
+
+		for (Map.Entry<String, Object> next : map.entrySet()) {
+			entry = next;
+		}
+
+		// test
+		map.remove("a");
+
+		// verify
+		assertEquals("c", entry.getKey());
+		assertEquals(3, entry.getValue());
+	}
+
+	@Test
+	public void test_entrySet_setValueAfterRemove_writesToItsKey() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+		Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+		Map.Entry<String, Object> removed = iterator.next();
+		iterator.remove();
+		Map.Entry<String, Object> kept = iterator.next();
+		map.remove("b");
+
+		// test
+		assertEquals(2, kept.setValue(20));
+		assertEquals(1, removed.setValue(10));
+
+		// verify
+		assertEquals(1, map.size());
+		assertEquals(3, map.get("c"));
+		assertEquals(20, kept.getValue());
+		assertFalse(map.containsKey("a"));
+		assertFalse(map.containsKey("b"));
+	}
+
+	@Test
+	public void test_entrySet_copyAfterIteratorRemove() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+		Map<String, Object> expected = new HashMap<>();
+		expected.put("b", 2);
+		expected.put("c", 3);
+
+		// test
+		Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+		iterator.next();
+		iterator.remove();
+
+		// verify
+		assertEquals(expected, new HashMap<>(map));
+		assertEquals(expected, new LinkedHashMap<>(map));
+	}
+
+	@Test
+	public void test_entrySet_iteratorRemove() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		map.put("c", 3);
+
+		// test
+		Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+
+		while (iterator.hasNext()) {
+			if (!"c".equals(iterator.next().getKey())) {
+				iterator.remove();
+			}
+		}
+
+		// verify
+		assertEquals(1, map.size());
+		assertEquals(3, map.get("c"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void test_entrySet_iteratorRemoveTwice_throws() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("a", 1);
+		Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+		iterator.next();
+		iterator.remove();
+
+		// test
+		iterator.remove();
+	}
+
+	@Test
+	public void test_entrySet_modifiedDuringIteration_throws() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("a", 1);
+		map.put("b", 2);
+		Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+		iterator.next();
+
+		// test
+		map.put("c", 3);
+
+		// verify
+		try {
+			iterator.next();
+			fail("expected a ConcurrentModificationException");
+		} catch (ConcurrentModificationException exception) {
+			// expected
+		}
+	}
+
+	// ========================================================================================
+	// Test method : equals, hashCode
+	// ========================================================================================
+	@Test
+	public void test_equalsAndHashCode_matchHashMap() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		Map<String, Object> hashMap = new HashMap<>();
+
+		for (Map<String, Object> target : Arrays.asList(map, hashMap)) {
+			target.put("val", "y");
+			target.put("null", null);
+			target.put("nested", new HashMap<String, Object>());
+		}
+
+		// test & verify
+		assertEquals(hashMap, map);
+		assertEquals(map, hashMap);
+		assertEquals(hashMap.hashCode(), map.hashCode());
+		assertEquals(hashMap.entrySet(), map.entrySet());
+	}
+
+	@Test
+	public void test_equals_differentMaps() {
+		// setup
+		Map<String, Object> map = new CompactMap<>();
+		map.put("val", "y");
+		map.put("null", null);
+		Map<String, Object> other = new HashMap<>();
+		other.put("val", "y");
+		other.put("other", null);
+
+		// test & verify
+		assertFalse(map.equals(other));
+		other.remove("other");
+		assertFalse(map.equals(other));
+		assertFalse(map.equals("val"));
+	}
+}
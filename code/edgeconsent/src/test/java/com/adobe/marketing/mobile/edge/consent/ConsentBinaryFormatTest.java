@@ -0,0 +1,246 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentsXDMJSONString;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.MobileCore;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ MobileCore.class })
+public class ConsentBinaryFormatTest {
+
+	@Before
+	public void before() {
+		PowerMockito.mockStatic(MobileCore.class);
+	}
+
+	// ========================================================================================
+	// Test method : encode, decode
+	// ========================================================================================
+	@Test
+	public void test_encodeDecode_roundTrip() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", "vi", SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		Consents decoded = ConsentBinaryFormat.decode(ConsentBinaryFormat.encode(consents));
+
+		// verify
+		assertEquals(consents, decoded);
+		assertEquals(SAMPLE_METADATA_TIMESTAMP, decoded.getTimestamp());
+	}
+
+	@Test
+	public void test_encodeDecode_preservesValueTypes() {
+		// setup
+		Map<String, Object> nested = new HashMap<>();
+		nested.put("val", "y");
+		nested.put("int", -42);
+		nested.put("long", 1L << 40);
+		nested.put("double", 1.5d);
+		nested.put("float", 2.5f);
+		nested.put("bool", false);
+		nested.put("time", "not a timestamp");
+		List<Object> list = new ArrayList<>();
+		list.add("item");
+		list.add(true);
+		list.add(new HashMap<String, Object>());
+		nested.put("list", list);
+		Map<String, Object> consentsMap = new HashMap<>();
+		consentsMap.put("custom", nested);
+		Map<String, Object> xdmMap = new HashMap<>();
+		xdmMap.put("consents", consentsMap);
+
+		// test
+		Consents decoded = ConsentBinaryFormat.decode(ConsentBinaryFormat.encode(new Consents(xdmMap)));
+
+		// verify
+		Map<String, Object> decodedNested = (Map<String, Object>) (
+			(Map<String, Object>) decoded.asXDMMap().get("consents")
+		).get("custom");
+		assertEquals(nested, decodedNested);
+		assertTrue(decodedNested.get("int") instanceof Integer);
+		assertTrue(decodedNested.get("long") instanceof Long);
+		assertTrue(decodedNested.get("float") instanceof Float);
+		assertEquals(Arrays.<Object>asList("item", true, new HashMap<String, Object>()), decodedNested.get("list"));
+	}
+
+	@Test
+	public void test_encodeDecode_preservesExactNumbersAndNarrowTypes() {
+		// setup
+		Map<String, Object> nested = new HashMap<>();
+		nested.put("bigDecimal", new BigDecimal("12345678901234567890.123456789012345"));
+		nested.put("bigDecimalExponent", new BigDecimal("-1E+30"));
+		nested.put("bigInteger", new BigInteger("-123456789012345678901234567890"));
+		nested.put("short", (short) -5);
+		nested.put("byte", (byte) -7);
+		nested.put("char", 'c');
+		nested.put("list", Arrays.<Object>asList(new BigDecimal("0.1"), BigInteger.ONE));
+		Map<String, Object> consentsMap = new HashMap<>();
+		consentsMap.put("custom", nested);
+		Map<String, Object> xdmMap = new HashMap<>();
+		xdmMap.put("consents", consentsMap);
+
+		// test
+		Consents decoded = ConsentBinaryFormat.decode(ConsentBinaryFormat.encode(new Consents(xdmMap)));
+
+		// verify
+		Map<String, Object> decodedNested = (Map<String, Object>) (
+			(Map<String, Object>) decoded.asXDMMap().get("consents")
+		).get("custom");
+		assertEquals(nested, decodedNested);
+		assertTrue(decodedNested.get("short") instanceof Short);
+		assertTrue(decodedNested.get("byte") instanceof Byte);
+		assertTrue(decodedNested.get("char") instanceof Character);
+	}
+
+	@Test
+	public void test_encode_unsupportedValue_isSkipped() {
+		// setup
+		Map<String, Object> nested = new HashMap<>();
+		nested.put("val", "y");
+		nested.put("atomic", new AtomicLong(5));
+		nested.put("list", Collections.unmodifiableList(Arrays.<Object>asList("item", new Object())));
+		Map<String, Object> consentsMap = new HashMap<>();
+		consentsMap.put("custom", Collections.unmodifiableMap(nested));
+
+		// test
+		Consents decoded = ConsentBinaryFormat.decode(ConsentBinaryFormat.encode(Consents.fromConsentsMap(consentsMap)));
+
+		// verify
+		Map<String, Object> decodedNested = (Map<String, Object>) (
+			(Map<String, Object>) decoded.asXDMMap().get("consents")
+		).get("custom");
+		assertEquals(2, decodedNested.size());
+		assertEquals("y", decodedNested.get("val"));
+		assertEquals(Arrays.<Object>asList("item"), decodedNested.get("list"));
+	}
+
+	@Test
+	public void test_encodeDecode_nullValues_areDroppedLikeDeepCopy() {
+		// setup
+		Map<String, Object> nested = new HashMap<>();
+		nested.put("val", "y");
+		nested.put("reason", null);
+		nested.put("list", Collections.unmodifiableList(Arrays.<Object>asList("item", null)));
+		Map<String, Object> consentsMap = new HashMap<>();
+		consentsMap.put("custom", Collections.unmodifiableMap(nested));
+		Map<String, Object> xdmMap = new HashMap<>();
+		xdmMap.put("consents", consentsMap);
+
+		// test
+		Consents decoded = ConsentBinaryFormat.decode(ConsentBinaryFormat.encode(Consents.fromConsentsMap(consentsMap)));
+
+		// verify
+		Consents copied = new Consents(xdmMap);
+		assertEquals(copied, decoded);
+		assertEquals(copied.hashCode(), decoded.hashCode());
+		Map<String, Object> decodedNested = (Map<String, Object>) (
+			(Map<String, Object>) decoded.asXDMMap().get("consents")
+		).get("custom");
+		assertFalse(decodedNested.containsKey("reason"));
+		assertEquals(Arrays.<Object>asList("item"), decodedNested.get("list"));
+	}
+
+	@Test
+	public void test_encode_isSmallerThanJSON() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", "vi", SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		byte[] encoded = ConsentBinaryFormat.encode(consents);
+
+		// verify
+		assertTrue(encoded.length < CreateConsentsXDMJSONString("y", "n", "vi", SAMPLE_METADATA_TIMESTAMP).length());
+	}
+
+	@Test
+	public void test_encodeDecode_emptyConsents() {
+		// setup
+		Consents consents = new Consents(new HashMap<String, Object>());
+
+		// test
+		Consents decoded = ConsentBinaryFormat.decode(ConsentBinaryFormat.encode(consents));
+
+		// verify
+		assertTrue(decoded.isEmpty());
+	}
+
+	@Test
+	public void test_encode_nullConsents() {
+		assertNull(ConsentBinaryFormat.encode(null));
+	}
+
+	@Test
+	public void test_decode_nullData() {
+		assertNull(ConsentBinaryFormat.decode(null));
+	}
+
+	@Test
+	public void test_decode_corruptedData() {
+		// setup
+		byte[] encoded = ConsentBinaryFormat.encode(new Consents(CreateConsentXDMMap("y")));
+		encoded[encoded.length / 2] ^= 0x01;
+
+		// test & verify
+		assertNull(ConsentBinaryFormat.decode(encoded));
+	}
+
+	@Test
+	public void test_decode_truncatedData() {
+		// setup
+		byte[] encoded = ConsentBinaryFormat.encode(new Consents(CreateConsentXDMMap("y")));
+
+		// test & verify
+		for (int length = 0; length < encoded.length; length++) {
+			assertNull(ConsentBinaryFormat.decode(Arrays.copyOf(encoded, length)));
+		}
+	}
+
+	@Test
+	public void test_decode_unsupportedVersion() {
+		// setup
+		byte[] encoded = ConsentBinaryFormat.encode(new Consents(CreateConsentXDMMap("y")));
+		encoded[4] = (byte) (ConsentBinaryFormat.VERSION + 1);
+
+		// test & verify
+		assertNull(ConsentBinaryFormat.decode(encoded));
+	}
+
+	@Test
+	public void test_decode_invalidHeader() {
+		// test & verify
+		assertNull(ConsentBinaryFormat.decode("{\"consents\":{}}".getBytes()));
+	}
+}
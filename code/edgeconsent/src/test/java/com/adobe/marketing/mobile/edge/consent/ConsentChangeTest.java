@@ -0,0 +1,117 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP_OTHER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import org.junit.Test;
+
+public class ConsentChangeTest {
+
+	// ========================================================================================
+	// Test method : compute
+	// ========================================================================================
+	@Test
+	public void test_compute_changedPurpose() {
+		// setup
+		Consents previousConsents = new Consents(CreateConsentXDMMap("y", "n"));
+		Consents currentConsents = new Consents(CreateConsentXDMMap("n", "n"));
+
+		// test
+		ConsentChange change = ConsentChange.compute(previousConsents, currentConsents);
+
+		// verify
+		assertEquals(Collections.singleton("collect"), change.getChangedPurposes());
+		assertEquals(valueMap("y"), change.getPreviousValue("collect"));
+		assertEquals(valueMap("n"), change.getNewValue("collect"));
+		assertNull(change.getNewValue("adID"));
+	}
+
+	@Test
+	public void test_compute_addedAndRemovedPurposes() {
+		// setup
+		Consents previousConsents = new Consents(CreateConsentXDMMap("y"));
+		Consents currentConsents = new Consents(CreateConsentXDMMap(null, "n"));
+
+		// test
+		ConsentChange change = ConsentChange.compute(previousConsents, currentConsents);
+
+		// verify
+		assertEquals(new HashSet<>(Arrays.asList("collect", "adID")), change.getChangedPurposes());
+		assertEquals(valueMap("y"), change.getPreviousValue("collect"));
+		assertNull(change.getNewValue("collect"));
+		assertNull(change.getPreviousValue("adID"));
+		assertEquals(valueMap("n"), change.getNewValue("adID"));
+	}
+
+	@Test
+	public void test_compute_onlyMetadataChanged_returnsNull() {
+		// setup
+		Consents previousConsents = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+		Consents currentConsents = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP_OTHER));
+
+		// test & verify
+		assertNull(ConsentChange.compute(previousConsents, currentConsents));
+	}
+
+	@Test
+	public void test_compute_sameConsents_returnsNull() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n"));
+
+		// test & verify
+		assertNull(ConsentChange.compute(consents, consents));
+		assertNull(ConsentChange.compute(consents, new Consents(CreateConsentXDMMap("y", "n"))));
+	}
+
+	@Test
+	public void test_compute_fromEmptyConsents() {
+		// setup
+		Consents previousConsents = new Consents(new HashMap<String, Object>());
+		Consents currentConsents = new Consents(CreateConsentXDMMap("y"));
+
+		// test
+		ConsentChange change = ConsentChange.compute(previousConsents, currentConsents);
+
+		// verify
+		assertEquals(Collections.singleton("collect"), change.getChangedPurposes());
+		assertNull(change.getPreviousValue("collect"));
+		assertEquals(valueMap("y"), change.getNewValue("collect"));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void test_getChangedPurposes_isUnmodifiable() {
+		// setup
+		ConsentChange change = ConsentChange.compute(
+			new Consents(CreateConsentXDMMap("y")),
+			new Consents(CreateConsentXDMMap("n"))
+		);
+
+		// test
+		change.getChangedPurposes().clear();
+	}
+
+	private static Map<String, Object> valueMap(final String value) {
+		Map<String, Object> valueMap = new HashMap<>();
+		valueMap.put("val", value);
+		return valueMap;
+	}
+}
@@ -0,0 +1,161 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Test;
+
+public class ConsentDecisionIndexTest {
+
+	@After
+	public void teardown() {
+		ConsentDecisionIndex.reset();
+	}
+
+	// ========================================================================================
+	// Test method : constructor, getStatus
+	// ========================================================================================
+	@Test
+	public void test_getStatus_topLevelPurposes() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n"));
+
+		// test
+		ConsentDecisionIndex index = new ConsentDecisionIndex(consents);
+
+		// verify
+		assertEquals(ConsentStatus.GRANTED, index.getStatus(ConsentPurpose.COLLECT));
+		assertEquals(ConsentStatus.DENIED, index.getStatus(ConsentPurpose.AD_ID));
+		assertEquals(ConsentStatus.UNKNOWN, index.getStatus(ConsentPurpose.SHARE));
+		assertSame(consents, index.getConsents());
+	}
+
+	@Test
+	public void test_getStatus_nestedPurposes() throws Exception {
+		// setup
+		Map<String, Object> xdmMap = Utility.toMap(
+			new JSONObject(
+				"{\"consents\": {" +
+				"\"personalize\": {\"content\": {\"val\": \"dy\"}}," +
+				"\"marketing\": {\"any\": {\"val\": \"dn\"}, \"email\": {\"val\": \"p\"}, \"push\": {\"val\": \"u\"}}" +
+				"}}"
+			)
+		);
+
+		// test
+		ConsentDecisionIndex index = new ConsentDecisionIndex(new Consents(xdmMap));
+
+		// verify
+		assertEquals(ConsentStatus.GRANTED, index.getStatus(ConsentPurpose.PERSONALIZE_CONTENT));
+		assertEquals(ConsentStatus.DENIED, index.getStatus(ConsentPurpose.MARKETING_ANY));
+		assertEquals(ConsentStatus.PENDING, index.getStatus(ConsentPurpose.MARKETING_EMAIL));
+		assertEquals(ConsentStatus.UNKNOWN, index.getStatus(ConsentPurpose.MARKETING_PUSH));
+		assertEquals(ConsentStatus.UNKNOWN, index.getStatus(ConsentPurpose.MARKETING_SMS));
+	}
+
+	@Test
+	public void test_getStatus_invalidValues() {
+		// setup
+		Map<String, Object> collect = new HashMap<>();
+		collect.put("val", true);
+		Map<String, Object> consentsMap = new HashMap<>();
+		consentsMap.put("collect", collect);
+		consentsMap.put("adID", "y");
+		consentsMap.put("personalize", "y");
+		Map<String, Object> xdmMap = new HashMap<>();
+		xdmMap.put("consents", consentsMap);
+
+		// test
+		ConsentDecisionIndex index = new ConsentDecisionIndex(new Consents(xdmMap));
+
+		// verify
+		assertEquals(ConsentStatus.UNKNOWN, index.getStatus(ConsentPurpose.COLLECT));
+		assertEquals(ConsentStatus.UNKNOWN, index.getStatus(ConsentPurpose.AD_ID));
+		assertEquals(ConsentStatus.UNKNOWN, index.getStatus(ConsentPurpose.PERSONALIZE_CONTENT));
+	}
+
+	@Test
+	public void test_getStatus_nullPurposeOrConsents() {
+		assertEquals(ConsentStatus.UNKNOWN, new ConsentDecisionIndex(null).getStatus(ConsentPurpose.COLLECT));
+		assertEquals(
+			ConsentStatus.UNKNOWN,
+			new ConsentDecisionIndex(new Consents(CreateConsentXDMMap("y"))).getStatus(null)
+		);
+	}
+
+	// ========================================================================================
+	// Test method : publish, getPublished
+	// ========================================================================================
+	@Test
+	public void test_publish() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y"));
+
+		// test
+		ConsentDecisionIndex.publish(consents);
+
+		// verify
+		assertSame(consents, ConsentDecisionIndex.getPublished().getConsents());
+		assertEquals(ConsentStatus.GRANTED, ConsentDecisionIndex.getPublished().getStatus(ConsentPurpose.COLLECT));
+	}
+
+	@Test
+	public void test_publish_sameConsents_keepsIndex() {
+		// setup
+		ConsentDecisionIndex.publish(new Consents(CreateConsentXDMMap("y")));
+		ConsentDecisionIndex index = ConsentDecisionIndex.getPublished();
+
+		// test
+		ConsentDecisionIndex.publish(new Consents(CreateConsentXDMMap("y")));
+
+		// verify
+		assertSame(index, ConsentDecisionIndex.getPublished());
+	}
+
+	@Test
+	public void test_publish_changedConsents_compilesNewIndex() {
+		// setup
+		ConsentDecisionIndex.publish(new Consents(CreateConsentXDMMap("y")));
+		ConsentDecisionIndex index = ConsentDecisionIndex.getPublished();
+
+		// test
+		ConsentDecisionIndex.publish(new Consents(CreateConsentXDMMap("n")));
+
+		// verify
+		assertNotSame(index, ConsentDecisionIndex.getPublished());
+		assertEquals(ConsentStatus.DENIED, ConsentDecisionIndex.getPublished().getStatus(ConsentPurpose.COLLECT));
+	}
+
+	// ========================================================================================
+	// Test method : reset
+	// ========================================================================================
+	@Test
+	public void test_reset_publishesEmptyIndex() {
+		// setup
+		ConsentDecisionIndex.publish(new Consents(CreateConsentXDMMap("y")));
+
+		// test
+		ConsentDecisionIndex.reset();
+
+		// verify
+		assertSame(ConsentDecisionIndex.EMPTY, ConsentDecisionIndex.getPublished());
+		assertEquals(ConsentStatus.UNKNOWN, ConsentDecisionIndex.getPublished().getStatus(ConsentPurpose.COLLECT));
+	}
+}
@@ -14,11 +14,16 @@ package com.adobe.marketing.mobile.edge.consent;
 import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.*;
 import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertNotNull;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.notNull;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -29,17 +34,30 @@ import com.adobe.marketing.mobile.Event;
 import com.adobe.marketing.mobile.ExtensionApi;
 import com.adobe.marketing.mobile.ExtensionErrorCallback;
 import com.adobe.marketing.mobile.MobileCore;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import org.json.JSONException;
 import org.json.JSONObject;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
@@ -49,6 +67,9 @@ import org.powermock.reflect.Whitebox;
 @PrepareForTest({ Event.class, MobileCore.class, ExtensionApi.class })
 public class ConsentExtensionTest {
 
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
 	private ConsentExtension extension;
 
 	@Mock
@@ -66,6 +87,8 @@ public class ConsentExtensionTest {
 	@Mock
 	SharedPreferences.Editor mockSharedPreferenceEditor;
 
+	private final RecordingChangeListener changeListener = new RecordingChangeListener();
+
 	@Before
 	public void setup() {
 		PowerMockito.mockStatic(MobileCore.class);
@@ -80,6 +103,18 @@ public class ConsentExtensionTest {
 		extension = new ConsentExtension(mockExtensionApi);
 	}
 
+	@After
+	public void teardown() {
+		ConsentStorageService.flushPendingConsents();
+		ConsentStorageService.setWriteDelay(0);
+		ConsentStorageService.setHistoryEnabled(false);
+		ConsentDecisionIndex.reset();
+		Consent.unregisterConsentChangeListener(changeListener);
+		Consent.setMetricsEnabled(false);
+		Consent.setTraceSink(null);
+		Consent.resetMetrics();
+	}
+
 	// ========================================================================================
 	// constructor
 	// ========================================================================================
@@ -187,6 +222,31 @@ public class ConsentExtensionTest {
 		MobileCore.dispatchEvent(any(Event.class), any(ExtensionErrorCallback.class));
 	}
 
+	@Test
+	public void test_OnBootUp_PublishesConsentsSnapshot() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("y"));
+		assertNull(Consent.getConsentsSnapshot());
+
+		// test
+		extension.handleEventHubBoot(buildBootEvent());
+
+		// verify
+		assertEquals(CreateConsentXDMMap("y"), Consent.getConsentsSnapshot());
+	}
+
+	@Test
+	public void test_OnBootUp_WhenNothingInPersistence_PublishesEmptyConsentsSnapshot() {
+		// setup
+		setupExistingConsents(null);
+
+		// test
+		extension.handleEventHubBoot(buildBootEvent());
+
+		// verify
+		assertEquals(new Consents(new HashMap<String, Object>()).asXDMMap(), Consent.getConsentsSnapshot());
+	}
+
 	// ========================================================================================
 	// getName
 	// ========================================================================================
@@ -240,6 +300,87 @@ public class ConsentExtensionTest {
 		);
 	}
 
+	@Test
+	public void test_handleConfigurationResponse_persistenceWriteDelay() throws Exception {
+		// setup
+		Map<String, Object> configEventData = new HashMap<>();
+		configEventData.put(ConsentConstants.ConfigurationKey.PERSISTENCE_WRITE_DELAY, 10000);
+		Event configEvent = new Event.Builder(
+			"Configuration Response Event",
+			ConsentConstants.EventType.CONFIGURATION,
+			ConsentConstants.EventSource.RESPONSE_CONTENT
+		)
+			.setEventData(configEventData)
+			.build();
+
+		// test
+		extension.handleConfigurationResponse(configEvent);
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+		extension.handleConsentUpdate(buildConsentUpdateEvent("n", null));
+
+		// verify consents are not written yet
+		verify(mockSharedPreferenceEditor, times(0)).putString(anyString(), anyString());
+
+		// test
+		extension.onUnregistered();
+
+		// verify pending consents are written once
+		verify(mockSharedPreferenceEditor, times(1)).putString(anyString(), anyString());
+	}
+
+	@Test
+	public void test_onUnregistered_resetsPublishedIndex() {
+		// setup
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+		assertEquals(ConsentStatus.GRANTED, Consent.getConsentStatus(ConsentPurpose.COLLECT));
+
+		// test
+		extension.onUnregistered();
+
+		// verify
+		assertSame(ConsentDecisionIndex.EMPTY, ConsentDecisionIndex.getPublished());
+		assertEquals(ConsentStatus.UNKNOWN, Consent.getConsentStatus(ConsentPurpose.COLLECT));
+	}
+
+	@Test
+	public void test_handleConfigurationResponse_historyEnabled() throws Exception {
+		// setup
+		final File filesDir = temporaryFolder.newFolder();
+		Mockito.when(mockContext.getFilesDir()).thenReturn(filesDir);
+		Map<String, Object> configEventData = new HashMap<>();
+		configEventData.put(ConsentConstants.ConfigurationKey.HISTORY_ENABLED, true);
+		Event configEvent = new Event.Builder(
+			"Configuration Response Event",
+			ConsentConstants.EventType.CONFIGURATION,
+			ConsentConstants.EventSource.RESPONSE_CONTENT
+		)
+			.setEventData(configEventData)
+			.build();
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("n", null));
+		extension.handleConfigurationResponse(configEvent);
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+
+		// verify the update received while the history is enabled is recorded
+		final Map<String, Object> recordedConsents = ConsentStorageService.getConsentsAt(Long.MAX_VALUE).asXDMMap();
+		assertEquals("y", ((Map) ((Map) recordedConsents.get("consents")).get("collect")).get("val"));
+	}
+
+	@Test
+	public void test_handleConfigurationResponse_historyDisabledByDefault() throws Exception {
+		// setup
+		final File filesDir = temporaryFolder.newFolder();
+		Mockito.when(mockContext.getFilesDir()).thenReturn(filesDir);
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+
+		// verify
+		assertNull(ConsentStorageService.getConsentsAt(Long.MAX_VALUE));
+		assertFalse(new File(filesDir, ConsentConstants.DataStoreKey.CONSENT_HISTORY_FILE + ".0").exists());
+	}
+
 	@Test
 	public void test_handleConfigurationResponse_multipleTimesWithSameDefaults() throws Exception {
 		// setup
@@ -355,6 +496,381 @@ public class ConsentExtensionTest {
 		);
 	}
 
+	@Test
+	public void test_handleConsentUpdate_WithCoalesceWindow_SharesStatePerTriggeringEvent() {
+		// setup
+		extension.handleConfigurationResponse(buildCoalesceWindowConfigurationEvent(1000));
+		Event firstEvent = buildConsentUpdateEvent("y", null);
+		Event secondEvent = buildConsentUpdateEvent("n", null);
+		Event thirdEvent = buildConsentUpdateEvent(null, "y");
+		final ArgumentCaptor<Map> firstCaptor = ArgumentCaptor.forClass(Map.class);
+		final ArgumentCaptor<Map> secondCaptor = ArgumentCaptor.forClass(Map.class);
+		final ArgumentCaptor<Map> thirdCaptor = ArgumentCaptor.forClass(Map.class);
+
+		// test
+		extension.handleConsentUpdate(firstEvent);
+		extension.handleConsentUpdate(secondEvent);
+		extension.handleConsentUpdate(thirdEvent);
+
+		// verify each event gets a shared state with the consents as of that event, none is left pending
+		verify(mockExtensionApi, times(0))
+			.setXDMSharedEventState((Map) isNull(), any(Event.class), any(ExtensionErrorCallback.class));
+		verify(mockExtensionApi, times(1))
+			.setXDMSharedEventState(firstCaptor.capture(), eq(firstEvent), any(ExtensionErrorCallback.class));
+		verify(mockExtensionApi, times(1))
+			.setXDMSharedEventState(secondCaptor.capture(), eq(secondEvent), any(ExtensionErrorCallback.class));
+		verify(mockExtensionApi, times(1))
+			.setXDMSharedEventState(thirdCaptor.capture(), eq(thirdEvent), any(ExtensionErrorCallback.class));
+
+		assertEquals("y", ConsentTestUtil.readCollectConsent(new Consents(firstCaptor.getValue())));
+		assertNull(ConsentTestUtil.readAdIdConsent(new Consents(firstCaptor.getValue())));
+		assertEquals("n", ConsentTestUtil.readCollectConsent(new Consents(secondCaptor.getValue())));
+		assertNull(ConsentTestUtil.readAdIdConsent(new Consents(secondCaptor.getValue())));
+		assertEquals("n", ConsentTestUtil.readCollectConsent(new Consents(thirdCaptor.getValue())));
+		assertEquals("y", ConsentTestUtil.readAdIdConsent(new Consents(thirdCaptor.getValue())));
+		extension.onUnregistered();
+	}
+
+	@Test
+	public void test_handleConsentUpdate_WithCoalesceWindow_NotifiesFinalStateOfBurstOnce() {
+		// setup
+		extension.handleConfigurationResponse(buildCoalesceWindowConfigurationEvent(1000));
+		Event thirdEvent = buildConsentUpdateEvent(null, "y");
+		final ArgumentCaptor<Map> sharedStateCaptor = ArgumentCaptor.forClass(Map.class);
+		final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+		extension.handleConsentUpdate(buildConsentUpdateEvent("n", null));
+		extension.handleConsentUpdate(thirdEvent);
+
+		// verify only the edge consent events are dispatched while the burst is pending
+		PowerMockito.verifyStatic(MobileCore.class, times(3));
+		MobileCore.dispatchEvent(eventCaptor.capture(), any(ExtensionErrorCallback.class));
+
+		for (Event dispatchedEvent : eventCaptor.getAllValues()) {
+			assertEquals(ConsentConstants.EventNames.EDGE_CONSENT_UPDATE, dispatchedEvent.getName());
+		}
+
+		// test
+		extension.onUnregistered();
+
+		// verify a single consent response event is dispatched with the final consents
+		verify(mockExtensionApi, times(1))
+			.setXDMSharedEventState(sharedStateCaptor.capture(), eq(thirdEvent), any(ExtensionErrorCallback.class));
+		PowerMockito.verifyStatic(MobileCore.class, times(4));
+		MobileCore.dispatchEvent(eventCaptor.capture(), any(ExtensionErrorCallback.class));
+		Event consentResponseEvent = eventCaptor.getValue();
+		assertEquals(ConsentConstants.EventNames.CONSENT_PREFERENCES_UPDATED, consentResponseEvent.getName());
+		assertEquals(sharedStateCaptor.getValue(), consentResponseEvent.getEventData());
+		assertEquals("n", ConsentTestUtil.readCollectConsent(new Consents(consentResponseEvent.getEventData())));
+		assertEquals("y", ConsentTestUtil.readAdIdConsent(new Consents(consentResponseEvent.getEventData())));
+	}
+
+	@Test
+	public void test_handleConsentUpdate_WithCoalesceWindow_NotifiesWhenWindowEnds() throws Exception {
+		// setup
+		extension.handleConfigurationResponse(buildCoalesceWindowConfigurationEvent(50));
+		final CountDownLatch notifiedLatch = new CountDownLatch(1);
+		PowerMockito
+			.doAnswer(
+				new Answer<Void>() {
+					@Override
+					public Void answer(final InvocationOnMock invocation) {
+						Event dispatchedEvent = invocation.getArgument(0);
+
+						if (ConsentConstants.EventNames.CONSENT_PREFERENCES_UPDATED.equals(dispatchedEvent.getName())) {
+							notifiedLatch.countDown();
+						}
+
+						return null;
+					}
+				}
+			)
+			.when(MobileCore.class);
+		MobileCore.dispatchEvent(any(Event.class), any(ExtensionErrorCallback.class));
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+		extension.handleConsentUpdate(buildConsentUpdateEvent("n", null));
+
+		// verify
+		assertTrue(notifiedLatch.await(2000, TimeUnit.MILLISECONDS));
+		verify(mockExtensionApi, times(2))
+			.setXDMSharedEventState((Map) notNull(), any(Event.class), any(ExtensionErrorCallback.class));
+	}
+
+	@Test
+	public void test_handleConsentUpdate_WithCoalesceWindow_EdgeConsentHandleNotifiesBurstFirst() throws Exception {
+		// setup
+		extension.handleConfigurationResponse(buildCoalesceWindowConfigurationEvent(1000));
+		Event updateEvent = buildConsentUpdateEvent("y", null);
+		Event edgeEvent = buildEdgeConsentPreferenceEvent(
+			"{\n" +
+			"  \"payload\": [\n" +
+			"    {\n" +
+			"      \"collect\": {\n" +
+			"        \"val\":\"n\"\n" +
+			"      }\n" +
+			"    }\n" +
+			"  ]\n" +
+			"}"
+		);
+
+		// test
+		extension.handleConsentUpdate(updateEvent);
+		extension.handleEdgeConsentPreferenceHandle(edgeEvent);
+
+		// verify both events get their own shared state
+		InOrder inOrder = Mockito.inOrder(mockExtensionApi);
+		inOrder
+			.verify(mockExtensionApi)
+			.setXDMSharedEventState((Map) notNull(), eq(updateEvent), any(ExtensionErrorCallback.class));
+		inOrder
+			.verify(mockExtensionApi)
+			.setXDMSharedEventState((Map) notNull(), eq(edgeEvent), any(ExtensionErrorCallback.class));
+
+		// verify the burst is notified before the edge consent handle
+		final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+		PowerMockito.verifyStatic(MobileCore.class, times(3));
+		MobileCore.dispatchEvent(eventCaptor.capture(), any(ExtensionErrorCallback.class));
+		List<Event> dispatchedEvents = eventCaptor.getAllValues();
+		assertEquals(ConsentConstants.EventNames.CONSENT_PREFERENCES_UPDATED, dispatchedEvents.get(1).getName());
+		assertEquals("y", ConsentTestUtil.readCollectConsent(new Consents(dispatchedEvents.get(1).getEventData())));
+		assertEquals(ConsentConstants.EventNames.CONSENT_PREFERENCES_UPDATED, dispatchedEvents.get(2).getName());
+		assertEquals("n", ConsentTestUtil.readCollectConsent(new Consents(dispatchedEvents.get(2).getEventData())));
+	}
+
+	@Test
+	public void test_handleConsentUpdate_UpdatesConsentStatus() {
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", "n"));
+
+		// verify
+		assertEquals(ConsentStatus.GRANTED, Consent.getConsentStatus(ConsentPurpose.COLLECT));
+		assertEquals(ConsentStatus.DENIED, Consent.getConsentStatus(ConsentPurpose.AD_ID));
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("n", null));
+
+		// verify
+		assertEquals(ConsentStatus.DENIED, Consent.getConsentStatus(ConsentPurpose.COLLECT));
+	}
+
+	@Test
+	public void test_handleConsentUpdate_WithCoalesceWindow_UpdatesConsentStatusImmediately() {
+		// setup
+		extension.handleConfigurationResponse(buildCoalesceWindowConfigurationEvent(1000));
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+		extension.handleConsentUpdate(buildConsentUpdateEvent("n", null));
+
+		// verify
+		assertEquals(ConsentStatus.DENIED, Consent.getConsentStatus(ConsentPurpose.COLLECT));
+		extension.onUnregistered();
+	}
+
+	@Test
+	public void test_handleConsentUpdate_UpdatesConsentsSnapshot() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("n", "n"));
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+
+		// verify
+		Map<String, Object> snapshot = Consent.getConsentsSnapshot();
+		assertEquals("y", ConsentTestUtil.readCollectConsent(new Consents(snapshot)));
+		assertEquals("n", ConsentTestUtil.readAdIdConsent(new Consents(snapshot)));
+		assertSame(snapshot, Consent.getConsentsSnapshot());
+	}
+
+	@Test
+	public void test_handleConsentUpdate_NotifiesConsentChangeListener() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("n", "n"));
+		Consent.registerConsentChangeListener(changeListener);
+		extension.handleEventHubBoot(buildBootEvent());
+
+		// verify the initial consents are not notified
+		assertTrue(changeListener.changes.isEmpty());
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+
+		// verify
+		assertEquals(1, changeListener.changes.size());
+		ConsentChange change = changeListener.changes.get(0);
+		assertEquals(Collections.singleton("collect"), change.getChangedPurposes());
+		assertEquals("n", ((Map) change.getPreviousValue("collect")).get("val"));
+		assertEquals("y", ((Map) change.getNewValue("collect")).get("val"));
+	}
+
+	@Test
+	public void test_handleConsentUpdate_SameConsentValues_DoesNotNotifyConsentChangeListener() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("y", "n", SAMPLE_METADATA_TIMESTAMP));
+		Consent.registerConsentChangeListener(changeListener);
+		extension.handleEventHubBoot(buildBootEvent());
+
+		// test, only the metadata time changes
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", "n"));
+
+		// verify
+		assertTrue(changeListener.changes.isEmpty());
+	}
+
+	@Test
+	public void test_handleConsentUpdate_ListenerThrows_ConsentsAreStillShared() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("n"));
+		ConsentChangeListener failingListener = new ConsentChangeListener() {
+			@Override
+			public void onConsentChanged(final ConsentChange change) {
+				throw new IllegalStateException("listener failure");
+			}
+		};
+		Consent.registerConsentChangeListener(failingListener);
+		Consent.registerConsentChangeListener(changeListener);
+		extension.handleEventHubBoot(buildBootEvent());
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+
+		// verify
+		assertEquals(1, changeListener.changes.size());
+		verify(mockExtensionApi, times(2))
+			.setXDMSharedEventState(any(Map.class), any(Event.class), any(ExtensionErrorCallback.class));
+		Consent.unregisterConsentChangeListener(failingListener);
+	}
+
+	@Test
+	public void test_handleConsentUpdate_UnregisteredListener_IsNotNotified() {
+		// setup
+		extension.handleEventHubBoot(buildBootEvent());
+		Consent.registerConsentChangeListener(changeListener);
+		Consent.unregisterConsentChangeListener(changeListener);
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+
+		// verify
+		assertTrue(changeListener.changes.isEmpty());
+	}
+
+	@Test
+	public void test_handleConsentUpdate_UnchangedConsents_IsIgnored() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("y", "n", SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", "n"));
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+
+		// verify
+		verifyNoSharedStateChange();
+		verifyNoEventDispatched();
+		verify(mockSharedPreferenceEditor, times(0)).putString(anyString(), anyString());
+	}
+
+	@Test
+	public void test_handleConsentUpdate_WithMetricsEnabled_RecordsMetrics() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("y", "n", SAMPLE_METADATA_TIMESTAMP));
+		Consent.setMetricsEnabled(true);
+
+		// test
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", "n"));
+		extension.handleConsentUpdate(buildConsentUpdateEvent("n", "n"));
+
+		// verify
+		Map<String, Object> metrics = Consent.getMetrics();
+		Map<String, Object> counters = (Map<String, Object>) metrics.get("counters");
+		Map<String, Object> timer = (Map<String, Object>) ((Map) metrics.get("timers")).get("handleConsentUpdate");
+		assertEquals(1L, counters.get("unchangedUpdatesIgnored"));
+		assertEquals(1L, counters.get("sharedStatesCreated"));
+		assertEquals(1L, counters.get("edgeUpdatesDispatched"));
+		assertEquals(2L, timer.get("count"));
+		assertEquals(1L, ((Map) ((Map) metrics.get("timers")).get("persistenceWrite")).get("count"));
+	}
+
+	@Test
+	public void test_handleConsentUpdate_WithTraceSink_RecordsCorrelatedSpans() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("n"));
+		ConsentTraceRingBuffer traceBuffer = new ConsentTraceRingBuffer(16);
+		Consent.setTraceSink(traceBuffer);
+
+		// test
+		Event consentUpdateEvent = buildConsentUpdateEvent("y", null);
+		extension.handleConsentUpdate(consentUpdateEvent);
+
+		// verify
+		List<String> spanNames = new ArrayList<>();
+
+		for (ConsentTraceSpan span : traceBuffer.getSpans()) {
+			assertEquals(consentUpdateEvent.getUniqueIdentifier(), span.getEventId());
+			spanNames.add(span.getName());
+		}
+
+		assertEquals(
+			Arrays.asList(
+				ConsentTraceSpan.MERGE,
+				ConsentTraceSpan.PERSIST,
+				ConsentTraceSpan.SHARED_STATE,
+				ConsentTraceSpan.DISPATCH,
+				ConsentTraceSpan.DISPATCH,
+				ConsentTraceSpan.HANDLE_CONSENT_UPDATE
+			),
+			spanNames
+		);
+	}
+
+	@Test
+	public void test_handleConsentUpdate_UnchangedConsentsWithRefreshTimestamp_SharesAndDispatches() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("y", "n", SAMPLE_METADATA_TIMESTAMP));
+		extension.handleConfigurationResponse(buildRefreshTimestampConfigurationEvent(true));
+		final ArgumentCaptor<Map> sharedStateCaptor = ArgumentCaptor.forClass(Map.class);
+
+		// test
+		Event consentUpdateEvent = buildConsentUpdateEvent("y", "n");
+		extension.handleConsentUpdate(consentUpdateEvent);
+
+		// verify
+		verify(mockExtensionApi, times(1))
+			.setXDMSharedEventState(
+				sharedStateCaptor.capture(),
+				eq(consentUpdateEvent),
+				any(ExtensionErrorCallback.class)
+			);
+		Map<String, Object> sharedState = sharedStateCaptor.getValue();
+		Assert.assertNotEquals(
+			SAMPLE_METADATA_TIMESTAMP,
+			((Map) ((Map) sharedState.get("consents")).get("metadata")).get("time")
+		);
+		PowerMockito.verifyStatic(MobileCore.class, times(2));
+		MobileCore.dispatchEvent(any(Event.class), any(ExtensionErrorCallback.class));
+	}
+
+	@Test
+	public void test_handleConsentUpdate_ChangedConsentsAfterUnchangedConsents_SharesAndDispatches() {
+		// setup
+		setupExistingConsents(CreateConsentsXDMJSONString("y", "n", SAMPLE_METADATA_TIMESTAMP));
+		extension.handleConsentUpdate(buildConsentUpdateEvent("y", null));
+
+		// test
+		Event consentUpdateEvent = buildConsentUpdateEvent("y", "y");
+		extension.handleConsentUpdate(consentUpdateEvent);
+
+		// verify
+		verify(mockExtensionApi, times(1))
+			.setXDMSharedEventState(any(Map.class), eq(consentUpdateEvent), any(ExtensionErrorCallback.class));
+		PowerMockito.verifyStatic(MobileCore.class, times(2));
+		MobileCore.dispatchEvent(any(Event.class), any(ExtensionErrorCallback.class));
+	}
+
 	@Test
 	public void test_handleConsentUpdate_MergesWithExistingConsents() {
 		// setup
@@ -838,6 +1354,30 @@ public class ConsentExtensionTest {
 			.build();
 	}
 
+	private Event buildCoalesceWindowConfigurationEvent(final long windowMillis) {
+		Map<String, Object> configEventData = new HashMap<>();
+		configEventData.put(ConsentConstants.ConfigurationKey.SHARED_STATE_COALESCE_WINDOW, windowMillis);
+		return new Event.Builder(
+			"Configuration Response Event",
+			ConsentConstants.EventType.CONFIGURATION,
+			ConsentConstants.EventSource.RESPONSE_CONTENT
+		)
+			.setEventData(configEventData)
+			.build();
+	}
+
+	private Event buildRefreshTimestampConfigurationEvent(final boolean refreshTimestamp) {
+		Map<String, Object> configEventData = new HashMap<>();
+		configEventData.put(ConsentConstants.ConfigurationKey.UPDATE_REFRESH_TIMESTAMP, refreshTimestamp);
+		return new Event.Builder(
+			"Configuration Response Event",
+			ConsentConstants.EventType.CONFIGURATION,
+			ConsentConstants.EventSource.RESPONSE_CONTENT
+		)
+			.setEventData(configEventData)
+			.build();
+	}
+
 	private Event buildBootEvent() {
 		return new Event.Builder("EventHub Boot", ConsentConstants.EventType.HUB, ConsentConstants.EventSource.BOOTED)
 			.build();
@@ -852,4 +1392,14 @@ public class ConsentExtensionTest {
 		PowerMockito.verifyStatic(MobileCore.class, times(0));
 		MobileCore.dispatchEvent(any(Event.class), any(ExtensionErrorCallback.class));
 	}
+
+	private static class RecordingChangeListener implements ConsentChangeListener {
+
+		final List<ConsentChange> changes = new ArrayList<>();
+
+		@Override
+		public void onConsentChanged(final ConsentChange change) {
+			changes.add(change);
+		}
+	}
 }
@@ -0,0 +1,244 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.MobileCore;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ MobileCore.class })
+public class ConsentHistoryTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File file;
+	private ConsentHistory history;
+
+	@Before
+	public void before() throws IOException {
+		PowerMockito.mockStatic(MobileCore.class);
+		file = new File(temporaryFolder.newFolder(), "history");
+		history = new ConsentHistory(file);
+	}
+
+	// ========================================================================================
+	// Test method : record, getConsentsAt, getSourceAt
+	// ========================================================================================
+
+	@Test
+	public void test_getConsentsAt_emptyHistory_returnsNull() {
+		assertNull(history.getConsentsAt(1000));
+		assertNull(history.getSourceAt(1000));
+	}
+
+	@Test
+	public void test_getConsentsAt_returnsConsentsCurrentAtTime() {
+		// setup
+		history.record(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.DEFAULT);
+		history.record(new Consents(CreateConsentXDMMap("n", "y")), 2000, ConsentSource.UPDATE);
+		history.record(new Consents(CreateConsentXDMMap("n")), 3000, ConsentSource.EDGE);
+
+		// test & verify
+		assertNull(history.getConsentsAt(999));
+		assertEquals(new Consents(CreateConsentXDMMap("y")), history.getConsentsAt(1000));
+		assertEquals(new Consents(CreateConsentXDMMap("y")), history.getConsentsAt(1999));
+		assertEquals(new Consents(CreateConsentXDMMap("n", "y")), history.getConsentsAt(2500));
+		assertEquals(new Consents(CreateConsentXDMMap("n")), history.getConsentsAt(3000));
+		assertEquals(new Consents(CreateConsentXDMMap("n")), history.getConsentsAt(Long.MAX_VALUE));
+		assertEquals(ConsentSource.DEFAULT, history.getSourceAt(1500));
+		assertEquals(ConsentSource.UPDATE, history.getSourceAt(2000));
+		assertEquals(ConsentSource.EDGE, history.getSourceAt(3000));
+	}
+
+	@Test
+	public void test_record_unchangedConsents_areNotRecorded() {
+		// setup
+		history.record(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+		long length = new File(file.getPath() + ".0").length();
+
+		// test
+		history.record(new Consents(CreateConsentXDMMap("y")), 2000, ConsentSource.EDGE);
+
+		// verify
+		assertEquals(length, new File(file.getPath() + ".0").length());
+		assertEquals(ConsentSource.UPDATE, history.getSourceAt(2000));
+	}
+
+	@Test
+	public void test_record_olderTimestamp_isRecordedAtLastTime() {
+		// setup
+		history.record(new Consents(CreateConsentXDMMap("y")), 2000, ConsentSource.UPDATE);
+
+		// test
+		history.record(new Consents(CreateConsentXDMMap("n")), 1000, ConsentSource.UPDATE);
+
+		// verify
+		assertNull(history.getConsentsAt(1500));
+		assertEquals(new Consents(CreateConsentXDMMap("n")), history.getConsentsAt(2000));
+	}
+
+	@Test
+	public void test_getConsentsAt_replaysDeltasAcrossCheckpoints() {
+		// setup
+		int count = ConsentHistory.CHECKPOINT_INTERVAL * 3 + 5;
+
+		for (int i = 0; i < count; i++) {
+			history.record(createConsents(i), 1000 + i, ConsentSource.UPDATE);
+		}
+
+		// test & verify
+		for (int i = 0; i < count; i++) {
+			assertEquals(createConsents(i), history.getConsentsAt(1000 + i));
+			assertEquals(createConsents(i), new ConsentHistory(file).getConsentsAt(1000 + i));
+		}
+	}
+
+	@Test
+	public void test_record_continuesHistoryLoadedFromDisk() {
+		// setup
+		history.record(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+		history.record(new Consents(CreateConsentXDMMap("y", "n")), 2000, ConsentSource.UPDATE);
+		ConsentHistory reloadedHistory = new ConsentHistory(file);
+
+		// test
+		reloadedHistory.record(new Consents(CreateConsentXDMMap("y", "n")), 3000, ConsentSource.EDGE);
+		reloadedHistory.record(new Consents(CreateConsentXDMMap("y")), 4000, ConsentSource.EDGE);
+
+		// verify
+		ConsentHistory verifiedHistory = new ConsentHistory(file);
+		assertEquals(new Consents(CreateConsentXDMMap("y")), verifiedHistory.getConsentsAt(1000));
+		assertEquals(new Consents(CreateConsentXDMMap("y", "n")), verifiedHistory.getConsentsAt(3500));
+		assertEquals(new Consents(CreateConsentXDMMap("y")), verifiedHistory.getConsentsAt(4000));
+		assertEquals(ConsentSource.UPDATE, verifiedHistory.getSourceAt(3500));
+	}
+
+	@Test
+	public void test_record_rotatesSegments_boundsDiskUsage() {
+		// setup
+		int count = 2000;
+
+		// test
+		for (int i = 0; i < count; i++) {
+			history.record(createConsents(i), 1000 + i, ConsentSource.UPDATE);
+		}
+
+		// verify
+		File firstSegment = new File(file.getPath() + ".0");
+		File secondSegment = new File(file.getPath() + ".1");
+		assertTrue(firstSegment.length() <= ConsentHistory.MAX_SEGMENT_LENGTH);
+		assertTrue(secondSegment.length() <= ConsentHistory.MAX_SEGMENT_LENGTH);
+		assertNull(history.getConsentsAt(1000));
+		assertEquals(createConsents(count - 1), history.getConsentsAt(1000 + count));
+
+		ConsentHistory reloadedHistory = new ConsentHistory(file);
+		assertNull(reloadedHistory.getConsentsAt(1000));
+
+		for (int i = count - 100; i < count; i++) {
+			assertEquals(createConsents(i), reloadedHistory.getConsentsAt(1000 + i));
+		}
+	}
+
+	@Test
+	public void test_load_incompleteRecord_isIgnored() throws Exception {
+		// setup
+		history.record(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+		history.record(new Consents(CreateConsentXDMMap("n")), 2000, ConsentSource.UPDATE);
+		File segment = new File(file.getPath() + ".0");
+		RandomAccessFile randomAccessFile = new RandomAccessFile(segment, "rw");
+		randomAccessFile.setLength(segment.length() - 3);
+		randomAccessFile.close();
+
+		// test
+		ConsentHistory reloadedHistory = new ConsentHistory(file);
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("y")), reloadedHistory.getConsentsAt(2000));
+
+		// the incomplete record is overwritten by the next record
+		reloadedHistory.record(new Consents(CreateConsentXDMMap("y", "y")), 3000, ConsentSource.EDGE);
+		assertEquals(new Consents(CreateConsentXDMMap("y", "y")), new ConsentHistory(file).getConsentsAt(3000));
+		assertEquals(new Consents(CreateConsentXDMMap("y")), new ConsentHistory(file).getConsentsAt(2000));
+	}
+
+	@Test
+	public void test_load_invalidSegment_isIgnored() throws Exception {
+		// setup
+		RandomAccessFile randomAccessFile = new RandomAccessFile(new File(file.getPath() + ".0"), "rw");
+		randomAccessFile.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15 });
+		randomAccessFile.close();
+
+		// test
+		history.record(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("y")), new ConsentHistory(file).getConsentsAt(1000));
+	}
+
+	// ========================================================================================
+	// Test method : clear
+	// ========================================================================================
+
+	@Test
+	public void test_clear_deletesSegmentsAndIndex() {
+		// setup
+		for (int i = 0; i < 4000; i++) {
+			history.record(createConsents(i), 1000 + i, ConsentSource.UPDATE);
+		}
+
+		// test
+		assertTrue(history.clear());
+
+		// verify
+		assertFalse(new File(file.getPath() + ".0").exists());
+		assertFalse(new File(file.getPath() + ".1").exists());
+		assertNull(history.getConsentsAt(Long.MAX_VALUE));
+		assertNull(new ConsentHistory(file).getConsentsAt(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void test_clear_thenRecord_startsNewHistory() {
+		// setup
+		history.record(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+		history.clear();
+
+		// test
+		history.record(new Consents(CreateConsentXDMMap("y")), 2000, ConsentSource.EDGE);
+
+		// verify
+		assertNull(history.getConsentsAt(1500));
+		assertEquals(new Consents(CreateConsentXDMMap("y")), history.getConsentsAt(2000));
+		assertEquals(ConsentSource.EDGE, new ConsentHistory(file).getSourceAt(2000));
+	}
+
+	private static Consents createConsents(final int index) {
+		final String collect = index % 2 == 0 ? "y" : "n";
+		final String adID = index % 3 == 0 ? "y" : "n";
+		return new Consents(CreateConsentXDMMap(collect, adID, "2021-01-01T00:00:" + (index % 50 + 10) + "Z"));
+	}
+}
@@ -0,0 +1,86 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ConsentInternerTest {
+
+	// ========================================================================================
+	// Test method : intern
+	// ========================================================================================
+	@Test
+	public void test_intern_knownStrings_returnsCanonicalInstance() {
+		for (String value : ConsentBinaryFormat.getDictionary()) {
+			assertSame(value, ConsentInterner.intern(new String(value)));
+		}
+
+		assertSame(
+			ConsentConstants.EventDataKey.CONSENTS,
+			ConsentInterner.intern(new String(ConsentConstants.EventDataKey.CONSENTS))
+		);
+	}
+
+	@Test
+	public void test_intern_unknownString_returnsSameString() {
+		// setup
+		String value = new String("unknownPurpose");
+
+		// test & verify
+		assertSame(value, ConsentInterner.intern(value));
+		assertSame("", ConsentInterner.intern(""));
+	}
+
+	@Test
+	public void test_intern_null_returnsNull() {
+		assertNull(ConsentInterner.intern(null));
+	}
+
+	// ========================================================================================
+	// Test method : lookup
+	// ========================================================================================
+	@Test
+	public void test_lookup_knownRange_returnsCanonicalInstance() {
+		// setup
+		String source = "{\"collect\":{\"val\":\"y\"}}";
+
+		// test & verify
+		assertSame(ConsentInterner.intern("collect"), ConsentInterner.lookup(source, 2, 9));
+		assertSame(ConsentInterner.intern("val"), ConsentInterner.lookup(source, 13, 16));
+		assertSame(ConsentInterner.intern("y"), ConsentInterner.lookup(source, 19, 20));
+	}
+
+	@Test
+	public void test_lookup_unknownRange_returnsNull() {
+		// setup
+		String source = "{\"collected\":\"yes\"}";
+
+		// test & verify
+		assertNull(ConsentInterner.lookup(source, 2, 11));
+		assertNull(ConsentInterner.lookup(source, 14, 17));
+		assertNull(ConsentInterner.lookup(source, 2, 8)); // prefix of a known string
+		assertNull(ConsentInterner.lookup(source, 0, source.length()));
+	}
+
+	@Test
+	public void test_lookup_matchesIntern() {
+		for (String value : ConsentBinaryFormat.getDictionary()) {
+			String source = "\"" + value + "\"";
+			assertEquals(value, ConsentInterner.lookup(source, 1, source.length() - 1));
+			assertSame(ConsentInterner.intern(value), ConsentInterner.lookup(source, 1, source.length() - 1));
+		}
+	}
+}
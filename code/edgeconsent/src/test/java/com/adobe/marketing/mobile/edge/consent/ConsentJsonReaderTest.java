@@ -0,0 +1,210 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentsXDMJSONString;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.MobileCore;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ MobileCore.class })
+public class ConsentJsonReaderTest {
+
+	@Before
+	public void before() {
+		PowerMockito.mockStatic(MobileCore.class);
+	}
+
+	// ========================================================================================
+	// Test method : readConsents
+	// ========================================================================================
+	@Test
+	public void test_readConsents() {
+		// setup
+		String json = CreateConsentsXDMJSONString("y", "n", "y", SAMPLE_METADATA_TIMESTAMP);
+
+		// test
+		Consents consents = ConsentJsonReader.readConsents(json);
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("y", "n", "y", SAMPLE_METADATA_TIMESTAMP)), consents);
+		assertEquals(readWithJSONObject(json), consents);
+	}
+
+	@Test
+	public void test_readConsents_convertsValuesLikeJSONObject() {
+		// setup
+		String json =
+			"{\"consents\": {\"collect\": {\"val\": \"y\", \"int\": 12, \"negative\": -3, \"long\": 12345678901," +
+			" \"double\": 1.5, \"exponent\": 2e3, \"bool\": true, \"false\": false, \"null\": null," +
+			" \"list\": [1, \"a\", null, {\"k\": [true]}], \"huge\": 123456789012345678901234567890}}}";
+
+		// test
+		Consents consents = ConsentJsonReader.readConsents(json);
+
+		// verify
+		assertEquals(readWithJSONObject(json), consents);
+		Map<String, Object> collect = readPurpose(consents, "collect");
+		assertEquals(12, collect.get("int"));
+		assertEquals(-3, collect.get("negative"));
+		assertEquals(12345678901L, collect.get("long"));
+		assertEquals(1.5, collect.get("double"));
+		assertEquals(2000.0, collect.get("exponent"));
+		assertEquals(Boolean.TRUE, collect.get("bool"));
+		assertEquals(Boolean.FALSE, collect.get("false"));
+		assertTrue(!collect.containsKey("null"));
+		assertEquals(3, ((List<Object>) collect.get("list")).size());
+	}
+
+	@Test
+	public void test_readConsents_escapedStrings() {
+		// setup
+		String json = "{\"consents\": {\"purpose\\n\": {\"val\": \"a\\\"b\\\\c\\/d\\u00e9\\t\"}}}";
+
+		// test
+		Consents consents = ConsentJsonReader.readConsents(json);
+
+		// verify
+		assertEquals("a\"b\\c/d\u00e9\t", readPurpose(consents, "purpose\n").get("val"));
+		assertEquals(readWithJSONObject(json), consents);
+	}
+
+	@Test
+	public void test_readConsents_internsKnownStrings() {
+		// setup
+		String json = "{\"consents\": {\"collect\": {\"val\": \"y\"}, \"other\": {\"v\u0061l\": \"custom\"}}}";
+
+		// test
+		Consents consents = ConsentJsonReader.readConsents(json);
+
+		// verify
+		Map<String, Object> collect = readPurpose(consents, "collect");
+		assertSame(ConsentInterner.intern("val"), collect.keySet().iterator().next());
+		assertSame(ConsentInterner.intern("y"), collect.get("val"));
+		assertSame(ConsentInterner.intern("val"), readPurpose(consents, "other").keySet().iterator().next());
+		assertEquals("custom", readPurpose(consents, "other").get("val"));
+	}
+
+	@Test
+	public void test_readConsents_largeObject() {
+		// setup
+		StringBuilder json = new StringBuilder("{\"consents\": {");
+
+		for (int i = 0; i < 3 * CompactMap.MAX_SIZE; i++) {
+			json.append(i == 0 ? "" : ", ").append("\"purpose").append(i).append("\": {\"val\": \"y\"}");
+		}
+
+		json.append("}}");
+
+		// test
+		Consents consents = ConsentJsonReader.readConsents(json.toString());
+
+		// verify
+		assertEquals(readWithJSONObject(json.toString()), consents);
+		assertEquals("y", readPurpose(consents, "purpose" + (3 * CompactMap.MAX_SIZE - 1)).get("val"));
+	}
+
+	@Test
+	public void test_readConsents_skipsOtherMembers() {
+		// setup
+		String json =
+			"{\"other\": {\"a\": [1, {\"b\": null}]}, \"consents\": {\"collect\": {\"val\": \"n\"}}, \"x\": 1}";
+
+		// test & verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), ConsentJsonReader.readConsents(json));
+	}
+
+	@Test
+	public void test_readConsents_withoutConsents_returnsEmptyConsents() {
+		assertTrue(ConsentJsonReader.readConsents("{}").isEmpty());
+		assertTrue(ConsentJsonReader.readConsents("{\"consents\": \"invalid\"}").isEmpty());
+		assertTrue(ConsentJsonReader.readConsents(" {\"consents\": {}} ").isEmpty());
+	}
+
+	@Test
+	public void test_readConsents_invalidJson_returnsNull() {
+		for (String json : Arrays.asList(
+			"",
+			"[]",
+			"{",
+			"{\"consents\": {\"collect\": {\"val\": \"y\"}}",
+			"{\"consents\": {\"collect\": {\"val\": y}}}",
+			"{\"consents\": {\"collect\": {\"val\": \"y}}}",
+			"{\"consents\": {\"collect\": {\"val\": \"y\",}}}",
+			"{\"consents\": {\"a\": 1, \"a\": 2}}",
+			"{\"consents\": {\"a\": \"\\x\"}}",
+			"{\"consents\": {}} trailing"
+		)) {
+			assertNull(json, ConsentJsonReader.readConsents(json));
+		}
+
+		assertNull(ConsentJsonReader.readConsents(null));
+	}
+
+	@Test
+	public void test_readConsents_tooDeep_returnsNull() {
+		// setup
+		StringBuilder json = new StringBuilder("{\"consents\": ");
+
+		for (int i = 0; i < 100; i++) {
+			json.append("{\"a\": ");
+		}
+
+		json.append("1");
+
+		for (int i = 0; i < 100; i++) {
+			json.append("}");
+		}
+
+		json.append("}");
+
+		// test & verify
+		assertNull(ConsentJsonReader.readConsents(json.toString()));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void test_readConsents_returnsImmutableConsents() {
+		// setup
+		Consents consents = ConsentJsonReader.readConsents(CreateConsentsXDMJSONString("y"));
+
+		// test
+		readPurpose(consents, "collect").put("val", "n");
+	}
+
+	private static Consents readWithJSONObject(final String json) {
+		try {
+			return new Consents(Utility.toMap(new JSONObject(json)));
+		} catch (Exception exception) {
+			throw new AssertionError(exception);
+		}
+	}
+
+	private static Map<String, Object> readPurpose(final Consents consents, final String purpose) {
+		return (Map<String, Object>) ((Map<String, Object>) consents.asXDMMap().get("consents")).get(purpose);
+	}
+}
@@ -14,9 +14,12 @@ package com.adobe.marketing.mobile.edge.consent;
 import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.*;
 import static junit.framework.TestCase.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
@@ -89,6 +92,32 @@ public class ConsentManagerTest {
 		assertEquals(SAMPLE_METADATA_TIMESTAMP, ConsentTestUtil.readTimestamp(currentConsents));
 	}
 
+	@Test
+	public void test_Constructor_DoesNotLoadUntilConsentsAreNeeded() {
+		// test
+		consentManager = new ConsentManager();
+
+		// verify
+		verify(mockSharedPreference, never()).getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null);
+	}
+
+	@Test
+	public void test_Constructor_UsesPreloadedConsents() {
+		// setup
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("y"));
+		ConsentStorageService.preloadConsents();
+
+		// test
+		consentManager = new ConsentManager();
+		Consents currentConsents = consentManager.getCurrentConsents();
+
+		// verify
+		assertEquals("y", readCollectConsent(currentConsents));
+		verify(mockSharedPreference, times(1)).getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null);
+	}
+
 	@Test
 	public void test_LoadFromSharedPreference_whenNull() {
 		// setup
@@ -481,4 +510,146 @@ public class ConsentManagerTest {
 		assertEquals("n", readCollectConsent(defaultConsents));
 		assertNull(readAdIdConsent(defaultConsents));
 	}
+
+	// ========================================================================================
+	// Test Scenario    : consentManager memoizes the merged current consents
+	// Test method      : getCurrentConsents, mergeAndPersist, updateDefaultConsents
+	// ========================================================================================
+
+	@Test
+	public void test_getCurrentConsents_ReturnsCachedConsents_WhenNothingChanged() {
+		// setup
+		consentManager = new ConsentManager();
+		consentManager.updateDefaultConsents(new Consents(CreateConsentXDMMap("n", "n")));
+		consentManager.mergeAndPersist(new Consents(CreateConsentXDMMap("y")));
+
+		// test
+		Consents firstRead = consentManager.getCurrentConsents();
+		Consents secondRead = consentManager.getCurrentConsents();
+
+		// verify
+		assertSame(firstRead, secondRead);
+		assertEquals("y", readCollectConsent(firstRead));
+		assertEquals("n", readAdIdConsent(firstRead));
+	}
+
+	@Test
+	public void test_getCurrentConsents_Recomputed_AfterMergeChangesConsents() {
+		// setup
+		consentManager = new ConsentManager();
+		consentManager.updateDefaultConsents(new Consents(CreateConsentXDMMap("n", "n")));
+		Consents firstRead = consentManager.getCurrentConsents();
+
+		// test
+		consentManager.mergeAndPersist(new Consents(CreateConsentXDMMap("y")));
+		Consents secondRead = consentManager.getCurrentConsents();
+
+		// verify
+		assertNotSame(firstRead, secondRead);
+		assertEquals("n", readCollectConsent(firstRead));
+		assertEquals("y", readCollectConsent(secondRead));
+	}
+
+	@Test
+	public void test_getCurrentConsents_NotRecomputed_AfterNoOpMerge() {
+		// setup
+		consentManager = new ConsentManager();
+		consentManager.updateDefaultConsents(new Consents(CreateConsentXDMMap("n", "n")));
+		consentManager.mergeAndPersist(new Consents(CreateConsentXDMMap("y")));
+		Consents firstRead = consentManager.getCurrentConsents();
+
+		// test
+		consentManager.mergeAndPersist(null);
+		consentManager.mergeAndPersist(new Consents(CreateConsentXDMMap("y")));
+		Consents secondRead = consentManager.getCurrentConsents();
+
+		// verify
+		assertSame(firstRead, secondRead);
+	}
+
+	@Test
+	public void test_getCurrentConsents_NotRecomputed_AfterSameDefaultConsents() {
+		// setup
+		consentManager = new ConsentManager();
+		assertTrue(consentManager.updateDefaultConsents(new Consents(CreateConsentXDMMap("n", "n"))));
+		Consents firstRead = consentManager.getCurrentConsents();
+
+		// test
+		boolean isCurrentConsentChanged = consentManager.updateDefaultConsents(
+			new Consents(CreateConsentXDMMap("n", "n"))
+		);
+		Consents secondRead = consentManager.getCurrentConsents();
+
+		// verify
+		assertFalse(isCurrentConsentChanged);
+		assertSame(firstRead, secondRead);
+	}
+
+	// ========================================================================================
+	// Test method      : getConsentSource
+	// ========================================================================================
+
+	@Test
+	public void test_getConsentSource_ReturnsSourceOfCurrentConsents() {
+		// setup
+		consentManager = new ConsentManager();
+		consentManager.updateDefaultConsents(new Consents(CreateConsentXDMMap("n", "n")));
+
+		// test
+		consentManager.mergeAndPersist(new Consents(CreateConsentXDMMap("y")), ConsentSource.EDGE);
+
+		// verify
+		assertEquals(ConsentSource.EDGE, consentManager.getConsentSource("collect"));
+		assertEquals(ConsentSource.DEFAULT, consentManager.getConsentSource("adID"));
+		assertNull(consentManager.getConsentSource("personalize"));
+	}
+
+	@Test
+	public void test_getConsentSource_PersistedConsents_ReturnsPersistence() {
+		// setup
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("y"));
+		consentManager = new ConsentManager();
+		consentManager.updateDefaultConsents(new Consents(CreateConsentXDMMap("n", "n")));
+
+		// test
+		consentManager.mergeAndPersist(new Consents(CreateConsentXDMMap(null, "y")));
+
+		// verify
+		assertEquals(ConsentSource.PERSISTENCE, consentManager.getConsentSource("collect"));
+		assertEquals(ConsentSource.UPDATE, consentManager.getConsentSource("adID"));
+		assertEquals(new Consents(CreateConsentXDMMap("y", "y")), consentManager.getCurrentConsents());
+	}
+
+	// ========================================================================================
+	// Test method      : isAlreadyMerged
+	// ========================================================================================
+
+	@Test
+	public void test_isAlreadyMerged() {
+		// setup
+		consentManager = new ConsentManager();
+		consentManager.mergeAndPersist(new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP)));
+
+		// test & verify
+		assertTrue(consentManager.isAlreadyMerged(new Consents(CreateConsentXDMMap("y", "n"))));
+		assertTrue(consentManager.isAlreadyMerged(new Consents(CreateConsentXDMMap("y"))));
+		assertTrue(
+			consentManager.isAlreadyMerged(new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP_OTHER)))
+		);
+		assertTrue(consentManager.isAlreadyMerged(null));
+		assertFalse(consentManager.isAlreadyMerged(new Consents(CreateConsentXDMMap("n"))));
+		assertFalse(consentManager.isAlreadyMerged(new Consents(CreateConsentXDMMap("y", "y"))));
+	}
+
+	@Test
+	public void test_isAlreadyMerged_whenNoUserOptedConsents() {
+		// setup
+		consentManager = new ConsentManager();
+		consentManager.updateDefaultConsents(new Consents(CreateConsentXDMMap("y")));
+
+		// test & verify, consents matching the defaults are not user opted yet
+		assertFalse(consentManager.isAlreadyMerged(new Consents(CreateConsentXDMMap("y"))));
+	}
 }
@@ -0,0 +1,228 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.SharedPreferences;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class ConsentMetricsTest {
+
+	@After
+	public void teardown() {
+		ConsentMetrics.setEnabled(false);
+		ConsentMetrics.reset();
+	}
+
+	// ========================================================================================
+	// Test method : increment, add, snapshot
+	// ========================================================================================
+
+	@Test
+	public void test_increment_WhenDisabled_RecordsNothing() {
+		// test
+		ConsentMetrics.increment(ConsentMetrics.Counter.EDGE_UPDATES_DISPATCHED);
+		ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_WRITTEN, 10);
+
+		// verify
+		assertEquals(0L, getCounter("edgeUpdatesDispatched"));
+		assertEquals(0L, getCounter("persistenceBytesWritten"));
+		assertFalse((Boolean) ConsentMetrics.snapshot().get(ConsentMetrics.KEY_ENABLED));
+	}
+
+	@Test
+	public void test_increment_WhenEnabled_RecordsCounters() {
+		// setup
+		ConsentMetrics.setEnabled(true);
+
+		// test
+		ConsentMetrics.increment(ConsentMetrics.Counter.EDGE_UPDATES_DISPATCHED);
+		ConsentMetrics.increment(ConsentMetrics.Counter.EDGE_UPDATES_DISPATCHED);
+		ConsentMetrics.add(ConsentMetrics.Counter.PERSISTENCE_BYTES_WRITTEN, 10);
+
+		// verify
+		assertEquals(2L, getCounter("edgeUpdatesDispatched"));
+		assertEquals(10L, getCounter("persistenceBytesWritten"));
+		assertEquals(0L, getCounter("sharedStatesCreated"));
+		assertTrue((Boolean) ConsentMetrics.snapshot().get(ConsentMetrics.KEY_ENABLED));
+	}
+
+	@Test
+	public void test_snapshot_ContainsAllMetrics() {
+		// test
+		Map<String, Object> snapshot = ConsentMetrics.snapshot();
+
+		// verify
+		assertEquals(
+			ConsentMetrics.Counter.values().length,
+			((Map<String, Object>) snapshot.get(ConsentMetrics.KEY_COUNTERS)).size()
+		);
+		assertEquals(
+			ConsentMetrics.Timer.values().length,
+			((Map<String, Object>) snapshot.get(ConsentMetrics.KEY_TIMERS)).size()
+		);
+		assertEquals(ConsentMetrics.BUCKET_COUNT, getTimerHistogram("persistenceRead").size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void test_snapshot_IsUnmodifiable() {
+		// test
+		ConsentMetrics.snapshot().put("key", "value");
+	}
+
+	// ========================================================================================
+	// Test method : start, stop
+	// ========================================================================================
+
+	@Test
+	public void test_stop_WhenEnabled_RecordsDuration() {
+		// setup
+		ConsentMetrics.setEnabled(true);
+
+		// test
+		ConsentMetrics.stop(ConsentMetrics.Timer.PERSISTENCE_READ, System.nanoTime() - 5000);
+		ConsentMetrics.stop(ConsentMetrics.Timer.PERSISTENCE_READ, System.nanoTime() - 3000000);
+
+		// verify
+		Map<String, Object> timer = getTimer("persistenceRead");
+		assertEquals(2L, timer.get(ConsentMetrics.KEY_COUNT));
+		assertTrue((Long) timer.get(ConsentMetrics.KEY_TOTAL_NANOS) >= 3005000);
+		assertTrue((Long) timer.get(ConsentMetrics.KEY_MAX_NANOS) >= 3000000);
+
+		long histogramCount = 0;
+
+		for (Object bucketCount : getTimerHistogram("persistenceRead")) {
+			histogramCount += (Long) bucketCount;
+		}
+
+		assertEquals(2, histogramCount);
+	}
+
+	@Test
+	public void test_stop_WhenDisabled_RecordsNothing() {
+		// test
+		ConsentMetrics.stop(ConsentMetrics.Timer.PERSISTENCE_WRITE, System.nanoTime());
+
+		// verify
+		assertEquals(0L, getTimer("persistenceWrite").get(ConsentMetrics.KEY_COUNT));
+	}
+
+	@Test
+	public void test_stop_ZeroStartTime_RecordsDuration() {
+		// setup
+		ConsentMetrics.setEnabled(true);
+
+		// test
+		ConsentMetrics.stop(ConsentMetrics.Timer.PERSISTENCE_WRITE, 0);
+
+		// verify
+		assertEquals(1L, getTimer("persistenceWrite").get(ConsentMetrics.KEY_COUNT));
+	}
+
+	@Test
+	public void test_reset_ClearsMetrics() {
+		// setup
+		ConsentMetrics.setEnabled(true);
+		ConsentMetrics.increment(ConsentMetrics.Counter.DEEP_COPIES);
+		ConsentMetrics.stop(ConsentMetrics.Timer.PERSISTENCE_WRITE, System.nanoTime());
+
+		// test
+		ConsentMetrics.reset();
+
+		// verify
+		assertEquals(0L, getCounter("deepCopies"));
+		assertEquals(0L, getTimer("persistenceWrite").get(ConsentMetrics.KEY_COUNT));
+		assertEquals(0L, getTimer("persistenceWrite").get(ConsentMetrics.KEY_MAX_NANOS));
+	}
+
+	// ========================================================================================
+	// Test method : bucketOf
+	// ========================================================================================
+
+	@Test
+	public void test_bucketOf() {
+		assertEquals(0, ConsentMetrics.bucketOf(0));
+		assertEquals(0, ConsentMetrics.bucketOf(999));
+		assertEquals(1, ConsentMetrics.bucketOf(1000));
+		assertEquals(2, ConsentMetrics.bucketOf(2000));
+		assertEquals(2, ConsentMetrics.bucketOf(3999));
+		assertEquals(3, ConsentMetrics.bucketOf(4000));
+		assertEquals(ConsentMetrics.BUCKET_COUNT - 1, ConsentMetrics.bucketOf(Long.MAX_VALUE));
+	}
+
+	// ========================================================================================
+	// Test method : Utility deep copies
+	// ========================================================================================
+
+	@Test
+	public void test_deepCopy_WhenEnabled_RecordsCopies() {
+		// setup
+		ConsentMetrics.setEnabled(true);
+
+		// test
+		Utility.immutableDeepCopy(ConsentTestUtil.CreateConsentXDMMap("y", "n"));
+
+		// verify
+		assertEquals(1L, getCounter("deepCopies"));
+		assertEquals(5L, getCounter("deepCopiedValueCount")); // consents, collect, adID and their val entries
+	}
+
+	// ========================================================================================
+	// Test method : SharedPreferencesConsentStore bytes
+	// ========================================================================================
+
+	@Test
+	public void test_sharedPreferencesStore_WhenEnabled_RecordsBytes() {
+		// setup
+		ConsentMetrics.setEnabled(true);
+		final String jsonString = ConsentTestUtil.CreateConsentsXDMJSONString("y");
+		SharedPreferences sharedPreferences = Mockito.mock(SharedPreferences.class);
+		SharedPreferences.Editor editor = Mockito.mock(SharedPreferences.Editor.class);
+		Mockito.when(sharedPreferences.edit()).thenReturn(editor);
+		Mockito
+			.when(sharedPreferences.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(jsonString);
+		SharedPreferencesConsentStore store = new SharedPreferencesConsentStore(sharedPreferences);
+
+		// test
+		Consents consents = store.load();
+
+		// verify
+		assertEquals((long) jsonString.length(), getCounter("persistenceBytesRead"));
+
+		// test
+		store.save(consents);
+
+		// verify
+		assertTrue((Long) getCounter("persistenceBytesWritten") > 0);
+	}
+
+	private static Object getCounter(final String name) {
+		return ((Map<String, Object>) ConsentMetrics.snapshot().get(ConsentMetrics.KEY_COUNTERS)).get(name);
+	}
+
+	private static Map<String, Object> getTimer(final String name) {
+		final Map<String, Object> snapshot = ConsentMetrics.snapshot();
+		return (Map<String, Object>) ((Map<String, Object>) snapshot.get(ConsentMetrics.KEY_TIMERS)).get(name);
+	}
+
+	private static List<Object> getTimerHistogram(final String name) {
+		return (List<Object>) getTimer(name).get(ConsentMetrics.KEY_HISTOGRAM);
+	}
+}
@@ -0,0 +1,145 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.readAdIdConsent;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.readCollectConsent;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.junit.Test;
+
+public class ConsentResolverTest {
+
+	// ========================================================================================
+	// Test method : resolve
+	// ========================================================================================
+
+	@Test
+	public void test_resolve_WithoutLayers_ReturnsEmptyConsents() {
+		// test & verify
+		assertTrue(new ConsentResolver().resolve().isEmpty());
+	}
+
+	@Test
+	public void test_resolve_UserTierOverridesDefaultTier() {
+		// setup
+		ConsentResolver resolver = new ConsentResolver();
+
+		// test
+		resolver.mergeLayer(ConsentSource.UPDATE, new Consents(CreateConsentXDMMap("y")));
+		resolver.replaceLayer(ConsentSource.DEFAULT, new Consents(CreateConsentXDMMap("n", "n")));
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("y", "n")), resolver.resolve());
+	}
+
+	@Test
+	public void test_resolve_MostRecentWinsWithinTier() {
+		// setup
+		ConsentResolver resolver = new ConsentResolver();
+		resolver.mergeLayer(ConsentSource.UPDATE, new Consents(CreateConsentXDMMap("y", "y")));
+
+		// test
+		resolver.mergeLayer(ConsentSource.EDGE, new Consents(CreateConsentXDMMap("n")));
+
+		// verify
+		Consents resolved = resolver.resolve();
+		assertEquals("n", readCollectConsent(resolved));
+		assertEquals("y", readAdIdConsent(resolved));
+	}
+
+	@Test
+	public void test_resolve_ReplacingLayer_RemovesItsConsents() {
+		// setup
+		ConsentResolver resolver = new ConsentResolver();
+		resolver.mergeLayer(ConsentSource.UPDATE, new Consents(CreateConsentXDMMap("y")));
+		resolver.replaceLayer(ConsentSource.DEFAULT, new Consents(CreateConsentXDMMap("n", "n")));
+		resolver.resolve();
+
+		// test
+		resolver.replaceLayer(ConsentSource.DEFAULT, null);
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("y")), resolver.resolve());
+	}
+
+	@Test
+	public void test_resolve_ReturnsSameInstance_WhenValuesUnchanged() {
+		// setup
+		ConsentResolver resolver = new ConsentResolver();
+		resolver.mergeLayer(ConsentSource.UPDATE, new Consents(CreateConsentXDMMap("y")));
+		Consents firstRead = resolver.resolve();
+
+		// test
+		resolver.mergeLayer(ConsentSource.EDGE, new Consents(CreateConsentXDMMap("y")));
+		resolver.replaceLayer(ConsentSource.DEFAULT, new Consents(CreateConsentXDMMap("n")));
+
+		// verify
+		assertSame(firstRead, resolver.resolve());
+	}
+
+	@Test
+	public void test_resolve_ReturnsNewInstance_WhenValueChanged() {
+		// setup
+		ConsentResolver resolver = new ConsentResolver();
+		resolver.mergeLayer(ConsentSource.UPDATE, new Consents(CreateConsentXDMMap("y")));
+		Consents firstRead = resolver.resolve();
+
+		// test
+		resolver.mergeLayer(ConsentSource.EDGE, new Consents(CreateConsentXDMMap("n")));
+		Consents secondRead = resolver.resolve();
+
+		// verify
+		assertNotSame(firstRead, secondRead);
+		assertEquals(new Consents(CreateConsentXDMMap("y")), firstRead);
+		assertEquals(new Consents(CreateConsentXDMMap("n")), secondRead);
+	}
+
+	// ========================================================================================
+	// Test method : getSource, getValue
+	// ========================================================================================
+
+	@Test
+	public void test_getSource_ReturnsSourceOfEffectiveValue() {
+		// setup
+		ConsentResolver resolver = new ConsentResolver();
+		resolver.mergeLayer(ConsentSource.PERSISTENCE, new Consents(CreateConsentXDMMap("y")));
+		resolver.replaceLayer(ConsentSource.DEFAULT, new Consents(CreateConsentXDMMap("n", "n")));
+		resolver.mergeLayer(ConsentSource.EDGE, new Consents(CreateConsentXDMMap("n")));
+
+		// test & verify
+		assertEquals(ConsentSource.EDGE, resolver.getSource("collect"));
+		assertEquals(ConsentSource.DEFAULT, resolver.getSource("adID"));
+		assertNull(resolver.getSource("personalize"));
+		assertNull(resolver.getValue("personalize"));
+	}
+
+	@Test
+	public void test_getSource_AfterUpdate_ReturnsUpdate() {
+		// setup
+		ConsentResolver resolver = new ConsentResolver();
+		resolver.mergeLayer(ConsentSource.EDGE, new Consents(CreateConsentXDMMap("n")));
+
+		// test
+		resolver.mergeLayer(ConsentSource.UPDATE, new Consents(CreateConsentXDMMap("y")));
+
+		// verify
+		assertEquals(ConsentSource.UPDATE, resolver.getSource("collect"));
+		assertEquals(Collections.singletonMap("val", "y"), resolver.getValue("collect"));
+	}
+}
@@ -0,0 +1,592 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.*;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.SharedPreferences;
+import com.adobe.marketing.mobile.MobileCore;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ MobileCore.class })
+public class ConsentStorageServiceTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Mock
+	Context mockContext;
+
+	@Mock
+	SharedPreferences mockSharedPreference;
+
+	@Mock
+	SharedPreferences.Editor mockSharedPreferenceEditor;
+
+	@Mock
+	Application mockApplication;
+
+	@Before
+	public void before() throws Exception {
+		PowerMockito.mockStatic(MobileCore.class);
+
+		Mockito.when(MobileCore.getApplication()).thenReturn(mockApplication);
+		Mockito.when(mockApplication.getApplicationContext()).thenReturn(mockContext);
+		Mockito
+			.when(mockContext.getSharedPreferences(ConsentConstants.DataStoreKey.DATASTORE_NAME, 0))
+			.thenReturn(mockSharedPreference);
+		Mockito.when(mockSharedPreference.edit()).thenReturn(mockSharedPreferenceEditor);
+	}
+
+	@After
+	public void after() {
+		ConsentStorageService.flushPendingConsents();
+		ConsentStorageService.setWriteDelay(0);
+		ConsentStorageService.setStore(null);
+		ConsentStorageService.setJournalEnabled(false);
+		ConsentStorageService.setHistoryEnabled(false);
+	}
+
+	// ========================================================================================
+	// Test method : saveConsentsToPersistence, flushPendingConsents, setWriteDelay
+	// ========================================================================================
+
+	@Test
+	public void test_saveConsents_WithoutWriteDelay_WritesImmediately() {
+		// test
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("n")));
+
+		// verify
+		verify(mockSharedPreferenceEditor, times(1))
+			.putString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, CreateConsentsXDMJSONString("y"));
+		verify(mockSharedPreferenceEditor, times(1))
+			.putString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, CreateConsentsXDMJSONString("n"));
+	}
+
+	@Test
+	public void test_saveConsents_WithWriteDelay_CoalescesWrites() {
+		// setup
+		ConsentStorageService.setWriteDelay(10000);
+
+		// test
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("n")));
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("n", "y")));
+
+		// verify nothing is written before flush
+		verify(mockSharedPreferenceEditor, never()).putString(anyString(), anyString());
+
+		// test flush
+		ConsentStorageService.flushPendingConsents();
+
+		// verify only the latest consents are written
+		verify(mockSharedPreferenceEditor, times(1)).putString(anyString(), anyString());
+		verify(mockSharedPreferenceEditor, times(1))
+			.putString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, CreateConsentsXDMJSONString("n", "y"));
+	}
+
+	@Test
+	public void test_saveConsents_WithWriteDelay_WritesAfterDelay() {
+		// setup
+		ConsentStorageService.setWriteDelay(50);
+
+		// test
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("n")));
+
+		// verify
+		verify(mockSharedPreferenceEditor, timeout(2000).times(1))
+			.putString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, CreateConsentsXDMJSONString("n"));
+		verify(mockSharedPreferenceEditor, times(1)).putString(anyString(), anyString());
+	}
+
+	@Test
+	public void test_saveConsents_WithWriteDelay_FlushesWhenAppGoesToBackground() {
+		// setup
+		final ArgumentCaptor<ComponentCallbacks2> callbacksCaptor = ArgumentCaptor.forClass(ComponentCallbacks2.class);
+		ConsentStorageService.setWriteDelay(10000);
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+		verify(mockApplication, times(1)).registerComponentCallbacks(callbacksCaptor.capture());
+
+		// test
+		callbacksCaptor.getValue().onTrimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+		// verify
+		verify(mockSharedPreferenceEditor, timeout(2000).times(1))
+			.putString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, CreateConsentsXDMJSONString("y"));
+	}
+
+	@Test
+	public void test_saveConsents_WithWriteDelay_BackgroundFlushDoesNotWriteOnCallingThread() throws Exception {
+		// setup
+		final ArgumentCaptor<ComponentCallbacks2> callbacksCaptor = ArgumentCaptor.forClass(ComponentCallbacks2.class);
+		final CountDownLatch savedLatch = new CountDownLatch(1);
+		final Thread[] savingThread = new Thread[1];
+		ConsentStorageService.setStore(
+			new ConsentStore() {
+				@Override
+				public Consents load() {
+					return null;
+				}
+
+				@Override
+				public boolean save(final Consents consents) {
+					savingThread[0] = Thread.currentThread();
+					savedLatch.countDown();
+					return true;
+				}
+
+				@Override
+				public boolean clear() {
+					return true;
+				}
+			}
+		);
+		ConsentStorageService.setWriteDelay(10000);
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+		verify(mockApplication, times(1)).registerComponentCallbacks(callbacksCaptor.capture());
+
+		// test
+		callbacksCaptor.getValue().onLowMemory();
+
+		// verify
+		assertTrue(savedLatch.await(2, TimeUnit.SECONDS));
+		assertNotSame(Thread.currentThread(), savingThread[0]);
+	}
+
+	@Test
+	public void test_setWriteDelay_FlushesPendingConsents() {
+		// setup
+		ConsentStorageService.setWriteDelay(10000);
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+
+		// test
+		ConsentStorageService.setWriteDelay(0);
+
+		// verify
+		verify(mockSharedPreferenceEditor, timeout(2000).times(1))
+			.putString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, CreateConsentsXDMJSONString("y"));
+	}
+
+	@Test
+	public void test_flushPendingConsents_WhenNothingPending_DoesNotWrite() {
+		// test
+		ConsentStorageService.flushPendingConsents();
+
+		// verify
+		verify(mockSharedPreferenceEditor, never()).putString(anyString(), anyString());
+	}
+
+	// ========================================================================================
+	// Test method : preloadConsents, takePreloadedConsents
+	// ========================================================================================
+
+	@Test
+	public void test_takePreloadedConsents_ReturnsPreloadedConsents() {
+		// setup
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("y"));
+
+		// test
+		ConsentStorageService.preloadConsents();
+		verify(mockSharedPreference, timeout(2000).times(1))
+			.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null);
+		final Consents consents = ConsentStorageService.takePreloadedConsents();
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("y")), consents);
+		verify(mockSharedPreference, times(1)).getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null);
+	}
+
+	@Test
+	public void test_takePreloadedConsents_WithoutPreload_LoadsConsents() {
+		// setup
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("n"));
+
+		// test
+		final Consents consents = ConsentStorageService.takePreloadedConsents();
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), consents);
+	}
+
+	@Test
+	public void test_takePreloadedConsents_PreloadIsTakenOnlyOnce() {
+		// setup
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("y"));
+		ConsentStorageService.preloadConsents();
+		ConsentStorageService.preloadConsents();
+
+		// test
+		ConsentStorageService.takePreloadedConsents();
+		ConsentStorageService.takePreloadedConsents();
+
+		// verify
+		verify(mockSharedPreference, times(2)).getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null);
+	}
+
+	@Test
+	public void test_takePreloadedConsents_AfterSave_ReturnsSavedConsents() {
+		// setup
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("y"));
+		ConsentStorageService.preloadConsents();
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("n")));
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("n"));
+
+		// test
+		final Consents consents = ConsentStorageService.takePreloadedConsents();
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), consents);
+	}
+
+	@Test
+	public void test_preloadConsents_WithoutApplication_DoesNotLoad() {
+		// setup
+		Mockito.when(MobileCore.getApplication()).thenReturn(null);
+
+		// test
+		ConsentStorageService.preloadConsents();
+
+		// verify
+		verify(mockSharedPreference, never()).getString(anyString(), anyString());
+		assertNull(ConsentStorageService.takePreloadedConsents());
+	}
+
+	// ========================================================================================
+	// Test method : setStore
+	// ========================================================================================
+
+	@Test
+	public void test_setStore_SavesAndLoadsFromStore() {
+		// setup
+		final InMemoryConsentStore store = new InMemoryConsentStore();
+		ConsentStorageService.setStore(store);
+
+		// test
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y", "n")));
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("y", "n")), store.load());
+		assertEquals(new Consents(CreateConsentXDMMap("y", "n")), ConsentStorageService.loadConsentsFromPersistence());
+		verify(mockSharedPreferenceEditor, never()).putString(anyString(), anyString());
+		verify(mockSharedPreference, never()).getString(anyString(), anyString());
+	}
+
+	@Test
+	public void test_setStore_PreloadsWithoutApplication() {
+		// setup
+		Mockito.when(MobileCore.getApplication()).thenReturn(null);
+		final InMemoryConsentStore store = new InMemoryConsentStore();
+		store.save(new Consents(CreateConsentXDMMap("n")));
+		ConsentStorageService.setStore(store);
+
+		// test
+		ConsentStorageService.preloadConsents();
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), ConsentStorageService.takePreloadedConsents());
+	}
+
+	// ========================================================================================
+	// Test method : binary consents file
+	// ========================================================================================
+
+	@Test
+	public void test_saveConsents_WithFilesDir_WritesConsentsFile() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+
+		// test
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+
+		// verify
+		assertTrue(consentsFile.exists());
+		assertArrayEquals(ConsentBinaryFormat.encode(new Consents(CreateConsentXDMMap("y"))), readFile(consentsFile));
+		assertFalse(new File(consentsFile.getPath() + ".tmp").exists());
+		verify(mockSharedPreferenceEditor, never()).putString(anyString(), anyString());
+	}
+
+	@Test
+	public void test_loadConsents_WithFilesDir_ReadsConsentsFile() throws Exception {
+		// setup
+		setupFilesDir();
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y", "n")));
+
+		// test
+		final Consents consents = ConsentStorageService.loadConsentsFromPersistence();
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("y", "n")), consents);
+		verify(mockSharedPreference, never()).getString(anyString(), anyString());
+	}
+
+	@Test
+	public void test_loadConsents_WithLegacyConsents_MigratesToConsentsFile() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("n"));
+		Mockito.when(mockSharedPreference.contains(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES)).thenReturn(true);
+
+		// test
+		final Consents consents = ConsentStorageService.loadConsentsFromPersistence();
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), consents);
+		assertEquals(consents, ConsentBinaryFormat.decode(readFile(consentsFile)));
+		verify(mockSharedPreferenceEditor, times(1)).remove(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES);
+	}
+
+	@Test
+	public void test_loadConsents_WithCorruptedConsentsFile_FallsBackToLegacyConsents() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+		final RandomAccessFile file = new RandomAccessFile(consentsFile, "rw");
+		file.setLength(file.length() - 1);
+		file.close();
+		Mockito
+			.when(mockSharedPreference.getString(ConsentConstants.DataStoreKey.CONSENT_PREFERENCES, null))
+			.thenReturn(CreateConsentsXDMJSONString("n"));
+
+		// test
+		final Consents consents = ConsentStorageService.loadConsentsFromPersistence();
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), consents);
+		assertEquals(consents, ConsentBinaryFormat.decode(readFile(consentsFile)));
+	}
+
+	@Test
+	public void test_loadConsents_WithCorruptedConsentsFileAndNoLegacyConsents_ReturnsNull() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+		final FileOutputStream outputStream = new FileOutputStream(consentsFile);
+		outputStream.write(new byte[] { 1, 2, 3 });
+		outputStream.close();
+
+		// test & verify
+		assertNull(ConsentStorageService.loadConsentsFromPersistence());
+	}
+
+	@Test
+	public void test_saveConsents_EmptyConsents_DeletesConsentsFile() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+
+		// test
+		ConsentStorageService.saveConsentsToPersistence(new Consents(new HashMap<String, Object>()));
+
+		// verify
+		assertFalse(consentsFile.exists());
+		assertNull(ConsentStorageService.loadConsentsFromPersistence());
+	}
+
+	@Test
+	public void test_saveConsents_WithJournalEnabled_AppendsToJournal() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+		ConsentStorageService.setJournalEnabled(true);
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y", "n")));
+
+		// test
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("n", "n")));
+
+		// verify
+		assertTrue(new File(consentsFile.getPath() + ".journal").exists());
+		assertArrayEquals(
+			ConsentBinaryFormat.encode(new Consents(CreateConsentXDMMap("y", "n"))),
+			readFile(consentsFile)
+		);
+		assertEquals(new Consents(CreateConsentXDMMap("n", "n")), ConsentStorageService.loadConsentsFromPersistence());
+	}
+
+	@Test
+	public void test_loadConsents_WithJournalDisabled_ReplaysExistingJournal() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+		ConsentStorageService.setJournalEnabled(true);
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("y")));
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("n")));
+
+		// test
+		ConsentStorageService.setJournalEnabled(false);
+		final Consents consents = ConsentStorageService.loadConsentsFromPersistence();
+		ConsentStorageService.saveConsentsToPersistence(new Consents(CreateConsentXDMMap("n", "y")));
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), consents);
+		assertFalse(new File(consentsFile.getPath() + ".journal").exists());
+		assertArrayEquals(
+			ConsentBinaryFormat.encode(new Consents(CreateConsentXDMMap("n", "y"))),
+			readFile(consentsFile)
+		);
+	}
+
+	// ========================================================================================
+	// Test method : recordConsentsHistory, getConsentsAt
+	// ========================================================================================
+
+	@Test
+	public void test_getConsentsAt_ReturnsRecordedConsents() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+		ConsentStorageService.setHistoryEnabled(true);
+		ConsentStorageService.recordConsentsHistory(
+			new Consents(CreateConsentXDMMap("y")),
+			1000,
+			ConsentSource.DEFAULT
+		);
+		ConsentStorageService.recordConsentsHistory(new Consents(CreateConsentXDMMap("n")), 2000, ConsentSource.UPDATE);
+
+		// test & verify
+		assertNull(ConsentStorageService.getConsentsAt(500));
+		assertEquals(new Consents(CreateConsentXDMMap("y")), ConsentStorageService.getConsentsAt(1500));
+		assertEquals(new Consents(CreateConsentXDMMap("n")), ConsentStorageService.getConsentsAt(2000));
+		assertTrue(
+			new File(consentsFile.getParentFile(), ConsentConstants.DataStoreKey.CONSENT_HISTORY_FILE + ".0").exists()
+		);
+	}
+
+	@Test
+	public void test_recordConsentsHistory_WithoutFilesDir_DoesNothing() {
+		// setup
+		ConsentStorageService.setHistoryEnabled(true);
+
+		// test
+		ConsentStorageService.recordConsentsHistory(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+
+		// verify
+		assertNull(ConsentStorageService.getConsentsAt(1000));
+	}
+
+	@Test
+	public void test_recordConsentsHistory_HistoryDisabledByDefault_DoesNotRecord() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+
+		// test
+		ConsentStorageService.recordConsentsHistory(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+
+		// verify
+		assertNull(ConsentStorageService.getConsentsAt(1000));
+		assertFalse(
+			new File(consentsFile.getParentFile(), ConsentConstants.DataStoreKey.CONSENT_HISTORY_FILE + ".0").exists()
+		);
+	}
+
+	@Test
+	public void test_setHistoryEnabled_False_DeletesHistory() throws Exception {
+		// setup
+		final File consentsFile = setupFilesDir();
+		final File segmentFile = new File(
+			consentsFile.getParentFile(),
+			ConsentConstants.DataStoreKey.CONSENT_HISTORY_FILE + ".0"
+		);
+		ConsentStorageService.setHistoryEnabled(true);
+		ConsentStorageService.recordConsentsHistory(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+		assertEquals(new Consents(CreateConsentXDMMap("y")), ConsentStorageService.getConsentsAt(1000));
+		assertTrue(segmentFile.exists());
+
+		// test
+		ConsentStorageService.setHistoryEnabled(false);
+
+		// verify
+		assertNull(ConsentStorageService.getConsentsAt(1000));
+		ConsentStorageService.setHistoryEnabled(true);
+		assertNull(ConsentStorageService.getConsentsAt(1000)); // waits for the background deletion
+		assertFalse(segmentFile.exists());
+	}
+
+	@Test
+	public void test_setHistoryEnabled_FalseWhenAlreadyDisabled_KeepsHistory() throws Exception {
+		// setup history recorded by a previous run
+		final File consentsFile = setupFilesDir();
+		final File historyFile = new File(
+			consentsFile.getParentFile(),
+			ConsentConstants.DataStoreKey.CONSENT_HISTORY_FILE
+		);
+		new ConsentHistory(historyFile).record(new Consents(CreateConsentXDMMap("y")), 1000, ConsentSource.UPDATE);
+
+		// test the default configuration keeps the history disabled
+		ConsentStorageService.setHistoryEnabled(false);
+
+		// verify
+		ConsentStorageService.setHistoryEnabled(true);
+		assertEquals(new Consents(CreateConsentXDMMap("y")), ConsentStorageService.getConsentsAt(1000));
+		assertTrue(new File(historyFile.getPath() + ".0").exists());
+	}
+
+	private File setupFilesDir() throws IOException {
+		final File filesDir = temporaryFolder.newFolder();
+		Mockito.when(mockContext.getFilesDir()).thenReturn(filesDir);
+		return new File(filesDir, ConsentConstants.DataStoreKey.CONSENT_PREFERENCES_FILE);
+	}
+
+	private static byte[] readFile(final File file) throws IOException {
+		final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+		try {
+			final byte[] data = new byte[(int) randomAccessFile.length()];
+			randomAccessFile.readFully(data);
+			return data;
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+}
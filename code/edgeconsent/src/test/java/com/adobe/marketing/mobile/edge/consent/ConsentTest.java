@@ -13,6 +13,7 @@ package com.adobe.marketing.mobile.edge.consent;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 
@@ -26,6 +27,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -47,6 +50,11 @@ public class ConsentTest {
 		PowerMockito.mockStatic(MobileCore.class);
 	}
 
+	@After
+	public void teardown() {
+		ConsentDecisionIndex.reset();
+	}
+
 	// ========================================================================================
 	// extensionVersion
 	// ========================================================================================
@@ -62,6 +70,130 @@ public class ConsentTest {
 		);
 	}
 
+	// ========================================================================================
+	// getConsentsSnapshot
+	// ========================================================================================
+	@Test
+	public void test_getConsentsSnapshot() {
+		// setup
+		ConsentDecisionIndex.publish(new Consents(SAMPLE_CONSENTS_MAP));
+
+		// test
+		Map<String, Object> snapshot = Consent.getConsentsSnapshot();
+
+		// verify
+		assertEquals(SAMPLE_CONSENTS_MAP, snapshot);
+
+		// verify no event is dispatched
+		PowerMockito.verifyStatic(MobileCore.class, Mockito.never());
+		MobileCore.dispatchEventWithResponseCallback(
+			any(Event.class),
+			any(AdobeCallback.class),
+			any(ExtensionErrorCallback.class)
+		);
+	}
+
+	@Test
+	public void test_getConsentsSnapshot_isUnmodifiable() {
+		// setup
+		ConsentDecisionIndex.publish(new Consents(SAMPLE_CONSENTS_MAP));
+		Map<String, Object> snapshot = Consent.getConsentsSnapshot();
+
+		// test
+		try {
+			snapshot.put("consents", new HashMap<String, Object>());
+			Assert.fail("expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException expected) {}
+
+		try {
+			((Map<String, Object>) snapshot.get("consents")).remove("collect");
+			Assert.fail("expected UnsupportedOperationException");
+		} catch (UnsupportedOperationException expected) {}
+
+		// verify
+		assertEquals(SAMPLE_CONSENTS_MAP, Consent.getConsentsSnapshot());
+	}
+
+	@Test
+	public void test_getConsentsSnapshot_beforeConsentsArePublished() {
+		assertNull(Consent.getConsentsSnapshot());
+	}
+
+	// ========================================================================================
+	// getConsentStatus
+	// ========================================================================================
+	@Test
+	public void test_getConsentStatus() {
+		// setup
+		ConsentDecisionIndex.publish(new Consents(ConsentTestUtil.CreateConsentXDMMap("y", "n")));
+
+		// test & verify
+		assertEquals(ConsentStatus.GRANTED, Consent.getConsentStatus(ConsentPurpose.COLLECT));
+		assertEquals(ConsentStatus.DENIED, Consent.getConsentStatus(ConsentPurpose.AD_ID));
+		assertEquals(ConsentStatus.UNKNOWN, Consent.getConsentStatus(ConsentPurpose.SHARE));
+		assertEquals(ConsentStatus.UNKNOWN, Consent.getConsentStatus(null));
+	}
+
+	@Test
+	public void test_getConsentStatus_beforeConsentsArePublished() {
+		// test & verify
+		for (ConsentPurpose purpose : ConsentPurpose.values()) {
+			assertEquals(ConsentStatus.UNKNOWN, Consent.getConsentStatus(purpose));
+		}
+	}
+
+	// ========================================================================================
+	// getConsentsAt
+	// ========================================================================================
+	@Test
+	public void test_getConsentsAt_withoutApplication_returnsNull() {
+		assertNull(Consent.getConsentsAt(System.currentTimeMillis()));
+	}
+
+	// ========================================================================================
+	// registerConsentChangeListener
+	// ========================================================================================
+	@Test
+	public void test_registerConsentChangeListener_nullListener_isIgnored() {
+		// test
+		Consent.registerConsentChangeListener(null);
+		Consent.unregisterConsentChangeListener(null);
+
+		// verify
+		ConsentChangeNotifier.notifyListeners(
+			new Consents(ConsentTestUtil.CreateConsentXDMMap("y")),
+			new Consents(ConsentTestUtil.CreateConsentXDMMap("n"))
+		);
+	}
+
+	@Test
+	public void test_registerConsentChangeListener_sameListenerTwice_isNotifiedOnce() {
+		// setup
+		final List<ConsentChange> changes = new ArrayList<>();
+		ConsentChangeListener listener = new ConsentChangeListener() {
+			@Override
+			public void onConsentChanged(final ConsentChange change) {
+				changes.add(change);
+			}
+		};
+
+		// test
+		Consent.registerConsentChangeListener(listener);
+		Consent.registerConsentChangeListener(listener);
+		ConsentChangeNotifier.notifyListeners(
+			new Consents(ConsentTestUtil.CreateConsentXDMMap("y")),
+			new Consents(ConsentTestUtil.CreateConsentXDMMap("n"))
+		);
+		Consent.unregisterConsentChangeListener(listener);
+		ConsentChangeNotifier.notifyListeners(
+			new Consents(ConsentTestUtil.CreateConsentXDMMap("n")),
+			new Consents(ConsentTestUtil.CreateConsentXDMMap("y"))
+		);
+
+		// verify
+		assertEquals(1, changes.size());
+	}
+
 	// ========================================================================================
 	// registerExtension
 	// ========================================================================================
@@ -123,6 +255,66 @@ public class ConsentTest {
 		MobileCore.dispatchEvent(any(Event.class), any(ExtensionErrorCallback.class));
 	}
 
+	// ========================================================================================
+	// batchUpdate Public API
+	// ========================================================================================
+	@Test
+	public void testBatchUpdate() {
+		// setup
+		final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+		final List<Map<String, Object>> consentsList = new ArrayList<>();
+		consentsList.add(ConsentTestUtil.CreateConsentXDMMap("y", "y"));
+		consentsList.add(ConsentTestUtil.CreateConsentXDMMap(null, "n"));
+		consentsList.add(ConsentTestUtil.CreateConsentXDMMap("n"));
+
+		// test
+		Consent.batchUpdate(consentsList);
+
+		// verify a single event is dispatched with the combined consents
+		PowerMockito.verifyStatic(MobileCore.class, Mockito.times(1));
+		MobileCore.dispatchEvent(eventCaptor.capture(), any(ExtensionErrorCallback.class));
+
+		Event dispatchedEvent = eventCaptor.getValue();
+		assertEquals(ConsentConstants.EventNames.CONSENT_UPDATE_REQUEST, dispatchedEvent.getName());
+		assertEquals(ConsentConstants.EventType.CONSENT.toLowerCase(), dispatchedEvent.getType());
+		assertEquals(ConsentConstants.EventSource.UPDATE_CONSENT.toLowerCase(), dispatchedEvent.getSource());
+		assertEquals(ConsentTestUtil.CreateConsentXDMMap("n", "n"), dispatchedEvent.getEventData());
+	}
+
+	@Test
+	public void testBatchUpdate_skipsInvalidConsents() {
+		// setup
+		final ArgumentCaptor<Event> eventCaptor = ArgumentCaptor.forClass(Event.class);
+		final List<Map<String, Object>> consentsList = new ArrayList<>();
+		consentsList.add(null);
+		consentsList.add(new HashMap<String, Object>());
+		consentsList.add(SAMPLE_CONSENTS_MAP);
+
+		// test
+		Consent.batchUpdate(consentsList);
+
+		// verify
+		PowerMockito.verifyStatic(MobileCore.class, Mockito.times(1));
+		MobileCore.dispatchEvent(eventCaptor.capture(), any(ExtensionErrorCallback.class));
+		assertEquals(SAMPLE_CONSENTS_MAP, eventCaptor.getValue().getEventData());
+	}
+
+	@Test
+	public void testBatchUpdate_withNullOrEmpty() {
+		// setup
+		final List<Map<String, Object>> consentsList = new ArrayList<>();
+		consentsList.add(new HashMap<String, Object>());
+
+		// test
+		Consent.batchUpdate(null);
+		Consent.batchUpdate(new ArrayList<Map<String, Object>>());
+		Consent.batchUpdate(consentsList);
+
+		// verify
+		PowerMockito.verifyStatic(MobileCore.class, Mockito.times(0));
+		MobileCore.dispatchEvent(any(Event.class), any(ExtensionErrorCallback.class));
+	}
+
 	// ========================================================================================
 	// getConsents Public API
 	// ========================================================================================
@@ -0,0 +1,137 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+public class ConsentTraceRingBufferTest {
+
+	// ========================================================================================
+	// Test method : onSpan, getSpans
+	// ========================================================================================
+
+	@Test
+	public void test_getSpans_Empty() {
+		assertTrue(new ConsentTraceRingBuffer(4).getSpans().isEmpty());
+	}
+
+	@Test
+	public void test_getSpans_ReturnsSpansOldestFirst() {
+		// setup
+		ConsentTraceRingBuffer buffer = new ConsentTraceRingBuffer(4);
+		ConsentTraceSpan first = createSpan("first");
+		ConsentTraceSpan second = createSpan("second");
+
+		// test
+		buffer.onSpan(first);
+		buffer.onSpan(second);
+
+		// verify
+		List<ConsentTraceSpan> spans = buffer.getSpans();
+		assertEquals(2, spans.size());
+		assertSame(first, spans.get(0));
+		assertSame(second, spans.get(1));
+	}
+
+	@Test
+	public void test_getSpans_WhenFull_KeepsMostRecentSpans() {
+		// setup
+		ConsentTraceRingBuffer buffer = new ConsentTraceRingBuffer(3);
+
+		// test
+		for (int i = 0; i < 5; i++) {
+			buffer.onSpan(createSpan("span" + i));
+		}
+
+		// verify
+		List<ConsentTraceSpan> spans = buffer.getSpans();
+		assertEquals(3, spans.size());
+		assertEquals("span2", spans.get(0).getName());
+		assertEquals("span3", spans.get(1).getName());
+		assertEquals("span4", spans.get(2).getName());
+		assertEquals(5, buffer.getRecordedCount());
+		assertEquals(3, buffer.getCapacity());
+	}
+
+	@Test
+	public void test_onSpan_NullSpan_IsIgnored() {
+		// setup
+		ConsentTraceRingBuffer buffer = new ConsentTraceRingBuffer(2);
+
+		// test
+		buffer.onSpan(null);
+
+		// verify
+		assertEquals(0, buffer.getRecordedCount());
+	}
+
+	@Test
+	public void test_onSpan_ConcurrentWriters_KeepsLatestSpans() throws Exception {
+		// setup
+		final ConsentTraceRingBuffer buffer = new ConsentTraceRingBuffer(64);
+		final List<Thread> threads = new ArrayList<>();
+
+		for (int t = 0; t < 4; t++) {
+			final int thread = t;
+			threads.add(
+				new Thread(
+					new Runnable() {
+						@Override
+						public void run() {
+							for (int i = 0; i < 1000; i++) {
+								buffer.onSpan(createSpan(thread + "-" + i));
+							}
+						}
+					}
+				)
+			);
+		}
+
+		// test
+		for (Thread thread : threads) {
+			thread.start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// verify
+		List<ConsentTraceSpan> spans = buffer.getSpans();
+		Set<String> names = new HashSet<>();
+
+		for (ConsentTraceSpan span : spans) {
+			names.add(span.getName());
+		}
+
+		assertEquals(4000, buffer.getRecordedCount());
+		assertEquals(64, spans.size());
+		assertEquals(64, names.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void test_constructor_InvalidCapacity_Throws() {
+		new ConsentTraceRingBuffer(0);
+	}
+
+	private static ConsentTraceSpan createSpan(final String name) {
+		return new ConsentTraceSpan(name, "eventId", "thread", System.nanoTime(), 1000);
+	}
+}
@@ -0,0 +1,153 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.Event;
+import com.adobe.marketing.mobile.MobileCore;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ MobileCore.class })
+public class ConsentTracerTest {
+
+	private final ConsentTraceRingBuffer buffer = new ConsentTraceRingBuffer(16);
+
+	@Before
+	public void setup() {
+		PowerMockito.mockStatic(MobileCore.class);
+	}
+
+	@After
+	public void teardown() {
+		ConsentTracer.setSink(null);
+	}
+
+	// ========================================================================================
+	// Test method : isEnabled, end, startEvent, endEvent
+	// ========================================================================================
+
+	@Test
+	public void test_isEnabled_WhileSinkIsSet() {
+		// test & verify
+		assertFalse(ConsentTracer.isEnabled());
+
+		ConsentTracer.setSink(buffer);
+		assertTrue(ConsentTracer.isEnabled());
+
+		ConsentTracer.setSink(null);
+		assertFalse(ConsentTracer.isEnabled());
+	}
+
+	@Test
+	public void test_end_AfterSinkRemoved_RecordsNothing() {
+		// setup
+		ConsentTracer.setSink(buffer);
+		long startNanos = System.nanoTime();
+		ConsentTracer.setSink(null);
+
+		// test
+		ConsentTracer.end(ConsentTraceSpan.MERGE, null, startNanos);
+
+		// verify
+		assertTrue(buffer.getSpans().isEmpty());
+	}
+
+	@Test
+	public void test_end_WithZeroStartTime_RecordsSpan() {
+		// setup
+		ConsentTracer.setSink(buffer);
+
+		// test
+		ConsentTracer.end(ConsentTraceSpan.MERGE, null, 0);
+
+		// verify
+		List<ConsentTraceSpan> spans = buffer.getSpans();
+		assertEquals(1, spans.size());
+		assertEquals(0, spans.get(0).getStartNanos());
+	}
+
+	@Test
+	public void test_end_RecordsSpanWithEventId() {
+		// setup
+		ConsentTracer.setSink(buffer);
+		Event event = buildEvent();
+
+		// test
+		ConsentTracer.end(ConsentTraceSpan.SHARED_STATE, event, System.nanoTime());
+
+		// verify
+		List<ConsentTraceSpan> spans = buffer.getSpans();
+		assertEquals(1, spans.size());
+		assertEquals(ConsentTraceSpan.SHARED_STATE, spans.get(0).getName());
+		assertEquals(event.getUniqueIdentifier(), spans.get(0).getEventId());
+		assertEquals(Thread.currentThread().getName(), spans.get(0).getThreadName());
+		assertTrue(spans.get(0).getDurationNanos() >= 0);
+	}
+
+	@Test
+	public void test_startEvent_CorrelatesNestedSpans() {
+		// setup
+		ConsentTracer.setSink(buffer);
+		Event event = buildEvent();
+
+		// test
+		long eventStartNanos = ConsentTracer.startEvent(event);
+		ConsentTracer.end(ConsentTraceSpan.MERGE, null, System.nanoTime());
+		ConsentTracer.endEvent(ConsentTraceSpan.HANDLE_CONSENT_UPDATE, event, eventStartNanos);
+		ConsentTracer.end(ConsentTraceSpan.PERSIST, null, System.nanoTime());
+
+		// verify
+		List<ConsentTraceSpan> spans = buffer.getSpans();
+		assertEquals(3, spans.size());
+		assertEquals(event.getUniqueIdentifier(), spans.get(0).getEventId());
+		assertEquals(ConsentTraceSpan.HANDLE_CONSENT_UPDATE, spans.get(1).getName());
+		assertEquals(event.getUniqueIdentifier(), spans.get(1).getEventId());
+		assertNull(spans.get(2).getEventId());
+	}
+
+	@Test
+	public void test_end_SinkThrows_IsCaught() {
+		// setup
+		ConsentTracer.setSink(
+			new ConsentTraceSink() {
+				@Override
+				public void onSpan(final ConsentTraceSpan span) {
+					throw new IllegalStateException("sink failure");
+				}
+			}
+		);
+
+		// test
+		ConsentTracer.end(ConsentTraceSpan.MERGE, null, System.nanoTime());
+	}
+
+	private static Event buildEvent() {
+		return new Event.Builder(
+			"Consent Update Request",
+			ConsentConstants.EventType.CONSENT,
+			ConsentConstants.EventSource.UPDATE_CONSENT
+		)
+			.build();
+	}
+}
@@ -0,0 +1,186 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP_OTHER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class ConsentsDiffTest {
+
+	// ========================================================================================
+	// Test method : compute
+	// ========================================================================================
+	@Test
+	public void test_compute_sameConsents_isEmpty() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", "y", SAMPLE_METADATA_TIMESTAMP));
+
+		// test & verify
+		assertTrue(ConsentsDiff.compute(consents, consents).isEmpty());
+		assertTrue(
+			ConsentsDiff
+				.compute(consents, new Consents(CreateConsentXDMMap("y", "n", "y", SAMPLE_METADATA_TIMESTAMP)))
+				.isEmpty()
+		);
+		assertTrue(ConsentsDiff.compute(null, new Consents(new HashMap<String, Object>())).isEmpty());
+	}
+
+	@Test
+	public void test_compute_ignoresTimestamp() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+
+		// test & verify
+		assertTrue(
+			ConsentsDiff
+				.compute(consents, new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP_OTHER)))
+				.isEmpty()
+		);
+		assertTrue(ConsentsDiff.compute(consents, new Consents(CreateConsentXDMMap("y", "n"))).isEmpty());
+		assertTrue(ConsentsDiff.compute(new Consents(CreateConsentXDMMap("y", "n")), consents).isEmpty());
+	}
+
+	@Test
+	public void test_compute_reportsDeepestDifferences() {
+		// setup
+		Consents previousConsents = new Consents(CreateConsentXDMMap("y", "n", "y", SAMPLE_METADATA_TIMESTAMP));
+		Consents currentConsents = new Consents(CreateConsentXDMMap(null, "y", "n", SAMPLE_METADATA_TIMESTAMP_OTHER));
+
+		// test
+		List<ConsentsDiff.Entry> entries = ConsentsDiff.compute(previousConsents, currentConsents).getEntries();
+
+		// verify
+		assertEquals(3, entries.size());
+		ConsentsDiff.Entry collect = findEntry(entries, "collect");
+		assertEquals(ConsentsDiff.Type.REMOVED, collect.getType());
+		assertEquals(valueMap("y"), collect.getPreviousValue());
+		assertNull(collect.getNewValue());
+
+		ConsentsDiff.Entry adId = findEntry(entries, "adID", "val");
+		assertEquals(ConsentsDiff.Type.CHANGED, adId.getType());
+		assertEquals("n", adId.getPreviousValue());
+		assertEquals("y", adId.getNewValue());
+
+		ConsentsDiff.Entry personalize = findEntry(entries, "personalize", "content", "val");
+		assertEquals(ConsentsDiff.Type.CHANGED, personalize.getType());
+		assertEquals("y", personalize.getPreviousValue());
+		assertEquals("n", personalize.getNewValue());
+	}
+
+	@Test
+	public void test_compute_addedPurpose() {
+		// test
+		List<ConsentsDiff.Entry> entries = ConsentsDiff
+			.compute(new Consents(CreateConsentXDMMap("y")), new Consents(CreateConsentXDMMap("y", "n")))
+			.getEntries();
+
+		// verify
+		assertEquals(1, entries.size());
+		assertEquals(ConsentsDiff.Type.ADDED, entries.get(0).getType());
+		assertEquals(Arrays.asList("adID"), entries.get(0).getPath());
+		assertNull(entries.get(0).getPreviousValue());
+		assertEquals(valueMap("n"), entries.get(0).getNewValue());
+	}
+
+	@Test
+	public void test_compute_metadataChanges() {
+		// setup
+		Map<String, Object> xdmMap = CreateConsentXDMMap("y", null, SAMPLE_METADATA_TIMESTAMP);
+		Map<String, Object> metadata = new HashMap<>();
+		metadata.put("time", SAMPLE_METADATA_TIMESTAMP_OTHER);
+		metadata.put("key", "value");
+		((Map<String, Object>) xdmMap.get("consents")).put("metadata", metadata);
+
+		// test
+		List<ConsentsDiff.Entry> entries = ConsentsDiff
+			.compute(new Consents(CreateConsentXDMMap("y", null, SAMPLE_METADATA_TIMESTAMP)), new Consents(xdmMap))
+			.getEntries();
+
+		// verify
+		assertEquals(1, entries.size());
+		assertEquals(ConsentsDiff.Type.ADDED, entries.get(0).getType());
+		assertEquals(Arrays.asList("metadata", "key"), entries.get(0).getPath());
+		assertEquals("value", entries.get(0).getNewValue());
+	}
+
+	@Test
+	public void test_compute_emptyMetadataAdded() {
+		// setup
+		Map<String, Object> xdmMap = CreateConsentXDMMap("y");
+		((Map<String, Object>) xdmMap.get("consents")).put("metadata", new HashMap<String, Object>());
+
+		// test
+		List<ConsentsDiff.Entry> entries = ConsentsDiff
+			.compute(new Consents(CreateConsentXDMMap("y")), new Consents(xdmMap))
+			.getEntries();
+
+		// verify
+		assertEquals(1, entries.size());
+		assertEquals(ConsentsDiff.Type.ADDED, entries.get(0).getType());
+		assertEquals(Arrays.asList("metadata"), entries.get(0).getPath());
+		assertNull(entries.get(0).getPreviousValue());
+		assertEquals(new HashMap<String, Object>(), entries.get(0).getNewValue());
+	}
+
+	// ========================================================================================
+	// Test method : isUnchanged
+	// ========================================================================================
+	@Test
+	public void test_isUnchanged() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+
+		// test & verify
+		assertTrue(ConsentsDiff.isUnchanged(consents, new Consents(CreateConsentXDMMap("y", "n"))));
+		assertTrue(ConsentsDiff.isUnchanged(null, null));
+		assertFalse(ConsentsDiff.isUnchanged(consents, new Consents(CreateConsentXDMMap("y", "y"))));
+		assertFalse(ConsentsDiff.isUnchanged(consents, new Consents(CreateConsentXDMMap("y"))));
+		assertFalse(ConsentsDiff.isUnchanged(consents, null));
+	}
+
+	@Test
+	public void test_isUnchanged_sharedPurposesAfterMerge() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", "y", SAMPLE_METADATA_TIMESTAMP));
+
+		// test & verify
+		assertTrue(ConsentsDiff.isUnchanged(consents, consents.merge(new Consents(CreateConsentXDMMap("y")))));
+		assertFalse(ConsentsDiff.isUnchanged(consents, consents.merge(new Consents(CreateConsentXDMMap("n")))));
+	}
+
+	private static ConsentsDiff.Entry findEntry(final List<ConsentsDiff.Entry> entries, final String... path) {
+		for (ConsentsDiff.Entry entry : entries) {
+			if (entry.getPath().equals(Arrays.asList(path))) {
+				return entry;
+			}
+		}
+
+		throw new AssertionError("No diff entry for " + Arrays.toString(path) + " in " + entries);
+	}
+
+	private static Map<String, Object> valueMap(final String value) {
+		Map<String, Object> valueMap = new HashMap<>();
+		valueMap.put("val", value);
+		return valueMap;
+	}
+}
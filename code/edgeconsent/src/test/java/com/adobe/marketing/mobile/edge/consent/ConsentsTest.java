@@ -13,11 +13,15 @@ package com.adobe.marketing.mobile.edge.consent;
 
 import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
 import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP_OTHER;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
@@ -122,6 +126,37 @@ public class ConsentsTest {
 		assertTrue(consents.isEmpty());
 	}
 
+	@Test
+	public void test_ConsentsCreation_With_UnmodifiableConsentMap() {
+		// setup
+		Map<String, Object> consentData = CreateConsentXDMMap("y", "n");
+		Map<String, Object> xdmMap = Collections.singletonMap(
+			"consents",
+			(Object) Collections.unmodifiableMap((Map<String, Object>) consentData.get("consents"))
+		);
+
+		// test
+		Consents consents = new Consents(xdmMap);
+
+		// verify
+		assertEquals("y", ConsentTestUtil.readCollectConsent(consents));
+		assertEquals("n", ConsentTestUtil.readAdIdConsent(consents));
+		assertEquals(new Consents(consentData), consents);
+	}
+
+	@Test
+	public void test_ConsentsCreation_With_AsXDMMapOfOtherConsents() {
+		// setup
+		Consents original = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		Consents consents = new Consents(original.asXDMMap());
+
+		// verify
+		assertEquals(original, consents);
+		assertEquals(SAMPLE_METADATA_TIMESTAMP, ConsentTestUtil.readTimestamp(consents));
+	}
+
 	// ========================================================================================
 	// Test Scenarios   : All possible Consent object values
 	// Test method      : Copy Constructor, isEmpty
@@ -152,6 +187,30 @@ public class ConsentsTest {
 		assertTrue(copiedConsent.isEmpty());
 	}
 
+	// ========================================================================================
+	// Test method : getConsentsMap
+	// ========================================================================================
+	@Test
+	public void test_getConsentsMap_returnsSharedConsentsMap() {
+		// setup
+		Map<String, Object> consentData = CreateConsentXDMMap("y", "n");
+		Consents consents = new Consents(consentData);
+
+		// test and verify
+		assertEquals(consentData.get(ConsentConstants.EventDataKey.CONSENTS), consents.getConsentsMap());
+		assertSame(consents.asXDMMap().get(ConsentConstants.EventDataKey.CONSENTS), consents.getConsentsMap());
+		assertTrue(new Consents((Consents) null).getConsentsMap().isEmpty());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void test_getConsentsMap_isUnmodifiable() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y"));
+
+		// test
+		consents.getConsentsMap().put("key", "value");
+	}
+
 	// ========================================================================================
 	// Test method : AsXDMMap
 	// ========================================================================================
@@ -186,7 +245,7 @@ public class ConsentsTest {
 
 		// test
 		Consents firstOverridingConsent = new Consents(CreateConsentXDMMap("y"));
-		baseConsent.merge(firstOverridingConsent);
+		baseConsent = baseConsent.merge(firstOverridingConsent);
 
 		// verify
 		assertEquals("y", ConsentTestUtil.readCollectConsent(baseConsent));
@@ -195,7 +254,7 @@ public class ConsentsTest {
 
 		// test again
 		Consents secondOverridingConsent = new Consents(CreateConsentXDMMap("n", "n", SAMPLE_METADATA_TIMESTAMP));
-		baseConsent.merge(secondOverridingConsent);
+		baseConsent = baseConsent.merge(secondOverridingConsent);
 
 		assertEquals("n", ConsentTestUtil.readCollectConsent(baseConsent));
 		assertEquals("n", ConsentTestUtil.readAdIdConsent(baseConsent));
@@ -208,7 +267,7 @@ public class ConsentsTest {
 		Consents baseConsent = new Consents(CreateConsentXDMMap("n", null, SAMPLE_METADATA_TIMESTAMP));
 
 		// test
-		baseConsent.merge(null);
+		baseConsent = baseConsent.merge(null);
 
 		// verify
 		assertEquals("n", ConsentTestUtil.readCollectConsent(baseConsent));
@@ -216,8 +275,104 @@ public class ConsentsTest {
 		assertEquals(SAMPLE_METADATA_TIMESTAMP, ConsentTestUtil.readTimestamp(baseConsent));
 	}
 
+	@Test
+	public void test_merge_DoesNotModifyOriginalConsents() {
+		// setup
+		Consents baseConsent = new Consents(CreateConsentXDMMap("y", "n", "vi", SAMPLE_METADATA_TIMESTAMP));
+		Consents overridingConsent = new Consents(CreateConsentXDMMap("n"));
+
+		// test
+		Consents mergedConsent = baseConsent.merge(overridingConsent);
+
+		// verify
+		assertEquals("n", ConsentTestUtil.readCollectConsent(mergedConsent));
+		assertEquals("y", ConsentTestUtil.readCollectConsent(baseConsent));
+		assertEquals("n", ConsentTestUtil.readCollectConsent(overridingConsent));
+		assertNull(ConsentTestUtil.readAdIdConsent(overridingConsent));
+	}
+
+	@Test
+	public void test_merge_SharesUnchangedPurposes() {
+		// setup
+		Consents baseConsent = new Consents(CreateConsentXDMMap("y", "n", "vi", SAMPLE_METADATA_TIMESTAMP));
+		Consents overridingConsent = new Consents(CreateConsentXDMMap("n"));
+
+		// test
+		Consents mergedConsent = baseConsent.merge(overridingConsent);
+
+		// verify
+		Map<String, Object> baseConsentsMap = (Map<String, Object>) baseConsent.asXDMMap().get("consents");
+		Map<String, Object> overridingConsentsMap = (Map<String, Object>) overridingConsent.asXDMMap().get("consents");
+		Map<String, Object> mergedConsentsMap = (Map<String, Object>) mergedConsent.asXDMMap().get("consents");
+		assertSame(baseConsentsMap.get("adID"), mergedConsentsMap.get("adID"));
+		assertSame(baseConsentsMap.get("personalize"), mergedConsentsMap.get("personalize"));
+		assertSame(overridingConsentsMap.get("collect"), mergedConsentsMap.get("collect"));
+	}
+
+	@Test
+	public void test_merge_IntoEmptyConsents_ReturnsNewConsents() {
+		// setup
+		Consents baseConsent = new Consents(new HashMap<String, Object>());
+		Consents overridingConsent = new Consents(CreateConsentXDMMap("n"));
+
+		// test and verify
+		assertSame(overridingConsent, baseConsent.merge(overridingConsent));
+		assertSame(overridingConsent, overridingConsent.merge(baseConsent));
+	}
+
+	// ========================================================================================
+	// Test method : immutability
+	// ========================================================================================
+	@Test
+	public void test_ConsentsCreation_DoesNotReflectChangesToSourceMap() {
+		// setup
+		Map<String, Object> consentData = CreateConsentXDMMap("y", "n");
+		Consents consents = new Consents(consentData);
+
+		// test
+		Map<String, Object> sourceConsents = (Map<String, Object>) consentData.get("consents");
+		((Map<String, Object>) sourceConsents.get("collect")).put("val", "n");
+		sourceConsents.remove("adID");
+
+		// verify
+		assertEquals("y", ConsentTestUtil.readCollectConsent(consents));
+		assertEquals("n", ConsentTestUtil.readAdIdConsent(consents));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void test_AsXDMMap_ConsentsAreUnmodifiable() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y"));
+
+		// test
+		Map<String, Object> consentsMap = (Map<String, Object>) consents.asXDMMap().get("consents");
+		consentsMap.put("adID", new HashMap<String, Object>());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void test_AsXDMMap_NestedConsentsAreUnmodifiable() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y"));
+
+		// test
+		Map<String, Object> consentsMap = (Map<String, Object>) consents.asXDMMap().get("consents");
+		((Map<String, Object>) consentsMap.get("collect")).put("val", "n");
+	}
+
+	@Test
+	public void test_ConsentsCreation_FromAsXDMMap() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		Consents recreatedConsents = new Consents(consents.asXDMMap());
+
+		// verify
+		assertEquals(consents, recreatedConsents);
+	}
+
 	// ========================================================================================
-	// Test method : setTimestamp
+	// Test method : withTimestamp
 	// ========================================================================================
 	@Test
 	public void test_setTimeStamp() {
@@ -227,7 +382,7 @@ public class ConsentsTest {
 		// test
 		long currentTimestamp = System.currentTimeMillis();
 		String iso8601DateString = DateUtility.dateToISO8601String(new Date(currentTimestamp));
-		consents.setTimestamp(currentTimestamp);
+		consents = consents.withTimestamp(currentTimestamp);
 
 		// verify
 		assertEquals(iso8601DateString, ConsentTestUtil.readTimestamp(consents));
@@ -239,12 +394,26 @@ public class ConsentsTest {
 		Consents consents = new Consents(new HashMap<String, Object>());
 
 		// test
-		consents.setTimestamp(System.currentTimeMillis());
+		consents = consents.withTimestamp(System.currentTimeMillis());
 
 		// verify
 		assertNull(ConsentTestUtil.readTimestamp(consents));
 	}
 
+	@Test
+	public void test_withTimeStamp_DoesNotModifyOriginalConsents() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("n", null, SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		Consents updatedConsents = consents.withTimestamp(System.currentTimeMillis());
+
+		// verify
+		assertEquals(SAMPLE_METADATA_TIMESTAMP, ConsentTestUtil.readTimestamp(consents));
+		assertFalse(SAMPLE_METADATA_TIMESTAMP.equals(ConsentTestUtil.readTimestamp(updatedConsents)));
+		assertEquals("n", ConsentTestUtil.readCollectConsent(updatedConsents));
+	}
+
 	// ========================================================================================
 	// Test method : isEqual
 	// ========================================================================================
@@ -311,7 +480,7 @@ public class ConsentsTest {
 		assertTrue(consents.equalsIgnoreTimestamp(consents));
 
 		Consents consentWithTimestamp = new Consents(CreateConsentXDMMap("n"));
-		consentWithTimestamp.setTimestamp(1616985318);
+		consentWithTimestamp = consentWithTimestamp.withTimestamp(1616985318);
 		assertTrue(consents.equalsIgnoreTimestamp(consents));
 	}
 
@@ -338,8 +507,8 @@ public class ConsentsTest {
 		assertTrue(second.equals(first));
 
 		// compare after setting timestamp
-		first.setTimestamp(1616985318);
-		second.setTimestamp(1616985318);
+		first = first.withTimestamp(1616985318);
+		second = second.withTimestamp(1616985318);
 
 		assertTrue(first.equalsIgnoreTimestamp(second));
 		assertTrue(second.equalsIgnoreTimestamp(first));
@@ -351,8 +520,8 @@ public class ConsentsTest {
 		Consents second = new Consents(CreateConsentXDMMap("y"));
 		Consents third = new Consents(CreateConsentXDMMap("y"));
 
-		first.setTimestamp(1616985318);
-		second.setTimestamp(1616985319);
+		first = first.withTimestamp(1616985318);
+		second = second.withTimestamp(1616985319);
 
 		// compare first and second
 		assertTrue(first.equalsIgnoreTimestamp(second));
@@ -368,8 +537,8 @@ public class ConsentsTest {
 		Consents first = new Consents(CreateConsentXDMMap("n"));
 		Consents second = new Consents(CreateConsentXDMMap("y"));
 
-		first.setTimestamp(1616985318);
-		second.setTimestamp(1616985318);
+		first = first.withTimestamp(1616985318);
+		second = second.withTimestamp(1616985318);
 
 		assertFalse(first.equalsIgnoreTimestamp(second));
 		assertFalse(second.equalsIgnoreTimestamp(first));
@@ -380,10 +549,181 @@ public class ConsentsTest {
 		Consents first = new Consents(CreateConsentXDMMap("n"));
 		Consents second = new Consents(CreateConsentXDMMap("y"));
 
-		first.setTimestamp(1616985318);
-		second.setTimestamp(1616985320);
+		first = first.withTimestamp(1616985318);
+		second = second.withTimestamp(1616985320);
+
+		assertFalse(first.equalsIgnoreTimestamp(second));
+		assertFalse(second.equalsIgnoreTimestamp(first));
+	}
+
+	// ========================================================================================
+	// Test method : hasSameTimestamp
+	// ========================================================================================
+	@Test
+	public void test_hasSameTimestamp_SameInstantDifferentFormat() {
+		Consents first = new Consents(CreateConsentXDMMap("y", null, "2019-09-23T18:15:45Z"));
+		Consents second = new Consents(CreateConsentXDMMap("n", null, "2019-09-23T18:15:45.000Z"));
+
+		assertTrue(first.hasSameTimestamp(second));
+		assertTrue(second.hasSameTimestamp(first));
+	}
+
+	@Test
+	public void test_hasSameTimestamp_DifferentTimestamp() {
+		Consents first = new Consents(CreateConsentXDMMap("y")).withTimestamp(1616985318);
+		Consents second = new Consents(CreateConsentXDMMap("y")).withTimestamp(1616985319);
+
+		assertFalse(first.hasSameTimestamp(second));
+		assertFalse(second.hasSameTimestamp(first));
+	}
+
+	@Test
+	public void test_hasSameTimestamp_WhenTimestampMissing() {
+		Consents withTimestamp = new Consents(CreateConsentXDMMap("y")).withTimestamp(1616985318);
+		Consents withoutTimestamp = new Consents(CreateConsentXDMMap("y"));
+
+		assertFalse(withTimestamp.hasSameTimestamp(withoutTimestamp));
+		assertFalse(withoutTimestamp.hasSameTimestamp(withTimestamp));
+		assertFalse(withTimestamp.hasSameTimestamp(null));
+		assertTrue(withoutTimestamp.hasSameTimestamp(new Consents(CreateConsentXDMMap("n"))));
+	}
+
+	@Test
+	public void test_hasSameTimestamp_WhenTimestampNotParsable_ComparesStrings() {
+		Consents first = new Consents(CreateConsentXDMMap("y", null, "2019-09-23T18:15:45+00:00"));
+		Consents second = new Consents(CreateConsentXDMMap("y", null, "2019-09-23T18:15:45+00:00"));
+		Consents third = new Consents(CreateConsentXDMMap("y", null, "2019-09-23T18:15:45Z"));
+
+		assertTrue(first.hasSameTimestamp(second));
+		assertFalse(first.hasSameTimestamp(third));
+	}
+
+	// ========================================================================================
+	// Test method : hashCode
+	// ========================================================================================
+	@Test
+	public void test_hashCode_MatchesConsentsMapHashCode() {
+		Map<String, Object> xdmMap = CreateConsentXDMMap("y", "n", "y", SAMPLE_METADATA_TIMESTAMP);
+		Consents consents = new Consents(xdmMap);
+
+		assertEquals(xdmMap.get("consents").hashCode(), consents.hashCode());
+		assertEquals(0, new Consents(new HashMap<String, Object>()).hashCode());
+		assertEquals(consents.hashCode(), new Consents(consents).hashCode());
+	}
+
+	@Test
+	public void test_hashCode_AfterMerge_MatchesNewConsents() {
+		Consents base = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+
+		Consents update = new Consents(CreateConsentXDMMap("n", null, "y", SAMPLE_METADATA_TIMESTAMP_OTHER));
+
+		Consents merged = base.merge(update);
+		Consents expected = new Consents(CreateConsentXDMMap("n", "n", "y", SAMPLE_METADATA_TIMESTAMP_OTHER));
+
+		assertEquals(expected, merged);
+		assertEquals(expected.hashCode(), merged.hashCode());
+		assertTrue(merged.equalsIgnoreTimestamp(new Consents(CreateConsentXDMMap("n", "n", "y", null))));
+	}
+
+	@Test
+	public void test_hashCode_AfterWithTimestamp_MatchesNewConsents() {
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n")).withTimestamp(1616985318000L);
+		Consents expected = new Consents(
+			CreateConsentXDMMap("y", "n", DateUtility.epochMillisToISO8601String(1616985318000L))
+		);
+
+		assertEquals(expected, consents);
+		assertEquals(expected.hashCode(), consents.hashCode());
+		assertTrue(consents.withTimestamp(1616985319000L).equalsIgnoreTimestamp(expected));
+	}
+
+	@Test
+	public void test_equalsIgnoreTimestamp_MetadataWithOtherKeys() {
+		Map<String, Object> first = CreateConsentXDMMap("y", null, SAMPLE_METADATA_TIMESTAMP);
+		Map<String, Object> second = CreateConsentXDMMap("y", null, SAMPLE_METADATA_TIMESTAMP_OTHER);
+		Map<String, Object> third = CreateConsentXDMMap("y");
+		((Map<String, Object>) ((Map<String, Object>) first.get("consents")).get("metadata")).put("key", "value");
+		((Map<String, Object>) ((Map<String, Object>) second.get("consents")).get("metadata")).put("key", "value");
+
+		assertTrue(new Consents(first).equalsIgnoreTimestamp(new Consents(second)));
+		assertFalse(new Consents(first).equalsIgnoreTimestamp(new Consents(third)));
+		assertFalse(new Consents(first).equals(new Consents(second)));
+	}
+
+	@Test
+	public void test_equalsIgnoreTimestamp_EmptyMetadata_DiffersFromNoMetadata() {
+		// setup
+		Map<String, Object> withEmptyMetadata = CreateConsentXDMMap("y");
+		((Map<String, Object>) withEmptyMetadata.get("consents")).put("metadata", new HashMap<String, Object>());
+		Consents first = new Consents(withEmptyMetadata);
+		Consents second = new Consents(CreateConsentXDMMap("y"));
+
+		// verify
+		assertFalse(first.equalsIgnoreTimestamp(second));
+		assertFalse(second.equalsIgnoreTimestamp(first));
+		assertFalse(ConsentsDiff.isUnchanged(first, second));
+	}
+
+	@Test
+	public void test_equalsIgnoreTimestamp_TimestampOnlyMetadata_SameAsNoMetadata() {
+		// setup
+		Consents first = new Consents(CreateConsentXDMMap("y", null, SAMPLE_METADATA_TIMESTAMP));
+		Consents second = new Consents(CreateConsentXDMMap("y"));
+
+		// verify
+		assertTrue(first.equalsIgnoreTimestamp(second));
+		assertTrue(second.equalsIgnoreTimestamp(first));
+		assertFalse(first.equals(second));
+	}
 
+	@Test
+	public void test_equalsIgnoreTimestamp_EmptyMetadata_DiffersFromTimestampOnlyMetadata() {
+		// setup
+		Map<String, Object> withEmptyMetadata = CreateConsentXDMMap("y");
+		((Map<String, Object>) withEmptyMetadata.get("consents")).put("metadata", new HashMap<String, Object>());
+		Consents first = new Consents(withEmptyMetadata);
+		Consents second = new Consents(CreateConsentXDMMap("y", null, SAMPLE_METADATA_TIMESTAMP));
+
+		// verify
 		assertFalse(first.equalsIgnoreTimestamp(second));
 		assertFalse(second.equalsIgnoreTimestamp(first));
 	}
+
+	// ========================================================================================
+	// Test method : withEntries
+	// ========================================================================================
+
+	@Test
+	public void test_withEntries_ReplacesAndRemovesTopLevelConsents() {
+		// setup
+		Consents base = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+		Map<String, Object> changedEntries = new HashMap<>();
+		changedEntries.put("collect", Collections.singletonMap("val", "n"));
+
+		// test
+		Consents updated = base.withEntries(changedEntries, Arrays.asList("adID", "unknown"));
+
+		// verify
+		Consents expected = new Consents(CreateConsentXDMMap("n", null, SAMPLE_METADATA_TIMESTAMP));
+		assertEquals(expected, updated);
+		assertEquals(expected.hashCode(), updated.hashCode());
+		assertTrue(updated.equalsIgnoreTimestamp(new Consents(CreateConsentXDMMap("n"))));
+		assertEquals(new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP)), base);
+	}
+
+	@Test
+	public void test_withEntries_RemovingAllConsents_ReturnsEmptyConsents() {
+		// setup
+		Consents base = new Consents(CreateConsentXDMMap("y", null, SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		Consents updated = base.withEntries(
+			Collections.<String, Object>emptyMap(),
+			Arrays.asList("collect", "metadata")
+		);
+
+		// verify
+		assertTrue(updated.isEmpty());
+		assertEquals(new Consents(new HashMap<String, Object>()).hashCode(), updated.hashCode());
+	}
 }
@@ -13,7 +13,11 @@ package com.adobe.marketing.mobile.edge.consent;
 
 import static junit.framework.TestCase.assertEquals;
 
+import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
 import java.util.TimeZone;
 import org.junit.Test;
 
@@ -42,4 +46,86 @@ public class DateUtilityTest {
 		String serializedDate = DateUtility.dateToISO8601String(null);
 		assertEquals("", serializedDate);
 	}
+
+	@Test
+	public void epochMillisToISO8601String_matchesSimpleDateFormat() {
+		SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+		simpleDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+		Random random = new Random(42);
+		long[] timestamps = { 0L, -1L, 951782400000L, 951868799999L, -11676096000000L, 253402300799999L };
+
+		for (long timestamp : timestamps) {
+			String expected = simpleDateFormat.format(new Date(timestamp));
+			assertEquals(expected, DateUtility.epochMillisToISO8601String(timestamp));
+		}
+
+		for (int i = 0; i < 10000; i++) {
+			long timestamp = -11676096000000L + (long) (random.nextDouble() * 265078396799999L);
+			String expected = simpleDateFormat.format(new Date(timestamp));
+			assertEquals(expected, DateUtility.epochMillisToISO8601String(timestamp));
+		}
+	}
+
+	@Test
+	public void epochMillisToISO8601String_outOfFastRange_usesSimpleDateFormat() {
+		SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+		simpleDateFormat.setTimeZone(TimeZone.getTimeZone("GMT"));
+
+		assertEquals(
+			simpleDateFormat.format(new Date(-11676096000001L)),
+			DateUtility.epochMillisToISO8601String(-11676096000001L)
+		);
+		assertEquals(
+			simpleDateFormat.format(new Date(253402300800000L)),
+			DateUtility.epochMillisToISO8601String(253402300800000L)
+		);
+	}
+
+	@Test
+	public void iso8601StringToEpochMillis_roundTrips() {
+		Random random = new Random(42);
+
+		for (int i = 0; i < 10000; i++) {
+			long timestamp = -11676096000000L + (long) (random.nextDouble() * 265078396799999L);
+			assertEquals(
+				timestamp,
+				DateUtility.iso8601StringToEpochMillis(DateUtility.epochMillisToISO8601String(timestamp))
+			);
+		}
+	}
+
+	@Test
+	public void iso8601StringToEpochMillis_onValidStrings_returnsEpochMillis() {
+		assertEquals(1569262545301L, DateUtility.iso8601StringToEpochMillis("2019-09-23T18:15:45.301Z"));
+		assertEquals(1569262545000L, DateUtility.iso8601StringToEpochMillis("2019-09-23T18:15:45Z"));
+		assertEquals(1569262545300L, DateUtility.iso8601StringToEpochMillis("2019-09-23T18:15:45.3Z"));
+		assertEquals(1569262545301L, DateUtility.iso8601StringToEpochMillis("2019-09-23T18:15:45.301999Z"));
+		assertEquals(951782400000L, DateUtility.iso8601StringToEpochMillis("2000-02-29T00:00:00.000Z"));
+	}
+
+	@Test
+	public void iso8601StringToEpochMillis_onInvalidStrings_returnsInvalidTimestamp() {
+		String[] invalidStrings = {
+			null,
+			"",
+			"2019-09-23",
+			"2019-09-23T18:15:45.301",
+			"2019-09-23T18:15:45.301+00:00",
+			"2019-09-23 18:15:45.301Z",
+			"2019-13-23T18:15:45.301Z",
+			"2019-02-29T18:15:45.301Z",
+			"2019-09-23T24:15:45.301Z",
+			"2019-09-23T18:60:45.301Z",
+			"2019-09-23T18:15:60.301Z",
+			"2019-09-23T18:15:45.Z",
+			"2019-09-23T18:15:45.3a1Z",
+			"2019-09-23T18:15:45.3011111111Z",
+			"20a9-09-23T18:15:45.301Z",
+			"1500-09-23T18:15:45.301Z",
+		};
+
+		for (String invalidString : invalidStrings) {
+			assertEquals(DateUtility.INVALID_TIMESTAMP, DateUtility.iso8601StringToEpochMillis(invalidString));
+		}
+	}
 }
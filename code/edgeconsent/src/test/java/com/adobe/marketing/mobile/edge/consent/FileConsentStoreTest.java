@@ -0,0 +1,162 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.MobileCore;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ MobileCore.class })
+public class FileConsentStoreTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File file;
+	private FileConsentStore store;
+
+	@Before
+	public void before() throws IOException {
+		PowerMockito.mockStatic(MobileCore.class);
+		file = new File(temporaryFolder.newFolder(), "consents");
+		store = new FileConsentStore(file);
+	}
+
+	// ========================================================================================
+	// Test method : save, load
+	// ========================================================================================
+
+	@Test
+	public void test_saveAndLoad() throws Exception {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", "y", SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		assertTrue(store.save(consents));
+
+		// verify
+		assertArrayEquals(ConsentBinaryFormat.encode(consents), readFile(file));
+		assertFalse(new File(file.getPath() + ".tmp").exists());
+		assertEquals(consents, store.load());
+		assertEquals(consents, new FileConsentStore(file).load());
+	}
+
+	@Test
+	public void test_save_replacesPreviousConsents() {
+		// test
+		store.save(new Consents(CreateConsentXDMMap("y", "y")));
+		store.save(new Consents(CreateConsentXDMMap("n")));
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), store.load());
+	}
+
+	@Test
+	public void test_save_emptyConsents_deletesFile() {
+		// setup
+		store.save(new Consents(CreateConsentXDMMap("y")));
+
+		// test
+		assertTrue(store.save(new Consents(new HashMap<String, Object>())));
+
+		// verify
+		assertFalse(file.exists());
+		assertNull(store.load());
+	}
+
+	@Test
+	public void test_save_whenDirectoryMissing_returnsFalse() {
+		// setup
+		FileConsentStore missingDirectoryStore = new FileConsentStore(new File(file, "missing/consents"));
+
+		// test & verify
+		assertFalse(missingDirectoryStore.save(new Consents(CreateConsentXDMMap("y"))));
+		assertNull(missingDirectoryStore.load());
+	}
+
+	@Test
+	public void test_load_whenFileMissing_returnsNull() {
+		assertNull(store.load());
+	}
+
+	@Test
+	public void test_load_whenFileCorrupted_returnsNull() throws Exception {
+		// setup
+		store.save(new Consents(CreateConsentXDMMap("y")));
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		randomAccessFile.setLength(randomAccessFile.length() - 1);
+		randomAccessFile.close();
+
+		// test & verify
+		assertNull(store.load());
+	}
+
+	@Test
+	public void test_load_whenFileTooLarge_returnsNull() throws Exception {
+		// setup
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		randomAccessFile.setLength(ConsentConstants.MAX_CONSENTS_FILE_SIZE + 1);
+		randomAccessFile.close();
+
+		// test & verify
+		assertNull(store.load());
+	}
+
+	// ========================================================================================
+	// Test method : clear
+	// ========================================================================================
+
+	@Test
+	public void test_clear() throws Exception {
+		// setup
+		FileOutputStream outputStream = new FileOutputStream(file);
+		outputStream.write(new byte[] { 1, 2, 3 });
+		outputStream.close();
+
+		// test & verify
+		assertTrue(store.clear());
+		assertFalse(file.exists());
+		assertTrue(store.clear());
+	}
+
+	private static byte[] readFile(final File file) throws IOException {
+		final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+		try {
+			final byte[] data = new byte[(int) randomAccessFile.length()];
+			randomAccessFile.readFully(data);
+			return data;
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+}
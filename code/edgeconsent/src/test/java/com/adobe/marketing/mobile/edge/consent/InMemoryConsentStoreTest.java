@@ -0,0 +1,74 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import org.junit.Test;
+
+public class InMemoryConsentStoreTest {
+
+	private final InMemoryConsentStore store = new InMemoryConsentStore();
+
+	// ========================================================================================
+	// Test method : save, load, clear
+	// ========================================================================================
+
+	@Test
+	public void test_saveAndLoad() {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+
+		// test
+		assertTrue(store.save(consents));
+		Consents loadedConsents = store.load();
+
+		// verify
+		assertEquals(consents, loadedConsents);
+		assertNotSame(consents, loadedConsents);
+	}
+
+	@Test
+	public void test_load_whenEmpty_returnsNull() {
+		assertNull(store.load());
+	}
+
+	@Test
+	public void test_save_emptyConsents_clearsStore() {
+		// setup
+		store.save(new Consents(CreateConsentXDMMap("y")));
+
+		// test
+		store.save(new Consents(new HashMap<String, Object>()));
+
+		// verify
+		assertNull(store.load());
+	}
+
+	@Test
+	public void test_clear() {
+		// setup
+		store.save(new Consents(CreateConsentXDMMap("y")));
+
+		// test
+		assertTrue(store.clear());
+
+		// verify
+		assertNull(store.load());
+	}
+}
@@ -0,0 +1,316 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.adobe.marketing.mobile.MobileCore;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({ MobileCore.class })
+public class JournaledConsentStoreTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File file;
+	private File journalFile;
+	private JournaledConsentStore store;
+
+	@Before
+	public void before() throws IOException {
+		PowerMockito.mockStatic(MobileCore.class);
+		file = new File(temporaryFolder.newFolder(), "consents");
+		journalFile = new File(file.getPath() + ".journal");
+		store = new JournaledConsentStore(file);
+	}
+
+	// ========================================================================================
+	// Test method : save, load
+	// ========================================================================================
+
+	@Test
+	public void test_save_journalDisabled_writesSnapshot() throws Exception {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y", "n", "y", SAMPLE_METADATA_TIMESTAMP));
+		store.save(new Consents(CreateConsentXDMMap("n")));
+		store.load();
+
+		// test
+		assertTrue(store.save(consents));
+
+		// verify
+		assertArrayEquals(ConsentBinaryFormat.encode(consents), readFile(file));
+		assertFalse(journalFile.exists());
+		assertEquals(consents, new FileConsentStore(file).load());
+		assertEquals(consents, new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_save_journalEnabled_appendsChangesToJournal() throws Exception {
+		// setup
+		Consents snapshot = new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP));
+		store.setJournalEnabled(true);
+		store.save(snapshot);
+		byte[] snapshotData = readFile(file);
+
+		// test
+		Consents updated = snapshot.merge(new Consents(CreateConsentXDMMap("n")));
+		assertTrue(store.save(updated));
+
+		// verify
+		assertArrayEquals(snapshotData, readFile(file));
+		assertTrue(journalFile.exists());
+		assertEquals(updated, new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_save_journalEnabled_firstSaveWithoutLoad_writesSnapshot() throws Exception {
+		// setup
+		Consents consents = new Consents(CreateConsentXDMMap("y"));
+		new FileConsentStore(file).save(new Consents(CreateConsentXDMMap("n")));
+		store.setJournalEnabled(true);
+
+		// test
+		assertTrue(store.save(consents));
+
+		// verify
+		assertArrayEquals(ConsentBinaryFormat.encode(consents), readFile(file));
+		assertFalse(journalFile.exists());
+	}
+
+	@Test
+	public void test_save_journalEnabled_afterLoad_appendsToJournal() throws Exception {
+		// setup
+		new FileConsentStore(file).save(new Consents(CreateConsentXDMMap("n")));
+		store.setJournalEnabled(true);
+		store.load();
+
+		// test
+		assertTrue(store.save(new Consents(CreateConsentXDMMap("y"))));
+
+		// verify
+		assertTrue(journalFile.exists());
+		assertEquals(new Consents(CreateConsentXDMMap("n")), new FileConsentStore(file).load());
+		assertEquals(new Consents(CreateConsentXDMMap("y")), new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_save_journalEnabled_recordsRemovedConsents() {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y", "n", SAMPLE_METADATA_TIMESTAMP)));
+
+		// test
+		store.save(new Consents(CreateConsentXDMMap("n")));
+
+		// verify
+		assertTrue(journalFile.exists());
+		assertEquals(new Consents(CreateConsentXDMMap("n")), new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_save_journalEnabled_unchangedConsents_doesNotAppend() {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y")));
+
+		// test
+		assertTrue(store.save(new Consents(CreateConsentXDMMap("y"))));
+
+		// verify
+		assertFalse(journalFile.exists());
+	}
+
+	@Test
+	public void test_save_journalEnabled_compactsFullJournal() throws Exception {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y", "y", "y", SAMPLE_METADATA_TIMESTAMP)));
+		Consents last = null;
+
+		// test
+		for (int i = 0; i <= JournaledConsentStore.MAX_JOURNAL_RECORDS; i++) {
+			last = new Consents(CreateConsentXDMMap("y", "y", "y", "2021-01-01T00:00:" + (10 + i) + "Z"));
+			assertTrue(store.save(last));
+		}
+
+		// verify
+		assertFalse(journalFile.exists());
+		assertArrayEquals(ConsentBinaryFormat.encode(last), readFile(file));
+		assertEquals(last, new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_save_journalDisabled_removesJournal() {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y")));
+		store.save(new Consents(CreateConsentXDMMap("n")));
+		assertTrue(journalFile.exists());
+
+		// test
+		store.setJournalEnabled(false);
+		store.save(new Consents(CreateConsentXDMMap("n", "y")));
+
+		// verify
+		assertFalse(journalFile.exists());
+		assertEquals(new Consents(CreateConsentXDMMap("n", "y")), new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_save_emptyConsents_deletesFiles() {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y")));
+		store.save(new Consents(CreateConsentXDMMap("n")));
+
+		// test
+		assertTrue(store.save(new Consents(new HashMap<String, Object>())));
+
+		// verify
+		assertFalse(file.exists());
+		assertFalse(journalFile.exists());
+		assertNull(store.load());
+	}
+
+	@Test
+	public void test_load_incompleteRecord_recoversLastCompleteRecord() throws Exception {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y")));
+		store.save(new Consents(CreateConsentXDMMap("n")));
+		long completeLength = journalFile.length();
+		store.save(new Consents(CreateConsentXDMMap("n", "n")));
+		truncate(journalFile, journalFile.length() - 3);
+
+		// test
+		JournaledConsentStore reloadedStore = new JournaledConsentStore(file);
+		reloadedStore.setJournalEnabled(true);
+
+		// verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), reloadedStore.load());
+
+		// the incomplete record is overwritten by the next append
+		assertTrue(reloadedStore.save(new Consents(CreateConsentXDMMap("y", "y"))));
+		assertTrue(journalFile.length() > completeLength);
+		assertEquals(new Consents(CreateConsentXDMMap("y", "y")), new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_load_corruptedRecord_stopsReplay() throws Exception {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y")));
+		store.save(new Consents(CreateConsentXDMMap("n")));
+		long firstRecordEnd = journalFile.length();
+		store.save(new Consents(CreateConsentXDMMap("n", "n")));
+		RandomAccessFile randomAccessFile = new RandomAccessFile(journalFile, "rw");
+		randomAccessFile.seek(firstRecordEnd + 6);
+		randomAccessFile.write(0x7F);
+		randomAccessFile.close();
+
+		// test & verify
+		assertEquals(new Consents(CreateConsentXDMMap("n")), new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_load_journalOfAnotherSnapshot_isIgnored() {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y")));
+		store.save(new Consents(CreateConsentXDMMap("n")));
+
+		// test
+		new FileConsentStore(file).save(new Consents(CreateConsentXDMMap("y", "y")));
+
+		// verify
+		assertTrue(journalFile.exists());
+		assertEquals(new Consents(CreateConsentXDMMap("y", "y")), new JournaledConsentStore(file).load());
+	}
+
+	@Test
+	public void test_load_whenSnapshotMissing_returnsNull() throws Exception {
+		// setup
+		FileOutputStream outputStream = new FileOutputStream(journalFile);
+		outputStream.write(new byte[] { 'A', 'E', 'C', 'J', 1, 0, 0, 0, 0 });
+		outputStream.close();
+
+		// test & verify
+		assertNull(store.load());
+	}
+
+	@Test
+	public void test_load_whenSnapshotCorrupted_returnsNull() throws Exception {
+		// setup
+		store.save(new Consents(CreateConsentXDMMap("y")));
+		truncate(file, file.length() - 1);
+
+		// test & verify
+		assertNull(store.load());
+	}
+
+	// ========================================================================================
+	// Test method : clear
+	// ========================================================================================
+
+	@Test
+	public void test_clear() {
+		// setup
+		store.setJournalEnabled(true);
+		store.save(new Consents(CreateConsentXDMMap("y")));
+		store.save(new Consents(CreateConsentXDMMap("n")));
+
+		// test & verify
+		assertTrue(store.clear());
+		assertFalse(file.exists());
+		assertFalse(journalFile.exists());
+		assertTrue(store.clear());
+	}
+
+	private static void truncate(final File file, final long length) throws IOException {
+		final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+		randomAccessFile.setLength(length);
+		randomAccessFile.close();
+	}
+
+	private static byte[] readFile(final File file) throws IOException {
+		final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+
+		try {
+			final byte[] data = new byte[(int) randomAccessFile.length()];
+			randomAccessFile.readFully(data);
+			return data;
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+}
@@ -11,6 +11,7 @@
 
 package com.adobe.marketing.mobile.edge.consent;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
@@ -63,6 +64,29 @@ public class ListenerConsentUpdateConsentTest {
 		verify(mockConsentExtension, times(1)).handleConsentUpdate(event);
 	}
 
+	@Test
+	public void testHear_WithTraceSink_RecordsHearSpan() {
+		// setup
+		Event event = new Event.Builder(
+			"Edge consent preference response event",
+			ConsentConstants.EventType.EDGE,
+			ConsentConstants.EventSource.CONSENT_PREFERENCE
+		)
+			.build();
+		doReturn(mockConsentExtension).when(listener).getConsentExtension();
+		ConsentTraceRingBuffer traceBuffer = new ConsentTraceRingBuffer(4);
+		Consent.setTraceSink(traceBuffer);
+
+		// test
+		listener.hear(event);
+		Consent.setTraceSink(null);
+
+		// verify
+		assertEquals(1, traceBuffer.getSpans().size());
+		assertEquals(ConsentTraceSpan.HEAR, traceBuffer.getSpans().get(0).getName());
+		assertEquals(event.getUniqueIdentifier(), traceBuffer.getSpans().get(0).getEventId());
+	}
+
 	@Test
 	public void testHear_WhenParentExtensionNull() {
 		// setup
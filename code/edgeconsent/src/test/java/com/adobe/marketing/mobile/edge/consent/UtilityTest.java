@@ -0,0 +1,241 @@
+/*
+  Copyright 2021 Adobe. All rights reserved.
+  This file is licensed to you under the Apache License, Version 2.0 (the "License");
+  you may not use this file except in compliance with the License. You may obtain a copy
+  of the License at http://www.apache.org/licenses/LICENSE-2.0
+  Unless required by applicable law or agreed to in writing, software distributed under
+  the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR REPRESENTATIONS
+  OF ANY KIND, either express or implied. See the License for the specific language
+  governing permissions and limitations under the License.
+*/
+
+package com.adobe.marketing.mobile.edge.consent;
+
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.CreateConsentXDMMap;
+import static com.adobe.marketing.mobile.edge.consent.ConsentTestUtil.SAMPLE_METADATA_TIMESTAMP;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+public class UtilityTest {
+
+	// ========================================================================================
+	// Test method : deepCopy
+	// ========================================================================================
+	@Test
+	public void test_deepCopy_nullMap() {
+		assertNull(Utility.deepCopy(null));
+	}
+
+	@Test
+	public void test_deepCopy_consentMap() {
+		// setup
+		Map<String, Object> consentData = CreateConsentXDMMap("y", "n", "vi", SAMPLE_METADATA_TIMESTAMP);
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(consentData);
+
+		// verify
+		assertEquals(consentData, copy);
+		assertNotSame(consentData, copy);
+		assertNotSame(consentData.get("consents"), copy.get("consents"));
+	}
+
+	@Test
+	public void test_deepCopy_modifyingCopyDoesNotAffectSource() {
+		// setup
+		Map<String, Object> consentData = CreateConsentXDMMap("y");
+		Map<String, Object> copy = Utility.deepCopy(consentData);
+
+		// test
+		Map<String, Object> copiedConsents = (Map<String, Object>) copy.get("consents");
+		((Map<String, Object>) copiedConsents.get("collect")).put("val", "n");
+		copiedConsents.put("adID", new HashMap<String, Object>());
+
+		// verify
+		assertEquals(CreateConsentXDMMap("y"), consentData);
+	}
+
+	@Test
+	public void test_deepCopy_preservesNumericTypes() {
+		// setup
+		Map<String, Object> map = new HashMap<>();
+		map.put("int", 1);
+		map.put("long", 1L);
+		map.put("float", 1.5f);
+		map.put("double", 1.5d);
+		map.put("short", (short) 1);
+		map.put("bigDecimal", new BigDecimal("1.10"));
+		map.put("bool", true);
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(map);
+
+		// verify
+		assertEquals(map, copy);
+		assertTrue(copy.get("long") instanceof Long);
+		assertTrue(copy.get("float") instanceof Float);
+		assertTrue(copy.get("short") instanceof Short);
+		assertEquals(new BigDecimal("1.10"), copy.get("bigDecimal"));
+	}
+
+	@Test
+	public void test_deepCopy_copiesListsAndArrays() {
+		// setup
+		Map<String, Object> nested = new HashMap<>();
+		nested.put("val", "y");
+		List<Object> list = new ArrayList<>();
+		list.add(nested);
+		list.add("value");
+		Map<String, Object> map = new HashMap<>();
+		map.put("list", list);
+		map.put("array", new Object[] { "a", 2 });
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(map);
+
+		// verify
+		assertEquals(list, copy.get("list"));
+		assertNotSame(list, copy.get("list"));
+		assertNotSame(nested, ((List<Object>) copy.get("list")).get(0));
+		assertEquals(Arrays.<Object>asList("a", 2), copy.get("array"));
+	}
+
+	@Test
+	public void test_deepCopy_sharesImmutableValues() {
+		// setup
+		String value = new String("value");
+		Map<String, Object> map = new HashMap<>();
+		map.put("key", value);
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(map);
+
+		// verify
+		assertSame(value, copy.get("key"));
+	}
+
+	@Test
+	public void test_deepCopy_internsKnownStrings() {
+		// setup
+		Map<String, Object> collect = new HashMap<>();
+		collect.put(new String("val"), new String("y"));
+		Map<String, Object> map = new HashMap<>();
+		map.put(new String("collect"), collect);
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(map);
+
+		// verify
+		assertSame(ConsentInterner.intern("collect"), copy.keySet().iterator().next());
+		Map<String, Object> copiedCollect = (Map<String, Object>) copy.get("collect");
+		assertSame(ConsentInterner.intern("val"), copiedCollect.keySet().iterator().next());
+		assertSame(ConsentInterner.intern("y"), copiedCollect.get("val"));
+	}
+
+	@Test
+	public void test_deepCopy_usesCompactMapsForSmallMaps() {
+		// setup
+		Map<String, Object> consentData = CreateConsentXDMMap("y", "n", "vi", SAMPLE_METADATA_TIMESTAMP);
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(consentData);
+
+		// verify
+		Map<String, Object> consents = (Map<String, Object>) copy.get("consents");
+		assertTrue(copy instanceof CompactMap);
+		assertTrue(consents instanceof CompactMap);
+		assertTrue(consents.get("collect") instanceof CompactMap);
+		assertEquals(consentData, copy);
+	}
+
+	@Test
+	public void test_deepCopy_skipsNullAndUnsupportedValues() {
+		// setup
+		Map<String, Object> map = new HashMap<>();
+		map.put("null", null);
+		map.put("object", new Object());
+		map.put("valid", "y");
+		List<Object> list = new ArrayList<>();
+		list.add(null);
+		list.add(new Object());
+		list.add("y");
+		map.put("list", list);
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(map);
+
+		// verify
+		assertEquals(2, copy.size());
+		assertEquals("y", copy.get("valid"));
+		assertEquals(Arrays.<Object>asList("y"), copy.get("list"));
+	}
+
+	@Test
+	public void test_deepCopy_skipsNonStringKeys() {
+		// setup
+		Map<Object, Object> map = new HashMap<>();
+		map.put(null, "nullKey");
+		map.put(1, "intKey");
+		map.put("key", "value");
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy((Map) map);
+
+		// verify
+		assertEquals(1, copy.size());
+		assertEquals("value", copy.get("key"));
+	}
+
+	@Test
+	public void test_deepCopy_skipsCycles() {
+		// setup
+		Map<String, Object> map = new HashMap<>();
+		Map<String, Object> child = new HashMap<>();
+		List<Object> list = new ArrayList<>();
+		map.put("child", child);
+		map.put("list", list);
+		child.put("parent", map);
+		child.put("val", "y");
+		list.add(list);
+		list.add("n");
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(map);
+
+		// verify
+		Map<String, Object> copiedChild = (Map<String, Object>) copy.get("child");
+		assertEquals(1, copiedChild.size());
+		assertEquals("y", copiedChild.get("val"));
+		assertFalse(copiedChild.containsKey("parent"));
+		assertEquals(Arrays.<Object>asList("n"), copy.get("list"));
+	}
+
+	@Test
+	public void test_deepCopy_sharedSubtreeIsNotACycle() {
+		// setup
+		Map<String, Object> shared = new HashMap<>();
+		shared.put("val", "y");
+		Map<String, Object> map = new HashMap<>();
+		map.put("collect", shared);
+		map.put("adID", shared);
+
+		// test
+		Map<String, Object> copy = Utility.deepCopy(map);
+
+		// verify
+		assertEquals(shared, copy.get("collect"));
+		assertEquals(shared, copy.get("adID"));
+	}
+}